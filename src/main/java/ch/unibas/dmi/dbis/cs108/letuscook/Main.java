@@ -5,6 +5,7 @@ import ch.unibas.dmi.dbis.cs108.letuscook.cli.ServerCLI;
 import ch.unibas.dmi.dbis.cs108.letuscook.client.Client;
 import ch.unibas.dmi.dbis.cs108.letuscook.gui.ClientGUI;
 import ch.unibas.dmi.dbis.cs108.letuscook.server.Server;
+import ch.unibas.dmi.dbis.cs108.letuscook.server.ServerOptions;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.FatalExceptionHandler;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Messenger;
@@ -16,6 +17,7 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import javafx.application.Application;
 
@@ -37,7 +39,10 @@ public class Main {
 	private static final String USAGE =
 		"""
 			Usage:
-			- server <port>
+			- server <port> [--transport=<blocking|selector>] [--selectors=<count>]
+			    [--threads=<platform|virtual>] [--tick-workers=<count>]
+			    [--rate-realtime=<per second>/<burst>] [--rate-control=<per second>/<burst>]
+			    [--rate-bulk=<per second>/<burst>] [--datagrams=<on|off>]
 			- client <address>:<port> [<nickname>|$]
 			  If "$" is supplied as the nickname, the system name is used.""";
 
@@ -91,8 +96,15 @@ public class Main {
 				Main.printUsageAndDie("Invalid port");
 			}
 
+			ServerOptions options = null;
+			try {
+				options = ServerOptions.fromArguments(Arrays.copyOfRange(args, 2, args.length));
+			} catch (MalformedException e) {
+				Main.printUsageAndDie("Invalid server option (" + e.getMessage() + ")");
+			}
+
 			Messenger.selectLogger("server");
-			new Server(port);
+			new Server(port, options);
 			ServerCLI.awaitAndConsumeActions();
 			return;
 		}
@@ -17,9 +17,7 @@ public class ServerCLI {
 			case "clear" -> Console.clear();
 			case "start" -> Server.the().start();
 			case "stop" -> Server.the().stop();
-			case "inspect" -> {
-				// TODO:
-			}
+			case "inspect" -> Server.the().inspect();
 			case "quit" -> {
 				return false;
 			}
@@ -3,6 +3,7 @@ package ch.unibas.dmi.dbis.cs108.letuscook.client;
 import ch.unibas.dmi.dbis.cs108.letuscook.Main;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.ChatCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.Command;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.DatagramCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.DisappearCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.GameParticipateCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.GameRequestStartCommand;
@@ -20,6 +21,8 @@ import ch.unibas.dmi.dbis.cs108.letuscook.commands.PlayerHoldingCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.PlayerInteractCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.PlayerPositionCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.RefreshCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.ResumeCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.SyncCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.YellCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.gui.ClientGUI;
 import ch.unibas.dmi.dbis.cs108.letuscook.gui.View;
@@ -30,6 +33,7 @@ import ch.unibas.dmi.dbis.cs108.letuscook.orders.State;
 import ch.unibas.dmi.dbis.cs108.letuscook.orders.TransformerWorkbench;
 import ch.unibas.dmi.dbis.cs108.letuscook.orders.Workbench;
 import ch.unibas.dmi.dbis.cs108.letuscook.server.Actor;
+import ch.unibas.dmi.dbis.cs108.letuscook.server.Game;
 import ch.unibas.dmi.dbis.cs108.letuscook.server.Highscores;
 import ch.unibas.dmi.dbis.cs108.letuscook.server.Lobby;
 import ch.unibas.dmi.dbis.cs108.letuscook.server.Member;
@@ -37,14 +41,21 @@ import ch.unibas.dmi.dbis.cs108.letuscook.server.Player;
 import ch.unibas.dmi.dbis.cs108.letuscook.server.Record;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Connection;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Coords;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.DatagramEndpoint;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.DatagramSession;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Frame;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Identifier;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Journal;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Messenger;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.RoundTrips;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.SanitizedName;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Schedule;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.SocketConnection;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Sounds;
 import java.io.IOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -86,6 +97,39 @@ public class Client {
 	 */
 	private Connection connection;
 
+	/**
+	 * Receives the datagrams of {@link #datagram}, or <code>null</code> if there is none.
+	 */
+	private DatagramEndpoint datagrams;
+
+	/**
+	 * Carries positions next to the {@link #connection}, once the server granted it, or
+	 * <code>null</code>.
+	 */
+	private volatile DatagramSession datagram;
+
+	/**
+	 * Periodically pings over {@link #datagram}, so that both sides know datagrams get through.
+	 */
+	private Schedule datagramHeartbeat;
+
+	/**
+	 * The token that lets us resume our session on a new connection, or 0 if we have none. Guarded
+	 * by <code>this</code>.
+	 */
+	private long resumeToken = 0;
+
+	/**
+	 * The number of journaled commands received in this session, see {@link Journal}. Guarded by
+	 * <code>this</code>.
+	 */
+	private long journaled = 0;
+
+	/**
+	 * Whether we asked to resume our session and await the answer. Guarded by <code>this</code>.
+	 */
+	private boolean resuming = false;
+
 	/**
 	 * Our own {@link Identifier}.
 	 */
@@ -165,7 +209,8 @@ public class Client {
 		Messenger.info("Connecting to " + this.getAddressAndPort());
 
 		try {
-			this.connection = new Connection("conn", this.address, this.port, this::consumeCommand);
+			this.connection = new SocketConnection("conn", this.address, this.port,
+				this::consumeCommand);
 		} catch (IOException | SecurityException | NullPointerException e) {
 			Messenger.error(e, "Cannot connect to server - aborting connect()");
 			return;
@@ -176,14 +221,139 @@ public class Client {
 
 		this.startHeartbeat();
 
+		this.logIn();
+	}
+
+	/**
+	 * Log in on a fresh session.
+	 */
+	private synchronized void logIn() {
+		this.resumeToken = 0;
+		this.journaled = 0;
+
 		/*
-		 * Introduce ourselves to the server.
+		 * Introduce ourselves to the server, asking for the binary encoding. The connection
+		 * switches as soon as the server's first binary command arrives.
 		 */
 		try {
-			this.sendCommand(new IntroduceCommand(this.loginNickname.toString()));
+			this.sendCommand(new IntroduceCommand(this.loginNickname.toString(), true));
 		} catch (MalformedException e) {
 			assert false : "loginNickname contained malformed name";
 		}
+
+		/* Ask for a datagram channel for positions. Until granted, they use the connection. */
+		this.sendCommand(new DatagramCommand());
+	}
+
+	/**
+	 * Replace a connection that timed out by a new one, and ask the server to resume our session
+	 * on it, see {@link ResumeCommand}. We keep our state: the server resends what we missed. If
+	 * we cannot reconnect, disconnect for good.
+	 */
+	private synchronized void tryResume() {
+		assert this.resumeToken != 0 : "no resume token";
+
+		Messenger.warn("Connection timed out - reconnecting to " + this.getAddressAndPort());
+
+		Connection fresh;
+		try {
+			fresh = new SocketConnection("conn", this.address, this.port, this::consumeCommand);
+		} catch (IOException | SecurityException | IllegalArgumentException e) {
+			Messenger.error(e, "Cannot reconnect to server - disconnecting");
+			this.tryDisconnect();
+			return;
+		}
+
+		this.closeDatagram();
+		this.connection.destroy();
+		this.connection = fresh;
+
+		try {
+			this.sendCommand(new ResumeCommand(this.resumeToken, this.journaled));
+		} catch (MalformedException e) {
+			assert false : "resume token is 0";
+		}
+		this.resuming = true;
+	}
+
+	/**
+	 * Consume the server's answer about our session: either the token that lets us resume it
+	 * later, or, if resuming it failed, a refusal, upon which we log in afresh.
+	 *
+	 * @param command the command.
+	 */
+	private synchronized void consumeResume(ResumeCommand command) {
+		if (command.isRefusal()) {
+			Messenger.warn("Server cannot resume our session - logging in again");
+			this.resuming = false;
+			this.forgetState();
+			this.logIn();
+			return;
+		}
+
+		this.resumeToken = command.getToken();
+		if (this.resuming) {
+			Messenger.info("Resumed session");
+			this.resuming = false;
+			this.sendCommand(new DatagramCommand());
+		}
+	}
+
+	/**
+	 * Open the datagram channel the server granted, replacing any previous one. On failure,
+	 * positions keep going over the connection.
+	 *
+	 * @param grant the grant.
+	 */
+	private synchronized void openDatagram(DatagramCommand grant) {
+		this.closeDatagram();
+
+		try {
+			this.datagrams = new DatagramEndpoint("datagrams", 0);
+		} catch (IOException | SecurityException e) {
+			Messenger.warn(e, "Cannot open datagram channel - positions go over the connection");
+			return;
+		}
+
+		var datagram = this.datagrams.open(grant.getToken(),
+			new InetSocketAddress(this.address, grant.getPort()), this::consumeDatagram);
+		datagram.ping();
+		this.datagramHeartbeat = Schedule.withFixedDelay(() -> {
+			datagram.ping();
+			return null;
+		}, DatagramSession.PING_INTERVAL_MS, "datagram-heartbeat");
+		this.datagram = datagram;
+	}
+
+	/**
+	 * Close the datagram channel, if any.
+	 */
+	private synchronized void closeDatagram() {
+		if (this.datagrams == null) {
+			return;
+		}
+
+		this.datagram = null;
+		if (this.datagramHeartbeat != null) {
+			this.datagramHeartbeat.stop();
+			this.datagramHeartbeat = null;
+		}
+		this.datagrams.close();
+		this.datagrams = null;
+	}
+
+	/**
+	 * Consume a command received by datagram. Only positions may arrive that way.
+	 *
+	 * @param command the command.
+	 */
+	private void consumeDatagram(Command command) {
+		if (!(command instanceof PlayerPositionCommand)) {
+			Messenger.warn("Ignoring command received by datagram: " + command);
+			return;
+		}
+
+		this.consumeCommand(command);
 	}
 
 	/**
@@ -210,6 +380,14 @@ public class Client {
 		return this.connection;
 	}
 
+	/**
+	 * @return how long pings to the server take to be answered, if connected.
+	 */
+	public Optional<RoundTrips> roundTrips() {
+		Connection connection = this.connection;
+		return connection == null ? Optional.empty() : Optional.of(connection.getRoundTrips());
+	}
+
 	/**
 	 * Send a command to this client's underlying {@link #connection}.
 	 *
@@ -233,9 +411,16 @@ public class Client {
 
 		this.sendCommand(new DisappearCommand());
 
+		synchronized (this) {
+			this.resumeToken = 0;
+			this.resuming = false;
+		}
+
 		this.heartbeat.stop();
 		this.heartbeat = null;
 
+		this.closeDatagram();
+
 		this.connection.destroy();
 		this.connection = null;
 
@@ -259,7 +444,9 @@ public class Client {
 			if (this.hasConnection()) {
 				Connection connection = this.getConnection();
 
-				if (connection.isAwaitingPong()) {
+				if (connection.isAwaitingPong() && this.canResume()) {
+					this.tryResume();
+				} else if (connection.isAwaitingPong()) {
 					Messenger.error("Connection timed out - disconnecting");
 					this.tryDisconnect();
 				} else {
@@ -270,6 +457,13 @@ public class Client {
 		}, Main.PONG_WAIT_MS, "heartbeat");
 	}
 
+	/**
+	 * @return whether we have a session to resume, and aren't already trying to.
+	 */
+	private synchronized boolean canResume() {
+		return this.resumeToken != 0 && !this.resuming;
+	}
+
 	/**
 	 * @return this client's {@link #identifier}.
 	 */
@@ -334,7 +528,7 @@ public class Client {
 		assert this.findActorByIdentifier(identifier).isEmpty() : "actor already known";
 
 		Actor actor = new Actor(identifier);
-		actor.setRecord(new Record(nickname, null));
+		actor.setRecord(new Record(nickname));
 
 		synchronized (this.actors) {
 			this.actors.add(actor);
@@ -487,19 +681,29 @@ public class Client {
 
 	/**
 	 * Consume a command. This method is supplied to
-	 * {@link Connection#Connection(String, InetAddress, int, Consumer)} during
-	 * {@link #tryConnect()}.
+	 * {@link SocketConnection#SocketConnection(String, InetAddress, int, Consumer)} during
+	 * {@link #tryConnect()}. Synchronized, since positions may also arrive by datagram, see
+	 * {@link #consumeDatagram(Command)}.
 	 *
 	 * @param command the command to process.
 	 */
-	private void consumeCommand(Command command) {
+	private synchronized void consumeCommand(Command command) {
 		/*
 		 * These commands can always be consumed.
 		 */
 
+		if (Journal.covers(command)) {
+			++this.journaled;
+		}
+
 		Identifier identifier = command.getSubject();
 		var actorOrEmpty = this.findActorByIdentifier(identifier);
 
+		if (command instanceof ResumeCommand resumeCommand) {
+			this.consumeResume(resumeCommand);
+			return;
+		}
+
 		if (command instanceof HighscoresCommand highscoresCommand) {
 			this.highscores = highscoresCommand.getHighscores();
 			return;
@@ -520,6 +724,11 @@ public class Client {
 			return;
 		}
 
+		if (command instanceof DatagramCommand datagramCommand) {
+			this.openDatagram(datagramCommand);
+			return;
+		}
+
 		if (command instanceof DisappearCommand && identifier.equals(Identifier.NONE)) {
 			this.tryDisconnect();
 			return;
@@ -631,6 +840,15 @@ public class Client {
 			return;
 		}
 
+		if (command instanceof SyncCommand syncCommand) {
+			/* A late announcement after the game ended is of no use anymore. */
+			if (this.hasOwnActor() && this.getOwnActor().member().isPresent()) {
+				this.getOwnActor().member().orElseThrow().getLobby().game()
+					.ifPresent(game -> game.setVersion(syncCommand.getVersion()));
+			}
+			return;
+		}
+
 		/*
 		 * These commands cannot be anonymous and require us to know our own identifier.
 		 */
@@ -843,16 +1061,31 @@ public class Client {
 
 	public void tryMove(Coords coords) {
 		if (this.getOwnActor().member().orElseThrow().player().isPresent()) {
-			this.sendCommand(new PlayerPositionCommand(coords));
+			this.sendPosition(new PlayerPositionCommand(coords));
 		} else {
 			Messenger.error("No coordinates sent cause game is not running");
 		}
 	}
 
+	/**
+	 * Send a position by datagram while datagrams get through, and over the connection otherwise.
+	 *
+	 * @param command the position.
+	 */
+	private void sendPosition(PlayerPositionCommand command) {
+		DatagramSession datagram = this.datagram;
+		if (datagram != null && datagram.isAlive()) {
+			datagram.send(new Frame(command));
+		} else {
+			this.sendCommand(command);
+		}
+	}
+
 	public void tryInteract() {
 		if (this.getOwnActor().member().orElseThrow().player().isPresent()) {
-			this.tryMove(
-				this.getOwnActor().member().orElseThrow().player().orElseThrow().getRect());
+			/* Over the connection, so that the position arrives before the interaction. */
+			this.sendCommand(new PlayerPositionCommand(
+				this.getOwnActor().member().orElseThrow().player().orElseThrow().getRect()));
 			this.sendCommand(new PlayerInteractCommand());
 		} else {
 			Messenger.error("Not interacting cause game is not running");
@@ -953,7 +1186,21 @@ public class Client {
 		View.clearChat();
 	}
 
+	/**
+	 * Ask the server for a refresh. While in a game, name the version of the game state we last
+	 * received, so that we only get what changed since.
+	 */
 	public void tryRefresh() {
-		this.sendCommand(new RefreshCommand());
+		long version = -1;
+		if (this.hasOwnActor() && this.getOwnActor().member().isPresent()) {
+			version = this.getOwnActor().member().orElseThrow().getLobby().game()
+				.map(Game::getVersion).orElse(-1L);
+		}
+
+		try {
+			this.sendCommand(version < 0 ? new RefreshCommand() : new RefreshCommand(version));
+		} catch (MalformedException e) {
+			assert false : "negative version";
+		}
 	}
 }
@@ -1,5 +1,7 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Identifier;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.SanitizedLine;
@@ -12,6 +14,8 @@ public class ChatCommand extends Command {
 
 	public static final String KEYWORD = "SAY";
 
+	public static final int OPCODE = 15;
+
 	private final Identifier recipient;
 
 	private final SanitizedLine message;
@@ -68,6 +72,23 @@ public class ChatCommand extends Command {
 		return new ChatCommand(recipient, recipientAndMessage[1]);
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static ChatCommand fromBinary(BinaryReader reader) throws MalformedException {
+		var recipient = reader.readIdentifier();
+		var message = reader.readString();
+		if (recipient.isNone()) {
+			return new ChatCommand(message);
+		}
+
+		return new ChatCommand(recipient, message);
+	}
+
 	/**
 	 * Gets the chat message associated with this command.
 	 *
@@ -93,6 +114,17 @@ public class ChatCommand extends Command {
 		return !this.recipient.isNone();
 	}
 
+	@Override
+	protected int getOpcode() {
+		return ChatCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		writer.writeIdentifier(this.recipient);
+		writer.writeString(this.getMessage());
+	}
+
 	/**
 	 * @return a textual representation of this command.
 	 */
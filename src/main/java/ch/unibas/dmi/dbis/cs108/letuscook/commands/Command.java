@@ -1,5 +1,7 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Identifier;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.SanitizedLine;
@@ -10,13 +12,87 @@ import ch.unibas.dmi.dbis.cs108.letuscook.util.SanitizedLine;
  */
 public abstract class Command {
 
+	/**
+	 * Every kind of command, by keyword. Searched in place, so the keyword is never copied out of
+	 * the line.
+	 */
+	private static final Registration[] REGISTRATIONS = {
+		/* Most frequent first. */
+		new Registration(PlayerPositionCommand.KEYWORD, PlayerPositionCommand.OPCODE,
+			PlayerPositionCommand::fromArguments, PlayerPositionCommand::fromBinary),
+		new Registration(GameUpdateWorkbenchCommand.KEYWORD, GameUpdateWorkbenchCommand.OPCODE,
+			GameUpdateWorkbenchCommand::fromArguments, GameUpdateWorkbenchCommand::fromBinary),
+		new Registration(PlayerHoldingCommand.KEYWORD, PlayerHoldingCommand.OPCODE,
+			PlayerHoldingCommand::fromArguments, PlayerHoldingCommand::fromBinary),
+		new Registration(PlayerInteractCommand.KEYWORD, PlayerInteractCommand.OPCODE,
+			PlayerInteractCommand::fromArguments, PlayerInteractCommand::fromBinary),
+		new Registration(PingCommand.KEYWORD, PingCommand.OPCODE,
+			PingCommand::fromArguments, PingCommand::fromBinary),
+		new Registration(PongCommand.KEYWORD, PongCommand.OPCODE,
+			PongCommand::fromArguments, PongCommand::fromBinary),
+		new Registration(GameTimeCommand.KEYWORD, GameTimeCommand.OPCODE,
+			GameTimeCommand::fromArguments, GameTimeCommand::fromBinary),
+		new Registration(GameScoreCommand.KEYWORD, GameScoreCommand.OPCODE,
+			GameScoreCommand::fromArguments, GameScoreCommand::fromBinary),
+		new Registration(GameOrderCommand.KEYWORD, GameOrderCommand.OPCODE,
+			GameOrderCommand::fromArguments, GameOrderCommand::fromBinary),
+		new Registration(ChatCommand.KEYWORD, ChatCommand.OPCODE,
+			ChatCommand::fromArguments, ChatCommand::fromBinary),
+		new Registration(YellCommand.KEYWORD, YellCommand.OPCODE,
+			YellCommand::fromArguments, YellCommand::fromBinary),
+		new Registration(DisappearCommand.KEYWORD, DisappearCommand.OPCODE,
+			DisappearCommand::fromArguments, DisappearCommand::fromBinary),
+		new Registration(RefreshCommand.KEYWORD, RefreshCommand.OPCODE,
+			RefreshCommand::fromArguments, RefreshCommand::fromBinary),
+		new Registration(IntroduceCommand.KEYWORD, IntroduceCommand.OPCODE,
+			IntroduceCommand::fromArguments, IntroduceCommand::fromBinary),
+		new Registration(LobbyOpenCommand.KEYWORD, LobbyOpenCommand.OPCODE,
+			LobbyOpenCommand::fromArguments, LobbyOpenCommand::fromBinary),
+		new Registration(LobbyCloseCommand.KEYWORD, LobbyCloseCommand.OPCODE,
+			LobbyCloseCommand::fromArguments, LobbyCloseCommand::fromBinary),
+		new Registration(LobbyJoinCommand.KEYWORD, LobbyJoinCommand.OPCODE,
+			LobbyJoinCommand::fromArguments, LobbyJoinCommand::fromBinary),
+		new Registration(LobbyLeaveCommand.KEYWORD, LobbyLeaveCommand.OPCODE,
+			LobbyLeaveCommand::fromArguments, LobbyLeaveCommand::fromBinary),
+		new Registration(LobbyReadyCommand.KEYWORD, LobbyReadyCommand.OPCODE,
+			LobbyReadyCommand::fromArguments, LobbyReadyCommand::fromBinary),
+		new Registration(GameRequestStartCommand.KEYWORD, GameRequestStartCommand.OPCODE,
+			GameRequestStartCommand::fromArguments, GameRequestStartCommand::fromBinary),
+		new Registration(GameForceStopCommand.KEYWORD, GameForceStopCommand.OPCODE,
+			GameForceStopCommand::fromArguments, GameForceStopCommand::fromBinary),
+		new Registration(HighscoresCommand.KEYWORD, HighscoresCommand.OPCODE,
+			HighscoresCommand::fromArguments, HighscoresCommand::fromBinary),
+		new Registration(GameParticipateCommand.KEYWORD, GameParticipateCommand.OPCODE,
+			GameParticipateCommand::fromArguments, GameParticipateCommand::fromBinary),
+		new Registration(DatagramCommand.KEYWORD, DatagramCommand.OPCODE,
+			DatagramCommand::fromArguments, DatagramCommand::fromBinary),
+		new Registration(ResumeCommand.KEYWORD, ResumeCommand.OPCODE,
+			ResumeCommand::fromArguments, ResumeCommand::fromBinary),
+		new Registration(SyncCommand.KEYWORD, SyncCommand.OPCODE,
+			SyncCommand::fromArguments, SyncCommand::fromBinary),
+	};
+
+	/**
+	 * Every kind of command, by opcode.
+	 */
+	private static final Registration[] BY_OPCODE = new Registration[0x100];
+
+	static {
+		for (var registration : Command.REGISTRATIONS) {
+			assert Command.BY_OPCODE[registration.opcode()] == null : "duplicate opcode";
+
+			Command.BY_OPCODE[registration.opcode()] = registration;
+		}
+	}
+
 	/**
 	 * Whom this command concerns.
 	 */
 	private Identifier subject = Identifier.NONE;
 
 	/**
-	 * Parse a command.
+	 * Parse a command in a single pass over the line: the subject is parsed and the keyword looked
+	 * up in place, only the arguments are copied.
 	 *
 	 * @param string the string containing the textual representation of the command.
 	 * @return the resulting command.
@@ -27,42 +103,73 @@ public abstract class Command {
 			throw new MalformedException("not a safe string");
 		}
 
-		String[] ika = string.split(" ", 3); /* identifier, keyword, and arguments */
-		if (ika.length < 2) {
+		int identifierEnd = string.indexOf(' ');
+		if (identifierEnd < 0) {
 			throw new MalformedException("missing keyword");
 		}
-		String arguments = ika.length == 3 ? ika[2] : null;
-
-		Command command = switch (ika[1]) {
-			case PingCommand.KEYWORD -> PingCommand.fromArguments(arguments);
-			case PongCommand.KEYWORD -> PongCommand.fromArguments(arguments);
-			case DisappearCommand.KEYWORD -> DisappearCommand.fromArguments(arguments);
-			case RefreshCommand.KEYWORD -> RefreshCommand.fromArguments(arguments);
-			case IntroduceCommand.KEYWORD -> IntroduceCommand.fromArguments(arguments);
-			case LobbyOpenCommand.KEYWORD -> LobbyOpenCommand.fromArguments(arguments);
-			case LobbyCloseCommand.KEYWORD -> LobbyCloseCommand.fromArguments(arguments);
-			case LobbyJoinCommand.KEYWORD -> LobbyJoinCommand.fromArguments(arguments);
-			case LobbyLeaveCommand.KEYWORD -> LobbyLeaveCommand.fromArguments(arguments);
-			case LobbyReadyCommand.KEYWORD -> LobbyReadyCommand.fromArguments(arguments);
-			case GameRequestStartCommand.KEYWORD ->
-				GameRequestStartCommand.fromArguments(arguments);
-			case GameForceStopCommand.KEYWORD -> GameForceStopCommand.fromArguments(arguments);
-			case GameTimeCommand.KEYWORD -> GameTimeCommand.fromArguments(arguments);
-			case PlayerPositionCommand.KEYWORD -> PlayerPositionCommand.fromArguments(arguments);
-			case ChatCommand.KEYWORD -> ChatCommand.fromArguments(arguments);
-			case YellCommand.KEYWORD -> YellCommand.fromArguments(arguments);
-			case GameUpdateWorkbenchCommand.KEYWORD ->
-				GameUpdateWorkbenchCommand.fromArguments(arguments);
-			case GameOrderCommand.KEYWORD -> GameOrderCommand.fromArguments(arguments);
-			case PlayerInteractCommand.KEYWORD -> PlayerInteractCommand.fromArguments(arguments);
-			case PlayerHoldingCommand.KEYWORD -> PlayerHoldingCommand.fromArguments(arguments);
-			case GameScoreCommand.KEYWORD -> GameScoreCommand.fromArguments(arguments);
-			case HighscoresCommand.KEYWORD -> HighscoresCommand.fromArguments(arguments);
-			case GameParticipateCommand.KEYWORD -> GameParticipateCommand.fromArguments(arguments);
-			default -> throw new MalformedException("unknown keyword");
-		};
-
-		command.setSubject(Identifier.fromString(ika[0]));
+		int keywordEnd = string.indexOf(' ', identifierEnd + 1);
+		if (keywordEnd < 0) {
+			keywordEnd = string.length();
+		}
+
+		Registration registration = Command.findRegistration(string, identifierEnd + 1,
+			keywordEnd);
+		if (registration == null) {
+			throw new MalformedException("unknown keyword");
+		}
+
+		String arguments = keywordEnd < string.length() ? string.substring(keywordEnd + 1) : null;
+
+		Command command = registration.textDecoder().fromArguments(arguments);
+
+		command.setSubject(Identifier.fromString(string, 0, identifierEnd));
+
+		return command;
+	}
+
+	/**
+	 * Find the registration of a keyword.
+	 *
+	 * @param string the string containing the keyword.
+	 * @param start  the index of the first character of the keyword.
+	 * @param end    the index after the last character of the keyword.
+	 * @return the registration, or <code>null</code> if the keyword is unknown.
+	 */
+	private static Registration findRegistration(String string, int start, int end) {
+		int length = end - start;
+		for (var registration : Command.REGISTRATIONS) {
+			if (registration.keyword().length() == length
+				&& string.regionMatches(start, registration.keyword(), 0, length)) {
+				return registration;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Parse the binary encoding of a command, i.e. the payload of a frame produced by
+	 * {@link #toBinary()}.
+	 *
+	 * @param bytes  the bytes containing the payload.
+	 * @param offset the index of the first byte of the payload.
+	 * @param length the length of the payload.
+	 * @return the resulting command.
+	 * @throws MalformedException if the command is malformed.
+	 */
+	public static Command fromBinary(byte[] bytes, int offset, int length)
+		throws MalformedException {
+		BinaryReader reader = new BinaryReader(bytes, offset, length);
+
+		Registration registration = Command.BY_OPCODE[reader.readByte()];
+		if (registration == null) {
+			throw new MalformedException("unknown opcode");
+		}
+		Identifier subject = reader.readIdentifier();
+
+		Command command = registration.binaryDecoder().fromBinary(reader);
+
+		reader.expectEnd();
+		command.setSubject(subject);
 
 		return command;
 	}
@@ -91,6 +198,33 @@ public abstract class Command {
 		this.subject = subject;
 	}
 
+	/**
+	 * Encode this command as a binary frame. See {@link BinaryWriter#toFrame()}.
+	 *
+	 * @return the frame.
+	 */
+	public byte[] toBinary() {
+		BinaryWriter writer = new BinaryWriter();
+		writer.writeByte(this.getOpcode());
+		writer.writeIdentifier(this.subject);
+		this.writeArguments(writer);
+		return writer.toFrame();
+	}
+
+	/**
+	 * @return the opcode identifying this kind of command in the binary encoding.
+	 */
+	protected abstract int getOpcode();
+
+	/**
+	 * Write the arguments of this command in the binary encoding. Commands without arguments need
+	 * not override this.
+	 *
+	 * @param writer the writer.
+	 */
+	protected void writeArguments(BinaryWriter writer) {
+	}
+
 	/**
 	 * @return a textual representation of the command.
 	 */
@@ -98,4 +232,35 @@ public abstract class Command {
 	public String toString() {
 		return this.subject + " ";
 	}
+
+	/**
+	 * Parses the arguments of a textual command, i.e. a <code>fromArguments</code> method.
+	 */
+	@FunctionalInterface
+	private interface TextDecoder {
+
+		Command fromArguments(String arguments) throws MalformedException;
+	}
+
+	/**
+	 * Parses the arguments of a binary command, i.e. a <code>fromBinary</code> method.
+	 */
+	@FunctionalInterface
+	private interface BinaryDecoder {
+
+		Command fromBinary(BinaryReader reader) throws MalformedException;
+	}
+
+	/**
+	 * How to recognize and parse one kind of command.
+	 *
+	 * @param keyword       the keyword.
+	 * @param opcode        the opcode.
+	 * @param textDecoder   parses the textual arguments.
+	 * @param binaryDecoder parses the binary arguments.
+	 */
+	private record Registration(String keyword, int opcode, TextDecoder textDecoder,
+		BinaryDecoder binaryDecoder) {
+
+	}
 }
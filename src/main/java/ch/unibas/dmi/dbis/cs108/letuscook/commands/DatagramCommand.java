@@ -0,0 +1,148 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.commands;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.DatagramEndpoint;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
+
+/**
+ * Sent by the client, without arguments, to ask for a datagram channel next to its connection.
+ * Sent by the server to grant one: the client then sends datagrams carrying the token to the given
+ * port, see {@link DatagramEndpoint}.
+ */
+public class DatagramCommand extends Command {
+
+	/**
+	 * The keyword used to identify this command.
+	 */
+	public static final String KEYWORD = "DATAGRAM";
+
+	/**
+	 * The opcode of the binary encoding.
+	 */
+	public static final int OPCODE = 24;
+
+	/**
+	 * The port to send datagrams to, or 0 if this is a request.
+	 */
+	private final int port;
+
+	/**
+	 * The token identifying the sender of a datagram.
+	 */
+	private final long token;
+
+	/**
+	 * Constructs a request for a datagram channel.
+	 */
+	public DatagramCommand() {
+		this.port = 0;
+		this.token = 0;
+	}
+
+	/**
+	 * Constructs a grant of a datagram channel.
+	 *
+	 * @param port  the port to send datagrams to.
+	 * @param token the token identifying the sender of a datagram.
+	 * @throws MalformedException if the port is out of range.
+	 */
+	public DatagramCommand(int port, long token) throws MalformedException {
+		if (port <= 0 || port > 0xFFFF) {
+			throw new MalformedException("port out of range");
+		}
+
+		this.port = port;
+		this.token = token;
+	}
+
+	/**
+	 * Creates an anonymous instance of this command, given a string of arguments.
+	 *
+	 * @param arguments the arguments
+	 * @return the command.
+	 * @throws MalformedException if the arguments are malformed.
+	 */
+	public static DatagramCommand fromArguments(String arguments) throws MalformedException {
+		if (arguments == null || arguments.isEmpty()) {
+			return new DatagramCommand();
+		}
+
+		var portAndToken = arguments.split(" ", 2);
+
+		if (portAndToken.length != 2) {
+			throw new MalformedException("malformed arguments");
+		}
+
+		try {
+			return new DatagramCommand(Integer.parseInt(portAndToken[0]),
+				Long.parseUnsignedLong(portAndToken[1], 16));
+		} catch (NumberFormatException e) {
+			throw new MalformedException("malformed port or token");
+		}
+	}
+
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static DatagramCommand fromBinary(BinaryReader reader) throws MalformedException {
+		if (reader.isAtEnd()) {
+			return new DatagramCommand();
+		}
+
+		return new DatagramCommand(reader.readVarint(), reader.readLong());
+	}
+
+	/**
+	 * @return whether this is a request rather than a grant.
+	 */
+	public boolean isRequest() {
+		return this.port == 0;
+	}
+
+	/**
+	 * @return the port to send datagrams to.
+	 */
+	public int getPort() {
+		assert !this.isRequest() : "request has no port";
+
+		return this.port;
+	}
+
+	/**
+	 * @return the token identifying the sender of a datagram.
+	 */
+	public long getToken() {
+		assert !this.isRequest() : "request has no token";
+
+		return this.token;
+	}
+
+	@Override
+	protected int getOpcode() {
+		return DatagramCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		if (!this.isRequest()) {
+			writer.writeVarint(this.port);
+			writer.writeLong(this.token);
+		}
+	}
+
+	/**
+	 * Returns a string representation of this command.
+	 *
+	 * @return A string representation of the command.
+	 */
+	@Override
+	public String toString() {
+		return super.toString() + DatagramCommand.KEYWORD + (this.isRequest() ? ""
+			: " " + this.port + " " + Long.toHexString(this.token));
+	}
+}
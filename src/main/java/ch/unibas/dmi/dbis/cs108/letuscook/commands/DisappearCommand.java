@@ -1,5 +1,6 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Identifier;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 
@@ -12,6 +13,8 @@ public class DisappearCommand extends Command {
 
 	public static final String KEYWORD = "BYE";
 
+	public static final int OPCODE = 3;
+
 	/**
 	 * Constructs a DisconnectCommand.
 	 */
@@ -33,6 +36,22 @@ public class DisappearCommand extends Command {
 		return new DisappearCommand();
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static DisappearCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new DisappearCommand();
+	}
+
+	@Override
+	protected int getOpcode() {
+		return DisappearCommand.OPCODE;
+	}
+
 	/**
 	 * Returns a string representation of this command.
 	 *
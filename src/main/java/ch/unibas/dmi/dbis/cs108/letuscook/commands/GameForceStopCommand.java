@@ -1,5 +1,6 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 
 /**
@@ -12,6 +13,11 @@ public class GameForceStopCommand extends Command {
 	 */
 	public static final String KEYWORD = "STOP";
 
+	/**
+	 * The opcode of the binary encoding.
+	 */
+	public static final int OPCODE = 12;
+
 	/**
 	 * Constructs a new StopGameCommand.
 	 */
@@ -33,6 +39,22 @@ public class GameForceStopCommand extends Command {
 		return new GameForceStopCommand();
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static GameForceStopCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new GameForceStopCommand();
+	}
+
+	@Override
+	protected int getOpcode() {
+		return GameForceStopCommand.OPCODE;
+	}
+
 	/**
 	 * Returns a string representation of this command.
 	 *
@@ -1,6 +1,8 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
 import ch.unibas.dmi.dbis.cs108.letuscook.orders.Order;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Identifier;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 
@@ -11,6 +13,11 @@ public class GameOrderCommand extends Command {
 	 */
 	public static final String KEYWORD = "ORDER";
 
+	/**
+	 * The opcode of the binary encoding.
+	 */
+	public static final int OPCODE = 18;
+
 	/**
 	 * The workbench identifier.
 	 */
@@ -46,6 +53,17 @@ public class GameOrderCommand extends Command {
 		return new GameOrderCommand(Identifier.fromString(io[0]), Order.fromString(io[1]));
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static GameOrderCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new GameOrderCommand(reader.readIdentifier(), reader.readOrdinal(Order.values()));
+	}
+
 	/**
 	 * @return the workbench identifier.
 	 */
@@ -60,6 +78,17 @@ public class GameOrderCommand extends Command {
 		return this.order;
 	}
 
+	@Override
+	protected int getOpcode() {
+		return GameOrderCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		writer.writeIdentifier(this.getWorkbenchIdentifier());
+		writer.writeOrdinal(this.getOrder());
+	}
+
 	/**
 	 * @return a textual representation of this command.
 	 */
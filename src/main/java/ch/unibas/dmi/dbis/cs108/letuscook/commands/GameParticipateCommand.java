@@ -1,5 +1,6 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 
 /**
@@ -9,6 +10,8 @@ public class GameParticipateCommand extends Command {
 
 	public static final String KEYWORD = "PARTICIPATE";
 
+	public static final int OPCODE = 23;
+
 	/**
 	 * Constructs a GameParticipateCommand.
 	 */
@@ -30,6 +33,22 @@ public class GameParticipateCommand extends Command {
 		return new GameParticipateCommand();
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static GameParticipateCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new GameParticipateCommand();
+	}
+
+	@Override
+	protected int getOpcode() {
+		return GameParticipateCommand.OPCODE;
+	}
+
 	/**
 	 * @return a textual representation of this command.
 	 */
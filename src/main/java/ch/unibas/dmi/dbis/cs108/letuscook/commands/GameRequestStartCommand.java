@@ -1,5 +1,6 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 
 /**
@@ -12,6 +13,11 @@ public class GameRequestStartCommand extends Command {
 	 */
 	public static final String KEYWORD = "START";
 
+	/**
+	 * The opcode of the binary encoding.
+	 */
+	public static final int OPCODE = 11;
+
 	/**
 	 * Constructs a new StartGameCommand.
 	 */
@@ -34,6 +40,23 @@ public class GameRequestStartCommand extends Command {
 		return new GameRequestStartCommand();
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static GameRequestStartCommand fromBinary(BinaryReader reader)
+		throws MalformedException {
+		return new GameRequestStartCommand();
+	}
+
+	@Override
+	protected int getOpcode() {
+		return GameRequestStartCommand.OPCODE;
+	}
+
 	/**
 	 * Returns a string representation of this command.
 	 *
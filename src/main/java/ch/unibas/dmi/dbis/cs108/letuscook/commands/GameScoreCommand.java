@@ -1,5 +1,7 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 
 /**
@@ -12,6 +14,11 @@ public class GameScoreCommand extends Command {
 	 */
 	public static final String KEYWORD = "SCORE";
 
+	/**
+	 * The opcode of the binary encoding.
+	 */
+	public static final int OPCODE = 21;
+
 	/**
 	 * The score.
 	 */
@@ -41,6 +48,17 @@ public class GameScoreCommand extends Command {
 		return new GameScoreCommand(Integer.parseInt(arguments));
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static GameScoreCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new GameScoreCommand(reader.readSignedVarint());
+	}
+
 	/**
 	 * @return the score.
 	 */
@@ -48,6 +66,16 @@ public class GameScoreCommand extends Command {
 		return this.score;
 	}
 
+	@Override
+	protected int getOpcode() {
+		return GameScoreCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		writer.writeSignedVarint(this.getScore());
+	}
+
 	/**
 	 * @return a textual representation of the command.
 	 */
@@ -1,5 +1,7 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.SanitizedName;
 
@@ -19,6 +21,11 @@ public class GameTimeCommand extends Command {
 	 */
 	public static final String KEYWORD = "TIME";
 
+	/**
+	 * The opcode of the binary encoding.
+	 */
+	public static final int OPCODE = 13;
+
 	/**
 	 * The sanitized name of the lobby where the game started.
 	 */
@@ -61,6 +68,17 @@ public class GameTimeCommand extends Command {
 		return new GameTimeCommand(lobbyAndTicks[0], Integer.parseUnsignedInt(lobbyAndTicks[1]));
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static GameTimeCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new GameTimeCommand(reader.readString(), reader.readVarint());
+	}
+
 	/**
 	 * Gets the name of the lobby where the game started.
 	 *
@@ -77,6 +95,17 @@ public class GameTimeCommand extends Command {
 		return this.ticksUntilFinished;
 	}
 
+	@Override
+	protected int getOpcode() {
+		return GameTimeCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		writer.writeString(this.getLobbyName());
+		writer.writeVarint(this.getTicksUntilFinished());
+	}
+
 	/**
 	 * Returns a string representation of this command.
 	 *
@@ -2,6 +2,8 @@ package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
 import ch.unibas.dmi.dbis.cs108.letuscook.orders.Stack;
 import ch.unibas.dmi.dbis.cs108.letuscook.orders.State;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Identifier;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 
@@ -17,6 +19,11 @@ public class GameUpdateWorkbenchCommand extends Command {
 	 */
 	public static final String KEYWORD = "WORKBENCH";
 
+	/**
+	 * The opcode of the binary encoding.
+	 */
+	public static final int OPCODE = 17;
+
 	/**
 	 * The workbench identifier.
 	 */
@@ -61,13 +68,38 @@ public class GameUpdateWorkbenchCommand extends Command {
 			throw new MalformedException("arguments is null");
 		}
 
-		var isct /* identifier, state, contents, ticks */ = arguments.split(" ", 4);
-		if (isct.length != 4) {
+		/* identifier, state, contents, ticks */
+		int identifierEnd = arguments.indexOf(' ');
+		int stateEnd = identifierEnd < 0 ? -1 : arguments.indexOf(' ', identifierEnd + 1);
+		int contentsEnd = stateEnd < 0 ? -1 : arguments.indexOf(' ', stateEnd + 1);
+		if (contentsEnd < 0) {
 			throw new MalformedException("malformed arguments");
 		}
 
-		return new GameUpdateWorkbenchCommand(Identifier.fromString(isct[0]),
-			State.fromString(isct[1]), Stack.fromString(isct[2]), Integer.parseInt(isct[3]));
+		int ticks;
+		try {
+			ticks = Integer.parseInt(arguments, contentsEnd + 1, arguments.length(), 10);
+		} catch (NumberFormatException e) {
+			throw new MalformedException("malformed ticks");
+		}
+
+		return new GameUpdateWorkbenchCommand(Identifier.fromString(arguments, 0, identifierEnd),
+			State.fromString(arguments.substring(identifierEnd + 1, stateEnd)),
+			Stack.fromString(arguments.substring(stateEnd + 1, contentsEnd)), ticks);
+	}
+
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static GameUpdateWorkbenchCommand fromBinary(BinaryReader reader)
+		throws MalformedException {
+		return new GameUpdateWorkbenchCommand(reader.readIdentifier(),
+			reader.readOrdinal(State.values()), Stack.fromBinary(reader),
+			reader.readSignedVarint());
 	}
 
 	/**
@@ -98,6 +130,19 @@ public class GameUpdateWorkbenchCommand extends Command {
 		return this.ticksUntilStateChange;
 	}
 
+	@Override
+	protected int getOpcode() {
+		return GameUpdateWorkbenchCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		writer.writeIdentifier(this.getWorkbenchIdentifier());
+		writer.writeOrdinal(this.getState());
+		this.getContents().writeTo(writer);
+		writer.writeSignedVarint(this.getTicksUntilStateChange());
+	}
+
 	/**
 	 * @return a textual representation of this command.
 	 */
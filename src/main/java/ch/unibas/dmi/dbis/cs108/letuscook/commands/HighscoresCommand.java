@@ -1,12 +1,19 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.server.Highscore;
 import ch.unibas.dmi.dbis.cs108.letuscook.server.Highscores;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class HighscoresCommand extends Command {
 
 	public static final String KEYWORD = "SCORES";
 
+	public static final int OPCODE = 22;
+
 	private final Highscores highscores;
 
 	public HighscoresCommand(Highscores highscores) {
@@ -24,10 +31,53 @@ public class HighscoresCommand extends Command {
 		return new HighscoresCommand(Highscores.fromString(arguments));
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static HighscoresCommand fromBinary(BinaryReader reader) throws MalformedException {
+		int count = reader.readCount();
+		List<Highscore> highscores = new ArrayList<>();
+		for (int i = 0; i < count; ++i) {
+			int score = reader.readSignedVarint();
+			String[] names = new String[reader.readCount()];
+			if (names.length == 0) {
+				throw new MalformedException("not enough names");
+			}
+			for (int j = 0; j < names.length; ++j) {
+				names[j] = reader.readString();
+			}
+			highscores.add(new Highscore(names, score));
+		}
+
+		return new HighscoresCommand(new Highscores(highscores));
+	}
+
 	public Highscores getHighscores() {
 		return this.highscores;
 	}
 
+	@Override
+	protected int getOpcode() {
+		return HighscoresCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		var highscores = this.getHighscores().getHighscores();
+		writer.writeVarint(highscores.size());
+		for (var highscore : highscores) {
+			writer.writeSignedVarint(highscore.getScore());
+			writer.writeVarint(highscore.getNames().length);
+			for (var name : highscore.getNames()) {
+				writer.writeString(name);
+			}
+		}
+	}
+
 	@Override
 	public String toString() {
 		return super.toString() + HighscoresCommand.KEYWORD + " " + this.getHighscores().toString();
@@ -1,5 +1,7 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.SanitizedName;
 
@@ -10,15 +12,35 @@ public class IntroduceCommand extends Command {
 
 	public static final String KEYWORD = "INTRO";
 
+	public static final int OPCODE = 5;
+
+	/**
+	 * The optional flag by which a client asks the server to switch to the binary encoding.
+	 */
+	public static final String BINARY_FLAG = "binary";
+
 	private final SanitizedName nickname;
 
+	private final boolean binary;
+
 	/**
 	 * Constructs a IntroduceCommand with the specified nickname.
 	 *
 	 * @param nickname The nickname to be set.
 	 */
 	public IntroduceCommand(String nickname) throws MalformedException {
+		this(nickname, false);
+	}
+
+	/**
+	 * Constructs a IntroduceCommand with the specified nickname.
+	 *
+	 * @param nickname The nickname to be set.
+	 * @param binary   Whether the sender asks for the binary encoding from now on.
+	 */
+	public IntroduceCommand(String nickname, boolean binary) throws MalformedException {
 		this.nickname = SanitizedName.createOrThrow(nickname);
+		this.binary = binary;
 	}
 
 	/**
@@ -29,9 +51,25 @@ public class IntroduceCommand extends Command {
 	 * @throws MalformedException if the arguments are malformed.
 	 */
 	public static IntroduceCommand fromArguments(String arguments) throws MalformedException {
+		if (arguments != null && arguments.endsWith(" " + IntroduceCommand.BINARY_FLAG)) {
+			return new IntroduceCommand(
+				arguments.substring(0, arguments.length() - BINARY_FLAG.length() - 1), true);
+		}
+
 		return new IntroduceCommand(arguments);
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static IntroduceCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new IntroduceCommand(reader.readString(), reader.readBoolean());
+	}
+
 	/**
 	 * Gets the nickname associated with this command.
 	 *
@@ -41,6 +79,24 @@ public class IntroduceCommand extends Command {
 		return this.nickname.toString();
 	}
 
+	/**
+	 * @return whether the sender asks for the binary encoding from now on.
+	 */
+	public boolean requestsBinary() {
+		return this.binary;
+	}
+
+	@Override
+	protected int getOpcode() {
+		return IntroduceCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		writer.writeString(this.getNickname());
+		writer.writeBoolean(this.requestsBinary());
+	}
+
 	/**
 	 * Returns a string representation of this command.
 	 *
@@ -49,6 +105,7 @@ public class IntroduceCommand extends Command {
 	 */
 	@Override
 	public String toString() {
-		return super.toString() + IntroduceCommand.KEYWORD + " " + this.nickname;
+		return super.toString() + IntroduceCommand.KEYWORD + " " + this.nickname
+			+ (this.binary ? " " + IntroduceCommand.BINARY_FLAG : "");
 	}
 }
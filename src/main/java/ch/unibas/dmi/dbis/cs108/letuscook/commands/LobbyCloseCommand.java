@@ -1,5 +1,7 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.SanitizedName;
 
@@ -10,6 +12,8 @@ public class LobbyCloseCommand extends Command {
 
 	public static final String KEYWORD = "CLOSE";
 
+	public static final int OPCODE = 7;
+
 	private final SanitizedName lobbyName;
 
 	public LobbyCloseCommand(String lobbyName) throws MalformedException {
@@ -27,10 +31,31 @@ public class LobbyCloseCommand extends Command {
 		return new LobbyCloseCommand(arguments);
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static LobbyCloseCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new LobbyCloseCommand(reader.readString());
+	}
+
 	public String getLobbyName() {
 		return this.lobbyName.toString();
 	}
 
+	@Override
+	protected int getOpcode() {
+		return LobbyCloseCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		writer.writeString(this.getLobbyName());
+	}
+
 	@Override
 	public String toString() {
 		return super.toString() + LobbyCloseCommand.KEYWORD + " " + this.lobbyName;
@@ -1,5 +1,7 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.SanitizedName;
 
@@ -12,6 +14,11 @@ public class LobbyJoinCommand extends Command {
 	 * The keyword indicating the type of command.
 	 */
 	public static final String KEYWORD = "JOIN";
+
+	/**
+	 * The opcode of the binary encoding.
+	 */
+	public static final int OPCODE = 8;
 	/**
 	 * The sanitized name of the lobby to join.
 	 */
@@ -39,6 +46,17 @@ public class LobbyJoinCommand extends Command {
 		return new LobbyJoinCommand(arguments);
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static LobbyJoinCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new LobbyJoinCommand(reader.readString());
+	}
+
 	/**
 	 * Gets the sanitized name of the lobby to join.
 	 *
@@ -48,6 +66,16 @@ public class LobbyJoinCommand extends Command {
 		return this.lobbyName.toString();
 	}
 
+	@Override
+	protected int getOpcode() {
+		return LobbyJoinCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		writer.writeString(this.getLobbyName());
+	}
+
 	/**
 	 * Returns a string representation of the JoinCommand.
 	 *
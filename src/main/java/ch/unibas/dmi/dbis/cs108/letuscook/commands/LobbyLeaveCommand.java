@@ -1,5 +1,6 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 
 /**
@@ -13,6 +14,11 @@ public class LobbyLeaveCommand extends Command {
 	 */
 	public static final String KEYWORD = "LEAVE";
 
+	/**
+	 * The opcode of the binary encoding.
+	 */
+	public static final int OPCODE = 9;
+
 	/**
 	 * Constructs a new LeaveCommand object.
 	 */
@@ -35,6 +41,22 @@ public class LobbyLeaveCommand extends Command {
 		return new LobbyLeaveCommand();
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static LobbyLeaveCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new LobbyLeaveCommand();
+	}
+
+	@Override
+	protected int getOpcode() {
+		return LobbyLeaveCommand.OPCODE;
+	}
+
 	/**
 	 * Returns a string representation of the LeaveCommand.
 	 *
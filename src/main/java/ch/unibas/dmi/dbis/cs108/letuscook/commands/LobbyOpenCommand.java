@@ -1,5 +1,7 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.SanitizedName;
 
@@ -12,6 +14,8 @@ public class LobbyOpenCommand extends Command {
 
 	public static final String KEYWORD = "OPEN";
 
+	public static final int OPCODE = 6;
+
 	private final SanitizedName lobbyName;
 
 	public LobbyOpenCommand(String lobbyName) throws MalformedException {
@@ -29,10 +33,31 @@ public class LobbyOpenCommand extends Command {
 		return new LobbyOpenCommand(arguments);
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static LobbyOpenCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new LobbyOpenCommand(reader.readString());
+	}
+
 	public String getLobbyName() {
 		return this.lobbyName.toString();
 	}
 
+	@Override
+	protected int getOpcode() {
+		return LobbyOpenCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		writer.writeString(this.getLobbyName());
+	}
+
 	@Override
 	public String toString() {
 		return super.toString() + LobbyOpenCommand.KEYWORD + " " + this.lobbyName;
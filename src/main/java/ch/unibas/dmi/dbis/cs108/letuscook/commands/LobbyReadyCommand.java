@@ -1,5 +1,7 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 
 /**
@@ -13,6 +15,11 @@ public class LobbyReadyCommand extends Command {
 	 */
 	public static final String KEYWORD = "READY";
 
+	/**
+	 * The opcode of the binary encoding.
+	 */
+	public static final int OPCODE = 10;
+
 	/**
 	 * The new value of the ready state.
 	 */
@@ -39,6 +46,17 @@ public class LobbyReadyCommand extends Command {
 		return new LobbyReadyCommand(Boolean.parseBoolean(arguments));
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static LobbyReadyCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new LobbyReadyCommand(reader.readBoolean());
+	}
+
 	/**
 	 * @return the ready state.
 	 */
@@ -46,6 +64,16 @@ public class LobbyReadyCommand extends Command {
 		return this.ready;
 	}
 
+	@Override
+	protected int getOpcode() {
+		return LobbyReadyCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		writer.writeBoolean(this.getReady());
+	}
+
 	/**
 	 * @return a textual representation of this command.
 	 */
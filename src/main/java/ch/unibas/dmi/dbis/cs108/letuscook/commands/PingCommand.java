@@ -1,18 +1,40 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 
 /**
- * Sent by either the client or the server to provoke a health check.
+ * Sent by either the client or the server to provoke a health check. May carry a sequence number,
+ * which the peer echoes in its {@link PongCommand}, so that the sender can measure the round trip.
  */
 public class PingCommand extends Command {
 
 	public static final String KEYWORD = "PING";
 
+	public static final int OPCODE = 1;
+
+	/**
+	 * The sequence number, echoed by the pong, or 0 if there is none.
+	 */
+	private final int sequence;
+
 	/**
-	 * Constructs a PingCommand.
+	 * Constructs a ping without a sequence number.
 	 */
 	public PingCommand() {
+		this.sequence = 0;
+	}
+
+	/**
+	 * Constructs a ping that asks for its sequence number to be echoed.
+	 *
+	 * @param sequence the sequence number, must be positive.
+	 */
+	public PingCommand(int sequence) {
+		assert sequence > 0 : "sequence must be positive";
+
+		this.sequence = sequence;
 	}
 
 	/**
@@ -23,21 +45,85 @@ public class PingCommand extends Command {
 	 * @throws MalformedException if the arguments are malformed.
 	 */
 	public static PingCommand fromArguments(String arguments) throws MalformedException {
-		if (arguments != null && !arguments.isEmpty()) {
-			throw new MalformedException("expected null or empty arguments");
+		if (arguments == null || arguments.isEmpty()) {
+			return new PingCommand();
 		}
 
-		return new PingCommand();
+		return new PingCommand(PingCommand.checkSequence(arguments));
+	}
+
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static PingCommand fromBinary(BinaryReader reader) throws MalformedException {
+		if (reader.isAtEnd()) {
+			return new PingCommand();
+		}
+
+		return new PingCommand(PingCommand.checkSequence(reader.readVarint()));
+	}
+
+	/**
+	 * Parse a sequence number.
+	 *
+	 * @param string the string.
+	 * @return the sequence number.
+	 * @throws MalformedException if the string is not a positive number.
+	 */
+	private static int checkSequence(String string) throws MalformedException {
+		try {
+			return PingCommand.checkSequence(Integer.parseInt(string));
+		} catch (NumberFormatException e) {
+			throw new MalformedException("sequence is not a number");
+		}
+	}
+
+	/**
+	 * Check a sequence number.
+	 *
+	 * @param sequence the sequence number.
+	 * @return the sequence number.
+	 * @throws MalformedException if the sequence number is not positive.
+	 */
+	private static int checkSequence(int sequence) throws MalformedException {
+		if (sequence <= 0) {
+			throw new MalformedException("sequence must be positive");
+		}
+		return sequence;
+	}
+
+	/**
+	 * @return the sequence number, echoed by the pong, or 0 if there is none.
+	 */
+	public int getSequence() {
+		return this.sequence;
+	}
+
+	@Override
+	protected int getOpcode() {
+		return PingCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		if (this.sequence != 0) {
+			writer.writeVarint(this.sequence);
+		}
 	}
 
 	/**
 	 * Returns a string representation of this command.
 	 *
-	 * @return A string representation of the command in the format: "[identifier] PING".
+	 * @return A string representation of the command in the format: "[identifier] PING [sequence]".
 	 */
 	@Override
 	public String toString() {
-		return super.toString() + PingCommand.KEYWORD;
+		return super.toString() + PingCommand.KEYWORD + (this.sequence != 0 ? " " + this.sequence
+			: "");
 	}
 
 }
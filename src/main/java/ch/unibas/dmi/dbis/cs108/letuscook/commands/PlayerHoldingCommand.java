@@ -1,6 +1,8 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
 import ch.unibas.dmi.dbis.cs108.letuscook.orders.Stack;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 
 /**
@@ -11,6 +13,8 @@ public class PlayerHoldingCommand extends Command {
 
 	public static final String KEYWORD = "HAND";
 
+	public static final int OPCODE = 20;
+
 	private final Stack stack;
 
 	/**
@@ -35,6 +39,17 @@ public class PlayerHoldingCommand extends Command {
 		return new PlayerHoldingCommand(Stack.fromString(arguments));
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static PlayerHoldingCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new PlayerHoldingCommand(Stack.fromBinary(reader));
+	}
+
 	/**
 	 * @return the stack.
 	 */
@@ -42,6 +57,16 @@ public class PlayerHoldingCommand extends Command {
 		return this.stack;
 	}
 
+	@Override
+	protected int getOpcode() {
+		return PlayerHoldingCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		this.getStack().writeTo(writer);
+	}
+
 	/**
 	 * @return a textual representation of this command.
 	 */
@@ -1,5 +1,6 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 
 /**
@@ -13,6 +14,11 @@ public class PlayerInteractCommand extends Command {
 	 */
 	public static final String KEYWORD = "INTERACT";
 
+	/**
+	 * The opcode of the binary encoding.
+	 */
+	public static final int OPCODE = 19;
+
 	/**
 	 * Constructs a new InteractCommand.
 	 */
@@ -34,6 +40,22 @@ public class PlayerInteractCommand extends Command {
 		return new PlayerInteractCommand();
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static PlayerInteractCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new PlayerInteractCommand();
+	}
+
+	@Override
+	protected int getOpcode() {
+		return PlayerInteractCommand.OPCODE;
+	}
+
 	/**
 	 * Returns a string representation of this command.
 	 *
@@ -1,5 +1,7 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Coords;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 
@@ -13,6 +15,11 @@ public class PlayerPositionCommand extends Command {
 	 */
 	public static final String KEYWORD = "POSITION";
 
+	/**
+	 * The opcode of the binary encoding.
+	 */
+	public static final int OPCODE = 14;
+
 	/**
 	 * The coordinates.
 	 */
@@ -42,6 +49,17 @@ public class PlayerPositionCommand extends Command {
 		return new PlayerPositionCommand(new Coords(arguments));
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static PlayerPositionCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new PlayerPositionCommand(reader.readCoords());
+	}
+
 	/**
 	 * @return the coordinates.
 	 */
@@ -49,6 +67,16 @@ public class PlayerPositionCommand extends Command {
 		return this.coords;
 	}
 
+	@Override
+	protected int getOpcode() {
+		return PlayerPositionCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		writer.writeVector(this.getCoords());
+	}
+
 	/**
 	 * @return a textual representation of the command.
 	 */
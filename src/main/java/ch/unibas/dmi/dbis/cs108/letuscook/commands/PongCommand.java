@@ -1,18 +1,40 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 
 /**
- * Sent by either the client or the server in response to a {@link PingCommand}.
+ * Sent by either the client or the server in response to a {@link PingCommand}, echoing its sequence
+ * number, if any.
  */
 public class PongCommand extends Command {
 
 	public static final String KEYWORD = "PONG";
 
+	public static final int OPCODE = 2;
+
+	/**
+	 * The sequence number of the ping this answers, or 0 if there is none.
+	 */
+	private final int sequence;
+
 	/**
-	 * Constructs a PongCommand.
+	 * Constructs a pong without a sequence number.
 	 */
 	public PongCommand() {
+		this.sequence = 0;
+	}
+
+	/**
+	 * Constructs a pong that echoes a sequence number.
+	 *
+	 * @param sequence the sequence number, must be positive.
+	 */
+	public PongCommand(int sequence) {
+		assert sequence > 0 : "sequence must be positive";
+
+		this.sequence = sequence;
 	}
 
 	/**
@@ -23,20 +45,84 @@ public class PongCommand extends Command {
 	 * @throws MalformedException if the arguments are malformed.
 	 */
 	public static PongCommand fromArguments(String arguments) throws MalformedException {
-		if (arguments != null && !arguments.isEmpty()) {
-			throw new MalformedException("expected null or empty arguments");
+		if (arguments == null || arguments.isEmpty()) {
+			return new PongCommand();
 		}
 
-		return new PongCommand();
+		return new PongCommand(PongCommand.checkSequence(arguments));
+	}
+
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static PongCommand fromBinary(BinaryReader reader) throws MalformedException {
+		if (reader.isAtEnd()) {
+			return new PongCommand();
+		}
+
+		return new PongCommand(PongCommand.checkSequence(reader.readVarint()));
+	}
+
+	/**
+	 * Parse a sequence number.
+	 *
+	 * @param string the string.
+	 * @return the sequence number.
+	 * @throws MalformedException if the string is not a positive number.
+	 */
+	private static int checkSequence(String string) throws MalformedException {
+		try {
+			return PongCommand.checkSequence(Integer.parseInt(string));
+		} catch (NumberFormatException e) {
+			throw new MalformedException("sequence is not a number");
+		}
+	}
+
+	/**
+	 * Check a sequence number.
+	 *
+	 * @param sequence the sequence number.
+	 * @return the sequence number.
+	 * @throws MalformedException if the sequence number is not positive.
+	 */
+	private static int checkSequence(int sequence) throws MalformedException {
+		if (sequence <= 0) {
+			throw new MalformedException("sequence must be positive");
+		}
+		return sequence;
+	}
+
+	/**
+	 * @return the sequence number of the ping this answers, or 0 if there is none.
+	 */
+	public int getSequence() {
+		return this.sequence;
+	}
+
+	@Override
+	protected int getOpcode() {
+		return PongCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		if (this.sequence != 0) {
+			writer.writeVarint(this.sequence);
+		}
 	}
 
 	/**
 	 * Returns a string representation of this command.
 	 *
-	 * @return A string representation of the command in the format: "[identifier] PONG".
+	 * @return A string representation of the command in the format: "[identifier] PONG [sequence]".
 	 */
 	@Override
 	public String toString() {
-		return super.toString() + PongCommand.KEYWORD;
+		return super.toString() + PongCommand.KEYWORD + (this.sequence != 0 ? " " + this.sequence
+			: "");
 	}
 }
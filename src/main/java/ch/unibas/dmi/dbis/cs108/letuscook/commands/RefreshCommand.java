@@ -1,10 +1,17 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
+import java.util.OptionalLong;
 
 /**
  * Sent by the client to request a refresh. Sent by the server to refresh the client, in which case
  * the client reads this commands' identifier to determine its own identifier.
+ *
+ * <p>A client in a game may name the version of the game state it last received, see
+ * {@link SyncCommand}. It then only gets the workbenches and players that changed since, if the
+ * server still knows that version, or else a full refresh.</p>
  */
 public class RefreshCommand extends Command {
 
@@ -13,10 +20,35 @@ public class RefreshCommand extends Command {
 	 */
 	public static final String KEYWORD = "REFRESH";
 
+	/**
+	 * The opcode of the binary encoding.
+	 */
+	public static final int OPCODE = 4;
+
+	/**
+	 * The version of the game state the client last received, or -1 if none.
+	 */
+	private final long version;
+
 	/**
 	 * Constructs a new RefreshCommand.
 	 */
 	public RefreshCommand() {
+		this.version = -1;
+	}
+
+	/**
+	 * Constructs a request for the changes since a version of the game state.
+	 *
+	 * @param version the version the client last received.
+	 * @throws MalformedException if the version is negative.
+	 */
+	public RefreshCommand(long version) throws MalformedException {
+		if (version < 0) {
+			throw new MalformedException("negative version");
+		}
+
+		this.version = version;
 	}
 
 	/**
@@ -27,11 +59,45 @@ public class RefreshCommand extends Command {
 	 * @throws MalformedException if the arguments are malformed.
 	 */
 	public static RefreshCommand fromArguments(String arguments) throws MalformedException {
-		if (arguments != null && !arguments.isEmpty()) {
-			throw new MalformedException("expected null or empty arguments");
+		if (arguments == null || arguments.isEmpty()) {
+			return new RefreshCommand();
+		}
+
+		try {
+			return new RefreshCommand(Long.parseLong(arguments));
+		} catch (NumberFormatException e) {
+			throw new MalformedException("malformed version");
 		}
+	}
 
-		return new RefreshCommand();
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static RefreshCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return reader.isAtEnd() ? new RefreshCommand() : new RefreshCommand(reader.readVarlong());
+	}
+
+	/**
+	 * @return the version of the game state the client last received, if it named one.
+	 */
+	public OptionalLong getVersion() {
+		return this.version < 0 ? OptionalLong.empty() : OptionalLong.of(this.version);
+	}
+
+	@Override
+	protected int getOpcode() {
+		return RefreshCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		if (this.version >= 0) {
+			writer.writeVarlong(this.version);
+		}
 	}
 
 	/**
@@ -41,6 +107,7 @@ public class RefreshCommand extends Command {
 	 */
 	@Override
 	public String toString() {
-		return super.toString() + RefreshCommand.KEYWORD;
+		return super.toString() + RefreshCommand.KEYWORD + (this.version < 0 ? ""
+			: " " + this.version);
 	}
 }
@@ -0,0 +1,176 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.commands;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Journal;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
+
+/**
+ * Sent by the server after logging a client in, carrying the token that lets it resume its session
+ * on a new connection. Sent by a client as its first command on a new connection, together with
+ * the token and how many journaled commands it received so far, see {@link Journal}. The server
+ * answers with the token if the session was resumed, or without arguments if the client has to log
+ * in again.
+ */
+public class ResumeCommand extends Command {
+
+	/**
+	 * The keyword used to identify this command.
+	 */
+	public static final String KEYWORD = "RESUME";
+
+	/**
+	 * The opcode of the binary encoding.
+	 */
+	public static final int OPCODE = 25;
+
+	/**
+	 * The token, or 0 if the server refused to resume a session.
+	 */
+	private final long token;
+
+	/**
+	 * How many journaled commands the client received, or -1 unless this is a request.
+	 */
+	private final long received;
+
+	/**
+	 * Constructs a refusal to resume a session.
+	 */
+	public ResumeCommand() {
+		this.token = 0;
+		this.received = -1;
+	}
+
+	/**
+	 * Constructs a grant of a token.
+	 *
+	 * @param token the token.
+	 * @throws MalformedException if the token is 0.
+	 */
+	public ResumeCommand(long token) throws MalformedException {
+		if (token == 0) {
+			throw new MalformedException("token is 0");
+		}
+
+		this.token = token;
+		this.received = -1;
+	}
+
+	/**
+	 * Constructs a request to resume a session.
+	 *
+	 * @param token    the token.
+	 * @param received how many journaled commands the client received.
+	 * @throws MalformedException if the token is 0 or the count is negative.
+	 */
+	public ResumeCommand(long token, long received) throws MalformedException {
+		if (token == 0) {
+			throw new MalformedException("token is 0");
+		}
+		if (received < 0) {
+			throw new MalformedException("negative count");
+		}
+
+		this.token = token;
+		this.received = received;
+	}
+
+	/**
+	 * Creates an anonymous instance of this command, given a string of arguments.
+	 *
+	 * @param arguments the arguments
+	 * @return the command.
+	 * @throws MalformedException if the arguments are malformed.
+	 */
+	public static ResumeCommand fromArguments(String arguments) throws MalformedException {
+		if (arguments == null || arguments.isEmpty()) {
+			return new ResumeCommand();
+		}
+
+		var tokenAndReceived = arguments.split(" ", 2);
+
+		try {
+			long token = Long.parseUnsignedLong(tokenAndReceived[0], 16);
+			return tokenAndReceived.length == 1 ? new ResumeCommand(token)
+				: new ResumeCommand(token, Long.parseLong(tokenAndReceived[1]));
+		} catch (NumberFormatException e) {
+			throw new MalformedException("malformed token or count");
+		}
+	}
+
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static ResumeCommand fromBinary(BinaryReader reader) throws MalformedException {
+		if (reader.isAtEnd()) {
+			return new ResumeCommand();
+		}
+
+		long token = reader.readLong();
+		return reader.isAtEnd() ? new ResumeCommand(token)
+			: new ResumeCommand(token, reader.readLong());
+	}
+
+	/**
+	 * @return whether the server refused to resume a session.
+	 */
+	public boolean isRefusal() {
+		return this.token == 0;
+	}
+
+	/**
+	 * @return whether this is a client's request to resume a session.
+	 */
+	public boolean isRequest() {
+		return this.received >= 0;
+	}
+
+	/**
+	 * @return the token.
+	 */
+	public long getToken() {
+		assert !this.isRefusal() : "refusal has no token";
+
+		return this.token;
+	}
+
+	/**
+	 * @return how many journaled commands the client received.
+	 */
+	public long getReceived() {
+		assert this.isRequest() : "only requests have a count";
+
+		return this.received;
+	}
+
+	@Override
+	protected int getOpcode() {
+		return ResumeCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		if (!this.isRefusal()) {
+			writer.writeLong(this.token);
+		}
+		if (this.isRequest()) {
+			writer.writeLong(this.received);
+		}
+	}
+
+	/**
+	 * Returns a string representation of this command.
+	 *
+	 * @return A string representation of the command.
+	 */
+	@Override
+	public String toString() {
+		return super.toString() + ResumeCommand.KEYWORD + (this.isRefusal() ? ""
+			: " " + Long.toHexString(this.token)) + (this.isRequest() ? " " + this.received : "");
+	}
+}
@@ -0,0 +1,97 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.commands;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
+
+/**
+ * Sent by the server to tell the members of a lobby which version of the game state they have
+ * received by now. A client hands the version back when asking for a refresh, and only gets the
+ * workbenches and players that changed since, see {@link RefreshCommand}.
+ */
+public class SyncCommand extends Command {
+
+	/**
+	 * The keyword used to identify this command.
+	 */
+	public static final String KEYWORD = "SYNC";
+
+	/**
+	 * The opcode of the binary encoding.
+	 */
+	public static final int OPCODE = 26;
+
+	/**
+	 * The version.
+	 */
+	private final long version;
+
+	/**
+	 * Create a new instance of this command.
+	 *
+	 * @param version the version.
+	 * @throws MalformedException if the version is negative.
+	 */
+	public SyncCommand(long version) throws MalformedException {
+		if (version < 0) {
+			throw new MalformedException("negative version");
+		}
+
+		this.version = version;
+	}
+
+	/**
+	 * Creates an anonymous instance of this command, given a string of arguments.
+	 *
+	 * @param arguments the arguments
+	 * @return the command.
+	 * @throws MalformedException if the arguments are malformed.
+	 */
+	public static SyncCommand fromArguments(String arguments) throws MalformedException {
+		if (arguments == null) {
+			throw new MalformedException("null arguments");
+		}
+
+		try {
+			return new SyncCommand(Long.parseLong(arguments));
+		} catch (NumberFormatException e) {
+			throw new MalformedException("malformed version");
+		}
+	}
+
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static SyncCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new SyncCommand(reader.readVarlong());
+	}
+
+	/**
+	 * @return the version.
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+
+	@Override
+	protected int getOpcode() {
+		return SyncCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		writer.writeVarlong(this.version);
+	}
+
+	/**
+	 * @return a textual representation of the command.
+	 */
+	@Override
+	public String toString() {
+		return super.toString() + SyncCommand.KEYWORD + " " + this.version;
+	}
+}
@@ -1,5 +1,7 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.commands;
 
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.SanitizedLine;
 
@@ -10,6 +12,8 @@ public class YellCommand extends Command {
 
 	public static final String KEYWORD = "YELL";
 
+	public static final int OPCODE = 16;
+
 	private final SanitizedLine message;
 
 	/**
@@ -32,6 +36,17 @@ public class YellCommand extends Command {
 		return new YellCommand(arguments);
 	}
 
+	/**
+	 * Creates an anonymous instance of this command, given its binary encoding.
+	 *
+	 * @param reader the reader, positioned after the subject.
+	 * @return the command.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static YellCommand fromBinary(BinaryReader reader) throws MalformedException {
+		return new YellCommand(reader.readString());
+	}
+
 	/**
 	 * @return the message.
 	 */
@@ -39,6 +54,16 @@ public class YellCommand extends Command {
 		return this.message.toString();
 	}
 
+	@Override
+	protected int getOpcode() {
+		return YellCommand.OPCODE;
+	}
+
+	@Override
+	protected void writeArguments(BinaryWriter writer) {
+		writer.writeString(this.getMessage());
+	}
+
 	/**
 	 * @return a textual representation of this command.
 	 */
@@ -316,6 +316,19 @@ public abstract class KitchenView extends View<BorderPane> {
 			this.gc.setTextBaseline(VPos.TOP);
 			this.gc.fillText(
 				"[F5] Interpol. Min. Speed: " + this.interpolMinSpeed / 10d, 0, 30);
+
+			/*
+			 * Draw network latency.
+			 */
+			var roundTrips = Client.the().roundTrips();
+			if (roundTrips.isPresent() && roundTrips.get().getLatest() >= 0) {
+				var times = roundTrips.get().getTimes();
+				this.gc.fillText("RTT: " + roundTrips.get().getLatest() / 1000 + " ms (p50 "
+						+ times.getPercentile(50) / 1000 + ", p99 " + times.getPercentile(99) / 1000
+						+ ", max " + times.getMax() / 1000 + ", jitter "
+						+ roundTrips.get().getJitter() / 1000 + ")", 0,
+					30 + Fonts.get(Fonts.GAME_DEBUG).getSize() * 1.5);
+			}
 		}
 	}
 }
@@ -156,7 +156,7 @@ public class TutorialView extends KitchenView {
 								.getTutorialPlayer().getHolding()));
 
 						Thread pattyThread = new Thread(() -> {
-							while (workbench.get().ticksUntilStateChange.get() > 0) {
+							while (workbench.get().getTicksUntilStateChange() > 0) {
 								try {
 									Thread.sleep(3000);
 								} catch (InterruptedException e) {
@@ -166,7 +166,7 @@ public class TutorialView extends KitchenView {
 							workbench.get().forceSetState(State.FINISHED);
 							workbench.get()
 								.forceSetContentsAccordingToState(Stack.of(Item.GRILLED_PATTY));
-							workbench.get().ticksUntilStateChange.set(
+							workbench.get().setTicksUntilStateChange(
 								Order.HAMBURGER.getExpirationTimeSeconds() * Game.TPS);
 
 							Platform.runLater(() -> {
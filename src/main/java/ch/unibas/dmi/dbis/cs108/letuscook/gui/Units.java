@@ -10,7 +10,18 @@ public record Units(double u) {
 	private static double scale = 0;
 
 	public Units(double u) {
-		this.u = Math.round(PRECISION * u) / PRECISION;
+		this.u = Units.round(u);
+	}
+
+	/**
+	 * Round a number of units the way every instance is rounded, so that code working on bare
+	 * doubles gets the same values as code working on instances.
+	 *
+	 * @param u the units.
+	 * @return the rounded units.
+	 */
+	public static double round(double u) {
+		return Math.round(PRECISION * u) / PRECISION;
 	}
 
 	/**
@@ -0,0 +1,155 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.orders;
+
+import java.util.Arrays;
+
+/**
+ * An immutable stack that only knows how many of each item it holds, not in which order. The
+ * counts are packed into a few longs, so comparing and hashing two stacks takes a few word
+ * compares rather than sorting their items. Used wherever stacks are matched against each other,
+ * see {@link Stack#equals(Object)}.
+ */
+public final class CompactStack {
+
+	/**
+	 * The width of each count, in bits.
+	 */
+	private static final int BITS_PER_COUNT = 16;
+
+	/**
+	 * How many of one item a stack may hold at most.
+	 */
+	public static final int MAX_COUNT = (1 << CompactStack.BITS_PER_COUNT) - 1;
+
+	/**
+	 * The number of counts packed into each word.
+	 */
+	private static final int COUNTS_PER_WORD = Long.SIZE / CompactStack.BITS_PER_COUNT;
+
+	/**
+	 * All items, by ordinal.
+	 */
+	private static final Item[] ITEMS = Item.values();
+
+	/**
+	 * The number of words needed to hold a count for every item.
+	 */
+	private static final int WORDS =
+		(CompactStack.ITEMS.length + CompactStack.COUNTS_PER_WORD - 1)
+			/ CompactStack.COUNTS_PER_WORD;
+
+	/**
+	 * The empty stack.
+	 */
+	public static final CompactStack EMPTY = new CompactStack(new long[CompactStack.WORDS]);
+
+	/**
+	 * The count of each item, by ordinal, {@link #COUNTS_PER_WORD} to a word.
+	 */
+	private final long[] words;
+
+	/**
+	 * The hash, computed once.
+	 */
+	private final int hash;
+
+	/**
+	 * Create a stack.
+	 *
+	 * @param words the counts, see {@link #words}. Not copied.
+	 */
+	private CompactStack(long[] words) {
+		this.words = words;
+		this.hash = Arrays.hashCode(words);
+	}
+
+	/**
+	 * Create a stack from a listing of items.
+	 *
+	 * @param items the items, in any order.
+	 * @return the stack.
+	 */
+	public static CompactStack of(Item... items) {
+		if (items.length == 0) {
+			return CompactStack.EMPTY;
+		}
+
+		long[] words = new long[CompactStack.WORDS];
+		for (var item : items) {
+			assert item != null : "item is null";
+
+			int word = item.ordinal() / CompactStack.COUNTS_PER_WORD;
+			int shift = item.ordinal() % CompactStack.COUNTS_PER_WORD * CompactStack.BITS_PER_COUNT;
+			assert (words[word] >>> shift & CompactStack.MAX_COUNT) < CompactStack.MAX_COUNT
+				: "too many of one item";
+
+			words[word] += 1L << shift;
+		}
+
+		return new CompactStack(words);
+	}
+
+	/**
+	 * @param item the item.
+	 * @return how many of the item this stack holds.
+	 */
+	public int count(Item item) {
+		int shift = item.ordinal() % CompactStack.COUNTS_PER_WORD * CompactStack.BITS_PER_COUNT;
+
+		return (int) (this.words[item.ordinal() / CompactStack.COUNTS_PER_WORD] >>> shift
+			& CompactStack.MAX_COUNT);
+	}
+
+	/**
+	 * @return whether this stack is empty.
+	 */
+	public boolean isEmpty() {
+		return this.equals(CompactStack.EMPTY);
+	}
+
+	/**
+	 * @return a textual representation of this stack, with the items sorted by ordinal.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+
+		for (var item : CompactStack.ITEMS) {
+			for (int i = this.count(item); i > 0; --i) {
+				sb.append(item);
+				sb.append(",");
+			}
+		}
+
+		if (sb.isEmpty()) {
+			return ",";
+		}
+
+		sb.deleteCharAt(sb.length() - 1);
+
+		return sb.toString();
+	}
+
+	/**
+	 * Check whether another object is a stack holding the same items.
+	 *
+	 * @param object the object.
+	 * @return whether the object is equal to this stack.
+	 */
+	@Override
+	public boolean equals(Object object) {
+		if (this == object) {
+			return true;
+		}
+
+		return object instanceof CompactStack that && this.hash == that.hash
+			&& Arrays.equals(this.words, that.words);
+	}
+
+	/**
+	 * @return a cross-process hash.
+	 */
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+}
@@ -110,7 +110,7 @@ public class CustomerWorkbench extends Workbench {
 		if (this.getOrder().isPresent() && this.getState() == State.ACTIVE && offer.satisfies(
 			order)) {
 			this.forceSetState(State.FINISHED);
-			this.ticksUntilStateChange.set(FINISHED_COOLDOWN_SECONDS * Game.TPS);
+			this.setTicksUntilStateChange(FINISHED_COOLDOWN_SECONDS * Game.TPS);
 
 			return new Stack();
 		}
@@ -118,6 +118,11 @@ public class CustomerWorkbench extends Workbench {
 		return offer;
 	}
 
+	@Override
+	public final boolean isCountingDown() {
+		return true;
+	}
+
 	/**
 	 * Get the fraction of time remaining until the next state change.
 	 *
@@ -135,7 +140,7 @@ public class CustomerWorkbench extends Workbench {
 			case ACTIVE -> order.getExpirationTimeSeconds();
 		};
 
-		return Math.min(total, Math.max(0.01, 1d * this.ticksUntilStateChange.get() / total));
+		return Math.min(total, Math.max(0.01, 1d * this.getTicksUntilStateChange() / total));
 	}
 
 	/**
@@ -4,6 +4,8 @@ import ch.unibas.dmi.dbis.cs108.letuscook.gui.Units;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Coords;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Resource;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
@@ -30,6 +32,17 @@ public enum Item {
 	 */
 	public static final Units SIZE = new Units(Workbench.SIZE.u() / 2);
 
+	/**
+	 * All items by name, so parsing needs neither {@link #valueOf(String)} nor its exception.
+	 */
+	private static final Map<String, Item> BY_NAME = new HashMap<>();
+
+	static {
+		for (var item : Item.values()) {
+			Item.BY_NAME.put(item.name(), item);
+		}
+	}
+
 	/**
 	 * The price of the item.
 	 */
@@ -57,11 +70,11 @@ public enum Item {
 	 * @throws MalformedException if the string does not represent a valid item.
 	 */
 	public static Item fromString(String string) throws MalformedException {
-		try {
-			return Item.valueOf(string);
-		} catch (IllegalArgumentException e) {
+		Item constant = string == null ? null : Item.BY_NAME.get(string);
+		if (constant == null) {
 			throw new MalformedException("bad item");
 		}
+		return constant;
 	}
 
 	/**
@@ -4,6 +4,8 @@ import ch.unibas.dmi.dbis.cs108.letuscook.gui.Units;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Coords;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Resource;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import javafx.scene.canvas.GraphicsContext;
@@ -80,6 +82,24 @@ public enum Order {
 	 */
 	private static final Random RANDOMIZER = new Random();
 
+	/**
+	 * All orders by name, so parsing needs neither {@link #valueOf(String)} nor its exception.
+	 */
+	private static final Map<String, Order> BY_NAME = new HashMap<>();
+
+	/**
+	 * All orders by their stacks, so finding the order a stack satisfies is a single lookup. If
+	 * two orders were made of the same items, the first one would win.
+	 */
+	private static final Map<CompactStack, Order> BY_STACK = new HashMap<>();
+
+	static {
+		for (var order : Order.values()) {
+			Order.BY_NAME.put(order.name(), order);
+			Order.BY_STACK.putIfAbsent(order.compactStack(), order);
+		}
+	}
+
 	/**
 	 * The list of items included in the order.
 	 */
@@ -121,21 +141,21 @@ public enum Order {
 	 * @throws MalformedException if the string does not represent a valid order.
 	 */
 	public static Order fromString(String string) throws MalformedException {
-		try {
-			return Order.valueOf(string);
-		} catch (IllegalArgumentException e) {
+		Order constant = string == null ? null : Order.BY_NAME.get(string);
+		if (constant == null) {
 			throw new MalformedException("bad order");
 		}
+		return constant;
 	}
 
+	/**
+	 * Find the order a stack satisfies, if any.
+	 *
+	 * @param stack the stack.
+	 * @return the order, if it exists.
+	 */
 	public static Optional<Order> findByStack(Stack stack) {
-		for (var order : Order.values()) {
-			if (stack.satisfies(order)) {
-				return Optional.of(order);
-			}
-		}
-
-		return Optional.empty();
+		return Optional.ofNullable(Order.BY_STACK.get(stack.compact()));
 	}
 
 	/**
@@ -151,6 +171,13 @@ public enum Order {
 		return this.stack.copy();
 	}
 
+	/**
+	 * @return the items of the order regardless of their order, without copying them.
+	 */
+	CompactStack compactStack() {
+		return this.stack.compact();
+	}
+
 	/**
 	 * Calculates the price of the order.
 	 *
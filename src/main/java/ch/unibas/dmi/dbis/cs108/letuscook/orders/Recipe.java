@@ -27,6 +27,16 @@ public record Recipe(Stack items, int preparationTimeSeconds, Stack result,
 		return this.items.copy();
 	}
 
+	/**
+	 * Check whether a stack holds the items required for the recipe, without copying them.
+	 *
+	 * @param items the stack.
+	 * @return whether the stack holds the items.
+	 */
+	public boolean takes(Stack items) {
+		return this.items.equals(items);
+	}
+
 	/**
 	 * Returns a copy of the result produced by the recipe.
 	 *
@@ -36,6 +46,16 @@ public record Recipe(Stack items, int preparationTimeSeconds, Stack result,
 		return this.result.copy();
 	}
 
+	/**
+	 * Check whether a stack holds the result produced by the recipe, without copying it.
+	 *
+	 * @param result the stack.
+	 * @return whether the stack holds the result.
+	 */
+	public boolean yields(Stack result) {
+		return this.result.equals(result);
+	}
+
 	/**
 	 * Returns a copy of the items that are ruined if the recipe fails.
 	 *
@@ -1,17 +1,20 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.orders;
 
 import ch.unibas.dmi.dbis.cs108.letuscook.gui.Units;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryReader;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.BinaryWriter;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Coords;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Vector;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
 import javafx.scene.canvas.GraphicsContext;
 
+/**
+ * A stack of items, in the order they were put on it. Stacks are compared regardless of order,
+ * through their {@link #compact()} form.
+ */
 public class Stack {
 
 	/**
@@ -19,6 +22,12 @@ public class Stack {
 	 */
 	private final List<Item> contents = Collections.synchronizedList(new ArrayList<>());
 
+	/**
+	 * The contents as a compact stack, or <code>null</code> until needed. Set and dropped while
+	 * holding {@link #contents}, whenever they change.
+	 */
+	private volatile CompactStack compact = null;
+
 	/**
 	 * Create a stack.
 	 */
@@ -57,22 +66,70 @@ public class Stack {
 
 		Stack stack = new Stack();
 
-		String[] itemStrings = string.split(",");
+		/* Like String.split(","), trailing separators are ignored, so "," is the empty stack. */
+		int end = string.length();
+		while (end > 0 && string.charAt(end - 1) == ',') {
+			--end;
+		}
+		if (end == 0 && !string.isEmpty()) {
+			return stack;
+		}
 
-		for (String itemString : itemStrings) {
-			stack.contents.add(Item.fromString(itemString));
+		for (int start = 0; ; ) {
+			int comma = string.indexOf(',', start);
+			if (comma < 0 || comma > end) {
+				comma = end;
+			}
+			stack.contents.add(Item.fromString(string.substring(start, comma)));
+			if (comma == end) {
+				break;
+			}
+			start = comma + 1;
 		}
 
 		return stack;
 	}
 
+	/**
+	 * Parse the binary encoding of a stack: the number of items, followed by their ordinals.
+	 *
+	 * @param reader the reader.
+	 * @return the stack.
+	 * @throws MalformedException if the encoding is malformed.
+	 */
+	public static Stack fromBinary(BinaryReader reader) throws MalformedException {
+		Stack stack = new Stack();
+		int count = reader.readCount();
+		for (int i = 0; i < count; ++i) {
+			stack.contents.add(reader.readOrdinal(Item.values()));
+		}
+		return stack;
+	}
+
+	/**
+	 * Write the binary encoding of this stack. See {@link #fromBinary(BinaryReader)}.
+	 *
+	 * @param writer the writer.
+	 */
+	public void writeTo(BinaryWriter writer) {
+		Item[] items = this.toArray();
+		writer.writeVarint(items.length);
+		for (var item : items) {
+			writer.writeOrdinal(item);
+		}
+	}
+
 	/**
 	 * Push the items of a stack onto the stack.
 	 *
 	 * @param stack the stack.
 	 */
 	public synchronized void push(final Stack stack) {
-		this.contents.addAll(stack.contents);
+		Item[] items = stack.toArray();
+		synchronized (this.contents) {
+			this.contents.addAll(List.of(items));
+			this.compact = null;
+		}
 	}
 
 	/**
@@ -92,13 +149,21 @@ public class Stack {
 	}
 
 	/**
-	 * @return a sorted list of the items.
+	 * @return the items regardless of their order, computed once per change.
 	 */
-	ArrayList<Item> toSorted() {
-		var sorted = new ArrayList<>(this.contents);
-		sorted.sort(Comparator.comparingInt(Enum::ordinal));
+	public CompactStack compact() {
+		CompactStack compact = this.compact;
+		if (compact != null) {
+			return compact;
+		}
+
+		synchronized (this.contents) {
+			if (this.compact == null) {
+				this.compact = CompactStack.of(this.contents.toArray(new Item[0]));
+			}
 
-		return sorted;
+			return this.compact;
+		}
 	}
 
 	/**
@@ -126,7 +191,7 @@ public class Stack {
 	 * @return whether this stack satisfies the order.
 	 */
 	public boolean satisfies(Order order) {
-		return this.equals(order.stack());
+		return this.compact().equals(order.compactStack());
 	}
 
 	/**
@@ -136,11 +201,10 @@ public class Stack {
 	 * @param coords the coordinates.
 	 */
 	public void draw(GraphicsContext ctx, Coords coords) {
-		for (var order : Order.values()) {
-			if (this.satisfies(order)) {
-				order.draw(ctx, coords);
-				return;
-			}
+		var orderOrEmpty = Order.findByStack(this);
+		if (orderOrEmpty.isPresent()) {
+			orderOrEmpty.get().draw(ctx, coords);
+			return;
 		}
 
 		final Vector offset = new Vector(new Units(0), new Units(Item.SIZE.u() / -4));
@@ -182,20 +246,7 @@ public class Stack {
 	 */
 	@Override
 	public boolean equals(final Object object) {
-		if (!(object instanceof Stack that) || this.contents.size() != that.contents.size()) {
-			return false;
-		}
-
-		var thisSorted = this.toSorted();
-		var thatSorted = that.toSorted();
-
-		for (int i = 0; i < thisSorted.size(); ++i) {
-			if (!thisSorted.get(i).equals(thatSorted.get(i))) {
-				return false;
-			}
-		}
-
-		return true;
+		return object instanceof Stack that && this.compact().equals(that.compact());
 	}
 
 	/**
@@ -203,10 +254,6 @@ public class Stack {
 	 */
 	@Override
 	public int hashCode() {
-		var itemOrdinals = this.toSorted().stream()
-			.map(Enum::ordinal)
-			.collect(Collectors.toList());
-
-		return Objects.hash(itemOrdinals);
+		return this.compact().hashCode();
 	}
 }
@@ -1,6 +1,8 @@
 package ch.unibas.dmi.dbis.cs108.letuscook.orders;
 
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -10,6 +12,17 @@ public enum State {
 
 	IDLE, ACTIVE, FINISHED, EXPIRED;
 
+	/**
+	 * All states by name, so parsing needs neither {@link #valueOf(String)} nor its exception.
+	 */
+	private static final Map<String, State> BY_NAME = new HashMap<>();
+
+	static {
+		for (var state : State.values()) {
+			State.BY_NAME.put(state.name(), state);
+		}
+	}
+
 	/**
 	 * Parses a string representation of a State.
 	 *
@@ -18,11 +31,11 @@ public enum State {
 	 * @throws MalformedException if the string does not represent a valid state.
 	 */
 	public static State fromString(String string) throws MalformedException {
-		try {
-			return State.valueOf(string);
-		} catch (IllegalArgumentException e) {
+		State constant = string == null ? null : State.BY_NAME.get(string);
+		if (constant == null) {
 			throw new MalformedException("bad state");
 		}
+		return constant;
 	}
 
 	/**
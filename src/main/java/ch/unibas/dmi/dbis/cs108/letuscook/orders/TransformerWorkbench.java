@@ -39,7 +39,7 @@ public abstract class TransformerWorkbench extends Workbench {
 	 */
 	public final Optional<Recipe> findRecipeByItems(Stack items) {
 		for (Recipe recipe : this.getRecipes()) {
-			if (recipe.items().equals(items)) {
+			if (recipe.takes(items)) {
 				return Optional.of(recipe);
 			}
 		}
@@ -55,7 +55,7 @@ public abstract class TransformerWorkbench extends Workbench {
 	 */
 	public final Optional<Recipe> findRecipeByResult(Stack result) {
 		for (Recipe recipe : this.getRecipes()) {
-			if (recipe.result().equals(result)) {
+			if (recipe.yields(result)) {
 				return Optional.of(recipe);
 			}
 		}
@@ -101,7 +101,7 @@ public abstract class TransformerWorkbench extends Workbench {
 				if (recipeOrEmpty.isPresent()) {
 					this.forceSetState(State.ACTIVE);
 					this.forceSetContentsAccordingToState(offer);
-					this.ticksUntilStateChange.set(
+					this.setTicksUntilStateChange(
 						recipeOrEmpty.orElseThrow().preparationTimeSeconds() * Game.TPS);
 					return new Stack();
 				}
@@ -118,6 +118,11 @@ public abstract class TransformerWorkbench extends Workbench {
 		return offer;
 	}
 
+	@Override
+	public final boolean isCountingDown() {
+		return this.getState() == State.ACTIVE || this.getState() == State.FINISHED;
+	}
+
 	/**
 	 * Get the fraction of time remaining until the next state change.
 	 *
@@ -136,7 +141,7 @@ public abstract class TransformerWorkbench extends Workbench {
 			case FINISHED -> recipe.expirationTimeSeconds();
 		};
 
-		return Math.min(total, Math.max(0.01, 1d * this.ticksUntilStateChange.get() / total));
+		return Math.min(total, Math.max(0.01, 1d * this.getTicksUntilStateChange() / total));
 	}
 
 	@Override
@@ -11,7 +11,7 @@ import ch.unibas.dmi.dbis.cs108.letuscook.util.Rect;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Vector;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
 import javafx.geometry.VPos;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
@@ -26,9 +26,15 @@ public abstract class Workbench {
 	public static final Units SIZE = new Units(1);
 
 	/**
-	 * Ticks until state change.
+	 * When the state changes next, in ticks on the {@link #clock}.
 	 */
-	public final AtomicInteger ticksUntilStateChange = new AtomicInteger(0);
+	private volatile long deadline = 0;
+
+	/**
+	 * The clock of the game, in ticks, see {@link #useClock(LongSupplier)}. Stands still until a
+	 * game hands out its own.
+	 */
+	private volatile LongSupplier clock = () -> 0;
 
 	/**
 	 * The images to use to represent this workbench.
@@ -55,6 +61,11 @@ public abstract class Workbench {
 	 */
 	private volatile State state = State.IDLE;
 
+	/**
+	 * The version of the game state this workbench last changed in. Server-side only.
+	 */
+	private volatile long version = 0;
+
 	/**
 	 * Create a workbench.
 	 */
@@ -77,6 +88,71 @@ public abstract class Workbench {
 		return this.rect;
 	}
 
+	/**
+	 * @return the version of the game state this workbench last changed in.
+	 */
+	public final long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Record that this workbench changed, see {@link #getVersion()}.
+	 *
+	 * @param version the version.
+	 */
+	public final void setVersion(long version) {
+		this.version = version;
+	}
+
+	/**
+	 * Count down on the clock of a game, so that the ticks until the state changes go down as the
+	 * clock goes up, without anybody having to decrement them.
+	 *
+	 * @param clock the clock, in ticks.
+	 */
+	public final void useClock(LongSupplier clock) {
+		assert clock != null : "clock is null";
+
+		long ticks = this.deadline - this.clock.getAsLong();
+		this.clock = clock;
+		this.deadline = clock.getAsLong() + ticks;
+	}
+
+	/**
+	 * @return the ticks until the state changes, negative once the change is overdue, or 0 if this
+	 * workbench is not counting down.
+	 */
+	public final int getTicksUntilStateChange() {
+		if (!this.isCountingDown()) {
+			return 0;
+		}
+
+		return (int) (this.deadline - this.clock.getAsLong());
+	}
+
+	/**
+	 * Set the ticks until the state changes.
+	 *
+	 * @param ticks the ticks.
+	 */
+	public final void setTicksUntilStateChange(int ticks) {
+		this.deadline = this.clock.getAsLong() + ticks;
+	}
+
+	/**
+	 * @return when the state changes next, in ticks on the clock of the game.
+	 */
+	public final long getDeadline() {
+		return this.deadline;
+	}
+
+	/**
+	 * @return whether the state changes by itself once the ticks until state change run out.
+	 */
+	public boolean isCountingDown() {
+		return false;
+	}
+
 	/**
 	 * @return the workbench state.
 	 */
@@ -199,12 +275,12 @@ public abstract class Workbench {
 			ctx.setFont(Fonts.get(Fonts.GAME_DEBUG));
 			ctx.setFill(Color.RED);
 			ctx.fillText(this.getIdentifier() + " " + this.getState() + ":"
-				+ this.ticksUntilStateChange.get(), rect.getLeft().px(), rect.getBottom().px());
+				+ this.getTicksUntilStateChange(), rect.getLeft().px(), rect.getBottom().px());
 		}
 	}
 
 	public Command[] representedAsCommands() {
 		return new Command[]{new GameUpdateWorkbenchCommand(this.getIdentifier(), this.getState(),
-			this.peekContents(), this.ticksUntilStateChange.get())};
+			this.peekContents(), this.getTicksUntilStateChange())};
 	}
 }
@@ -3,12 +3,19 @@ package ch.unibas.dmi.dbis.cs108.letuscook.server;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.Command;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.IntroduceCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.LobbyJoinCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.PlayerPositionCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Connection;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.DatagramEndpoint;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.DatagramSession;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Frame;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Identifier;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Journal;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Lane;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Messenger;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.TimingWheel;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.TokenBucket;
 import java.io.IOException;
-import java.net.Socket;
 import java.util.ArrayList;
 import java.util.Optional;
 import java.util.function.Consumer;
@@ -24,9 +31,30 @@ public final class Actor {
 	private final Identifier identifier;
 
 	/**
-	 * A {@link Connection} that controls this actor.
+	 * A {@link Connection} that controls this actor. Read once per use: broadcasts iterate over
+	 * snapshots and may reach an actor while it is reconnected or destroyed.
 	 */
-	private Connection connection;
+	private volatile Connection connection;
+
+	/**
+	 * Carries this actor's positions next to the {@link #connection}, or <code>null</code> if the
+	 * client didn't ask for it. Read once per use, like the connection.
+	 */
+	private volatile DatagramSession datagram;
+
+	/**
+	 * The latest frames sent to this actor, so that its client can catch up after resuming its
+	 * session on a new connection, see {@link #resume(Actor, long, Command)}. Also guards
+	 * {@link #connection} against being replaced while a frame is journaled and sent, so that the
+	 * journal and the connection see frames in the same order.
+	 */
+	private final Journal journal = new Journal();
+
+	/**
+	 * The token that lets this actor's client resume its session, or 0 if none was issued. Guarded
+	 * by <code>this</code>.
+	 */
+	private long resumeToken = 0;
 
 	/**
 	 * A {@link Record} containing information about the person represented by this actor.
@@ -38,6 +66,42 @@ public final class Actor {
 	 */
 	private Member member;
 
+	/**
+	 * The lane that consumes this actor's requests while any are pending. Guarded by
+	 * <code>this</code>.
+	 */
+	private Lane lane;
+
+	/**
+	 * The number of this actor's requests that are queued or being consumed. Guarded by
+	 * <code>this</code>.
+	 */
+	private int pendingRequests = 0;
+
+	/**
+	 * This actor's latest request, if it is a position that is queued and not yet being consumed.
+	 * Guarded by <code>this</code>.
+	 */
+	private Request latestPosition;
+
+	/**
+	 * Limit the rate of this actor's requests per priority, or <code>null</code> until first
+	 * needed. Guarded by <code>this</code>.
+	 */
+	private final TokenBucket[] buckets = new TokenBucket[Priority.values().length];
+
+	/**
+	 * Checks that this actor's connection is alive, or <code>null</code> if not started. Guarded
+	 * by <code>this</code>.
+	 */
+	private Heartbeat heartbeat;
+
+	/**
+	 * The priority of all of this actor's pending requests, see {@link #pendingRequests}. Guarded
+	 * by <code>this</code>.
+	 */
+	private Priority priority;
+
 	/**
 	 * Create an actor.
 	 */
@@ -60,9 +124,8 @@ public final class Actor {
 	}
 
 	/**
-	 * Consume a command. This method is supplied to
-	 * {@link Connection#Connection(String, Socket, Consumer)} during
-	 * {@link #createConnection(Socket)}.
+	 * Consume a command. This method is supplied to the {@link Connection.Factory} during
+	 * {@link #createConnection(Connection.Factory)}.
 	 *
 	 * @param command the command to consume.
 	 */
@@ -71,58 +134,172 @@ public final class Actor {
 		 * Add our identifier to this command.
 		 */
 		if (!command.getSubject().isNone()) {
-			Messenger.warn("Receiving non-anonymous command \"" + command + "\" from client");
+			Messenger.warn("Receiving non-anonymous command \"{}\" from client", command);
 		}
 		command.setSubject(this.identifier);
 
 		/*
-		 * Dispatch this command to the server thread.
+		 * Dispatch this command to the server's request lanes.
 		 */
-		Server.the().queueCommand(new Request(this, command));
+		Server.the().queueCommandIfAdmitted(new Request(this, command));
+	}
+
+	/**
+	 * Consume a command received by datagram. Only positions may arrive that way, see
+	 * {@link Frame#mayTravelByDatagram()}; anything else belongs on the connection and is dropped.
+	 *
+	 * @param command the command to consume.
+	 */
+	private void consumeDatagram(Command command) {
+		if (!(command instanceof PlayerPositionCommand)) {
+			Messenger.warn("Ignoring command received by datagram: {}", command);
+			return;
+		}
+
+		this.consumeCommand(command);
+	}
+
+	/**
+	 * Open a datagram session for this actor, replacing any previous one.
+	 *
+	 * @param endpoint the endpoint.
+	 * @return the session.
+	 */
+	synchronized DatagramSession openDatagram(DatagramEndpoint endpoint) {
+		assert endpoint != null : "endpoint is null";
+
+		this.closeDatagram();
+		this.datagram = endpoint.open(this::consumeDatagram);
+		return this.datagram;
+	}
+
+	/**
+	 * Close this actor's datagram session, if any.
+	 */
+	private synchronized void closeDatagram() {
+		if (this.datagram != null) {
+			this.datagram.close();
+			this.datagram = null;
+		}
 	}
 
 	/**
 	 * Set this actor's connection.
 	 *
-	 * @param socket the socket to use when creating this actor's {@link #connection}.
-	 * @throws IOException see {@link Connection#Connection(String, Socket, Consumer)}.
+	 * @param factory creates this actor's {@link #connection}.
+	 * @throws IOException see {@link Connection.Factory#create(String, Consumer)}.
 	 */
-	void createConnection(Socket socket) throws IOException {
+	void createConnection(Connection.Factory factory) throws IOException {
 		assert this.connection().isEmpty();
-		assert socket != null : "socket is null";
+		assert factory != null : "factory is null";
 
-		this.connection = new Connection("conn-" + this.getIdentifier(), socket,
-			this::consumeCommand);
+		this.connection = factory.create("conn-" + this.getIdentifier(), this::consumeCommand);
 	}
 
 	/**
 	 * @return this actor's connection.
 	 */
 	Optional<Connection> connection() {
-		return this.connection == null ? Optional.empty() : Optional.of(this.connection);
+		return Optional.ofNullable(this.connection);
 	}
 
 	/**
-	 * @return See {@link Connection#getAddress()}.
+	 * @return See {@link Connection#getAddress()}, or "unknown" if this actor has no connection.
 	 */
 	String getAddress() {
-		assert this.connection().isPresent() : "no connection";
-
-		return this.connection.getAddress();
+		return this.connection().map(Connection::getAddress).orElse("unknown");
 	}
 
 	/**
-	 * Send commands to this actor's underlying {@link #connection}.
+	 * Send commands to this actor's underlying {@link #connection}. Does nothing if this actor was
+	 * destroyed. Broadcasts deferred in the current batch are sent first, so that they are not
+	 * overtaken, see {@link Lobby#flushBatch()}.
 	 *
 	 * @param commands the commands to send.
 	 */
 	void sendCommands(Command... commands) {
-		assert this.connection().isPresent() : "no connection";
+		if (this.connection == null) {
+			return;
+		}
 
-		for (var command : commands) {
-			assert command != null : "command is null";
+		Lane.flushCurrentBatch();
 
-			this.connection.sendCommandIfAlive(command);
+		synchronized (this.journal) {
+			Connection connection = this.connection;
+			if (connection == null) {
+				return;
+			}
+
+			for (var command : commands) {
+				assert command != null : "command is null";
+
+				Frame frame = new Frame(command);
+				if (Journal.covers(command)) {
+					this.journal.append(frame);
+				}
+				connection.sendFrameIfAlive(frame);
+			}
+		}
+	}
+
+	/**
+	 * Send frames to this actor's underlying {@link #connection}. Used by broadcasts, which encode
+	 * each command once for all recipients. Positions go by datagram instead while this actor's
+	 * datagram session is alive. Does nothing if this actor was destroyed. Broadcasts deferred in
+	 * the current batch are sent first, see {@link #sendCommands(Command...)}.
+	 *
+	 * @param frames the frames to send.
+	 */
+	void sendFrames(Frame... frames) {
+		Lane.flushCurrentBatch();
+
+		synchronized (this.journal) {
+			Connection connection = this.connection;
+			if (connection != null) {
+				this.journalAndSend(connection, frames);
+			}
+		}
+	}
+
+	/**
+	 * Journal frames and send them, see {@link #sendFrames(Frame...)}. Guarded by
+	 * {@link #journal}.
+	 *
+	 * @param connection this actor's connection.
+	 * @param frames     the frames to send.
+	 */
+	private void journalAndSend(Connection connection, Frame[] frames) {
+		int reliable = frames.length;
+		DatagramSession datagram = this.datagram;
+		boolean byDatagram = datagram != null && datagram.isAlive();
+		for (var frame : frames) {
+			assert frame != null : "frame is null";
+
+			if (byDatagram && frame.mayTravelByDatagram()) {
+				datagram.send(frame);
+				--reliable;
+			}
+		}
+
+		if (reliable < frames.length) {
+			Frame[] rest = new Frame[reliable];
+			int i = 0;
+			for (var frame : frames) {
+				if (!frame.mayTravelByDatagram()) {
+					rest[i++] = frame;
+				}
+			}
+			frames = rest;
+		}
+
+		for (var frame : frames) {
+			if (Journal.covers(frame.getCommand())) {
+				this.journal.append(frame);
+			}
+		}
+
+		if (frames.length > 0) {
+			connection.sendFramesIfAlive(frames);
 		}
 	}
 
@@ -137,13 +314,71 @@ public final class Actor {
 	}
 
 	/**
-	 * Replace an actor's existing dead connection.
+	 * Resume this actor's session on the connection of another actor, whose client presented this
+	 * actor's resume token. The connection takes over before the old one is destroyed, so that
+	 * this actor always has a connection. The acknowledgement goes first, followed by whatever the
+	 * client missed according to the {@link #journal}. Nothing sent meanwhile can slip in between.
 	 *
-	 * @param newSocket the new socket.
+	 * @param donor           the actor whose connection to take over. Left without one.
+	 * @param received        how many journaled commands the client received.
+	 * @param acknowledgement the command to send first.
+	 * @return whether the journal still held everything the client missed. If not, the client
+	 * needs a full refresh instead.
 	 */
-	void replaceConnection(Socket newSocket) throws IOException {
-		this.destroyAndRemoveConnection();
-		this.createConnection(newSocket);
+	boolean resume(Actor donor, long received, Command acknowledgement) {
+		assert donor != null && donor != this : "bad donor";
+		assert acknowledgement != null : "acknowledgement is null";
+
+		Connection taken;
+		synchronized (donor.journal) {
+			taken = donor.connection;
+			donor.connection = null;
+		}
+		assert taken != null : "donor has no connection";
+
+		/* The client asks for a datagram session of its own. */
+		this.closeDatagram();
+
+		Connection old;
+		Optional<Frame[]> missed;
+		synchronized (this.journal) {
+			old = this.connection;
+			assert old != null : "cannot resume destroyed actor";
+
+			if (old.usesBinary()) {
+				taken.useBinary();
+			}
+			taken.redirect(this::consumeCommand);
+			this.connection = taken;
+
+			missed = this.journal.since(received);
+			taken.sendCommandIfAlive(acknowledgement);
+			missed.ifPresent(taken::sendFramesIfAlive);
+		}
+		old.destroy();
+
+		return missed.isPresent();
+	}
+
+	/**
+	 * @return the token that lets this actor's client resume its session, or 0 if none was
+	 * issued.
+	 */
+	synchronized long getResumeToken() {
+		return this.resumeToken;
+	}
+
+	/**
+	 * Set the token that lets this actor's client resume its session. <b>This method may only be
+	 * used from within {@link Server#issueResumeToken(Actor)}.</b>
+	 *
+	 * @param resumeToken the token.
+	 */
+	synchronized void setResumeToken(long resumeToken) {
+		assert this.resumeToken == 0 : "resume token already issued";
+		assert resumeToken != 0 : "resume token is 0";
+
+		this.resumeToken = resumeToken;
 	}
 
 	/**
@@ -187,6 +422,91 @@ public final class Actor {
 		this.member = new Member(lobby);
 	}
 
+	/**
+	 * Choose the lane that consumes a request by this actor. As long as earlier requests are
+	 * pending, later ones join them in their lane and at their priority, so that the requests of
+	 * an actor are consumed in order even when the actor moves between lanes. The levels of a lane
+	 * take turns, so a request at any other priority could overtake them while their level waits
+	 * for its turn. <b>This method may only be used from within
+	 * {@link Server#queueCommand(Request)}.</b>
+	 *
+	 * @param preferred the lane the request belongs to.
+	 * @param request   the request, with the priority it belongs to. Changed if needed.
+	 * @return the lane to queue the request in.
+	 */
+	synchronized Lane enterLane(Lane preferred, Request request) {
+		assert preferred != null : "preferred is null";
+		assert request != null : "request is null";
+
+		if (this.pendingRequests++ == 0) {
+			this.lane = preferred;
+			this.priority = request.getPriority();
+		}
+		request.setPriority(this.priority);
+
+		boolean isPosition = request.getCommand() instanceof PlayerPositionCommand;
+		this.latestPosition = isPosition ? request : null;
+
+		return this.lane;
+	}
+
+	/**
+	 * Fold a position into this actor's latest request, if that is a position that is still
+	 * queued. The queued position is outdated anyway, so the newer one takes its place and needs
+	 * no queueing of its own.
+	 *
+	 * @param request a new request by this actor.
+	 * @return whether the request was folded into a queued one.
+	 */
+	synchronized boolean coalescePosition(Request request) {
+		if (this.latestPosition == null
+			|| !(request.getCommand() instanceof PlayerPositionCommand)) {
+			return false;
+		}
+
+		this.latestPosition.replaceCommand(request.getCommand());
+		return true;
+	}
+
+	/**
+	 * Start consuming a request by this actor. From now on, its command is no longer replaced,
+	 * see {@link #coalescePosition(Request)}.
+	 *
+	 * @param request the request.
+	 */
+	synchronized void takeRequest(Request request) {
+		if (this.latestPosition == request) {
+			this.latestPosition = null;
+		}
+	}
+
+	/**
+	 * Take a token for a request by this actor.
+	 *
+	 * @param priority the request's priority.
+	 * @param rate     the rate limit of the priority, used the first time.
+	 * @return whether the request is within the rate limit.
+	 */
+	synchronized boolean tryTakeToken(Priority priority, ServerOptions.Rate rate) {
+		if (this.buckets[priority.ordinal()] == null) {
+			this.buckets[priority.ordinal()] = rate.toBucket();
+		}
+
+		return this.buckets[priority.ordinal()].tryTake();
+	}
+
+	/**
+	 * Mark a request by this actor as consumed, see {@link #enterLane(Lane, Request)}.
+	 *
+	 * @param request the request.
+	 */
+	synchronized void leaveLane(Request request) {
+		assert this.pendingRequests > 0 : "no pending requests";
+		assert request.getPriority() == this.priority : "not pending";
+
+		--this.pendingRequests;
+	}
+
 	/**
 	 * Clear this actor's lobby.
 	 */
@@ -196,10 +516,30 @@ public final class Actor {
 		this.member = null;
 	}
 
+	/**
+	 * Start checking that this actor's connection is alive, see {@link Heartbeat}.
+	 *
+	 * @param wheel    holds the deadlines of the checks.
+	 * @param interval the longest time between two checks, in milliseconds.
+	 */
+	synchronized void startHeartbeat(TimingWheel wheel, long interval) {
+		assert this.heartbeat == null : "heartbeat already started";
+
+		this.heartbeat = new Heartbeat(this, wheel, interval);
+		this.heartbeat.start();
+	}
+
 	/**
 	 * Close all resources used by this actor. <b>Once called, the actor must be discarded.</b>
 	 */
 	public void destroy() {
+		synchronized (this) {
+			if (this.heartbeat != null) {
+				this.heartbeat.stop();
+			}
+			this.closeDatagram();
+		}
+
 		if (this.connection().isPresent()) {
 			this.destroyAndRemoveConnection();
 		}
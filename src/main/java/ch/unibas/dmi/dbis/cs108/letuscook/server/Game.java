@@ -2,10 +2,12 @@ package ch.unibas.dmi.dbis.cs108.letuscook.server;
 
 import ch.unibas.dmi.dbis.cs108.letuscook.client.Client;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.Command;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.GameForceStopCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.GameScoreCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.GameTimeCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.GameUpdateWorkbenchCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.PlayerHoldingCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.SyncCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.gui.ClientGUI;
 import ch.unibas.dmi.dbis.cs108.letuscook.gui.KitchenView;
 import ch.unibas.dmi.dbis.cs108.letuscook.gui.Units;
@@ -23,17 +25,22 @@ import ch.unibas.dmi.dbis.cs108.letuscook.orders.State;
 import ch.unibas.dmi.dbis.cs108.letuscook.orders.TransformerWorkbench;
 import ch.unibas.dmi.dbis.cs108.letuscook.orders.Workbench;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Coords;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.GridIndex;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Identifier;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.IdentifierFactory;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Messenger;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Rect;
-import ch.unibas.dmi.dbis.cs108.letuscook.util.Schedule;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.TickScheduler;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.TimingWheel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 import javafx.scene.input.KeyCode;
 
 /**
@@ -79,6 +86,12 @@ public class Game {
 	 */
 	public static final Units UNITS_PER_TICK = new Units(4d / TPS);
 
+	/**
+	 * Hands out the versions of the game state, shared by all games, so that a version a client
+	 * received in one game is never mistaken for one of another game.
+	 */
+	private static final AtomicLong VERSIONS = new AtomicLong();
+
 	/**
 	 * Barriers.
 	 */
@@ -141,17 +154,73 @@ public class Game {
 		new PlateWorkbench(this.identifierFactory.next(), slot(7, 6)),
 	};
 
+	/**
+	 * The {@link #barriers}, indexed for collision checks.
+	 */
+	private final GridIndex barrierIndex = new GridIndex(this.barriers, Workbench.SIZE.u());
+
+	/**
+	 * The rects of the {@link #workbenches}, in the same order, indexed for finding the closest
+	 * one.
+	 */
+	private final GridIndex workbenchIndex = new GridIndex(Game.rectsOf(this.workbenches),
+		Workbench.SIZE.u());
+
+	/**
+	 * The clock the workbenches count down on, in ticks. Advances every
+	 * {@code TPS / WORKBENCH_TPS} ticks, see {@link Workbench#useClock(LongSupplier)}.
+	 */
+	private final AtomicLong workbenchClock = new AtomicLong();
+
+	/**
+	 * The upcoming state changes of the workbenches, on the {@link #workbenchClock}. Server-side
+	 * only: a tick touches just the workbenches whose state is due to change, so a quiet kitchen
+	 * costs next to nothing.
+	 */
+	private final TimingWheel stateChanges = new TimingWheel(TPS / WORKBENCH_TPS,
+		this.workbenchClock::get);
+
+	/**
+	 * The scheduled state change of each workbench that is counting down.
+	 */
+	private final ConcurrentHashMap<Workbench, TimingWheel.Timeout> stateChangeTimeouts =
+		new ConcurrentHashMap<>();
+
+	/**
+	 * The largest interaction radius of any workbench.
+	 */
+	private final double largestInteractionRadius = Game.largestInteractionRadius(
+		this.workbenches);
+
 	private final Player tutorialPlayer;
 
+	/**
+	 * The version the game state was in when this game started.
+	 */
+	private final long firstVersion;
+
+	/**
+	 * The version of the game state. On the server, the newest one, stamped on every workbench and
+	 * player as it changes, see {@link #markChanged(Workbench)}. On the client, the one the server
+	 * last told us we have received, or -1 if it hasn't yet.
+	 */
+	private final AtomicLong version;
+
+	/**
+	 * The version last announced to the members of the lobby. Only touched by the tick.
+	 */
+	private long announcedVersion;
+
 	/**
 	 * Represents the score of the game.
 	 */
 	private int score = 0;
 
 	/**
-	 * The tick thread.
+	 * The tick, driven by the shared {@link TickScheduler}. Started last in the constructor, once
+	 * the fields it reads are set.
 	 */
-	private final Schedule tick = Schedule.atFixedRate(this::tick, 1000 / TPS, "tick");
+	private final TickScheduler.Task tick;
 
 	/**
 	 * Create a new Game instance.
@@ -164,8 +233,20 @@ public class Game {
 		this.lobby = lobby;
 		this.ticksUntilGameOver = new AtomicInteger(ticksUntilGameOver);
 		this.tutorialPlayer = tutorialPlayer;
+		this.firstVersion = Game.VERSIONS.get();
+		this.version = new AtomicLong(lobby.isServerSide ? this.firstVersion : -1);
+		this.announcedVersion = this.firstVersion;
+
+		for (var workbench : this.workbenches) {
+			workbench.useClock(this.workbenchClock::get);
+			if (lobby.isServerSide) {
+				this.scheduleStateChange(workbench);
+			}
+		}
 
 		// this.printWorkbenches();
+
+		this.tick = TickScheduler.the().atFixedRate(this::tick, 1000 / TPS);
 	}
 
 	private static Coords slot(double x, double y) {
@@ -173,6 +254,22 @@ public class Game {
 			new Units((y - 0.5) * Workbench.SIZE.u()));
 	}
 
+	private static Rect[] rectsOf(Workbench[] workbenches) {
+		Rect[] rects = new Rect[workbenches.length];
+		for (int i = 0; i < workbenches.length; ++i) {
+			rects[i] = workbenches[i].getRect();
+		}
+		return rects;
+	}
+
+	private static double largestInteractionRadius(Workbench[] workbenches) {
+		double radius = 0;
+		for (var workbench : workbenches) {
+			radius = Math.max(radius, workbench.getRect().getInteractionRadius().u());
+		}
+		return radius;
+	}
+
 	private static Rect slots(double x, double y, double width, double height) {
 		Coords slot = Game.slot(x + (width - 1) / 2, y + (height - 1) / 2);
 
@@ -198,6 +295,13 @@ public class Game {
 		this.tick.stop();
 	}
 
+	/**
+	 * @return the tick, to read its lag.
+	 */
+	public TickScheduler.Task getTick() {
+		return this.tick;
+	}
+
 	/**
 	 * Returns the current score of the game.
 	 *
@@ -216,6 +320,63 @@ public class Game {
 		this.score = score;
 	}
 
+	/**
+	 * @return the version of the game state, see {@link #version}.
+	 */
+	public long getVersion() {
+		return this.version.get();
+	}
+
+	/**
+	 * Remember the version of the game state the server says we have received. Client-side only.
+	 *
+	 * @param version the version.
+	 */
+	public void setVersion(long version) {
+		assert !this.lobby.isServerSide : "server-side game";
+
+		this.version.set(version);
+	}
+
+	/**
+	 * Check whether a version of the game state belongs to this game, so that the changes since
+	 * can be told apart. Versions of other games, or from before a rejoin, do not.
+	 *
+	 * @param version the version.
+	 * @return whether the version is one of this game's.
+	 */
+	public boolean hasVersion(long version) {
+		return version >= this.firstVersion && version <= this.version.get();
+	}
+
+	/**
+	 * Stamp a new version on a workbench that changed. Call once the change has been broadcast, so
+	 * that no announcement of the version overtakes it.
+	 *
+	 * @param workbench the workbench.
+	 */
+	public void markChanged(Workbench workbench) {
+		assert this.lobby.isServerSide : "client-side game";
+
+		long version = Game.VERSIONS.incrementAndGet();
+		workbench.setVersion(version);
+		this.version.accumulateAndGet(version, Math::max);
+	}
+
+	/**
+	 * Stamp a new version on a player that changed. Call once the change has been broadcast, so
+	 * that no announcement of the version overtakes it.
+	 *
+	 * @param player the player.
+	 */
+	public void markChanged(Player player) {
+		assert this.lobby.isServerSide : "client-side game";
+
+		long version = Game.VERSIONS.incrementAndGet();
+		player.setVersion(version);
+		this.version.accumulateAndGet(version, Math::max);
+	}
+
 	/**
 	 * Get a workbench via its identifier.
 	 *
@@ -241,21 +402,20 @@ public class Game {
 	 * @return The closest workbench
 	 */
 	public Optional<Workbench> getWorkbenchIfInReach(Player player) {
-		Workbench closestWorkbench = null;
-		Units smallestDistance = new Units(0);
+		Rect rect = player.getRect();
 
-		for (var workbench : this.workbenches) {
-			Units distance = Coords.distance(workbench.getRect(),
-				player.getRect());
-			if (distance.u() < smallestDistance.u() || closestWorkbench == null) {
-				closestWorkbench = workbench;
-				smallestDistance = distance;
-			}
-		}
+		/*
+		 * A workbench can only be in reach if its center is at most this far away, see
+		 * Rect#isInInteractionRadius(Rect). Anything further away is not worth looking at: if the
+		 * closest workbench is, it is out of reach anyway.
+		 */
+		double reach = Math.sqrt(
+			Math.pow(rect.getWidth().u() / 2 + this.largestInteractionRadius, 2) + Math.pow(
+				rect.getHeight().u() / 2 + this.largestInteractionRadius, 2)) + 1e-9;
 
-		if (closestWorkbench != null && closestWorkbench.getRect()
-			.isInInteractionRadius(player.getRect())) {
-			return Optional.of(closestWorkbench);
+		int closest = this.workbenchIndex.closest(rect, reach);
+		if (closest >= 0 && this.workbenches[closest].getRect().isInInteractionRadius(rect)) {
+			return Optional.of(this.workbenches[closest]);
 		}
 
 		return Optional.empty();
@@ -271,6 +431,9 @@ public class Game {
 		Workbench workbench = workbenchOrEmpty.get();
 
 		player.setHolding(workbench.trade(player.getHolding()));
+		if (this.lobby.isServerSide) {
+			this.scheduleStateChange(workbench);
+		}
 
 		return workbenchOrEmpty;
 	}
@@ -285,7 +448,7 @@ public class Game {
 		synchronized (Objects.requireNonNull(workbench)) {
 			workbench.forceSetState(gameUpdateWorkbenchCommand.getState());
 			workbench.forceSetContentsAccordingToState(gameUpdateWorkbenchCommand.getContents());
-			workbench.ticksUntilStateChange.set(
+			workbench.setTicksUntilStateChange(
 				gameUpdateWorkbenchCommand.getTicksUntilStateChange());
 			workbench.setGameScoreAtLastUpdate(this.getScore());
 		}
@@ -303,12 +466,32 @@ public class Game {
 	}
 
 	public void movePlayerBy(Player player, Units x, Units y) {
-		Rect now = player.getRect().copy();
-		Rect next = now.copy();
+		this.movePlayerBy(player, x.u(), y.u());
+	}
+
+	/**
+	 * Move a player, stopping at barriers and at the edges of the playable area. Runs on every
+	 * position received and on every tick, so it works on bare doubles and allocates nothing.
+	 *
+	 * @param player the player.
+	 * @param x      the horizontal displacement, in units.
+	 * @param y      the vertical displacement, in units.
+	 */
+	public void movePlayerBy(Player player, double x, double y) {
+		Rect rect = player.getRect();
+		double width = rect.getWidth().u();
+		double height = rect.getHeight().u();
+
+		double nowLeft = rect.left();
+		double nowTop = rect.top();
+		double nowRight = rect.right();
+		double nowBottom = rect.bottom();
 
 		/* Move. */
-		next.setLeft(new Units(Math.max(PLAYABLE_AREA.getLeft().u(), now.getLeft().u() + x.u())));
-		next.setTop(new Units(Math.max(PLAYABLE_AREA.getTop().u(), now.getTop().u() + y.u())));
+		double nextX = Rect.centerAtLowEdge(
+			Math.max(PLAYABLE_AREA.left(), nowLeft + Units.round(x)), width);
+		double nextY = Rect.centerAtLowEdge(
+			Math.max(PLAYABLE_AREA.top(), nowTop + Units.round(y)), height);
 
 		/* Collide with barriers. */
 		int iterations = 0;
@@ -316,50 +499,140 @@ public class Game {
 			++iterations;
 			assert iterations < 100 : "could not avoid collision";
 
+			double nextLeft = Rect.lowEdge(nextX, width);
+			double nextTop = Rect.lowEdge(nextY, height);
+			double nextRight = Rect.highEdge(nextX, width);
+			double nextBottom = Rect.highEdge(nextY, height);
+
 			/* Search for a collision. */
-			Rect obstacle = null;
-			for (var barrier : this.barriers) {
-				if (next.isWithin(barrier)) {
-					obstacle = barrier;
-				}
-			}
-			if (obstacle == null) {
+			int collision = this.barrierIndex.lastCollision(nextLeft, nextTop, nextRight,
+				nextBottom);
+			if (collision < 0) {
 				break;
 			}
+			Rect obstacle = this.barriers[collision];
 
-			boolean nowBelowObstacleBottom = now.getTop().u() >= obstacle.getBottom().u();
-			boolean nextAboveObstacleBottom = next.getTop().u() < obstacle.getBottom().u();
+			boolean nowBelowObstacleBottom = nowTop >= obstacle.bottom();
+			boolean nextAboveObstacleBottom = nextTop < obstacle.bottom();
 
-			boolean nowAboveObstacleTop = now.getBottom().u() <= obstacle.getTop().u();
-			boolean nextBelowObstacleTop = next.getBottom().u() > obstacle.getTop().u();
+			boolean nowAboveObstacleTop = nowBottom <= obstacle.top();
+			boolean nextBelowObstacleTop = nextBottom > obstacle.top();
 
-			boolean nowWestOfObstacleLeft = now.getRight().u() <= obstacle.getLeft().u();
-			boolean nextEastOfObstacleLeft = next.getRight().u() > obstacle.getLeft().u();
+			boolean nowWestOfObstacleLeft = nowRight <= obstacle.left();
+			boolean nextEastOfObstacleLeft = nextRight > obstacle.left();
 
-			boolean nowEastOfObstacleRight = now.getLeft().u() >= obstacle.getRight().u();
-			boolean nextWestOfObstacleRight = next.getLeft().u() < obstacle.getRight().u();
+			boolean nowEastOfObstacleRight = nowLeft >= obstacle.right();
+			boolean nextWestOfObstacleRight = nextLeft < obstacle.right();
 
 			if (nowBelowObstacleBottom && nextAboveObstacleBottom) { /* bottom collision */
-				next.setTop(obstacle.getBottom());
+				nextY = Rect.centerAtLowEdge(obstacle.bottom(), height);
 			} else if (nowAboveObstacleTop && nextBelowObstacleTop) { /* top collision */
-				next.setBottom(obstacle.getTop());
+				nextY = Rect.centerAtHighEdge(obstacle.top(), height);
 			}
 
 			if (nowWestOfObstacleLeft && nextEastOfObstacleLeft) { /* left collision */
-				next.setRight(obstacle.getLeft());
+				nextX = Rect.centerAtHighEdge(obstacle.left(), width);
 			} else if (nowEastOfObstacleRight && nextWestOfObstacleRight) { /* right collision */
-				next.setLeft(obstacle.getRight());
+				nextX = Rect.centerAtLowEdge(obstacle.right(), width);
 			}
 		}
 
 		/* Clamp coordinates to world size. */
-		next.setLeft(new Units(
-			Math.min(next.getLeft().u(), PLAYABLE_AREA.getRight().u() - now.getWidth().u())));
-		next.setTop(new Units(
-			Math.min(next.getTop().u(), PLAYABLE_AREA.getBottom().u() - now.getHeight().u())));
+		nextX = Rect.centerAtLowEdge(
+			Math.min(Rect.lowEdge(nextX, width), PLAYABLE_AREA.right() - width), width);
+		nextY = Rect.centerAtLowEdge(
+			Math.min(Rect.lowEdge(nextY, height), PLAYABLE_AREA.bottom() - height), height);
 
-		player.getRect().setX(next.getX());
-		player.getRect().setY(next.getY());
+		rect.setX(nextX);
+		rect.setY(nextY);
+	}
+
+	/**
+	 * Schedule the next state change of a workbench, replacing the one scheduled before. Call
+	 * whenever the state or the ticks until state change of a workbench may have changed.
+	 *
+	 * @param workbench the workbench.
+	 */
+	private void scheduleStateChange(Workbench workbench) {
+		var previous = this.stateChangeTimeouts.remove(workbench);
+		if (previous != null) {
+			previous.cancel();
+		}
+
+		if (!workbench.isCountingDown()) {
+			return;
+		}
+
+		/* The state changes on the first step at which the ticks until state change are negative. */
+		long deadline = workbench.getDeadline();
+		this.stateChangeTimeouts.put(workbench, this.stateChanges.schedule(
+			Math.max(0, deadline + 1 - this.workbenchClock.get()),
+			() -> this.changeState(workbench, deadline)));
+	}
+
+	/**
+	 * Apply the state change of a workbench that is due, and broadcast it.
+	 *
+	 * @param workbench the workbench.
+	 * @param deadline  the deadline the state change was scheduled for. If the workbench has been
+	 *                  given another one since, or stopped counting down, nothing happens.
+	 */
+	private void changeState(Workbench workbench, long deadline) {
+		if (workbench.getDeadline() != deadline || !workbench.isCountingDown()) {
+			return;
+		}
+
+		if (workbench instanceof TransformerWorkbench transformerWorkbench) {
+			switch (workbench.getState()) {
+				case ACTIVE -> {
+					workbench.forceSetState(State.FINISHED);
+					workbench.setTicksUntilStateChange(
+						transformerWorkbench.getRecipe().expirationTimeSeconds() * TPS);
+				}
+				case FINISHED -> {
+					if (transformerWorkbench.getRecipe().expirationTimeSeconds() > 0) {
+						workbench.forceSetState(State.EXPIRED);
+					} else {
+						/* The transformation is finished and cannot expire. No state has changed. */
+						return;
+					}
+				}
+			}
+		} else if (workbench instanceof CustomerWorkbench customerWorkbench) {
+			switch (workbench.getState()) {
+				case ACTIVE -> {
+					workbench.forceSetState(State.EXPIRED);
+					workbench.setTicksUntilStateChange(
+						CustomerWorkbench.EXPIRED_COOLDOWN_SECONDS * TPS);
+				}
+				case FINISHED, EXPIRED -> {
+					if (workbench.getState() == State.FINISHED) {
+						this.score += customerWorkbench.getOrder().orElseThrow().getPrice();
+						this.lobby.broadcast(new GameScoreCommand(this.getScore()));
+					}
+					workbench.forceSetState(State.IDLE);
+					customerWorkbench.forceSetOrder(null);
+					workbench.setTicksUntilStateChange(
+						CustomerWorkbench.IDLE_COOLDOWN_SECONDS * TPS);
+				}
+				case IDLE -> {
+					customerWorkbench.forceSetState(State.ACTIVE);
+					customerWorkbench.forceSetOrder(Order.pickRandom());
+					customerWorkbench.setTicksUntilStateChange(
+						customerWorkbench.getOrder().orElseThrow().getExpirationTimeSeconds()
+							* TPS);
+					Messenger.debug("Announced new order at customer workbench {}",
+						customerWorkbench.getIdentifier());
+				}
+			}
+		}
+
+		this.scheduleStateChange(workbench);
+
+		/* Broadcast the state change. */
+		this.lobby.broadcast(workbench.representedAsCommands());
+		this.markChanged(workbench);
+		Messenger.debug("State of workbench {} changed", workbench.getIdentifier());
 	}
 
 	private Object tick() {
@@ -368,89 +641,32 @@ public class Game {
 			return null;
 		}
 
-		int currentTick = this.ticksUntilGameOver.decrementAndGet() % TPS; // FIXME: Remove % TPS?
+		int ticksUntilGameOver = this.ticksUntilGameOver.decrementAndGet();
+		int currentTick = ticksUntilGameOver % TPS; // FIXME: Remove % TPS?
+
+		/* Have the lobby stop the game once time is up. This happens exactly once. */
+		if (ticksUntilGameOver == 0 && this.lobby.isServerSide) {
+			Server.the().queueCommand(new Request(this.lobby, new GameForceStopCommand()));
+		}
+
+		/*
+		 * Once a second, have the lobby announce the version of the game state, if it changed. The
+		 * lobby does so in its lane, behind the broadcasts of the changes it has stamped.
+		 */
+		if (currentTick == 0 && this.lobby.isServerSide
+			&& this.version.get() != this.announcedVersion) {
+			this.announcedVersion = this.version.get();
+			Server.the().queueCommand(new Request(this.lobby, this.syncRepresentedAsCommand(
+				this.announcedVersion)));
+		}
 
 		/*
 		 * Update workbenches.
 		 */
 		if (currentTick % (TPS / WORKBENCH_TPS) == 0) {
-			for (var workbench : this.workbenches) {
-				/* Determine if we're ticking this workbench. */
-				boolean tickingTransformerWorkbench =
-					workbench instanceof TransformerWorkbench && (
-						workbench.getState() == State.ACTIVE || workbench.getState()
-							== State.FINISHED);
-				boolean tickingCustomerWorkbench = workbench instanceof CustomerWorkbench;
-
-				/* Update ticks until state change. */
-				var ticks = 0;
-				if (tickingTransformerWorkbench || tickingCustomerWorkbench) {
-					ticks = workbench.ticksUntilStateChange.addAndGet(
-						-(TPS / WORKBENCH_TPS) /* FIXME: */);
-				}
-
-				/* Check if we should apply the state change. */
-				boolean applyStateChange = ticks < 0 && this.lobby.isServerSide;
-
-				/* Apply the state change. */
-				if (applyStateChange) {
-					if (tickingTransformerWorkbench) {
-						switch (workbench.getState()) {
-							case ACTIVE -> {
-								workbench.forceSetState(State.FINISHED);
-								workbench.ticksUntilStateChange.set(
-									((TransformerWorkbench) workbench).getRecipe()
-										.expirationTimeSeconds() * TPS);
-							}
-							case FINISHED -> {
-								if (((TransformerWorkbench) workbench).getRecipe()
-									.expirationTimeSeconds() > 0) {
-									workbench.forceSetState(State.EXPIRED);
-								} else {
-									/* The transformation is finished and cannot expire. No state has changed. */
-									applyStateChange = false;
-								}
-							}
-						}
-					} else {
-						switch (workbench.getState()) {
-							case ACTIVE -> {
-								workbench.forceSetState(State.EXPIRED);
-								workbench.ticksUntilStateChange.set(
-									CustomerWorkbench.EXPIRED_COOLDOWN_SECONDS * TPS);
-							}
-							case FINISHED, EXPIRED -> {
-								if (workbench.getState() == State.FINISHED) {
-									this.score += ((CustomerWorkbench) workbench).getOrder()
-										.orElseThrow().getPrice();
-									this.lobby.broadcast(
-										new GameScoreCommand(this.getScore()));
-								}
-								workbench.forceSetState(State.IDLE);
-								((CustomerWorkbench) workbench).forceSetOrder(null);
-								workbench.ticksUntilStateChange.set(
-									CustomerWorkbench.IDLE_COOLDOWN_SECONDS * TPS);
-							}
-							case IDLE -> {
-								CustomerWorkbench customerWorkbench = (CustomerWorkbench) workbench;
-								customerWorkbench.forceSetState(State.ACTIVE);
-								customerWorkbench.forceSetOrder(Order.pickRandom());
-								customerWorkbench.ticksUntilStateChange.set(
-									customerWorkbench.getOrder().orElseThrow()
-										.getExpirationTimeSeconds() * TPS);
-								Messenger.debug("Announced new order at customer workbench "
-									+ customerWorkbench.getIdentifier());
-							}
-						}
-					}
-				}
-
-				if (applyStateChange) {
-					/* Broadcast the state change. */
-					this.lobby.broadcast(workbench.representedAsCommands());
-					Messenger.debug(
-						"State of workbench " + workbench.getIdentifier() + " changed");
-				}
+			long now = this.workbenchClock.addAndGet(TPS / WORKBENCH_TPS);
+			if (this.lobby.isServerSide) {
+				this.stateChanges.advanceTo(now);
 			}
 		}
 
@@ -478,19 +694,19 @@ public class Game {
 		 */
 		if (ClientGUI.exists() && ClientGUI.the()
 			.getActiveView() instanceof KitchenView kitchenView) {
-			Units vx = new Units(
+			double vx = Units.round(
 				UNITS_PER_TICK.u() * ((kitchenView.keys.getOrDefault(KeyCode.D, false) ? 1 : 0)
 					- (
 					kitchenView.keys.getOrDefault(KeyCode.A, false) ? 1 : 0)));
-			Units vy = new Units(
+			double vy = Units.round(
 				UNITS_PER_TICK.u() * ((kitchenView.keys.getOrDefault(KeyCode.S, false) ? 1 : 0)
 					- (
 					kitchenView.keys.getOrDefault(KeyCode.W, false) ? 1 : 0)));
 
 			/* Normalize diagonal movement speed. */
-			if (vx.u() != 0 && vy.u() != 0) {
-				vx = new Units(vx.u() * Math.cos(Math.PI / 4));
-				vy = new Units(vy.u() * Math.sin(Math.PI / 4));
+			if (vx != 0 && vy != 0) {
+				vx = vx * Math.cos(Math.PI / 4);
+				vy = vy * Math.sin(Math.PI / 4);
 			}
 			this.movePlayerBy(player, vx, vy);
 		}
@@ -544,7 +760,57 @@ public class Game {
 		return time;
 	}
 
+	/**
+	 * @return the positions of all players, e.g. for a client that missed some of them.
+	 */
+	public Command[] positionsRepresentedAsCommands() {
+		var commands = new ArrayList<Command>();
+
+		for (var actor : this.lobby.getActors()) {
+			var playerOrEmpty = actor.member().orElseThrow().player();
+			if (playerOrEmpty.isPresent()) {
+				commands.add(playerOrEmpty.orElseThrow().positionRepresentedAsCommand(actor));
+			}
+		}
+
+		return commands.toArray(new Command[0]);
+	}
+
+	/**
+	 * @param version the version.
+	 * @return the announcement of a version of the game state.
+	 */
+	public Command syncRepresentedAsCommand(long version) {
+		SyncCommand sync = null;
+
+		try {
+			sync = new SyncCommand(version);
+		} catch (MalformedException e) {
+			assert false : "negative version";
+		}
+
+		return sync;
+	}
+
+	/**
+	 * @return the whole game state.
+	 */
 	public Command[] representedAsCommands() {
+		return this.representedAsCommands(-1);
+	}
+
+	/**
+	 * Represent the game state as far as it changed since a version, followed by the version it is
+	 * in now. Time and score are always included, they are cheap.
+	 *
+	 * @param since the version the recipient last received, see {@link #hasVersion(long)}, or -1
+	 *              for everything.
+	 * @return the commands.
+	 */
+	public Command[] representedAsCommands(long since) {
+		/* Read the version first: what changes meanwhile is included now, and again next time. */
+		long version = this.version.get();
+
 		var commands = new ArrayList<Command>();
 
 		/* Ticks remaining. */
@@ -555,19 +821,26 @@ public class Game {
 
 		/* Workbenches. */
 		for (var workbench : this.workbenches) {
-			commands.addAll(Arrays.asList(workbench.representedAsCommands()));
+			if (workbench.getVersion() > since) {
+				commands.addAll(Arrays.asList(workbench.representedAsCommands()));
+			}
 		}
 
 		/* Players. */
 		for (var actor : this.lobby.getActors()) {
 			var playerOrEmpty = actor.member().orElseThrow().player();
-			if (playerOrEmpty.isPresent()) {
+			if (playerOrEmpty.isPresent() && playerOrEmpty.orElseThrow().getVersion() > since) {
 				commands.addAll(
 					Arrays.asList(
 						playerOrEmpty.orElseThrow().representedAsCommands(actor)));
 			}
 		}
 
+		/* Version. */
+		if (this.lobby.isServerSide) {
+			commands.add(this.syncRepresentedAsCommand(version));
+		}
+
 		return commands.toArray(new Command[0]);
 	}
 }
@@ -0,0 +1,154 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.server;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.DisappearCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Connection;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Messenger;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.TimingWheel;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Checks that an actor's connection is alive. Each actor has a deadline of its own on a
+ * {@link TimingWheel}, jittered so that connections are not all pinged at once. At each deadline,
+ * a connection that received anything since the previous one is alive and isn't pinged. A silent
+ * connection is pinged, and times out if it is still silent at the next deadline.
+ *
+ * <p>So that busy connections have their round trips measured too, they are pinged every
+ * {@link #SAMPLE_EVERY} deadlines regardless.</p>
+ */
+class Heartbeat {
+
+	/**
+	 * How many deadlines an alive connection goes without being pinged.
+	 */
+	private static final int SAMPLE_EVERY = 5;
+
+	/**
+	 * The actor.
+	 */
+	private final Actor actor;
+
+	/**
+	 * Holds the deadlines.
+	 */
+	private final TimingWheel wheel;
+
+	/**
+	 * The longest time between two deadlines, in milliseconds.
+	 */
+	private final long interval;
+
+	/**
+	 * The next deadline. Guarded by <code>this</code>.
+	 */
+	private TimingWheel.Timeout deadline;
+
+	/**
+	 * The connection at the previous deadline. Guarded by <code>this</code>.
+	 */
+	private Connection connection;
+
+	/**
+	 * The number of commands the connection had received at the previous deadline. Guarded by
+	 * <code>this</code>.
+	 */
+	private long received;
+
+	/**
+	 * Whether the connection was pinged at the previous deadline. Guarded by <code>this</code>.
+	 */
+	private boolean pinged = false;
+
+	/**
+	 * The number of deadlines since the connection was last pinged. Guarded by
+	 * <code>this</code>.
+	 */
+	private int unpinged = 0;
+
+	/**
+	 * Whether {@link #stop()} was called. Guarded by <code>this</code>.
+	 */
+	private boolean stopped = false;
+
+	/**
+	 * Create a heartbeat.
+	 *
+	 * @param actor    the actor.
+	 * @param wheel    holds the deadlines.
+	 * @param interval the longest time between two deadlines, in milliseconds.
+	 */
+	Heartbeat(Actor actor, TimingWheel wheel, long interval) {
+		assert actor != null : "actor is null";
+		assert wheel != null : "wheel is null";
+		assert interval > 0 : "interval must be positive";
+
+		this.actor = actor;
+		this.wheel = wheel;
+		this.interval = interval;
+	}
+
+	/**
+	 * Schedule the first deadline.
+	 */
+	synchronized void start() {
+		assert this.deadline == null : "already started";
+
+		this.scheduleNext();
+	}
+
+	/**
+	 * Cancel the next deadline.
+	 */
+	synchronized void stop() {
+		this.stopped = true;
+		if (this.deadline != null) {
+			this.deadline.cancel();
+		}
+	}
+
+	/**
+	 * Schedule the next deadline, up to a quarter of the interval early. Guarded by
+	 * <code>this</code>.
+	 */
+	private void scheduleNext() {
+		long jitter = ThreadLocalRandom.current().nextLong(this.interval / 4 + 1);
+		this.deadline = this.wheel.schedule(this.interval - jitter, this::check);
+	}
+
+	/**
+	 * Check the connection at a deadline.
+	 */
+	private synchronized void check() {
+		if (this.stopped) {
+			return;
+		}
+
+		Connection connection = this.actor.connection().orElse(null);
+		if (connection == null) {
+			return;
+		}
+
+		long received = connection.getReceived();
+		if (connection != this.connection || received != this.received) {
+			this.connection = connection;
+			this.received = received;
+			this.pinged = false;
+			if (++this.unpinged >= Heartbeat.SAMPLE_EVERY && !connection.isAwaitingPong()) {
+				this.unpinged = 0;
+				connection.ping();
+			}
+			this.scheduleNext();
+			return;
+		}
+
+		if (this.pinged) {
+			Messenger.error("Connection timed out - closing actor");
+			Server.the().queueCommand(new Request(this.actor, new DisappearCommand()));
+			return;
+		}
+
+		connection.ping();
+		this.pinged = true;
+		this.unpinged = 0;
+		this.scheduleNext();
+	}
+}
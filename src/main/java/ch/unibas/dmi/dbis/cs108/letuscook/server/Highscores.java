@@ -67,7 +67,7 @@ public class Highscores {
 		return Collections.unmodifiableList(this.highscores);
 	}
 
-	public void submitScore(final Highscore score) {
+	public synchronized void submitScore(final Highscore score) {
 		if (score.getNames().length == 0) {
 			/* This can happen if the server stops a game because all players left. */
 			return;
@@ -104,7 +104,7 @@ public class Highscores {
 	}
 
 	@Override
-	public String toString() {
+	public synchronized String toString() {
 		StringBuilder sb = new StringBuilder();
 
 		if (this.highscores.isEmpty()) {
@@ -5,12 +5,16 @@ import ch.unibas.dmi.dbis.cs108.letuscook.commands.GameTimeCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.HighscoresCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.LobbyOpenCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.LobbyReadyCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Frame;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Lane;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Messenger;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 
 /**
  * A group of actors (members).
@@ -28,9 +32,28 @@ public class Lobby {
 	private final String name;
 
 	/**
-	 * The actors that are members of this lobby.
+	 * The actors that are members of this lobby. Copied on write, so that broadcasts iterate over
+	 * a snapshot without locking out joins, leaves, or other broadcasts. Writers synchronize on
+	 * the list to check and modify it at once.
 	 */
-	private final List<Actor> actors = Collections.synchronizedList(new ArrayList<Actor>());
+	private final List<Actor> actors = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Consumes the requests concerning this lobby, one at a time. Only exists server-side.
+	 */
+	private final Lane lane;
+
+	/**
+	 * Broadcasts made by the requests of the current batch of the {@link #lane}, in order. Only
+	 * used from within the lane. Superseded positions are <code>null</code>.
+	 */
+	private final ArrayList<Deferred> deferred = new ArrayList<>();
+
+	/**
+	 * The index in {@link #deferred} of the newest broadcast per coalescing key, see
+	 * {@link Frame#getCoalescingKey()}. Only used from within the lane.
+	 */
+	private final HashMap<Object, Integer> deferredByKey = new HashMap<>();
 
 	boolean tutorial;
 
@@ -56,10 +79,25 @@ public class Lobby {
 	 * @param name         the lobby name.
 	 */
 	public Lobby(boolean isServerSide, String name) {
+		this(isServerSide, name,
+			afterBatch -> Server.the().createLane("lobby " + name, afterBatch));
+	}
+
+	/**
+	 * Create a lobby with a lane of its own making, e.g. without a server.
+	 *
+	 * @param isServerSide whether this lobby is server-side.
+	 * @param name         the lobby name.
+	 * @param lanes        creates the lane of a server-side lobby, given what to call after each
+	 *                     batch.
+	 */
+	Lobby(boolean isServerSide, String name, Function<Runnable, Lane> lanes) {
 		assert name != null : "name is null";
+		assert lanes != null : "lanes is null";
 
 		this.isServerSide = isServerSide;
 		this.name = name;
+		this.lane = isServerSide ? lanes.apply(this::flushBatch) : null;
 	}
 
 	public boolean isTutorial() {
@@ -77,6 +115,15 @@ public class Lobby {
 		return this.name;
 	}
 
+	/**
+	 * @return the lane that consumes the requests concerning this lobby.
+	 */
+	public Lane getLane() {
+		assert this.isServerSide : "client-side lobbies have no lane";
+
+		return this.lane;
+	}
+
 	/**
 	 * @return the members.
 	 */
@@ -138,31 +185,99 @@ public class Lobby {
 	}
 
 	/**
-	 * Send commands to all members.
+	 * Send commands to all members. Deferred until the end of the batch if made from within this
+	 * lobby's lane, see {@link #flushBatch()}.
 	 *
 	 * @param commands the commands to send.
 	 */
 	void broadcast(Command... commands) {
-		synchronized (this.actors) { /* Reminder: Synchronizing things like these is absolutely still necessary! See how actors handle chat messages! */
-			for (var member : this.actors) {
-				member.sendCommands(commands);
+		Frame[] frames = Frame.of(commands);
+		if (this.isInOwnLane()) {
+			for (var frame : frames) {
+				this.defer(frame, null);
 			}
+			return;
+		}
+
+		for (var member : this.actors) {
+			member.sendFrames(frames);
 		}
 	}
 
 	/**
-	 * Send a command to all members except the exception.
+	 * Send a command to all members except the exception. Deferred until the end of the batch if
+	 * made from within this lobby's lane, see {@link #flushBatch()}.
 	 *
 	 * @param command   the command to send.
 	 * @param exception the actor to skip.
 	 */
 	void broadcastToOthers(Command command, Actor exception) {
-		synchronized (this.actors) { /* Reminder: Synchronizing things like these is absolutely still necessary! See how actors handle chat messages! */
-			for (var actor : this.actors) {
-				if (actor != exception) {
-					actor.sendCommands(command);
+		Frame frame = new Frame(command);
+		if (this.isInOwnLane()) {
+			this.defer(frame, exception);
+			return;
+		}
+
+		for (var actor : this.actors) {
+			if (actor != exception) {
+				actor.sendFrames(frame);
+			}
+		}
+	}
+
+	/**
+	 * @return whether the current thread is consuming a request of this lobby.
+	 */
+	private boolean isInOwnLane() {
+		return this.lane != null && Lane.current().orElse(null) == this.lane;
+	}
+
+	/**
+	 * Defer a broadcast until the end of the batch. A position replaces the previous position of
+	 * the same player sent to the same members, which is outdated before it was sent.
+	 *
+	 * @param frame     the frame to send.
+	 * @param exception the actor to skip, or <code>null</code>.
+	 */
+	private void defer(Frame frame, Actor exception) {
+		Object key = frame.getCoalescingKey();
+		if (key != null) {
+			Integer previous = this.deferredByKey.put(key, this.deferred.size());
+			if (previous != null && this.deferred.get(previous).exception() == exception) {
+				this.deferred.set(previous, null);
+			}
+		}
+
+		this.deferred.add(new Deferred(frame, exception));
+	}
+
+	/**
+	 * Send the broadcasts deferred during the current batch of this lobby's lane, handing each
+	 * member all of its frames at once. Called by the lane after each batch, and before anything is
+	 * sent that is not deferred, so that it doesn't overtake earlier broadcasts, see
+	 * {@link Lane#flushCurrentBatch()}. Does nothing if not called from within the lane.
+	 */
+	void flushBatch() {
+		if (!this.isInOwnLane() || this.deferred.isEmpty()) {
+			return;
+		}
+
+		/* Clear first: sending flushes again, which must find nothing left. */
+		var deferred = this.deferred.toArray(new Deferred[0]);
+		this.deferred.clear();
+		this.deferredByKey.clear();
+
+		var frames = new ArrayList<Frame>(deferred.length);
+		for (var member : this.actors) {
+			for (var broadcast : deferred) {
+				if (broadcast != null && broadcast.exception() != member) {
+					frames.add(broadcast.frame());
 				}
 			}
+			if (!frames.isEmpty()) {
+				member.sendFrames(frames.toArray(new Frame[0]));
+				frames.clear();
+			}
 		}
 	}
 
@@ -173,11 +288,9 @@ public class Lobby {
 	}
 
 	public synchronized boolean isEveryoneReady() {
-		synchronized (this.actors) {
-			for (Actor actor : this.actors) {
-				if (!actor.member().orElseThrow().isReady()) {
-					return false;
-				}
+		for (Actor actor : this.actors) {
+			if (!actor.member().orElseThrow().isReady()) {
+				return false;
 			}
 		}
 
@@ -231,10 +344,8 @@ public class Lobby {
 		}
 
 		this.game = null;
-		synchronized (this.actors) {
-			for (var actor : this.actors) {
-				actor.member().orElseThrow().clearPlayer();
-			}
+		for (var actor : this.actors) {
+			actor.member().orElseThrow().clearPlayer();
 		}
 	}
 
@@ -269,4 +380,14 @@ public class Lobby {
 
 		return commands.toArray(new Command[0]);
 	}
+
+	/**
+	 * A broadcast deferred until the end of a batch.
+	 *
+	 * @param frame     the frame to send.
+	 * @param exception the actor to skip, or <code>null</code>.
+	 */
+	private record Deferred(Frame frame, Actor exception) {
+
+	}
 }
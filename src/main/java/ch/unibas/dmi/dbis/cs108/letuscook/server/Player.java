@@ -62,6 +62,11 @@ public class Player {
 	 */
 	private volatile Stack holding = new Stack();
 
+	/**
+	 * The version of the game state this player last changed in. Server-side only.
+	 */
+	private volatile long version = 0;
+
 	private Facing facing = Facing.SOUTH;
 
 	private boolean moving = false;
@@ -109,6 +114,22 @@ public class Player {
 		return this.previousCoords;
 	}
 
+	/**
+	 * @return the version of the game state this player last changed in.
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Record that this player changed, see {@link #getVersion()}.
+	 *
+	 * @param version the version.
+	 */
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
 	/**
 	 * @return the stack the player is currently holding.
 	 */
@@ -0,0 +1,36 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.server;
+
+/**
+ * What an actor must meet before the server consumes one of its requests. Each level includes the
+ * ones before it.
+ */
+enum Precondition {
+
+	/**
+	 * Any actor, even one that hasn't introduced itself yet.
+	 */
+	ANONYMOUS,
+
+	/**
+	 * The actor is attached to a record.
+	 */
+	RECORD,
+
+	/**
+	 * The actor is member of a lobby.
+	 */
+	LOBBY,
+
+	/**
+	 * The actor's lobby is running a game.
+	 */
+	GAME;
+
+	/**
+	 * @param other another level.
+	 * @return whether meeting this level requires meeting the other level.
+	 */
+	boolean includes(Precondition other) {
+		return this.compareTo(other) >= 0;
+	}
+}
@@ -0,0 +1,45 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.server;
+
+/**
+ * How urgently the server consumes a request. Each request lane has one level per priority, see
+ * {@link ch.unibas.dmi.dbis.cs108.letuscook.util.Lane}. The levels take turns in the order below,
+ * each consuming up to its weight in requests per turn.
+ */
+enum Priority {
+
+	/**
+	 * Gameplay, whose latency players notice right away.
+	 */
+	REALTIME(8),
+
+	/**
+	 * Changes to lobby membership, readiness, and game state.
+	 */
+	CONTROL(4),
+
+	/**
+	 * Chat, nicknames, refreshes, and everything else that may wait.
+	 */
+	BULK(1);
+
+	/**
+	 * The number of requests consumed per turn.
+	 */
+	private final int weight;
+
+	Priority(int weight) {
+		this.weight = weight;
+	}
+
+	/**
+	 * @return the weights of all priorities, in order.
+	 */
+	static int[] weights() {
+		Priority[] priorities = Priority.values();
+		int[] weights = new int[priorities.length];
+		for (int i = 0; i < priorities.length; ++i) {
+			weights[i] = priorities[i].weight;
+		}
+		return weights;
+	}
+}
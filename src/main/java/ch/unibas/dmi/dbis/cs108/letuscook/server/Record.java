@@ -5,11 +5,6 @@ package ch.unibas.dmi.dbis.cs108.letuscook.server;
  */
 public class Record {
 
-	/**
-	 * The person's IP address.
-	 */
-	private final String address;
-
 	/**
 	 * The person's nickname.
 	 */
@@ -20,27 +15,10 @@ public class Record {
 	 *
 	 * @param nickname the nickname.
 	 */
-	public Record(String nickname, String address) {
+	public Record(String nickname) {
 		assert nickname != null : "cannot create record with null nickname";
 
 		this.nickname = nickname;
-		this.address = address;
-	}
-
-	/**
-	 * @return whether this record has an address.
-	 */
-	boolean hasAddress() {
-		return this.address != null;
-	}
-
-	/**
-	 * @return this record's address.
-	 */
-	String getAddress() {
-		assert this.hasAddress();
-
-		return this.address;
 	}
 
 	/**
@@ -13,15 +13,21 @@ public class Request {
 	private final Actor actor;
 
 	/**
-	 * The command associated with the request.
+	 * The command associated with the request. Only replaced while the request is queued, by the
+	 * actor, see {@link #replaceCommand(Command)}.
 	 */
-	private final Command command;
+	private Command command;
 
 	/**
 	 * The lobby associated with the request.
 	 */
 	private final Lobby lobby;
 
+	/**
+	 * How urgently this request is consumed, or <code>null</code> until queued.
+	 */
+	private Priority priority;
+
 	/**
 	 * Constructs a new Request with the specified actor and command.
 	 *
@@ -67,4 +73,38 @@ public class Request {
 	public Lobby getLobby() {
 		return this.lobby;
 	}
+
+	/**
+	 * @return how urgently this request is consumed.
+	 */
+	Priority getPriority() {
+		assert this.priority != null : "request not queued";
+
+		return this.priority;
+	}
+
+	/**
+	 * Set how urgently this request is consumed. <b>This method should only be used from within
+	 * {@link Server#queueCommand(Request)}.</b>
+	 *
+	 * @param priority the priority.
+	 */
+	void setPriority(Priority priority) {
+		assert priority != null : "priority is null";
+
+		this.priority = priority;
+	}
+
+	/**
+	 * Replace the command of this queued request with a newer one of the same kind. <b>This method
+	 * should only be used from within {@link Actor#coalescePosition(Request)}.</b>
+	 *
+	 * @param command the newer command.
+	 */
+	void replaceCommand(Command command) {
+		assert command != null : "command is null";
+		assert command.getClass() == this.command.getClass() : "command of a different kind";
+
+		this.command = command;
+	}
 }
@@ -3,6 +3,7 @@ package ch.unibas.dmi.dbis.cs108.letuscook.server;
 import ch.unibas.dmi.dbis.cs108.letuscook.Main;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.ChatCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.Command;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.DatagramCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.DisappearCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.GameForceStopCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.GameParticipateCommand;
@@ -18,33 +19,65 @@ import ch.unibas.dmi.dbis.cs108.letuscook.commands.LobbyReadyCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.PlayerInteractCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.PlayerPositionCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.RefreshCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.ResumeCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.SyncCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.YellCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.gui.Units;
 import ch.unibas.dmi.dbis.cs108.letuscook.orders.Workbench;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.ChannelConnection;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Connection;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Coords;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.DatagramEndpoint;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Frame;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Histogram;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Identifier;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.IdentifierFactory;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Lane;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Messenger;
-import ch.unibas.dmi.dbis.cs108.letuscook.util.Schedule;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.SelectorPool;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.SocketConnection;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Threads;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.TickScheduler;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.TimingWheel;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Transport;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Holds records, accepts incoming connections, and manages actors.
  */
 public class Server {
 
-	private static final String REQUEST_CONSUMER_THREAD_NAME = "requests";
+	private static final String REQUEST_THREAD_NAME = "requests";
+
+	/**
+	 * The resolution of the heartbeat deadlines, in milliseconds.
+	 */
+	private static final long HEARTBEAT_TICK_MS = 100;
 
 	private static volatile Server the;
 
@@ -61,9 +94,11 @@ public class Server {
 	private final List<Record> records = Collections.synchronizedList(new ArrayList<>());
 
 	/**
-	 * All active or suspended actors.
+	 * All active or suspended actors. Copied on write, so that broadcasts and the heartbeats
+	 * iterate over a snapshot without locking out the connector or each other. Writers synchronize
+	 * on the list to keep it consistent with its indexes.
 	 */
-	private final List<Actor> actors = Collections.synchronizedList(new ArrayList<>());
+	private final List<Actor> actors = new CopyOnWriteArrayList<>();
 
 	/**
 	 * All open lobbies.
@@ -71,9 +106,52 @@ public class Server {
 	private final List<Lobby> lobbies = Collections.synchronizedList(new ArrayList<>());
 
 	/**
-	 * The request queue.
+	 * The records by nickname. Kept consistent with {@link #records}, updated while holding it.
+	 */
+	private final ConcurrentHashMap<String, Record> recordsByNickname = new ConcurrentHashMap<>();
+
+	/**
+	 * For each nickname that was suggested while occupied, the next suffix to try. Spares
+	 * {@link #generateUniqueNickname(String)} from probing every suffix handed out before. Lowered
+	 * when a suffixed nickname is freed, and dropped when the nickname itself is freed, see
+	 * {@link #releaseNickname(String)}. Updated while holding {@link #records}.
+	 */
+	private final ConcurrentHashMap<String, AtomicInteger> nicknameSuffixes =
+		new ConcurrentHashMap<>();
+
+	/**
+	 * The actors by identifier. Kept consistent with {@link #actors}, updated while holding it.
 	 */
-	private final LinkedBlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+	private final ConcurrentHashMap<Identifier, Actor> actorsByIdentifier =
+		new ConcurrentHashMap<>();
+
+	/**
+	 * The actors whose clients may resume their sessions, by resume token. Kept consistent with
+	 * {@link #actors}, updated while holding it.
+	 */
+	private final ConcurrentHashMap<Long, Actor> actorsByResumeToken = new ConcurrentHashMap<>();
+
+	/**
+	 * Draws the resume tokens, see {@link #issueResumeToken(Actor)}.
+	 */
+	private final SecureRandom resumeTokens = new SecureRandom();
+
+	/**
+	 * The lobbies by name. Kept consistent with {@link #lobbies}, updated while holding it.
+	 */
+	private final ConcurrentHashMap<String, Lobby> lobbiesByName = new ConcurrentHashMap<>();
+
+	/**
+	 * Held while consuming a request that changes state shared by all lobbies, see
+	 * {@link #isGlobal(Command)}. Must be taken before any lobby.
+	 */
+	private final Object globalRequestLock = new Object();
+
+	/**
+	 * The handler of each request the server understands, by the class of its command. See
+	 * {@link #registerHandlers()}.
+	 */
+	private final HashMap<Class<? extends Command>, Handler> handlers = new HashMap<>();
 
 	/**
 	 * The port.
@@ -81,35 +159,93 @@ public class Server {
 	private final int port;
 
 	/**
-	 * The server socket through which the server accepts new connections.
+	 * The startup options.
+	 */
+	private final ServerOptions options;
+
+	/**
+	 * The server socket through which the server accepts new connections, if the transport is
+	 * {@link Transport#BLOCKING}.
 	 */
 	private ServerSocket serverSocket;
 
+	/**
+	 * The server channel through which the server accepts new connections, if the transport is
+	 * {@link Transport#SELECTOR}.
+	 */
+	private ServerSocketChannel serverChannel;
+
+	/**
+	 * Drives all connections if the transport is {@link Transport#SELECTOR}.
+	 */
+	private SelectorPool selectorPool;
+
+	/**
+	 * Carries positions next to the connections, on the same port number, or <code>null</code> if
+	 * datagrams are disabled or the port is occupied.
+	 */
+	private DatagramEndpoint datagrams;
+
 	/**
 	 * Accepts incoming connections.
 	 */
 	private Thread connector;
 
 	/**
-	 * Periodically check that connections are still intact.
+	 * Holds the deadlines at which connections are checked, see {@link Heartbeat}.
 	 */
-	private Schedule heartbeats;
+	private TimingWheel heartbeats;
 
 	/**
-	 * Consumes requests.
+	 * Runs the request lanes, one thread per core.
 	 */
-	private Thread requestConsumer;
+	private ExecutorService requestExecutor;
+
+	/**
+	 * Consumes requests that don't concern a particular lobby.
+	 */
+	private Lane globalLane;
+
+	/**
+	 * The number of positions folded into a queued position by the same actor.
+	 */
+	private final AtomicLong coalescedPositions = new AtomicLong();
+
+	/**
+	 * The number of requests dropped because their actor exceeded its rate limit, per
+	 * {@link Priority}.
+	 */
+	private final AtomicLong[] throttledRequests = new AtomicLong[Priority.values().length];
+
+	/**
+	 * The time requests waited in their lane before being consumed, in microseconds, per
+	 * {@link Priority}. Shared by all lanes.
+	 */
+	private final Histogram[] requestWaits = new Histogram[Priority.values().length];
 
 	/**
 	 * Create a server.
 	 *
-	 * @param port the port of the server.
+	 * @param port    the port of the server.
+	 * @param options the startup options.
 	 */
-	public Server(int port) {
+	public Server(int port, ServerOptions options) {
 		assert Server.the == null;
+		assert options != null : "options is null";
 
 		this.port = port;
+		this.options = options;
+
+		if (this.options.usesVirtualThreads()) {
+			Threads.useVirtual();
+		}
+		TickScheduler.configure(this.options.getTickWorkers());
 		this.highscores = new Highscores();
+		this.registerHandlers();
+		for (int i = 0; i < this.requestWaits.length; ++i) {
+			this.requestWaits[i] = new Histogram();
+			this.throttledRequests[i] = new AtomicLong();
+		}
 
 		Server.the = this;
 	}
@@ -133,11 +269,18 @@ public class Server {
 	 */
 	public void start() {
 		assert this.serverSocket == null : "serverSocket not null";
+		assert this.serverChannel == null : "serverChannel not null";
 		assert this.connector == null : "connector not null";
 		assert this.heartbeats == null : "heartbeats not null";
 
 		try {
-			this.serverSocket = new ServerSocket(this.port);
+			if (this.options.getTransport() == Transport.SELECTOR) {
+				this.serverChannel = ServerSocketChannel.open();
+				this.serverChannel.bind(new InetSocketAddress(this.port));
+				this.selectorPool = new SelectorPool("selector", this.options.getSelectors());
+			} else {
+				this.serverSocket = new ServerSocket(this.port);
+			}
 		} catch (IOException | SecurityException e) {
 			Messenger.error(e, "Cannot start the server. Is the port occupied? - aborting start()");
 			return;
@@ -146,11 +289,13 @@ public class Server {
 			return;
 		}
 
-		this.startRequestConsumer();
+		this.startRequestLanes();
 		this.startHeartbeats();
+		this.startDatagrams();
 		this.startConnector();
 
-		Messenger.info("Started");
+		Messenger.info("Started (transport: " + this.options.getTransport() + ", threads: "
+			+ (Threads.isVirtual() ? "virtual" : "platform") + ")");
 	}
 
 	/**
@@ -158,26 +303,127 @@ public class Server {
 	 */
 	public void stop() {
 		assert this.connector != null : "connector is null";
-		assert this.serverSocket != null : "serverSocket is null";
+		assert this.serverSocket != null || this.serverChannel != null : "not listening";
 		assert this.heartbeats != null : "heartbeats is null";
-		assert this.requestConsumer != null : "requestConsumer is null";
+		assert this.requestExecutor != null : "requestExecutor is null";
 
 		this.connector.interrupt();
 		try {
-			this.serverSocket.close();
+			if (this.serverChannel != null) {
+				this.serverChannel.close();
+			} else {
+				this.serverSocket.close();
+			}
 		} catch (IOException e) {
 			Messenger.warn(e, "An IO error occurred while closing the server socket - ignoring");
 		}
 		this.serverSocket = null;
+		this.serverChannel = null;
 		this.connector = null;
 
 		this.heartbeats.stop();
 		this.heartbeats = null;
 
-		this.requestConsumer.interrupt(); // FIXME: This will probably not work because the thread is blocking.
+		if (this.datagrams != null) {
+			this.datagrams.close();
+			this.datagrams = null;
+		}
 
 		this.clearLobbies();
 		this.clearActors();
+
+		this.requestExecutor.shutdownNow();
+		this.requestExecutor = null;
+		this.globalLane = null;
+
+		if (this.selectorPool != null) {
+			this.selectorPool.close();
+			this.selectorPool = null;
+		}
+	}
+
+	/**
+	 * Print resource usage, to compare transports and thread modes under load.
+	 */
+	public void inspect() {
+		Lane globalLane = this.globalLane;
+		TimingWheel heartbeats = this.heartbeats;
+		if (globalLane == null || heartbeats == null) {
+			Messenger.info("Server not running");
+			return;
+		}
+
+		var threads = ManagementFactory.getThreadMXBean();
+		var runtime = Runtime.getRuntime();
+
+		int queued = globalLane.getDepth();
+		for (var lobby : this.lobbies.toArray(new Lobby[0])) {
+			queued += lobby.getLane().getDepth();
+			Messenger.debug("Lane of {}", lobby.getLane());
+			lobby.game().ifPresent(game -> Messenger.info(
+				"Game in '" + lobby.getName() + "': " + game.getTick()));
+		}
+		Messenger.info("Actors: " + this.actors.size() + ", lobbies: " + this.lobbies.size()
+			+ ", queued requests: " + queued + " (" + globalLane.getDepth() + " global)"
+			+ ", coalesced positions: " + this.coalescedPositions.get()
+			+ ", heartbeat deadlines: " + heartbeats.size());
+		for (var priority : Priority.values()) {
+			int depth = globalLane.getDepth(priority.ordinal());
+			for (var lobby : this.lobbies.toArray(new Lobby[0])) {
+				depth += lobby.getLane().getDepth(priority.ordinal());
+			}
+			Messenger.info("Requests of priority " + priority + ": " + depth + " queued, "
+				+ this.throttledRequests[priority.ordinal()].get() + " throttled, waited "
+				+ this.requestWaits[priority.ordinal()] + " us");
+		}
+		Messenger.info("Platform threads: " + threads.getThreadCount() + " (peak "
+			+ threads.getPeakThreadCount() + "), virtual threads: " + Threads.isVirtual()
+			+ ", tick workers: " + TickScheduler.the().getWorkers());
+		Messenger.info("Heap used: " + (runtime.totalMemory() - runtime.freeMemory()) / 1024
+			+ " KiB, resident: " + Server.residentSetSizeOrEmpty().map(kib -> kib + " KiB")
+			.orElse("unknown"));
+
+		long depth = 0;
+		long coalesced = 0;
+		long flushes = 0;
+		long bytesFlushed = 0;
+		for (var actor : this.actors) {
+			if (actor.connection().isEmpty()) {
+				continue;
+			}
+			var outbox = actor.connection().get().getOutbox();
+			depth += outbox.getDepth();
+			coalesced += outbox.getCoalesced();
+			flushes += outbox.getFlushes();
+			bytesFlushed += outbox.getBytesFlushed();
+			Messenger.debug("Outbox of {}: {}", actor.getIdentifier(), outbox);
+			Messenger.info("Connection of " + actor.getIdentifier() + ": "
+				+ actor.connection().get().getRoundTrips());
+		}
+		Messenger.info("Outboxes: " + depth + " queued, " + coalesced + " coalesced, " + flushes
+			+ " flushes, " + (flushes == 0 ? 0 : bytesFlushed / flushes) + " bytes/flush");
+		DatagramEndpoint datagrams = this.datagrams;
+		if (datagrams != null) {
+			Messenger.info("Datagrams: " + datagrams);
+		}
+	}
+
+	/**
+	 * Read the resident set size of this process. Only works on Linux.
+	 *
+	 * @return the resident set size in KiB, if known.
+	 */
+	private static Optional<Long> residentSetSizeOrEmpty() {
+		try {
+			for (var line : Files.readAllLines(Path.of("/proc/self/status"))) {
+				if (line.startsWith("VmRSS:")) {
+					return Optional.of(Long.parseLong(line.replaceAll("[^0-9]", "")));
+				}
+			}
+		} catch (IOException | NumberFormatException ignored) {
+		}
+
+		return Optional.empty();
 	}
 
 	/**
@@ -186,27 +432,29 @@ public class Server {
 	private void startConnector() {
 		assert this.connector == null : "connector not null";
 
-		this.connector = new Thread(() -> {
+		this.connector = Threads.create("connector", () -> {
 			while (!Thread.currentThread().isInterrupted()) {
 				try {
-					Socket socket = this.serverSocket.accept();
-
-					/* Revive dead actor or create new one. */
-					synchronized (this.actors) {
-						var existingDeadActorOrEmpty = this.findActorByAddress(
-							Connection.addressForSocket(socket), true);
-						if (existingDeadActorOrEmpty.isPresent()) {
-							existingDeadActorOrEmpty.get().replaceConnection(socket);
-							this.queueCommand(
-								new Request(existingDeadActorOrEmpty.get(), new RefreshCommand()));
-						} else {
-							Actor actor = new Actor();
-							actor.createConnection(socket);
-							this.addActor(actor);
-						}
+					Connection.Factory factory;
+
+					if (this.serverChannel != null) {
+						SocketChannel channel = this.serverChannel.accept();
+						factory = (name, consumer) -> new ChannelConnection(name, channel,
+							this.selectorPool, consumer);
+					} else {
+						Socket socket = this.serverSocket.accept();
+						factory = (name, consumer) -> new SocketConnection(name, socket, consumer);
 					}
 
-				} catch (SocketException e) {
+					/*
+					 * Every connection starts out with an actor of its own. A client resuming its
+					 * session hands the connection over to its old actor, see consumeResume().
+					 */
+					Actor actor = new Actor();
+					actor.createConnection(factory);
+					this.addActor(actor);
+
+				} catch (SocketException | ClosedChannelException e) {
 					if (Thread.currentThread().isInterrupted()) {
 						Messenger.debug(
 							"Server socket was closed, thread is interrupted - stopping connector");
@@ -223,61 +471,77 @@ public class Server {
 					break;
 				}
 			}
-		}, "connector");
+		});
 
-		this.connector.setDaemon(true);
 		this.connector.start();
 	}
 
 	/**
-	 * Start the heartbeats schedule.
+	 * Start the wheel that holds the heartbeat deadlines. Each actor's heartbeat is started when
+	 * the actor is added, see {@link Actor#startHeartbeat(TimingWheel, long)}.
 	 */
 	private void startHeartbeats() {
 		assert this.heartbeats == null : "heartbeats not null";
 
-		this.heartbeats = Schedule.withFixedDelay(() -> {
-			synchronized (this.actors) {
-				for (var actor : this.actors) {
-					if (actor.connection().isEmpty()) {
-						continue;
-					}
+		this.heartbeats = new TimingWheel(Server.HEARTBEAT_TICK_MS);
+		this.heartbeats.start("heartbeats");
+	}
 
-					Connection connection = actor.connection().orElseThrow();
+	/**
+	 * Start receiving datagrams, if enabled. On failure, logs a warning and carries on without:
+	 * clients that ask for datagrams simply keep using their connection.
+	 */
+	private void startDatagrams() {
+		assert this.datagrams == null : "datagrams not null";
 
-					if (connection.isAwaitingPong()) {
-						Messenger.error("Connection timed out - closing actor");
-						this.queueCommand(new Request(actor, new DisappearCommand()));
-						continue;
-					}
+		if (!this.options.usesDatagrams()) {
+			return;
+		}
 
-					connection.ping();
-				}
-			}
-			return null;
-		}, Main.PONG_WAIT_MS, "heartbeats");
+		try {
+			this.datagrams = new DatagramEndpoint("datagrams", this.port);
+		} catch (IOException | SecurityException e) {
+			Messenger.warn(e, "Cannot receive datagrams - positions go over the connections");
+		}
 	}
 
 	/**
-	 * Start the requests thread.
+	 * Start the threads that run the request lanes.
 	 */
-	private void startRequestConsumer() {
-		assert this.requestConsumer == null : "requestConsumer not null";
+	private void startRequestLanes() {
+		assert this.requestExecutor == null : "requestExecutor not null";
 
-		this.requestConsumer = new Thread(() -> {
-			while (!Thread.currentThread().isInterrupted()) {
-				try {
-					this.consumeRequest(this.requests.take());
-				} catch (InterruptedException e) {
-					Messenger.debug(
-						"Request consumer interrupted - stopping request consumer");
-				}
-			}
+		this.requestExecutor = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(),
+			Threads.factory(Server.REQUEST_THREAD_NAME));
+		this.globalLane = this.createLane("global");
+	}
+
+	/**
+	 * Create a lane that consumes requests on the shared request threads.
+	 *
+	 * @param name the name of the lane.
+	 * @return the lane.
+	 */
+	Lane createLane(String name) {
+		return this.createLane(name, () -> {
+		});
+	}
 
-			Messenger.debug("Request consumer stopped");
-		}, Server.REQUEST_CONSUMER_THREAD_NAME);
+	/**
+	 * Create a lane that consumes requests on the shared request threads in batches, with one
+	 * level per {@link Priority}.
+	 *
+	 * @param name       the name of the lane.
+	 * @param afterBatch called after each batch, see
+	 *                   {@link Lane#Lane(String, Executor, Runnable, int[], Histogram[])}.
+	 * @return the lane.
+	 */
+	Lane createLane(String name, Runnable afterBatch) {
+		assert this.requestExecutor != null : "requestExecutor is null";
 
-		this.requestConsumer.setDaemon(true);
-		this.requestConsumer.start();
+		return new Lane(name, this.requestExecutor, afterBatch, Priority.weights(),
+			this.requestWaits);
 	}
 
 	/**
@@ -286,11 +550,10 @@ public class Server {
 	 * @param commands the commands to send.
 	 */
 	public void broadcastToActorsWithRecord(Command... commands) {
-		synchronized (this.actors) {
-			for (var actor : this.actors) {
-				if (actor.record().isPresent()) {
-					actor.sendCommands(commands);
-				}
+		Frame[] frames = Frame.of(commands);
+		for (var actor : this.actors) {
+			if (actor.record().isPresent()) {
+				actor.sendFrames(frames);
 			}
 		}
 	}
@@ -302,11 +565,10 @@ public class Server {
 	 * @param commands  the commands to send.
 	 */
 	void broadcastToOtherActorsWithRecord(Actor exception, Command... commands) {
-		synchronized (this.actors) {
-			for (var actor : this.actors) {
-				if (actor != exception) {
-					actor.sendCommands(commands);
-				}
+		Frame[] frames = Frame.of(commands);
+		for (var actor : this.actors) {
+			if (actor != exception) {
+				actor.sendFrames(frames);
 			}
 		}
 	}
@@ -318,14 +580,7 @@ public class Server {
 	 * @return whether the nickname is occupied.
 	 */
 	public boolean nicknameOccupied(String nickname) {
-		synchronized (this.records) {
-			for (var record : this.records) {
-				if (record.getNickname().equals(nickname)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return this.recordsByNickname.containsKey(nickname);
 	}
 
 	/**
@@ -336,8 +591,10 @@ public class Server {
 	private void addActor(Actor actor) {
 		assert actor != null : "actor is null";
 
+		actor.startHeartbeat(this.heartbeats, Main.PONG_WAIT_MS);
 		synchronized (this.actors) {
 			this.actors.add(actor);
+			this.actorsByIdentifier.put(actor.getIdentifier(), actor);
 		}
 	}
 
@@ -345,30 +602,25 @@ public class Server {
 		assert identifier != null : "identifier is null";
 		assert !identifier.isNone() : "identifier is NONE";
 
-		synchronized (this.actors) {
-			for (var actor : this.actors) {
-				if (actor.getIdentifier().equals(identifier)) {
-					return Optional.of(actor);
-				}
-			}
-		}
-
-		return Optional.empty();
+		return Optional.ofNullable(this.actorsByIdentifier.get(identifier));
 	}
 
-	private Optional<Actor> findActorByAddress(String address, boolean requireDead) {
-		assert address != null : "address is null";
-
+	/**
+	 * Issue a resume token to an actor, see {@link ResumeCommand}.
+	 *
+	 * @param actor the actor, which must not have a token yet.
+	 * @return the token.
+	 */
+	private long issueResumeToken(Actor actor) {
 		synchronized (this.actors) {
-			for (var actor : this.actors) {
-				if (actor.getAddress().equals(address) && (!requireDead || actor.connection()
-					.orElseThrow().isDead())) {
-					return Optional.of(actor);
+			while (true) {
+				long token = this.resumeTokens.nextLong();
+				if (token != 0 && this.actorsByResumeToken.putIfAbsent(token, actor) == null) {
+					actor.setResumeToken(token);
+					return token;
 				}
 			}
 		}
-
-		return Optional.empty();
 	}
 
 	/**
@@ -385,61 +637,82 @@ public class Server {
 		}
 
 		if (actor.record().isPresent()) {
-			this.records.remove(actor.record().orElseThrow());
+			this.removeRecord(actor.record().orElseThrow());
 		}
 
 		actor.destroy();
 		synchronized (this.actors) {
 			this.actors.remove(actor);
+			this.actorsByIdentifier.remove(actor.getIdentifier(), actor);
+			this.actorsByResumeToken.remove(actor.getResumeToken(), actor);
 		}
 	}
 
 	/**
-	 * Find a record by its address, or if it doesn't exist, create one with the provided address
-	 * and nickname suggestion.
+	 * Add a record to the server.
 	 *
-	 * @param address            the record's address.
-	 * @param nicknameSuggestion a nickname suggestion if the record is newly created. May be
-	 *                           <code>null</code> if the record is known to exist.
-	 * @return the record.
+	 * @param record the record. Its nickname must not be occupied.
 	 */
-	public Record findOrCreateRecord(String address, String nicknameSuggestion) {
-		Record record = null;
+	private void addRecord(Record record) {
+		synchronized (this.records) {
+			assert !this.nicknameOccupied(record.getNickname()) : "nickname occupied";
+
+			this.records.add(record);
+			this.recordsByNickname.put(record.getNickname(), record);
+		}
+	}
 
+	/**
+	 * Remove a record from the server.
+	 *
+	 * @param record the record.
+	 */
+	private void removeRecord(Record record) {
 		synchronized (this.records) {
-			if (address != null) {
-				for (var existingRecord : this.records) {
-					if (existingRecord.getAddress().equals(address)) {
-						record = existingRecord;
-						break;
-					}
-				}
+			this.records.remove(record);
+			if (this.recordsByNickname.remove(record.getNickname(), record)) {
+				this.releaseNickname(record.getNickname());
 			}
+		}
+	}
 
-			if (record == null) {
-				assert nicknameSuggestion != null
-					: "cannot find or create unknown record with null nickname suggestion";
-
-				record = new Record(this.generateUniqueNickname(nicknameSuggestion), address);
-				this.records.add(record);
+	/**
+	 * Change the nickname of a record to a unique nickname based on a suggestion.
+	 *
+	 * @param record             the record.
+	 * @param nicknameSuggestion the nickname suggestion.
+	 */
+	private void renameRecord(Record record, String nicknameSuggestion) {
+		synchronized (this.records) {
+			String nickname = this.generateUniqueNickname(nicknameSuggestion);
+			if (this.recordsByNickname.remove(record.getNickname(), record)) {
+				this.releaseNickname(record.getNickname());
 			}
+			record.setNickname(nickname);
+			this.recordsByNickname.put(nickname, record);
 		}
+	}
 
-		return record;
+	/**
+	 * Create a record with a unique nickname based on a suggestion.
+	 *
+	 * @param nicknameSuggestion the nickname suggestion.
+	 * @return the record.
+	 */
+	public Record createRecord(String nicknameSuggestion) {
+		assert nicknameSuggestion != null : "nicknameSuggestion is null";
+
+		synchronized (this.records) {
+			Record record = new Record(this.generateUniqueNickname(nicknameSuggestion));
+			this.addRecord(record);
+			return record;
+		}
 	}
 
 	public Optional<Lobby> findLobby(String name) {
 		assert name != null : "name is null";
 
-		synchronized (this.lobbies) {
-			for (var lobby : this.lobbies) {
-				if (lobby.getName().equals(name)) {
-					return Optional.of(lobby);
-				}
-			}
-		}
-
-		return Optional.empty();
+		return Optional.ofNullable(this.lobbiesByName.get(name));
 	}
 
 	public void createLobbyThenAddActor(String nameSuggestion, Actor actor) {
@@ -459,6 +732,7 @@ public class Server {
 
 			lobby = new Lobby(true, name);
 			this.lobbies.add(lobby);
+			this.lobbiesByName.put(name, lobby);
 		}
 
 		this.broadcastToActorsWithRecord(lobby.representedAsCommands());
@@ -485,316 +759,623 @@ public class Server {
 			Messenger.info("'" + lobby.getName() + "' closed.");
 
 			this.lobbies.remove(lobby);
+			this.lobbiesByName.remove(lobby.getName(), lobby);
 		}
 	}
 
+	/**
+	 * Queue a request received from a client. A position is folded into the actor's queued
+	 * position, if any, see {@link Actor#coalescePosition(Request)}. Otherwise, the request is
+	 * dropped if the actor exceeds the rate limit of its priority, see
+	 * {@link ServerOptions#getRate(Priority)}.
+	 *
+	 * @param request the request.
+	 */
+	void queueCommandIfAdmitted(Request request) {
+		assert request.getActor() != null : "request has no actor";
+
+		Actor actor = request.getActor();
+		if (actor.coalescePosition(request)) {
+			this.coalescedPositions.incrementAndGet();
+			return;
+		}
+
+		Priority priority = this.priorityOf(request.getCommand());
+		if (!actor.tryTakeToken(priority, this.options.getRate(priority))) {
+			this.throttledRequests[priority.ordinal()].incrementAndGet();
+			Messenger.debug("Dropping request '{}' - rate limit of {} exceeded",
+				request.getCommand(), priority);
+			return;
+		}
+
+		this.queueCommand(request);
+	}
+
+	/**
+	 * Queue a request in the lane it belongs to: requests concerning a lobby go to the lobby's
+	 * lane, all others to the global lane. Lobbies are thus served in parallel, while the requests
+	 * of each lobby, and of each actor, are consumed in order. Within a lane, gameplay takes
+	 * precedence over chat and the like, see {@link Priority}.
+	 *
+	 * @param request the request.
+	 */
 	public void queueCommand(Request request) {
 		assert request != null : "request is null";
 
-		try {
-			this.requests.put(request);
-		} catch (InterruptedException e) {
-			Messenger.warn("Interrupted while waiting to queue a request - ignoring");
+		request.setPriority(this.priorityOf(request.getCommand()));
+
+		if (request.getActor() == null) {
+			if (!request.getLobby().getLane().submit(() -> this.consumeRequestInLane(request),
+				request.getPriority().ordinal())) {
+				Messenger.warn("Dropping request '" + request.getCommand() + "' - server stopped");
+			}
+			return;
+		}
+
+		Actor actor = request.getActor();
+		Lane preferred = this.globalLane;
+		if (!this.isGlobal(request.getCommand()) && actor.member().isPresent()) {
+			preferred = actor.member().orElseThrow().getLobby().getLane();
+		}
+
+		Lane lane = actor.enterLane(preferred, request);
+		boolean queued = lane.submit(() -> {
+			try {
+				actor.takeRequest(request);
+				this.consumeRequestInLane(request);
+			} finally {
+				actor.leaveLane(request);
+			}
+		}, request.getPriority().ordinal());
+		if (!queued) {
+			actor.leaveLane(request);
+			Messenger.warn("Dropping request '" + request.getCommand() + "' - server stopped");
 		}
 	}
 
 	/**
-	 * Consume a request.
+	 * Check if a command changes state shared by all lobbies, i.e. records, nicknames, or lobby
+	 * membership. Such commands are consumed in the global lane, see
+	 * {@link #registerGlobal(Class, Precondition, Priority, RequestConsumer)}.
+	 *
+	 * @param command the command.
+	 * @return whether the command is global.
+	 */
+	private boolean isGlobal(Command command) {
+		var handler = this.handlers.get(command.getClass());
+		return handler != null && handler.global();
+	}
+
+	/**
+	 * Get how urgently a command is consumed, see
+	 * {@link #register(Class, Precondition, Priority, RequestConsumer)}.
+	 *
+	 * @param command the command.
+	 * @return the priority, {@link Priority#BULK} for unsupported commands.
+	 */
+	private Priority priorityOf(Command command) {
+		var handler = this.handlers.get(command.getClass());
+		return handler == null ? Priority.BULK : handler.priority();
+	}
+
+	/**
+	 * Consume a request while holding the lock it needs: global requests hold the global request
+	 * lock, all others hold their lobby, if any. An actor's lobby only changes through the actor's
+	 * own requests, which are consumed in order, so it can't change underneath.
+	 *
+	 * @param request the request to consume.
+	 */
+	private void consumeRequestInLane(Request request) {
+		if (request.getActor() != null && this.isGlobal(request.getCommand())) {
+			synchronized (this.globalRequestLock) {
+				this.consumeRequest(request);
+			}
+			return;
+		}
+
+		Lobby lobby = request.getLobby();
+		if (lobby == null && request.getActor().member().isPresent()) {
+			lobby = request.getActor().member().orElseThrow().getLobby();
+		}
+
+		if (lobby == null) {
+			this.consumeRequest(request);
+			return;
+		}
+
+		synchronized (lobby) {
+			this.consumeRequest(request);
+		}
+	}
+
+	/**
+	 * Consume a request: look up its handler, check the handler's precondition, and run it.
 	 *
 	 * @param request the request to consume.
 	 */
 	public void consumeRequest(Request request) {
-		assert Thread.currentThread().getName()
-			.equals(Server.REQUEST_CONSUMER_THREAD_NAME) : "not in requests thread";
+		assert Lane.current().isPresent() : "not in a request lane";
 		assert request != null : "request is null";
 
 		var actor = request.getActor();
 		var command = request.getCommand();
-		var requestLobby = request.getLobby();
 
-		if (command instanceof IntroduceCommand introduceCommand) {
-			/* Log-in new actors. */
-			if (actor.record().isEmpty()) {
-				this.attachActorToRequestedRecordAndSendRefresh(actor,
-					introduceCommand.getNickname());
-				return;
-			}
+		var handler = this.handlers.get(command.getClass());
+		if (handler == null) {
+			Messenger.warn("Ignoring unsupported request by " + (actor == null ? "the server"
+				: actor.record().map(record -> "'" + record.getNickname() + "'")
+					.orElse("actor with address " + actor.getAddress())) + ": " + command);
+			return;
+		}
 
-			/* Change the nickname of existing actors. */
-			if (!actor.record().orElseThrow().getNickname()
-				.equals(introduceCommand.getNickname())) {
-				actor.record().orElseThrow()
-					.setNickname(
-						this.generateUniqueNickname(introduceCommand.getNickname()));
-				try {
-					this.broadcastToActorsWithRecord(Command.withSubject(actor.getIdentifier(),
-						new IntroduceCommand(
-							actor.record().orElseThrow().getNickname())));
-				} catch (MalformedException e) {
-					assert false : "record returned malformed nickname";
-				}
-			}
+		if (actor != null && !this.meetsPrecondition(actor, command, handler.precondition())) {
 			return;
 		}
 
-		if (command instanceof GameForceStopCommand) {
-			if (command.getSubject().isSome()) {
-				Messenger.warn("Ignoring attempt by actor with identifier '" + command.getSubject()
-					+ "' to force-stop the game.");
-				return;
-			}
-			requestLobby.stopGame(false);
+		handler.consumer().consume(request, command);
+	}
+
+	/**
+	 * Check if an actor meets the precondition of a request, warning if not.
+	 *
+	 * @param actor        the actor.
+	 * @param command      the command, for the warning.
+	 * @param precondition the precondition.
+	 * @return whether the actor meets the precondition.
+	 */
+	private boolean meetsPrecondition(Actor actor, Command command, Precondition precondition) {
+		if (!precondition.includes(Precondition.RECORD)) {
+			return true;
+		}
+		if (actor.record().isEmpty()) {
+			Messenger.warn(
+				"Ignoring request by record-less actor with address " + actor.getAddress());
+			return false;
+		}
+
+		if (!precondition.includes(Precondition.LOBBY)) {
+			return true;
+		}
+		if (actor.member().isEmpty()) {
+			Messenger.warn("Ignoring request '" + command + "' by '" + actor.record().orElseThrow()
+				.getNickname() + "' - actor isn't member of a lobby");
+			return false;
+		}
+
+		if (!precondition.includes(Precondition.GAME)) {
+			return true;
+		}
+		if (!actor.member().orElseThrow().getLobby().gameIsRunning()) {
+			Messenger.warn("Ignoring request '" + command + "' by '" + actor.record().orElseThrow()
+				.getNickname() + "' - game is not running");
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Register the handlers of all requests the server understands.
+	 */
+	private void registerHandlers() {
+		this.registerGlobal(IntroduceCommand.class, Precondition.ANONYMOUS, Priority.BULK,
+			this::consumeIntroduce);
+		this.register(DatagramCommand.class, Precondition.RECORD, Priority.CONTROL,
+			this::consumeDatagram);
+		this.register(GameForceStopCommand.class, Precondition.ANONYMOUS, Priority.CONTROL,
+			this::consumeGameForceStop);
+		this.registerGlobal(DisappearCommand.class, Precondition.ANONYMOUS, Priority.CONTROL,
+			(request, command) -> this.logoutThenDestroyAndRemoveActor(request.getActor()));
+		this.registerGlobal(ResumeCommand.class, Precondition.ANONYMOUS, Priority.CONTROL,
+			this::consumeResume);
+		this.registerGlobal(RefreshCommand.class, Precondition.ANONYMOUS, Priority.BULK,
+			this::consumeRefresh);
+		this.register(SyncCommand.class, Precondition.ANONYMOUS, Priority.BULK,
+			this::consumeSync);
+
+		this.register(YellCommand.class, Precondition.RECORD, Priority.BULK,
+			(request, command) -> this.broadcastToActorsWithRecord(command));
+		this.register(ChatCommand.class, Precondition.RECORD, Priority.BULK, this::consumeChat);
+		this.registerGlobal(LobbyOpenCommand.class, Precondition.RECORD, Priority.CONTROL,
+			this::consumeLobbyOpen);
+		this.registerGlobal(LobbyJoinCommand.class, Precondition.RECORD, Priority.CONTROL,
+			this::consumeLobbyJoin);
+
+		this.registerGlobal(LobbyLeaveCommand.class, Precondition.LOBBY, Priority.CONTROL,
+			(request, command) -> this.removeActorFromLobby(request.getActor()));
+		this.register(LobbyReadyCommand.class, Precondition.LOBBY, Priority.CONTROL,
+			this::consumeLobbyReady);
+		this.register(GameRequestStartCommand.class, Precondition.LOBBY, Priority.CONTROL,
+			this::consumeGameRequestStart);
+
+		this.register(GameParticipateCommand.class, Precondition.GAME, Priority.REALTIME,
+			this::consumeGameParticipate);
+		this.register(PlayerPositionCommand.class, Precondition.GAME, Priority.REALTIME,
+			this::consumePlayerPosition);
+		this.register(PlayerInteractCommand.class, Precondition.GAME, Priority.REALTIME,
+			this::consumePlayerInteract);
+	}
+
+	/**
+	 * Register the handler of a request that concerns at most the actor's lobby.
+	 *
+	 * @param type         the class of the request's command.
+	 * @param precondition what the actor must meet for the handler to run.
+	 * @param priority     how urgently the request is consumed.
+	 * @param consumer     the handler.
+	 * @param <C>          the type of the request's command.
+	 */
+	private <C extends Command> void register(Class<C> type, Precondition precondition,
+		Priority priority, RequestConsumer<C> consumer) {
+		this.register(type, precondition, priority, false, consumer);
+	}
+
+	/**
+	 * Register the handler of a request that changes state shared by all lobbies, i.e. records,
+	 * nicknames, or lobby membership. Such requests are consumed in the global lane.
+	 *
+	 * @param type         the class of the request's command.
+	 * @param precondition what the actor must meet for the handler to run.
+	 * @param priority     how urgently the request is consumed.
+	 * @param consumer     the handler.
+	 * @param <C>          the type of the request's command.
+	 */
+	private <C extends Command> void registerGlobal(Class<C> type, Precondition precondition,
+		Priority priority, RequestConsumer<C> consumer) {
+		this.register(type, precondition, priority, true, consumer);
+	}
+
+	private <C extends Command> void register(Class<C> type, Precondition precondition,
+		Priority priority, boolean global, RequestConsumer<C> consumer) {
+		assert !this.handlers.containsKey(type) : "handler already registered";
+
+		this.handlers.put(type, new Handler(precondition, priority, global,
+			(request, command) -> consumer.consume(request, type.cast(command))));
+	}
+
+	private void consumeIntroduce(Request request, IntroduceCommand introduceCommand) {
+		var actor = request.getActor();
+
+		/* Switch to the binary encoding before answering, if asked to. */
+		if (introduceCommand.requestsBinary()) {
+			actor.connection().ifPresent(Connection::useBinary);
+		}
+
+		/* Log-in new actors. */
+		if (actor.record().isEmpty()) {
+			this.attachActorToRequestedRecordAndSendRefresh(actor,
+				introduceCommand.getNickname());
+			return;
+		}
+
+		/* Change the nickname of existing actors. */
+		if (!actor.record().orElseThrow().getNickname()
+			.equals(introduceCommand.getNickname())) {
+			this.renameRecord(actor.record().orElseThrow(), introduceCommand.getNickname());
 			try {
-				this.broadcastToActorsWithRecord(new GameTimeCommand(requestLobby.getName(), 0));
+				this.broadcastToActorsWithRecord(Command.withSubject(actor.getIdentifier(),
+					new IntroduceCommand(
+						actor.record().orElseThrow().getNickname())));
 			} catch (MalformedException e) {
-				assert false : "lobby returned malformed name";
+				assert false : "record returned malformed nickname";
 			}
-			Messenger.info("Announced end of game");
-			return;
 		}
+	}
+
+	/**
+	 * Resume a session on the connection of the requesting actor, which the client opened
+	 * afresh. The connection moves to the actor holding the token, and the requesting actor, a
+	 * mere placeholder, disappears without a trace. The client catches up from the journal, see
+	 * {@link Actor#resume(Actor, long, Command)}, or gets a full refresh if too much happened
+	 * meanwhile. Either way, it gets the positions, which are not journaled.
+	 *
+	 * @param request the request.
+	 * @param command the command.
+	 */
+	private void consumeResume(Request request, ResumeCommand command) {
+		var actor = request.getActor();
 
-		if (command instanceof DisappearCommand) {
-			this.logoutThenDestroyAndRemoveActor(actor);
+		if (!command.isRequest()) {
+			Messenger.warn("Ignoring resume token sent by a client");
 			return;
 		}
 
-		if (command instanceof RefreshCommand) {
-			this.refreshActor(actor);
+		var resumed = this.actorsByResumeToken.get(command.getToken());
+		if (resumed == null || actor.record().isPresent()) {
+			Messenger.info("Refusing to resume session - client has to log in");
+			actor.sendCommands(new ResumeCommand());
 			return;
 		}
 
-		/*
-		 * At this point, commands from actors that aren't attached to a record are
-		 * disallowed.
-		 */
-		if (actor.record().isEmpty()) {
-			Messenger.warn(
-				"Ignoring request by record-less actor with address " + actor.getAddress());
+		boolean caughtUp;
+		try {
+			caughtUp = resumed.resume(actor, command.getReceived(),
+				new ResumeCommand(command.getToken()));
+		} catch (MalformedException e) {
+			assert false : "request carried resume token 0";
 			return;
 		}
+		this.destroyAndRemoveActor(actor);
 
-		if (command instanceof YellCommand yellCommand) {
-			this.broadcastToActorsWithRecord(yellCommand);
+		Messenger.info("'" + resumed.record().orElseThrow().getNickname() + "' resumed their "
+			+ "session" + (caughtUp ? "" : " - journal exhausted, refreshing"));
+		if (!caughtUp) {
+			this.refreshActor(resumed);
 			return;
 		}
 
-		if (command instanceof ChatCommand chatCommand) {
-			if (chatCommand.isWhispered()) {
-				var recipientOrEmpty = this.findActorByIdentifier(chatCommand.getRecipient());
-				if (recipientOrEmpty.isEmpty()) {
-					Messenger.warn("Ignoring whisper with unknown recipient");
-				} else {
-					recipientOrEmpty.orElseThrow().sendCommands(chatCommand);
-					actor.sendCommands(chatCommand); /* Echo. */
+		if (resumed.member().isPresent()) {
+			var lobby = resumed.member().orElseThrow().getLobby();
+			synchronized (lobby) {
+				if (lobby.gameIsRunning()) {
+					resumed.sendCommands(lobby.game().orElseThrow().positionsRepresentedAsCommands());
 				}
-			} else if (actor.member().isPresent()) {
-				actor.member().orElseThrow().getLobby().broadcast(chatCommand);
-			} else {
-				Messenger.warn("Ignoring chat from actor outside lobby");
 			}
-			return;
 		}
+	}
 
-		if (command instanceof LobbyOpenCommand lobbyOpenCommand) {
-			if (actor.member().isPresent()) {
-				Messenger.warn(
-					"Ignoring request by '" + actor.record().orElseThrow().getNickname()
-						+ "' to open lobby '"
-						+ lobbyOpenCommand.getLobbyName()
-						+ "' - actor is already member of a lobby");
-				return;
-			}
-			this.createLobbyThenAddActor(lobbyOpenCommand.getLobbyName(), actor);
+	private void consumeDatagram(Request request, DatagramCommand command) {
+		var actor = request.getActor();
+
+		if (!command.isRequest()) {
+			Messenger.warn("Ignoring datagram grant sent by a client");
 			return;
 		}
-
-		if (command instanceof LobbyJoinCommand lobbyJoinCommand) {
-			if (actor.member().isPresent()) {
-				Messenger.warn(
-					"Ignoring request by '" + actor.record().orElseThrow().getNickname()
-						+ "' to join lobby '"
-						+ lobbyJoinCommand.getLobbyName()
-						+ "' - actor is already member of a lobby");
-				return;
-			}
-			var lobbyOrEmpty = this.findLobby(lobbyJoinCommand.getLobbyName());
-			if (lobbyOrEmpty.isPresent()) {
-				this.addActorToLobby(actor, lobbyOrEmpty.orElseThrow());
-			} else {
-				Messenger.warn(
-					"Ignoring join to non-existent lobby '"
-						+ lobbyJoinCommand.getLobbyName()
-						+ "' by actor '" + actor.record().orElseThrow().getNickname() + "'");
-			}
+		if (this.datagrams == null) {
+			Messenger.info("Datagrams are disabled - positions keep going over the connection");
 			return;
 		}
 
-		/*
-		 * For the following requests, the actor must be in a lobby.
-		 */
-		if (actor.member().isEmpty()) {
-			Messenger.warn(
-				"Ignoring request '" + request.getCommand() + "' by '" + actor.record()
-					.orElseThrow()
-					.getNickname()
-					+ "' - actor isn't member of a lobby");
-			return;
+		var session = actor.openDatagram(this.datagrams);
+		try {
+			actor.sendCommands(new DatagramCommand(this.datagrams.getPort(), session.getToken()));
+		} catch (MalformedException e) {
+			assert false : "endpoint returned malformed port";
 		}
+	}
 
-		if (command instanceof LobbyLeaveCommand) {
-			this.removeActorFromLobby(actor);
+	private void consumeGameForceStop(Request request, GameForceStopCommand command) {
+		if (command.getSubject().isSome()) {
+			Messenger.warn("Ignoring attempt by actor with identifier '" + command.getSubject()
+				+ "' to force-stop the game.");
 			return;
 		}
 
-		if (command instanceof LobbyReadyCommand lobbyReadyCommand) {
-			Member member = actor.member().orElseThrow();
-			if (member.isReady() == lobbyReadyCommand.getReady()) {
-				Messenger.warn("Ignoring request '" + request.getCommand() + "' by '" +
-					actor.record().orElseThrow().getNickname() + "' - ready state already set");
-				return;
-			}
-			member.setReady(lobbyReadyCommand.getReady());
-			member.getLobby().broadcast(Command.withSubject(actor.getIdentifier(),
-				new LobbyReadyCommand(member.isReady())));
-			Messenger.info(
-				"Set ready state of " + actor.record().orElseThrow().getNickname() + " to "
-					+ lobbyReadyCommand.getReady());
-			return;
+		var requestLobby = request.getLobby();
+		requestLobby.stopGame(false);
+		try {
+			this.broadcastToActorsWithRecord(new GameTimeCommand(requestLobby.getName(), 0));
+		} catch (MalformedException e) {
+			assert false : "lobby returned malformed name";
 		}
+		Messenger.info("Announced end of game");
+	}
 
-		if (command instanceof GameRequestStartCommand) {
-			if (actor.member().orElseThrow().getLobby().gameIsRunning()) {
-				Messenger.warn("Ignoring request to start game - game is already running");
-				return;
-			}
-			if (!actor.member().orElseThrow().getLobby().isEveryoneReady()) {
-				Messenger.warn("Ignoring request to start game - not all members ready");
-				return;
-			}
+	/**
+	 * Refresh the requesting actor. If it names a version of the state of its game that the game
+	 * still knows, only the workbenches and players that changed since are sent, and nothing else.
+	 * Otherwise, the actor gets everything, see {@link #refreshActor(Actor)}.
+	 *
+	 * @param request the request.
+	 * @param command the command.
+	 */
+	private void consumeRefresh(Request request, RefreshCommand command) {
+		var actor = request.getActor();
+
+		if (command.getVersion().isPresent() && actor.member().isPresent()) {
+			var lobby = actor.member().orElseThrow().getLobby();
+			long since = command.getVersion().getAsLong();
 
-			Lobby lobby = actor.member().orElseThrow().getLobby();
-
-			/* Start game. */
-			lobby.startGame(Game.DURATION_SECONDS * Game.TPS);
-			this.broadcastToActorsWithRecord(lobby.game().orElseThrow().timeRepresentedAsCommand());
-			Messenger.info("Announced start of game");
-
-			/* Schedule game end. */
-			Schedule.waitWhile(() -> lobby.game().orElseThrow().ticksUntilGameOver.get() > 0,
-				() -> {
-					this.queueCommand(new Request(lobby, new GameForceStopCommand()));
-					return null;
-				},
-				1000, "awaitGameOver");
-
-			/* Queue participation request on behalf of all members. */
-			// FIXME: I seem to remember there being a problem with this, but I can't find one...
-			synchronized (this.actors) {
-				for (var memberActor : lobby.getActors()) {
-//					memberActor.member().orElseThrow().setPlayer(new Player());
-					this.queueCommand(new Request(memberActor, new GameParticipateCommand()));
+			synchronized (lobby) {
+				var gameOrEmpty = lobby.game();
+				if (lobby.gameIsRunning() && gameOrEmpty.isPresent() && gameOrEmpty.orElseThrow()
+					.hasVersion(since)) {
+					var commands = gameOrEmpty.orElseThrow().representedAsCommands(since);
+					actor.sendCommands(commands);
+					Messenger.debug("Refreshed game state since version {} ({} commands)", since,
+						commands.length);
+					return;
 				}
 			}
-//			this.broadcastToActorsWithRecord(lobby.game().orElseThrow().timeRepresentedAsCommand());
+		}
+
+		this.refreshActor(actor);
+	}
 
+	/**
+	 * Announce the version of the game state to the members of the requesting lobby. Queued by the
+	 * game, so that the announcement goes out behind the changes it covers.
+	 *
+	 * @param request the request.
+	 * @param command the command.
+	 */
+	private void consumeSync(Request request, SyncCommand command) {
+		if (command.getSubject().isSome()) {
+			Messenger.warn("Ignoring attempt by actor with identifier '" + command.getSubject()
+				+ "' to announce a version.");
 			return;
 		}
 
-		/*
-		 * For the following requests, the actor's game must be running.
-		 */
-		if (!actor.member().orElseThrow().getLobby().gameIsRunning()) {
+		var requestLobby = request.getLobby();
+		requestLobby.game().ifPresent(game -> requestLobby.broadcast(
+			game.syncRepresentedAsCommand(game.getVersion())));
+	}
+
+	private void consumeChat(Request request, ChatCommand chatCommand) {
+		var actor = request.getActor();
+
+		if (chatCommand.isWhispered()) {
+			var recipientOrEmpty = this.findActorByIdentifier(chatCommand.getRecipient());
+			if (recipientOrEmpty.isEmpty()) {
+				Messenger.warn("Ignoring whisper with unknown recipient");
+			} else {
+				recipientOrEmpty.orElseThrow().sendCommands(chatCommand);
+				actor.sendCommands(chatCommand); /* Echo. */
+			}
+		} else if (actor.member().isPresent()) {
+			actor.member().orElseThrow().getLobby().broadcast(chatCommand);
+		} else {
+			Messenger.warn("Ignoring chat from actor outside lobby");
+		}
+	}
+
+	private void consumeLobbyOpen(Request request, LobbyOpenCommand lobbyOpenCommand) {
+		var actor = request.getActor();
+
+		if (actor.member().isPresent()) {
 			Messenger.warn(
-				"Ignoring request '" + request.getCommand() + "' by '" + actor.record()
-					.orElseThrow()
-					.getNickname()
-					+ "' - game is not running");
+				"Ignoring request by '" + actor.record().orElseThrow().getNickname()
+					+ "' to open lobby '"
+					+ lobbyOpenCommand.getLobbyName()
+					+ "' - actor is already member of a lobby");
 			return;
 		}
+		this.createLobbyThenAddActor(lobbyOpenCommand.getLobbyName(), actor);
+	}
 
-		if (command instanceof GameParticipateCommand) {
-			Member member = actor.member().orElseThrow();
+	private void consumeLobbyJoin(Request request, LobbyJoinCommand lobbyJoinCommand) {
+		var actor = request.getActor();
 
-			assert member.isReady();
-			assert member.player().isEmpty();
+		if (actor.member().isPresent()) {
+			Messenger.warn(
+				"Ignoring request by '" + actor.record().orElseThrow().getNickname()
+					+ "' to join lobby '"
+					+ lobbyJoinCommand.getLobbyName()
+					+ "' - actor is already member of a lobby");
+			return;
+		}
+		var lobbyOrEmpty = this.findLobby(lobbyJoinCommand.getLobbyName());
+		if (lobbyOrEmpty.isPresent()) {
+			this.addActorToLobby(actor, lobbyOrEmpty.orElseThrow());
+		} else {
+			Messenger.warn(
+				"Ignoring join to non-existent lobby '"
+					+ lobbyJoinCommand.getLobbyName()
+					+ "' by actor '" + actor.record().orElseThrow().getNickname() + "'");
+		}
+	}
 
-			this.consumeRequest(new Request(actor, new LobbyReadyCommand(false)));
+	private void consumeLobbyReady(Request request, LobbyReadyCommand lobbyReadyCommand) {
+		var actor = request.getActor();
 
-			member.setPlayer(new Player());
+		Member member = actor.member().orElseThrow();
+		if (member.isReady() == lobbyReadyCommand.getReady()) {
+			Messenger.warn("Ignoring request '" + request.getCommand() + "' by '" +
+				actor.record().orElseThrow().getNickname() + "' - ready state already set");
+			return;
+		}
+		member.setReady(lobbyReadyCommand.getReady());
+		member.getLobby().broadcast(Command.withSubject(actor.getIdentifier(),
+			new LobbyReadyCommand(member.isReady())));
+		Messenger.info(
+			"Set ready state of " + actor.record().orElseThrow().getNickname() + " to "
+				+ lobbyReadyCommand.getReady());
+	}
 
-			member.getLobby()
-				.broadcastToOthers(
-					member.player().orElseThrow().positionRepresentedAsCommand(actor),
-					actor);
-			actor.sendCommands(member.getLobby().game().orElseThrow().representedAsCommands());
+	private void consumeGameRequestStart(Request request, GameRequestStartCommand command) {
+		var actor = request.getActor();
 
-			Messenger.info("'" + actor.record().orElseThrow().getNickname()
-				+ "' is now participating in the game");
+		if (actor.member().orElseThrow().getLobby().gameIsRunning()) {
+			Messenger.warn("Ignoring request to start game - game is already running");
+			return;
+		}
+		if (!actor.member().orElseThrow().getLobby().isEveryoneReady()) {
+			Messenger.warn("Ignoring request to start game - not all members ready");
 			return;
 		}
 
-		if (command instanceof PlayerPositionCommand playerPositionCommand) {
-			Player player = actor.member().orElseThrow().player().orElseThrow();
+		Lobby lobby = actor.member().orElseThrow().getLobby();
 
-			actor.member().orElseThrow().getLobby().game()
-				.orElseThrow()
-				.movePlayerBy(player,
-					new Units(
-						playerPositionCommand.getCoords().getX().u() - player.getRect()
-							.getX().u()),
-					new Units(
-						playerPositionCommand.getCoords().getY().u() - player.getRect()
-							.getY().u()));
+		/* Start game. */
+		lobby.startGame(Game.DURATION_SECONDS * Game.TPS);
+		this.broadcastToActorsWithRecord(lobby.game().orElseThrow().timeRepresentedAsCommand());
+		Messenger.info("Announced start of game");
 
-			Units error = Coords.distance(player.getRect().asCoords(),
-				playerPositionCommand.getCoords());
+		/* Queue participation request on behalf of all members. */
+		// FIXME: I seem to remember there being a problem with this, but I can't find one...
+		for (var memberActor : lobby.getActors()) {
+//			memberActor.member().orElseThrow().setPlayer(new Player());
+			this.queueCommand(new Request(memberActor, new GameParticipateCommand()));
+		}
+//		this.broadcastToActorsWithRecord(lobby.game().orElseThrow().timeRepresentedAsCommand());
+	}
 
-			var positionCommand = player.positionRepresentedAsCommand(actor);
-			if (error.u() > 1e-10) {
-				Messenger.warn(
-					"Player moved illegally - sending correction (off by " + error.u() + " units)");
-				actor.sendCommands(positionCommand);
-			}
-			actor.member().orElseThrow().getLobby().broadcastToOthers(positionCommand, actor);
+	private void consumeGameParticipate(Request request, GameParticipateCommand command) {
+		var actor = request.getActor();
 
-			Messenger.debug(
-				"'" + actor.record().orElseThrow().getNickname() + "' moved to "
-					+ player.getRect());
+		Member member = actor.member().orElseThrow();
 
-			return;
-		}
+		assert member.isReady();
+		assert member.player().isEmpty();
 
-		if (command instanceof PlayerInteractCommand) {
-			Player player = actor.member().orElseThrow().player().orElseThrow();
+		this.consumeRequest(new Request(actor, new LobbyReadyCommand(false)));
 
-			Lobby lobby = actor.member().orElseThrow().getLobby();
+		member.setPlayer(new Player());
 
-			var workbenchOrEmpty = lobby.game().orElseThrow().interact(player);
+		member.getLobby()
+			.broadcastToOthers(
+				member.player().orElseThrow().positionRepresentedAsCommand(actor),
+				actor);
+		member.getLobby().game().orElseThrow().markChanged(member.player().orElseThrow());
+		actor.sendCommands(member.getLobby().game().orElseThrow().representedAsCommands());
 
-			if (workbenchOrEmpty.isEmpty()) {
-				Messenger.info("Ignoring action by '" + actor.record().orElseThrow().getNickname()
-					+ "' - not in reach of a workbench");
-				return;
-			}
+		Messenger.info("'" + actor.record().orElseThrow().getNickname()
+			+ "' is now participating in the game");
+	}
+
+	private void consumePlayerPosition(Request request,
+		PlayerPositionCommand playerPositionCommand) {
+		var actor = request.getActor();
 
-			Workbench workbench = workbenchOrEmpty.get();
-			lobby.broadcast(player.holdingRepresentedAsCommand(actor));
-			lobby.broadcast(workbench.representedAsCommands());
+		Player player = actor.member().orElseThrow().player().orElseThrow();
 
-			Messenger.info("'" + actor.record().orElseThrow().getNickname() + "' is now holding: "
-				+ player.getHolding());
-			Messenger.info(
-				"Workbench " + workbench.getIdentifier() + " is now " + workbench.getState()
-					+ " with contents: " + workbench.peekContents());
+		Game game = actor.member().orElseThrow().getLobby().game().orElseThrow();
+		game.movePlayerBy(player, playerPositionCommand.getCoords().x() - player.getRect().x(),
+			playerPositionCommand.getCoords().y() - player.getRect().y());
+
+		Units error = Coords.distance(player.getRect().asCoords(),
+			playerPositionCommand.getCoords());
+
+		var positionCommand = player.positionRepresentedAsCommand(actor);
+		if (error.u() > 1e-10) {
+			Messenger.warn("Player moved illegally - sending correction (off by {} units)",
+				error.u());
+			actor.sendCommands(positionCommand);
+		}
+		actor.member().orElseThrow().getLobby().broadcastToOthers(positionCommand, actor);
+		game.markChanged(player);
 
+		Messenger.debug("'{}' moved to {}", actor.record().orElseThrow().getNickname(),
+			player.getRect());
+	}
+
+	private void consumePlayerInteract(Request request, PlayerInteractCommand command) {
+		var actor = request.getActor();
+
+		Player player = actor.member().orElseThrow().player().orElseThrow();
+
+		Lobby lobby = actor.member().orElseThrow().getLobby();
+
+		Game game = lobby.game().orElseThrow();
+		var workbenchOrEmpty = game.interact(player);
+
+		if (workbenchOrEmpty.isEmpty()) {
+			Messenger.info("Ignoring action by '" + actor.record().orElseThrow().getNickname()
+				+ "' - not in reach of a workbench");
 			return;
 		}
 
-		// FIXME: This logic doesn't quite work like we want it to. An unsupported
-		// request would most likely produce an error in one of the checks above.
-		Messenger.warn(
-			"Ignoring unsupported request by '" + actor.record().orElseThrow().getNickname() + "': "
-				+ command);
+		Workbench workbench = workbenchOrEmpty.get();
+		lobby.broadcast(player.holdingRepresentedAsCommand(actor));
+		lobby.broadcast(workbench.representedAsCommands());
+		game.markChanged(player);
+		game.markChanged(workbench);
+
+		Messenger.info("'" + actor.record().orElseThrow().getNickname() + "' is now holding: "
+			+ player.getHolding());
+		Messenger.info(
+			"Workbench " + workbench.getIdentifier() + " is now " + workbench.getState()
+				+ " with contents: " + workbench.peekContents());
 	}
 
 	/**
@@ -814,6 +1395,12 @@ public class Server {
 		assert actor != null : "actor is null";
 		assert lobby != null : "lobby is null";
 
+		synchronized (lobby) {
+			this.addActorToLockedLobby(actor, lobby);
+		}
+	}
+
+	private void addActorToLockedLobby(Actor actor, Lobby lobby) {
 		actor.setLobby(lobby);
 		lobby.addMember(actor);
 
@@ -844,6 +1431,12 @@ public class Server {
 
 		Lobby lobby = actor.member().orElseThrow().getLobby();
 
+		synchronized (lobby) {
+			this.removeActorFromLockedLobby(actor, lobby);
+		}
+	}
+
+	private void removeActorFromLockedLobby(Actor actor, Lobby lobby) {
 		lobby.removeMember(actor);
 		actor.clearLobby();
 
@@ -861,11 +1454,9 @@ public class Server {
 	}
 
 	private void clearActors() {
-		synchronized (this.actors) {
-			for (var actor : this.actors) {
-				actor.sendCommands(new DisappearCommand());
-				this.destroyAndRemoveActor(actor);
-			}
+		for (var actor : this.actors) {
+			actor.sendCommands(new DisappearCommand());
+			this.destroyAndRemoveActor(actor);
 		}
 	}
 
@@ -881,14 +1472,17 @@ public class Server {
 		String nicknameSuggestion) {
 
 		if (actor.record().isEmpty()) {
-			Record record = this.findOrCreateRecord(
-				this.findActorByAddress(actor.getAddress(), false).isPresent() ? null
-					: actor.getAddress(),
-				nicknameSuggestion);
+			Record record = this.createRecord(nicknameSuggestion);
 
 			this.attachActorToRecord(actor, record);
 
 			this.broadcastToOtherActorsWithRecord(actor, actor.representedAsCommands());
+
+			try {
+				actor.sendCommands(new ResumeCommand(this.issueResumeToken(actor)));
+			} catch (MalformedException e) {
+				assert false : "issued resume token 0";
+			}
 		}
 
 		this.refreshActor(actor);
@@ -924,17 +1518,57 @@ public class Server {
 		}
 	}
 
-	public String generateUniqueNickname(String suggestion) {
-		String nickname = suggestion;
+	/**
+	 * Forget the suffix counter of a nickname that was just freed, and let the counter of its base
+	 * nickname go back to its suffix, if it has one. Must be called while holding
+	 * {@link #records}.
+	 *
+	 * @param nickname the nickname.
+	 */
+	private void releaseNickname(String nickname) {
+		this.nicknameSuffixes.remove(nickname);
 
-		if (Server.the().nicknameOccupied(nickname)) {
-			String baseNickname = nickname + "_";
-			int suffix = 1;
-			do {
-				nickname = baseNickname + suffix++;
-			} while (Server.the().nicknameOccupied(nickname));
+		int separator = nickname.lastIndexOf('_');
+		if (separator < 0) {
+			return;
 		}
 
+		var suffixes = this.nicknameSuffixes.get(nickname.substring(0, separator));
+		if (suffixes == null) {
+			return;
+		}
+
+		try {
+			int suffix = Integer.parseInt(nickname.substring(separator + 1));
+			if (suffix > 0) {
+				suffixes.accumulateAndGet(suffix, Math::min);
+			}
+		} catch (NumberFormatException ignored) {
+		}
+	}
+
+	/**
+	 * Generate a nickname that is not occupied: the suggestion itself if possible, or else the
+	 * suggestion with a suffix. Suffixes count up per suggestion, so that many players picking the
+	 * same nickname don't have to probe every suffix handed out before. Freed suffixes are handed
+	 * out again first, see {@link #releaseNickname(String)}.
+	 *
+	 * @param suggestion the nickname suggestion.
+	 * @return the unique nickname.
+	 */
+	public String generateUniqueNickname(String suggestion) {
+		if (!this.nicknameOccupied(suggestion)) {
+			return suggestion;
+		}
+
+		String baseNickname = suggestion + "_";
+		var suffixes = this.nicknameSuffixes.computeIfAbsent(suggestion,
+			key -> new AtomicInteger(1));
+		String nickname;
+		do {
+			nickname = baseNickname + suffixes.getAndIncrement();
+		} while (this.nicknameOccupied(nickname));
+
 		return nickname;
 	}
 
@@ -944,20 +1578,46 @@ public class Server {
 		/* Highscores. */
 		commands.add(new HighscoresCommand(Server.the().getHighscores()));
 
-		/* Lobbies. */
-		synchronized (this.lobbies) {
-			for (var lobby : this.lobbies) {
-				commands.addAll(Arrays.asList(lobby.representedAsCommands()));
-			}
+		/* Lobbies. Iterate over a copy: each lobby is locked in turn, which must come first. */
+		for (var lobby : this.lobbies.toArray(new Lobby[0])) {
+			commands.addAll(Arrays.asList(lobby.representedAsCommands()));
 		}
 
 		/* Actors. */
-		synchronized (this.actors) {
-			for (var actor : this.actors) {
-				commands.addAll(Arrays.asList(actor.representedAsCommands()));
-			}
+		for (var actor : this.actors) {
+			commands.addAll(Arrays.asList(actor.representedAsCommands()));
 		}
 
 		return commands.toArray(new Command[0]);
 	}
+
+	/**
+	 * Consumes requests whose command is of a certain type.
+	 *
+	 * @param <C> the type of the command.
+	 */
+	@FunctionalInterface
+	private interface RequestConsumer<C extends Command> {
+
+		/**
+		 * Consume a request.
+		 *
+		 * @param request the request.
+		 * @param command the request's command.
+		 */
+		void consume(Request request, C command);
+	}
+
+	/**
+	 * A registered request handler.
+	 *
+	 * @param precondition what the actor must meet for the handler to run.
+	 * @param priority     how urgently the request is consumed.
+	 * @param global       whether the request changes state shared by all lobbies.
+	 * @param consumer     the handler.
+	 */
+	private record Handler(Precondition precondition, Priority priority, boolean global,
+		RequestConsumer<Command> consumer) {
+
+	}
 }
@@ -0,0 +1,196 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.server;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.util.DatagramEndpoint;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Threads;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.TickScheduler;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.TokenBucket;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Transport;
+
+/**
+ * Startup options of the server, given as <code>--key=value</code> after the port.
+ */
+public class ServerOptions {
+
+	/**
+	 * How connections are served.
+	 */
+	private Transport transport = Transport.BLOCKING;
+
+	/**
+	 * The number of selector threads if {@link #transport} is {@link Transport#SELECTOR}.
+	 */
+	private int selectors = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+	/**
+	 * Whether the server's threads are virtual. See {@link Threads}.
+	 */
+	private boolean virtualThreads = false;
+
+	/**
+	 * The number of threads that tick the games. See {@link TickScheduler}.
+	 */
+	private int tickWorkers = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Whether clients may ask for a datagram channel next to their connection. See
+	 * {@link DatagramEndpoint}.
+	 */
+	private boolean datagrams = true;
+
+	/**
+	 * How many requests each actor may send, per {@link Priority}. See {@link TokenBucket}.
+	 */
+	private final Rate[] rates = {new Rate(30, 60), new Rate(10, 20), new Rate(10, 50)};
+
+	/**
+	 * Create options with default values.
+	 */
+	public ServerOptions() {
+	}
+
+	/**
+	 * Parse options from command line arguments.
+	 *
+	 * @param arguments the arguments, each of the form <code>--key=value</code>.
+	 * @return the options.
+	 * @throws MalformedException if an argument is malformed or unknown.
+	 */
+	public static ServerOptions fromArguments(String[] arguments) throws MalformedException {
+		ServerOptions options = new ServerOptions();
+
+		for (var argument : arguments) {
+			if (!argument.startsWith("--")) {
+				throw new MalformedException("option must start with '--': " + argument);
+			}
+
+			String[] kv = argument.substring(2).split("=", 2);
+			if (kv.length != 2) {
+				throw new MalformedException("option is missing a value: " + argument);
+			}
+
+			switch (kv[0]) {
+				case "transport" -> options.transport = Transport.fromString(kv[1]);
+				case "selectors" -> options.selectors = ServerOptions.parsePositive(kv[1]);
+				case "tick-workers" -> options.tickWorkers = ServerOptions.parsePositive(kv[1]);
+				case "rate-realtime" -> options.rates[Priority.REALTIME.ordinal()] =
+					Rate.fromString(kv[1]);
+				case "rate-control" -> options.rates[Priority.CONTROL.ordinal()] =
+					Rate.fromString(kv[1]);
+				case "rate-bulk" -> options.rates[Priority.BULK.ordinal()] = Rate.fromString(kv[1]);
+				case "datagrams" -> options.datagrams = switch (kv[1]) {
+					case "on" -> true;
+					case "off" -> false;
+					default -> throw new MalformedException("bad datagram mode: " + kv[1]);
+				};
+				case "threads" -> options.virtualThreads = switch (kv[1]) {
+					case "platform" -> false;
+					case "virtual" -> true;
+					default -> throw new MalformedException("bad thread mode: " + kv[1]);
+				};
+				default -> throw new MalformedException("unknown option: " + kv[0]);
+			}
+		}
+
+		return options;
+	}
+
+	/**
+	 * Parse a positive integer.
+	 *
+	 * @param string the string.
+	 * @return the integer.
+	 * @throws MalformedException if the string is not a positive integer.
+	 */
+	private static int parsePositive(String string) throws MalformedException {
+		int value;
+		try {
+			value = Integer.parseInt(string);
+		} catch (NumberFormatException e) {
+			value = 0;
+		}
+
+		if (value <= 0) {
+			throw new MalformedException("not a positive integer: " + string);
+		}
+
+		return value;
+	}
+
+	/**
+	 * @return how connections are served.
+	 */
+	public Transport getTransport() {
+		return this.transport;
+	}
+
+	/**
+	 * @return the number of selector threads.
+	 */
+	public int getSelectors() {
+		return this.selectors;
+	}
+
+	/**
+	 * @return the number of threads that tick the games.
+	 */
+	public int getTickWorkers() {
+		return this.tickWorkers;
+	}
+
+	/**
+	 * @return whether the server's threads are virtual.
+	 */
+	public boolean usesVirtualThreads() {
+		return this.virtualThreads;
+	}
+
+	/**
+	 * @return whether clients may ask for a datagram channel.
+	 */
+	public boolean usesDatagrams() {
+		return this.datagrams;
+	}
+
+	/**
+	 * @param priority a priority.
+	 * @return how many requests of the priority each actor may send.
+	 */
+	Rate getRate(Priority priority) {
+		return this.rates[priority.ordinal()];
+	}
+
+	/**
+	 * A rate limit.
+	 *
+	 * @param perSecond the sustained number of events per second.
+	 * @param burst     the number of events allowed at once.
+	 */
+	public record Rate(int perSecond, int burst) {
+
+		/**
+		 * Parse a rate limit of the form <code>perSecond/burst</code>.
+		 *
+		 * @param string the string.
+		 * @return the rate limit.
+		 * @throws MalformedException if the string is malformed.
+		 */
+		public static Rate fromString(String string) throws MalformedException {
+			String[] parts = string.split("/", 2);
+			if (parts.length != 2) {
+				throw new MalformedException("rate must be of the form <per second>/<burst>: "
+					+ string);
+			}
+
+			return new Rate(ServerOptions.parsePositive(parts[0]),
+				ServerOptions.parsePositive(parts[1]));
+		}
+
+		/**
+		 * @return a bucket that enforces this rate limit.
+		 */
+		public TokenBucket toBucket() {
+			return new TokenBucket(this.perSecond, this.burst);
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.gui.Units;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the binary encoding of a command, i.e. the payload of a frame written by
+ * {@link BinaryWriter}.
+ */
+public class BinaryReader {
+
+	/**
+	 * The payload.
+	 */
+	private final byte[] bytes;
+
+	/**
+	 * The index of the next byte to read.
+	 */
+	private int position;
+
+	/**
+	 * The index after the last byte of the payload.
+	 */
+	private final int end;
+
+	/**
+	 * Create a reader of a payload.
+	 *
+	 * @param bytes  the bytes containing the payload.
+	 * @param offset the index of the first byte of the payload.
+	 * @param length the length of the payload.
+	 */
+	public BinaryReader(byte[] bytes, int offset, int length) {
+		assert offset >= 0 && length >= 0 && offset + length <= bytes.length : "bad bounds";
+
+		this.bytes = bytes;
+		this.position = offset;
+		this.end = offset + length;
+	}
+
+	/**
+	 * @return the next byte, as an unsigned integer.
+	 * @throws MalformedException if the payload is exhausted.
+	 */
+	public int readByte() throws MalformedException {
+		if (this.position >= this.end) {
+			throw new MalformedException("payload too short");
+		}
+		return this.bytes[this.position++] & 0xFF;
+	}
+
+	/**
+	 * @return the next non-negative varint.
+	 * @throws MalformedException if the varint is truncated or too long.
+	 */
+	public int readVarint() throws MalformedException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = this.readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				if (value < 0) {
+					throw new MalformedException("varint out of range");
+				}
+				return value;
+			}
+		}
+		throw new MalformedException("varint too long");
+	}
+
+	/**
+	 * @return the next non-negative varlong, see {@link BinaryWriter#writeVarlong(long)}.
+	 * @throws MalformedException if the varlong is truncated or too long.
+	 */
+	public long readVarlong() throws MalformedException {
+		long value = 0;
+		for (int shift = 0; shift < 63; shift += 7) {
+			int b = this.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new MalformedException("varlong too long");
+	}
+
+	/**
+	 * Read the number of elements that follow, each of which takes at least one byte.
+	 *
+	 * @return the count.
+	 * @throws MalformedException if the count exceeds the rest of the payload.
+	 */
+	public int readCount() throws MalformedException {
+		int count = this.readVarint();
+		if (count > this.end - this.position) {
+			throw new MalformedException("count too large");
+		}
+		return count;
+	}
+
+	/**
+	 * @return the next zigzag-encoded varint.
+	 * @throws MalformedException if the varint is truncated or too long.
+	 */
+	public int readSignedVarint() throws MalformedException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = this.readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return (value >>> 1) ^ -(value & 1);
+			}
+		}
+		throw new MalformedException("varint too long");
+	}
+
+	/**
+	 * @return the next long, see {@link BinaryWriter#writeLong(long)}.
+	 * @throws MalformedException if the payload is exhausted.
+	 */
+	public long readLong() throws MalformedException {
+		long value = 0;
+		for (int i = 0; i < Long.BYTES; ++i) {
+			value = (value << 8) | this.readByte();
+		}
+		return value;
+	}
+
+	/**
+	 * @return the next boolean.
+	 * @throws MalformedException if the byte is neither 0 nor 1.
+	 */
+	public boolean readBoolean() throws MalformedException {
+		return switch (this.readByte()) {
+			case 0 -> false;
+			case 1 -> true;
+			default -> throw new MalformedException("bad boolean");
+		};
+	}
+
+	/**
+	 * @return the next string.
+	 * @throws MalformedException if the string is truncated.
+	 */
+	public String readString() throws MalformedException {
+		int length = this.readVarint();
+		if (length > this.end - this.position) {
+			throw new MalformedException("string too long");
+		}
+
+		String string = new String(this.bytes, this.position, length, StandardCharsets.UTF_8);
+		this.position += length;
+		return string;
+	}
+
+	/**
+	 * @return the next identifier.
+	 * @throws MalformedException if the identifier is truncated.
+	 */
+	public Identifier readIdentifier() throws MalformedException {
+		return new Identifier(this.readVarint());
+	}
+
+	/**
+	 * Read an enum constant from its ordinal.
+	 *
+	 * @param values all constants of the enum, i.e. <code>E.values()</code>.
+	 * @param <E>    the enum.
+	 * @return the constant.
+	 * @throws MalformedException if the ordinal is out of range.
+	 */
+	public <E extends Enum<E>> E readOrdinal(E[] values) throws MalformedException {
+		int ordinal = this.readByte();
+		if (ordinal >= values.length) {
+			throw new MalformedException("bad ordinal");
+		}
+		return values[ordinal];
+	}
+
+	/**
+	 * @return the next fixed-point units.
+	 * @throws MalformedException if the units are truncated.
+	 */
+	public Units readUnits() throws MalformedException {
+		return new Units(this.readSignedVarint() / BinaryWriter.UNITS_SCALE);
+	}
+
+	/**
+	 * @return the next non-negative coordinates.
+	 * @throws MalformedException if the coordinates are truncated or negative.
+	 */
+	public Coords readCoords() throws MalformedException {
+		Units x = this.readUnits();
+		Units y = this.readUnits();
+		if (x.u() < 0 || y.u() < 0) {
+			throw new MalformedException("negative coordinates");
+		}
+		return new Coords(x, y);
+	}
+
+	/**
+	 * @return whether the whole payload was read, e.g. to tell whether an optional argument
+	 * follows.
+	 */
+	public boolean isAtEnd() {
+		return this.position == this.end;
+	}
+
+	/**
+	 * Make sure the whole payload was read.
+	 *
+	 * @throws MalformedException if there are bytes left.
+	 */
+	public void expectEnd() throws MalformedException {
+		if (this.position != this.end) {
+			throw new MalformedException("payload too long");
+		}
+	}
+}
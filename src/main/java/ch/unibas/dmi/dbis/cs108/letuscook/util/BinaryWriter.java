@@ -0,0 +1,178 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.gui.Units;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes the binary encoding of a command. See {@link BinaryReader} for the counterpart.
+ */
+public class BinaryWriter {
+
+	/**
+	 * The scale of fixed-point units. Matches the precision of {@link Units}, so coordinates
+	 * survive the round trip exactly.
+	 */
+	static final double UNITS_SCALE = 1e5;
+
+	/**
+	 * The bytes written so far, followed by spare capacity.
+	 */
+	private byte[] bytes = new byte[32];
+
+	/**
+	 * The number of bytes written so far.
+	 */
+	private int size = 0;
+
+	/**
+	 * Write a single byte.
+	 *
+	 * @param b the byte.
+	 */
+	public void writeByte(int b) {
+		if (this.size == this.bytes.length) {
+			this.bytes = Arrays.copyOf(this.bytes, 2 * this.bytes.length);
+		}
+		this.bytes[this.size++] = (byte) b;
+	}
+
+	/**
+	 * Write a non-negative integer as a varint, seven bits at a time.
+	 *
+	 * @param value the integer.
+	 */
+	public void writeVarint(int value) {
+		assert value >= 0 : "varint cannot be negative";
+
+		while ((value & ~0x7F) != 0) {
+			this.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		this.writeByte(value);
+	}
+
+	/**
+	 * Write a non-negative long as a varint, seven bits at a time. For values that are counted up
+	 * from zero, like versions.
+	 *
+	 * @param value the long.
+	 */
+	public void writeVarlong(long value) {
+		assert value >= 0 : "varlong cannot be negative";
+
+		while ((value & ~0x7FL) != 0) {
+			this.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		this.writeByte((int) value);
+	}
+
+	/**
+	 * Write any integer as a zigzag-encoded varint.
+	 *
+	 * @param value the integer.
+	 */
+	public void writeSignedVarint(int value) {
+		this.writeVarint((value << 1) ^ (value >> 31));
+	}
+
+	/**
+	 * Write a long as eight bytes, most significant first. For values that are random rather than
+	 * small, like tokens.
+	 *
+	 * @param value the long.
+	 */
+	public void writeLong(long value) {
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			this.writeByte((int) (value >>> shift));
+		}
+	}
+
+	/**
+	 * Write a boolean as a single byte.
+	 *
+	 * @param value the boolean.
+	 */
+	public void writeBoolean(boolean value) {
+		this.writeByte(value ? 1 : 0);
+	}
+
+	/**
+	 * Write a string as its varint length in bytes followed by its UTF-8 encoding.
+	 *
+	 * @param string the string.
+	 */
+	public void writeString(String string) {
+		byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+		this.writeVarint(utf8.length);
+		for (byte b : utf8) {
+			this.writeByte(b);
+		}
+	}
+
+	/**
+	 * Write an identifier as a varint.
+	 *
+	 * @param identifier the identifier.
+	 */
+	public void writeIdentifier(Identifier identifier) {
+		this.writeVarint(identifier.identifier);
+	}
+
+	/**
+	 * Write an enum constant as its ordinal in a single byte.
+	 *
+	 * @param constant the constant.
+	 */
+	public void writeOrdinal(Enum<?> constant) {
+		assert constant.ordinal() < 0x100 : "ordinal does not fit into a byte";
+
+		this.writeByte(constant.ordinal());
+	}
+
+	/**
+	 * Write units as a fixed-point, zigzag-encoded varint.
+	 *
+	 * @param units the units.
+	 */
+	public void writeUnits(Units units) {
+		this.writeSignedVarint((int) Math.round(units.u() * UNITS_SCALE));
+	}
+
+	/**
+	 * Write a vector as two fixed-point components.
+	 *
+	 * @param vector the vector.
+	 */
+	public void writeVector(Vector vector) {
+		this.writeUnits(vector.getX());
+		this.writeUnits(vector.getY());
+	}
+
+	/**
+	 * Frame everything written so far: a zero marker byte, which never starts a text command, the
+	 * varint length of the payload, and the payload.
+	 *
+	 * @return the framed bytes.
+	 */
+	public byte[] toFrame() {
+		int header = 2;
+		for (int rest = this.size >>> 7; rest != 0; rest >>>= 7) {
+			++header;
+		}
+
+		byte[] frame = new byte[header + this.size];
+		int i = 0;
+		frame[i++] = 0;
+		int length = this.size;
+		while ((length & ~0x7F) != 0) {
+			frame[i++] = (byte) ((length & 0x7F) | 0x80);
+			length >>>= 7;
+		}
+		frame[i++] = (byte) length;
+		System.arraycopy(this.bytes, 0, frame, i, this.size);
+
+		return frame;
+	}
+}
@@ -0,0 +1,216 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.Command;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * A connection over a non-blocking {@link SocketChannel}. It owns no threads: reading and draining
+ * the outbox are driven by a {@link SelectorPool}.
+ */
+public class ChannelConnection extends Connection {
+
+	/**
+	 * The channel.
+	 */
+	private final SocketChannel channel;
+
+	/**
+	 * Cached once, since the channel no longer knows its peer after it is closed.
+	 */
+	private final String address;
+
+	/**
+	 * Splits bytes read from the channel into commands. Only touched by the selector thread.
+	 */
+	private final FrameDecoder decoder = new FrameDecoder();
+
+	/**
+	 * The batch currently being written, in read mode. Only touched by the selector thread.
+	 */
+	private ByteBuffer outbound = ByteBuffer.allocate(0);
+
+	/**
+	 * Guards {@link #writeScheduled} and interest changes on {@link #key}.
+	 */
+	private final Object writeLock = new Object();
+
+	/**
+	 * Whether the selector is asked to drain the outbox. Guarded by {@link #writeLock}.
+	 */
+	private boolean writeScheduled = false;
+
+	/**
+	 * Whether this connection is alive.
+	 */
+	private final AtomicBoolean alive = new AtomicBoolean(true);
+
+	/**
+	 * The key of {@link #channel} in its selector, set once the selector has registered it.
+	 */
+	private volatile SelectionKey key;
+
+	/**
+	 * Create a connection from a {@link SocketChannel} and register it with a selector pool.
+	 *
+	 * @param name            the name of the connection.
+	 * @param channel         the channel representing the connection.
+	 * @param selectorPool    the pool that drives the channel.
+	 * @param commandConsumer how to handle commands.
+	 * @throws IOException if the channel cannot be made non-blocking.
+	 */
+	public ChannelConnection(String name, SocketChannel channel, SelectorPool selectorPool,
+		Consumer<Command> commandConsumer) throws IOException {
+		super(commandConsumer);
+
+		assert name != null : "name cannot be null";
+		assert channel != null : "channel cannot be null";
+		assert selectorPool != null : "selectorPool cannot be null";
+
+		this.channel = channel;
+		this.address = Connection.addressForSocket(channel.socket());
+
+		this.channel.configureBlocking(false);
+		selectorPool.register(this);
+	}
+
+	/**
+	 * @return the channel.
+	 */
+	SocketChannel getChannel() {
+		return this.channel;
+	}
+
+	/**
+	 * Remember the selection key once the selector has registered the channel.
+	 *
+	 * @param key the key.
+	 */
+	void setKey(SelectionKey key) {
+		synchronized (this.writeLock) {
+			this.key = key;
+
+			if (this.writeScheduled) {
+				this.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			}
+		}
+	}
+
+	/**
+	 * Read whatever the channel has to offer and consume all complete commands. Called by the selector
+	 * thread only.
+	 */
+	void onReadable() {
+		int read;
+		try {
+			read = this.channel.read(this.decoder.buffer());
+		} catch (IOException e) {
+			Messenger.error(e, "An IO error occurred while reading - closing connection");
+			this.die();
+			return;
+		}
+		if (read < 0) {
+			Messenger.warn("Cannot read from channel - closing connection");
+			this.die();
+			return;
+		}
+
+		if (!this.decoder.decode(this)) {
+			this.die();
+		}
+	}
+
+	/**
+	 * Write the current batch and, once it is written, the next one from the outbox. Stops asking
+	 * for writability once the outbox is empty. Called by the selector thread only.
+	 */
+	void onWritable() {
+		while (true) {
+			if (!this.outbound.hasRemaining()) {
+				byte[] batch;
+				synchronized (this.writeLock) {
+					batch = this.getOutbox().poll();
+					if (batch == null) {
+						this.writeScheduled = false;
+						if (this.key.isValid()) {
+							this.key.interestOps(SelectionKey.OP_READ);
+						}
+						return;
+					}
+				}
+				this.outbound = ByteBuffer.wrap(batch);
+			}
+
+			try {
+				this.channel.write(this.outbound);
+			} catch (IOException e) {
+				Messenger.error(e, "An IO error occurred while writing - closing connection");
+				this.die();
+				return;
+			}
+
+			if (this.outbound.hasRemaining()) {
+				/* The peer is busy, wait for the next OP_WRITE. */
+				return;
+			}
+			this.getOutbox().recordFlush(this.outbound.limit());
+		}
+	}
+
+	@Override
+	protected void onQueued() {
+		synchronized (this.writeLock) {
+			if (this.writeScheduled) {
+				return;
+			}
+			this.writeScheduled = true;
+
+			/* Until the selector has registered us, setKey() takes care of this. */
+			if (this.key != null && this.key.isValid()) {
+				this.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+				this.key.selector().wakeup();
+			}
+		}
+	}
+
+	/**
+	 * Mark this connection as dead and close the channel, which also cancels its key.
+	 */
+	void die() {
+		if (!this.alive.getAndSet(false)) {
+			return;
+		}
+
+		this.getOutbox().close();
+
+		try {
+			this.channel.close();
+		} catch (IOException e) {
+			Messenger.warn(e,
+				"An IO error occurred while closing a connection's channel - ignoring");
+		}
+
+		Messenger.info("Channel died");
+	}
+
+	@Override
+	public boolean isDead() {
+		return !this.alive.get();
+	}
+
+	@Override
+	public String getAddress() {
+		return this.address;
+	}
+
+	@Override
+	public void destroy() {
+		this.die();
+
+		Messenger.debug("Connection destroyed");
+	}
+}
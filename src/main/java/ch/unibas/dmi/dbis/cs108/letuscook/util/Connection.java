@@ -3,100 +3,68 @@ package ch.unibas.dmi.dbis.cs108.letuscook.util;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.Command;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.PingCommand;
 import ch.unibas.dmi.dbis.cs108.letuscook.commands.PongCommand;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
-import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
-import java.net.SocketException;
-import java.nio.charset.StandardCharsets;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 /**
- * Manage resources and respond to pings/pongs.
+ * Manage resources and respond to pings/pongs. How commands are actually read and written is up to
+ * the transport: see {@link SocketConnection} and {@link ChannelConnection}.
  */
-public class Connection {
+public abstract class Connection {
 
 	/**
-	 * The client socket, received or created in the constructor.
+	 * How to handle commands. Replaced if the connection changes hands, see
+	 * {@link #redirect(Consumer)}.
 	 */
-	private final Socket socket;
+	private volatile Consumer<Command> commandConsumer;
 
 	/**
-	 * The input stream read by {@link #listener}.
+	 * The ping we've sent and are currently awaiting a pong for, or <code>null</code>.
 	 */
-	private final BufferedReader in;
+	private final AtomicReference<Probe> probe = new AtomicReference<>();
 
 	/**
-	 * The output stream written to by {@link #sendCommandIfAlive}.
+	 * The sequence number of the latest ping.
 	 */
-	private final PrintWriter out;
+	private final AtomicInteger pingSequence = new AtomicInteger();
 
 	/**
-	 * How to handle commands.
+	 * How long our pings take to be answered.
 	 */
-	private final Consumer<Command> commandConsumer;
+	private final RoundTrips roundTrips = new RoundTrips();
 
 	/**
-	 * Awaits, parses, and dispatches incoming commands, as well as responding to pings and pongs.
+	 * The number of commands received, including pings and pongs. Any of them shows that the peer
+	 * is alive.
 	 */
-	private final Thread listener;
+	private final AtomicLong received = new AtomicLong();
 
 	/**
-	 * Whether the listener is alive.
+	 * Commands waiting to be written by the transport.
 	 */
-	private final AtomicBoolean listenerAlive = new AtomicBoolean(true);
+	private final Outbox outbox = new Outbox();
 
 	/**
-	 * Denotes that we've sent a ping and are currently awaiting a pong.
+	 * Whether commands are sent in the binary encoding rather than as text. Switched on once by
+	 * {@link #useBinary()} or when the peer sends a binary command.
 	 */
-	private final AtomicBoolean awaitingPong = new AtomicBoolean();
+	private volatile boolean binary = false;
 
 	/**
-	 * Create a connection from an {@link InetAddress} and a port.
+	 * Create a connection.
 	 *
-	 * @param address the address to connect to.
-	 * @param port    the port to connect to.
-	 * @throws IOException              see
-	 *                                  {@link Connection#Connection(String, Socket, Consumer)}.
-	 * @throws SecurityException        see {@link Socket#Socket(InetAddress, int)}.
-	 * @throws IllegalArgumentException see {@link Socket#Socket(InetAddress, int)}.
-	 * @throws NullPointerException     see {@link Socket#Socket(InetAddress, int)}.
+	 * @param commandConsumer how to handle commands.
 	 */
-	public Connection(String name, InetAddress address, int port, Consumer<Command> commandConsumer)
-		throws IOException, SecurityException, IllegalArgumentException, NullPointerException {
-		this(name, new Socket(address, port), commandConsumer);
-	}
-
-	/**
-	 * Create a connection from a {@link Socket}.
-	 *
-	 * @param socket the socket representing the connection.
-	 * @throws IOException if we fail to create the {@link #in} or {@link #out} streams.
-	 */
-	public Connection(String name, Socket socket, Consumer<Command> commandConsumer)
-		throws IOException {
-		assert name != null : "name cannot be null";
-		assert socket != null : "socket cannot be null";
+	protected Connection(Consumer<Command> commandConsumer) {
 		assert commandConsumer != null : "commandConsumer cannot be null";
 
-		this.socket = socket;
-
-		this.in = new BufferedReader(
-			new InputStreamReader(this.socket.getInputStream(), StandardCharsets.UTF_8));
-
-		this.out = new PrintWriter(
-			new OutputStreamWriter(this.socket.getOutputStream(), StandardCharsets.UTF_8), true);
-
 		this.commandConsumer = commandConsumer;
-
-		this.listener = new Thread(this::listen, name + "-listen");
-		this.listener.setDaemon(true);
-		this.listener.start();
 	}
 
 	public static String addressForSocket(Socket socket) {
@@ -105,110 +73,232 @@ public class Connection {
 	}
 
 	/**
-	 * Enter the command listener. It reads incoming messages, parses them to {@link Command}
-	 * objects, responds to pings and pongs, and dispatches remaining commands to the
-	 * {@link #commandConsumer}.
+	 * Parse a {@link Command} from a string and consume it. See {@link #consumeCommand(Command)}.
+	 *
+	 * @param string the string.
 	 */
-	private void listen() {
-		String commandString;
-
-		while (!Thread.currentThread().isInterrupted()) {
-			try {
-				commandString = this.in.readLine();
-			} catch (SocketException e) {
-				if (Thread.currentThread().isInterrupted()) {
-					Messenger.debug(
-						"Socket was closed, listener is interrupted - stopping listener");
-				} else {
-					Messenger.error(e, "Cannot access socket - stopping listener");
-				}
-				break;
-			} catch (IOException e) {
-				Messenger.error(e, "An IO error occurred while listening - stopping listener");
-				break;
-			}
-			if (commandString == null) {
-				Messenger.warn("Cannot read from in stream - stopping listener");
-				break;
-			}
-
-			this.consumeString(commandString);
+	protected void consumeString(String string) {
+		Command command;
+		try {
+			command = Command.fromString(string);
+		} catch (MalformedException e) {
+			Messenger.warn("Ignoring malformed command: {}", string);
+			return;
 		}
 
-		this.listenerAlive.set(false);
-
-		Messenger.info("Listener died");
+		this.consumeCommand(command);
 	}
 
 	/**
-	 * Parse a {@link Command} from a string and consume it. If the command is not intended for this
-	 * consumer, forward it to {@link #commandConsumer}.
+	 * Parse a {@link Command} from its binary encoding and consume it. Since the peer evidently
+	 * speaks the binary encoding, we answer in kind from now on. See
+	 * {@link #consumeCommand(Command)}.
 	 *
-	 * @param string the string.
+	 * @param bytes  the bytes containing the payload.
+	 * @param offset the index of the first byte of the payload.
+	 * @param length the length of the payload.
 	 */
-	private void consumeString(String string) {
+	protected void consumeBinary(byte[] bytes, int offset, int length) {
 		Command command;
 		try {
-			command = Command.fromString(string);
+			command = Command.fromBinary(bytes, offset, length);
 		} catch (MalformedException e) {
-			Messenger.warn("Ignoring malformed command: " + string);
+			Messenger.warn("Ignoring malformed binary command ({} bytes)", length);
 			return;
 		}
 
-		if (command instanceof PingCommand) {
-			this.sendCommandIfAlive(new PongCommand());
-		} else if (command instanceof PongCommand) {
-			this.awaitingPong.set(false);
+		this.useBinary();
+		this.consumeCommand(command);
+	}
+
+	/**
+	 * Consume a command. If the command is not intended for this consumer, forward it to
+	 * {@link #commandConsumer}.
+	 *
+	 * @param command the command.
+	 */
+	private void consumeCommand(Command command) {
+		this.received.incrementAndGet();
+
+		if (command instanceof PingCommand ping) {
+			this.sendCommandIfAlive(ping.getSequence() != 0 ? new PongCommand(ping.getSequence())
+				: new PongCommand());
+		} else if (command instanceof PongCommand pong) {
+			this.consumePong(pong);
 		} else {
-			Messenger.debug("Accepting command: " + command);
+			Messenger.debug("Accepting command: {}", command);
 			this.commandConsumer.accept(command);
 		}
 	}
 
 	/**
-	 * Check if this connection is dead. A connection dies if its listener stops and/or if
-	 * {@link #destroy()} is called.
+	 * Stop awaiting a pong and, if it answers our latest ping, record the round trip. A pong without
+	 * a sequence number answers any ping, but cannot be timed.
 	 *
-	 * @return whether this connection is dead.
+	 * @param pong the pong.
+	 */
+	private void consumePong(PongCommand pong) {
+		Probe probe = this.probe.get();
+		if (probe == null
+			|| (pong.getSequence() != 0 && pong.getSequence() != probe.sequence())) {
+			Messenger.debug("Ignoring stale pong: {}", pong);
+			return;
+		}
+
+		if (this.probe.compareAndSet(probe, null) && pong.getSequence() != 0) {
+			this.roundTrips.record(
+				TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - probe.sentAt()));
+		}
+	}
+
+	/**
+	 * Hand all further commands to another consumer, e.g. once the connection was taken over by
+	 * another owner.
+	 *
+	 * @param commandConsumer how to handle commands from now on.
+	 */
+	public void redirect(Consumer<Command> commandConsumer) {
+		assert commandConsumer != null : "commandConsumer cannot be null";
+
+		this.commandConsumer = commandConsumer;
+	}
+
+	/**
+	 * Send all further commands in the binary encoding.
+	 */
+	public void useBinary() {
+		this.binary = true;
+	}
+
+	/**
+	 * @return whether commands are sent in the binary encoding.
 	 */
-	public boolean isDead() {
-		return !this.listenerAlive.get();
+	public boolean usesBinary() {
+		return this.binary;
 	}
 
 	/**
-	 * Send a command.
+	 * Check if this connection is dead. A connection dies if it can no longer read from its peer
+	 * and/or if {@link #destroy()} is called.
+	 *
+	 * @return whether this connection is dead.
+	 */
+	public abstract boolean isDead();
+
+	/**
+	 * Queue a command for sending. See {@link #sendFrameIfAlive(Frame)}.
 	 *
 	 * @param command the command.
 	 */
 	public void sendCommandIfAlive(Command command) {
+		this.sendFrameIfAlive(new Frame(command));
+	}
+
+	/**
+	 * Queue an already framed command for sending. Never blocks: if the peer does not keep up and
+	 * the {@link #outbox} overflows, this connection is destroyed.
+	 *
+	 * @param frame the frame.
+	 */
+	public void sendFrameIfAlive(Frame frame) {
+		if (this.queueIfAlive(frame)) {
+			this.onQueued();
+		}
+	}
+
+	/**
+	 * Queue several already framed commands for sending, and notify the transport once for all of
+	 * them. See {@link #sendFrameIfAlive(Frame)}.
+	 *
+	 * @param frames the frames.
+	 */
+	public void sendFramesIfAlive(Frame... frames) {
+		boolean queued = false;
+		for (var frame : frames) {
+			if (!this.queueIfAlive(frame)) {
+				break;
+			}
+			queued = true;
+		}
+
+		if (queued) {
+			this.onQueued();
+		}
+	}
+
+	/**
+	 * Add a frame to the {@link #outbox}, destroying this connection if it overflows.
+	 *
+	 * @param frame the frame.
+	 * @return whether the frame was queued.
+	 */
+	private boolean queueIfAlive(Frame frame) {
 		if (this.isDead()) {
-			Messenger.debug("Connection is dead - not sending command: " + command);
-			return;
+			Messenger.debug("Connection is dead - not sending command: {}", frame);
+			return false;
 		}
 
-		Messenger.debug("Sending: " + command);
+		Messenger.debug("Sending: {}", frame);
 
-		this.out.println(command);
+		if (!this.outbox.offer(frame.getBytes(this.binary), frame.getCoalescingKey())) {
+			if (!this.isDead()) {
+				Messenger.warn("Peer is too slow, outbox is full - closing connection");
+				this.destroy();
+			}
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Called after a command was added to the {@link #outbox}, so the transport can schedule its
+	 * writer.
+	 */
+	protected abstract void onQueued();
+
+	/**
+	 * @return the commands waiting to be written.
+	 */
+	public Outbox getOutbox() {
+		return this.outbox;
+	}
+
+	/**
+	 * @return the number of commands received so far.
+	 */
+	public long getReceived() {
+		return this.received.get();
 	}
 
 	/**
 	 * @return whether this connection is currently awaiting a pong.
 	 */
 	public boolean isAwaitingPong() {
-		return this.awaitingPong.get();
+		return this.probe.get() != null;
+	}
+
+	/**
+	 * @return how long pings on this connection take to be answered. Includes the time both
+	 * commands spend in outboxes, which is part of the latency the peer sees.
+	 */
+	public RoundTrips getRoundTrips() {
+		return this.roundTrips;
 	}
 
 	/**
-	 * Ping this connection.
+	 * Ping this connection, replacing any ping that has not been answered yet.
 	 */
 	public void ping() {
+		int sequence = this.pingSequence.updateAndGet(s -> s == Integer.MAX_VALUE ? 1 : s + 1);
+
 		/*
-		 * It is crucial that we set awaitingPong *before* sending the command, as
+		 * It is crucial that we set the probe *before* sending the command, as
 		 * otherwise there is a chance that the server responds "between" these two
 		 * lines, causing the pong to be lost.
 		 */
-		this.awaitingPong.set(true);
-		this.sendCommandIfAlive(new PingCommand());
+		this.probe.set(new Probe(sequence, System.nanoTime()));
+		this.sendCommandIfAlive(new PingCommand(sequence));
 	}
 
 	/**
@@ -216,55 +306,38 @@ public class Connection {
 	 *
 	 * @return this connection's IP address.
 	 */
-	public String getAddress() {
-//		if (this.isDead()) {
-//			Messenger.debug("Connection is dead - returning null address");
-//			return null;
-//		}
-
-		return Connection.addressForSocket(this.socket);
-	}
+	public abstract String getAddress();
 
 	/**
 	 * Close all resources and stop all threads. <b>Once called, this connection must be
 	 * discarded.</b>
 	 */
-	public void destroy() {
-		assert this.socket != null : "socket is null";
-		assert this.in != null : "in is null";
-		assert this.out != null : "out is null";
-
-		/*
-		 * If the listener is alive, it holds the lock for the BufferedReader.
-		 * Therefore, we must first kill the listener before we can close 'this.in'.
-		 */
-		if (!this.isDead()) {
-			this.listener.interrupt();
-		}
-		/*
-		 * As long as the socket is open, the listener blocks on 'this.in.readLine()'.
-		 * We close the socket to end this block, allowing the listener to stop.
-		 */
-		try {
-			this.socket.close();
-		} catch (IOException e) {
-			Messenger.warn(e,
-				"An IO error occurred while closing a connection's socket - ignoring");
-		}
-
-		/*
-		 * Now that the listener is stopped we can close the streams.
-		 */
+	public abstract void destroy();
 
-		try {
-			this.in.close();
-		} catch (IOException e) {
-			Messenger.warn(e,
-				"An IO error occurred while closing a connection's 'in' - ignoring");
-		}
+	/**
+	 * A ping awaiting its pong.
+	 *
+	 * @param sequence the sequence number of the ping.
+	 * @param sentAt   when the ping was sent, as told by {@link System#nanoTime()}.
+	 */
+	private record Probe(int sequence, long sentAt) {
 
-		this.out.close();
+	}
 
-		Messenger.debug("Connection destroyed");
+	/**
+	 * Creates a connection once its owner knows how to consume commands.
+	 */
+	@FunctionalInterface
+	public interface Factory {
+
+		/**
+		 * Create a connection.
+		 *
+		 * @param name            the name of the connection, used to name its threads.
+		 * @param commandConsumer how to handle commands.
+		 * @return the connection.
+		 * @throws IOException if the connection cannot be set up.
+		 */
+		Connection create(String name, Consumer<Command> commandConsumer) throws IOException;
 	}
 }
@@ -43,11 +43,11 @@ public class Coords extends Vector {
 	/**
 	 * Set the horizontal component.
 	 *
-	 * @param x the horizontal component.
+	 * @param x the horizontal component, in units.
 	 */
 	@Override
-	public void setX(final Units x) {
-		assert x.u() >= 0;
+	public void setX(final double x) {
+		assert Units.round(x) >= 0;
 
 		super.setX(x);
 	}
@@ -55,11 +55,11 @@ public class Coords extends Vector {
 	/**
 	 * Set the vertical component.
 	 *
-	 * @param y the vertical component.
+	 * @param y the vertical component, in units.
 	 */
 	@Override
-	public void setY(final Units y) {
-		assert y.u() >= 0;
+	public void setY(final double y) {
+		assert Units.round(y) >= 0;
 
 		super.setY(y);
 	}
@@ -70,8 +70,8 @@ public class Coords extends Vector {
 	 * @param vector the displacement vector.
 	 */
 	public void displace(final Vector vector) {
-		this.setX(new Units(Math.max(0, this.getX().u() + vector.getX().u())));
-		this.setY(new Units(Math.max(0, this.getY().u() + vector.getY().u())));
+		this.setX(Math.max(0, this.x() + vector.x()));
+		this.setY(Math.max(0, this.y() + vector.y()));
 	}
 
 	/**
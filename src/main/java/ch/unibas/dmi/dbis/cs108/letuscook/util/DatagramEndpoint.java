@@ -0,0 +1,280 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.Command;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Sends and receives commands as datagrams, next to the connections. Meant for commands that are
+ * superseded many times a second, like positions, which would otherwise stall behind a lost
+ * segment of the connection: a lost datagram is simply replaced by the next one.
+ *
+ * <p>Each datagram carries the token of a {@link DatagramSession}, a sequence number, and the
+ * binary encoding of one command without its frame header. The token is handed out over the
+ * connection, so the peer proves who it is by knowing it. Datagrams with an unknown token are
+ * dropped.</p>
+ */
+public class DatagramEndpoint {
+
+	/**
+	 * The length of the token and the sequence number in front of the command.
+	 */
+	static final int HEADER_LENGTH = Long.BYTES + Integer.BYTES;
+
+	/**
+	 * The longest datagram we send or accept. Fits into a single packet on any common link.
+	 */
+	static final int MAX_DATAGRAM_LENGTH = 1200;
+
+	/**
+	 * The channel.
+	 */
+	private final DatagramChannel channel;
+
+	/**
+	 * The open sessions, by token.
+	 */
+	private final ConcurrentHashMap<Long, DatagramSession> sessions = new ConcurrentHashMap<>();
+
+	/**
+	 * Draws the tokens of new sessions.
+	 */
+	private final SecureRandom random = new SecureRandom();
+
+	/**
+	 * A buffer per sending thread, to assemble datagrams in.
+	 */
+	private final ThreadLocal<ByteBuffer> sendBuffers = ThreadLocal.withInitial(
+		() -> ByteBuffer.allocate(DatagramEndpoint.MAX_DATAGRAM_LENGTH));
+
+	/**
+	 * Receives datagrams and dispatches them to their sessions.
+	 */
+	private final Thread receiver;
+
+	/**
+	 * The number of datagrams dropped because their token was unknown or their command
+	 * malformed.
+	 */
+	private final AtomicLong rejected = new AtomicLong();
+
+	/**
+	 * Create an endpoint.
+	 *
+	 * @param name the name of the receiver thread.
+	 * @param port the local port, or 0 for any free port.
+	 * @throws IOException if the port cannot be bound.
+	 */
+	public DatagramEndpoint(String name, int port) throws IOException {
+		assert name != null : "name is null";
+
+		this.channel = DatagramChannel.open();
+		try {
+			this.channel.bind(new InetSocketAddress(port));
+		} catch (IOException | RuntimeException e) {
+			this.channel.close();
+			throw e;
+		}
+
+		this.receiver = Threads.start(name + "-receive", this::receive);
+	}
+
+	/**
+	 * @return the local port.
+	 */
+	public int getPort() {
+		try {
+			return ((InetSocketAddress) this.channel.getLocalAddress()).getPort();
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Open a session with a new token, whose peer is not known until it sends its first datagram.
+	 *
+	 * @param consumer how to handle the commands received.
+	 * @return the session.
+	 */
+	public DatagramSession open(Consumer<Command> consumer) {
+		while (true) {
+			long token = this.random.nextLong();
+			if (token == 0) {
+				continue;
+			}
+
+			var session = new DatagramSession(this, token, null, consumer);
+			if (this.sessions.putIfAbsent(token, session) == null) {
+				return session;
+			}
+		}
+	}
+
+	/**
+	 * Open a session with a token handed out by the peer.
+	 *
+	 * @param token    the token.
+	 * @param peer     the address of the peer.
+	 * @param consumer how to handle the commands received.
+	 * @return the session.
+	 */
+	public DatagramSession open(long token, SocketAddress peer, Consumer<Command> consumer) {
+		assert peer != null : "peer is null";
+
+		var session = new DatagramSession(this, token, peer, consumer);
+		this.sessions.put(token, session);
+		return session;
+	}
+
+	/**
+	 * Close a session. Its datagrams are dropped from now on.
+	 *
+	 * @param session the session.
+	 */
+	void close(DatagramSession session) {
+		this.sessions.remove(session.getToken(), session);
+	}
+
+	/**
+	 * @return the number of open sessions.
+	 */
+	public int getSessions() {
+		return this.sessions.size();
+	}
+
+	/**
+	 * Send a command to the peer of a session.
+	 *
+	 * @param session  the session.
+	 * @param sequence the sequence number.
+	 * @param frame    the command.
+	 * @param peer     the peer.
+	 * @return whether the datagram was handed to the network.
+	 */
+	boolean send(DatagramSession session, int sequence, Frame frame, SocketAddress peer) {
+		ByteBuffer buffer = this.sendBuffers.get();
+		if (!DatagramEndpoint.encode(buffer, session.getToken(), sequence, frame)) {
+			Messenger.warn("Command too long for a datagram - dropping: {}", frame);
+			return false;
+		}
+
+		try {
+			this.channel.send(buffer, peer);
+			return true;
+		} catch (IOException e) {
+			Messenger.debug("Cannot send datagram - dropping: {}", e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Assemble a datagram.
+	 *
+	 * @param buffer   the buffer, cleared first. Ready to be sent afterwards.
+	 * @param token    the token.
+	 * @param sequence the sequence number.
+	 * @param frame    the command.
+	 * @return whether the command fits.
+	 */
+	static boolean encode(ByteBuffer buffer, long token, int sequence, Frame frame) {
+		/* Skip the frame header: the marker byte and the varint length. */
+		byte[] bytes = frame.getBytes(true);
+		int header = 2;
+		while ((bytes[header - 1] & 0x80) != 0) {
+			++header;
+		}
+
+		buffer.clear();
+		if (buffer.remaining() < DatagramEndpoint.HEADER_LENGTH + bytes.length - header) {
+			return false;
+		}
+		buffer.putLong(token);
+		buffer.putInt(sequence);
+		buffer.put(bytes, header, bytes.length - header);
+		buffer.flip();
+		return true;
+	}
+
+	/**
+	 * Enter the receiver. It receives datagrams, parses them, and dispatches them to their
+	 * sessions.
+	 */
+	private void receive() {
+		ByteBuffer buffer = ByteBuffer.allocate(DatagramEndpoint.MAX_DATAGRAM_LENGTH);
+
+		while (!Thread.currentThread().isInterrupted()) {
+			SocketAddress from;
+			buffer.clear();
+			try {
+				from = this.channel.receive(buffer);
+			} catch (ClosedChannelException e) {
+				break;
+			} catch (IOException e) {
+				Messenger.warn(e, "An IO error occurred while receiving a datagram - ignoring");
+				continue;
+			}
+			buffer.flip();
+
+			if (buffer.remaining() <= DatagramEndpoint.HEADER_LENGTH) {
+				this.rejected.incrementAndGet();
+				continue;
+			}
+			long token = buffer.getLong();
+			int sequence = buffer.getInt();
+
+			var session = this.sessions.get(token);
+			if (session == null) {
+				this.rejected.incrementAndGet();
+				continue;
+			}
+
+			Command command;
+			try {
+				command = Command.fromBinary(buffer.array(), buffer.position(), buffer.remaining());
+			} catch (MalformedException e) {
+				this.rejected.incrementAndGet();
+				continue;
+			}
+
+			session.receive(sequence, command, from);
+		}
+
+		Messenger.debug("Datagram receiver died");
+	}
+
+	/**
+	 * Close the channel and stop receiving. Open sessions stop working.
+	 */
+	public void close() {
+		this.receiver.interrupt();
+		try {
+			this.channel.close();
+		} catch (IOException e) {
+			Messenger.warn(e, "An IO error occurred while closing the datagram channel - ignoring");
+		}
+		this.sessions.clear();
+	}
+
+	@Override
+	public String toString() {
+		long sent = 0;
+		long received = 0;
+		long stale = 0;
+		for (var session : this.sessions.values()) {
+			sent += session.getSent();
+			received += session.getReceived();
+			stale += session.getStale();
+		}
+
+		return this.sessions.size() + " sessions, " + sent + " sent, " + received + " received, "
+			+ stale + " stale, " + this.rejected.get() + " rejected";
+	}
+}
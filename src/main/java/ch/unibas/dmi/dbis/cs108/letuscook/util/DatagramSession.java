@@ -0,0 +1,204 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.Command;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.PingCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.PongCommand;
+import java.net.SocketAddress;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Exchanges datagrams with one peer through a {@link DatagramEndpoint}. Datagrams may be lost,
+ * duplicated, or reordered: each one is numbered, and a command is dropped if a newer one about
+ * the same subject has arrived already. Pings are answered with pongs, so that both sides know the
+ * datagrams get through, see {@link #isAlive()}.
+ */
+public class DatagramSession {
+
+	/**
+	 * How often a peer should ping while it has nothing else to send, in milliseconds.
+	 */
+	public static final long PING_INTERVAL_MS = 1000;
+
+	/**
+	 * How long a session counts as alive after its latest datagram, in milliseconds.
+	 */
+	public static final long TIMEOUT_MS = 3 * DatagramSession.PING_INTERVAL_MS;
+
+	/**
+	 * The endpoint.
+	 */
+	private final DatagramEndpoint endpoint;
+
+	/**
+	 * The token in each datagram.
+	 */
+	private final long token;
+
+	/**
+	 * How to handle the commands received, other than pings and pongs.
+	 */
+	private final Consumer<Command> consumer;
+
+	/**
+	 * The address of the peer, or <code>null</code> until it sends its first datagram. Follows the
+	 * peer if its address changes.
+	 */
+	private volatile SocketAddress peer;
+
+	/**
+	 * When the latest datagram was received, as told by {@link System#nanoTime()}.
+	 */
+	private volatile long receivedAt;
+
+	/**
+	 * Whether any datagram was received.
+	 */
+	private volatile boolean heard = false;
+
+	/**
+	 * The sequence number of the latest datagram sent.
+	 */
+	private final AtomicInteger sequence = new AtomicInteger();
+
+	/**
+	 * The sequence number of the newest datagram received, per subject. Only touched by the
+	 * endpoint's receiver.
+	 */
+	private final HashMap<Identifier, Integer> newestBySubject = new HashMap<>();
+
+	/**
+	 * The number of datagrams sent.
+	 */
+	private final AtomicLong sent = new AtomicLong();
+
+	/**
+	 * The number of datagrams received and consumed.
+	 */
+	private final AtomicLong received = new AtomicLong();
+
+	/**
+	 * The number of datagrams dropped because a newer one had arrived already.
+	 */
+	private final AtomicLong stale = new AtomicLong();
+
+	/**
+	 * Create a session. See {@link DatagramEndpoint#open(Consumer)}.
+	 *
+	 * @param endpoint the endpoint.
+	 * @param token    the token in each datagram.
+	 * @param peer     the address of the peer, or <code>null</code> if not known yet.
+	 * @param consumer how to handle the commands received.
+	 */
+	DatagramSession(DatagramEndpoint endpoint, long token, SocketAddress peer,
+		Consumer<Command> consumer) {
+		assert endpoint != null : "endpoint is null";
+		assert consumer != null : "consumer is null";
+
+		this.endpoint = endpoint;
+		this.token = token;
+		this.peer = peer;
+		this.consumer = consumer;
+	}
+
+	/**
+	 * @return the token in each datagram.
+	 */
+	public long getToken() {
+		return this.token;
+	}
+
+	/**
+	 * Check whether datagrams get through: the peer is known and has sent a datagram recently.
+	 * While the peer is silent, everything should go over the connection instead.
+	 *
+	 * @return whether this session is alive.
+	 */
+	public boolean isAlive() {
+		return this.heard && this.peer != null && System.nanoTime() - this.receivedAt
+			< TimeUnit.MILLISECONDS.toNanos(DatagramSession.TIMEOUT_MS);
+	}
+
+	/**
+	 * Send a command, unless the peer is not known yet. The command may be lost.
+	 *
+	 * @param frame the command.
+	 */
+	public void send(Frame frame) {
+		SocketAddress peer = this.peer;
+		if (peer == null) {
+			return;
+		}
+
+		int sequence = this.sequence.incrementAndGet();
+		if (this.endpoint.send(this, sequence, frame, peer)) {
+			this.sent.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Ping the peer, which answers with a pong. Keeps the session alive on both sides.
+	 */
+	public void ping() {
+		this.send(new Frame(new PingCommand()));
+	}
+
+	/**
+	 * Consume a datagram, unless a newer one about the same subject has arrived already.
+	 *
+	 * @param sequence the sequence number.
+	 * @param command  the command.
+	 * @param from     the address of the sender.
+	 */
+	void receive(int sequence, Command command, SocketAddress from) {
+		Integer newest = this.newestBySubject.get(command.getSubject());
+		/* Compare by difference, so that the sequence numbers may wrap around. */
+		if (newest != null && sequence - newest <= 0) {
+			this.stale.incrementAndGet();
+			return;
+		}
+		this.newestBySubject.put(command.getSubject(), sequence);
+
+		this.peer = from;
+		this.receivedAt = System.nanoTime();
+		this.heard = true;
+		this.received.incrementAndGet();
+
+		if (command instanceof PingCommand) {
+			this.send(new Frame(new PongCommand()));
+		} else if (!(command instanceof PongCommand)) {
+			this.consumer.accept(command);
+		}
+	}
+
+	/**
+	 * Close this session. Datagrams carrying its token are dropped from now on.
+	 */
+	public void close() {
+		this.endpoint.close(this);
+	}
+
+	/**
+	 * @return the number of datagrams sent.
+	 */
+	public long getSent() {
+		return this.sent.get();
+	}
+
+	/**
+	 * @return the number of datagrams received and consumed.
+	 */
+	public long getReceived() {
+		return this.received.get();
+	}
+
+	/**
+	 * @return the number of datagrams dropped because a newer one had arrived already.
+	 */
+	public long getStale() {
+		return this.stale.get();
+	}
+}
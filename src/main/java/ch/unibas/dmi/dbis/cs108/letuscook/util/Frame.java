@@ -0,0 +1,118 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.Command;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.PlayerPositionCommand;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A command together with its encoding, computed at most once. Broadcasts wrap each command in a
+ * frame and hand the same frame to every recipient, so a command is encoded once no matter how
+ * many connections it is sent to.
+ */
+public final class Frame {
+
+	/**
+	 * The command.
+	 */
+	private final Command command;
+
+	/**
+	 * The command as a terminated line, or <code>null</code> until first needed. Never modified
+	 * once set.
+	 */
+	private volatile byte[] text;
+
+	/**
+	 * The command as a binary frame, or <code>null</code> until first needed. Never modified once
+	 * set.
+	 */
+	private volatile byte[] binary;
+
+	/**
+	 * Create a frame. <b>The command must not be modified afterwards.</b>
+	 *
+	 * @param command the command.
+	 */
+	public Frame(Command command) {
+		assert command != null : "command is null";
+
+		this.command = command;
+	}
+
+	/**
+	 * Wrap several commands in frames.
+	 *
+	 * @param commands the commands.
+	 * @return one frame per command.
+	 */
+	public static Frame[] of(Command... commands) {
+		Frame[] frames = new Frame[commands.length];
+		for (int i = 0; i < commands.length; ++i) {
+			frames[i] = new Frame(commands[i]);
+		}
+		return frames;
+	}
+
+	/**
+	 * @return the command.
+	 */
+	public Command getCommand() {
+		return this.command;
+	}
+
+	/**
+	 * Get the encoded command. <b>The result must not be modified.</b>
+	 *
+	 * @param binary whether to use the binary encoding rather than a line of text.
+	 * @return the encoded command, including its line terminator or frame header.
+	 */
+	public byte[] getBytes(boolean binary) {
+		/* Racing threads may both encode, which is harmless. */
+		if (binary) {
+			byte[] bytes = this.binary;
+			if (bytes == null) {
+				bytes = this.command.toBinary();
+				this.binary = bytes;
+			}
+			return bytes;
+		}
+
+		byte[] bytes = this.text;
+		if (bytes == null) {
+			bytes = (this.command + "\n").getBytes(StandardCharsets.UTF_8);
+			this.text = bytes;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Get the key under which a pending frame may be replaced by a newer one, see
+	 * {@link Outbox#offer(byte[], Object)}. Positions are plain state: only the newest position of
+	 * each player matters, so they are keyed by their subject. All other commands keep their order
+	 * and have no key.
+	 *
+	 * @return the key, or <code>null</code> if this frame must not be replaced.
+	 */
+	public Object getCoalescingKey() {
+		if (this.command instanceof PlayerPositionCommand) {
+			return this.command.getSubject();
+		}
+		return null;
+	}
+
+	/**
+	 * Check whether this frame may be sent by datagram, see {@link DatagramEndpoint}. Only
+	 * positions may: they are superseded many times a second, so losing one does no harm, while
+	 * waiting for a lost one to be resent stalls every later command.
+	 *
+	 * @return whether this frame may be sent by datagram.
+	 */
+	public boolean mayTravelByDatagram() {
+		return this.command instanceof PlayerPositionCommand;
+	}
+
+	@Override
+	public String toString() {
+		return this.command.toString();
+	}
+}
@@ -0,0 +1,113 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits received bytes into commands for a {@link Connection}. Accepts both encodings, even
+ * interleaved: a text command is a line terminated by <code>'\n'</code>, a binary command is a
+ * zero byte followed by the varint length of its payload and the payload (see
+ * {@link BinaryWriter#toFrame()}).
+ */
+class FrameDecoder {
+
+	/**
+	 * The initial size of the buffer.
+	 */
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	/**
+	 * The longest line or payload we accept before dropping the peer.
+	 */
+	private static final int MAX_FRAME_LENGTH = 64 * 1024;
+
+	/**
+	 * Bytes received that do not form a complete command yet, in write mode.
+	 */
+	private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+	/**
+	 * @return the buffer to receive bytes into. It always has room left.
+	 */
+	ByteBuffer buffer() {
+		return this.buffer;
+	}
+
+	/**
+	 * Consume all complete commands in the buffer.
+	 *
+	 * @param connection the connection that consumes the commands.
+	 * @return whether the connection may continue, i.e. no command was too long.
+	 */
+	boolean decode(Connection connection) {
+		this.buffer.flip();
+		byte[] array = this.buffer.array();
+		int limit = this.buffer.limit();
+		int start = 0;
+
+		while (start < limit) {
+			if (array[start] == 0) {
+				/* Binary: marker, varint length, payload. */
+				int length = 0;
+				int i = start + 1;
+				int shift = 0;
+				boolean complete = false;
+				while (i < limit && shift < 35) {
+					int b = array[i++] & 0xFF;
+					length |= (b & 0x7F) << shift;
+					shift += 7;
+					if ((b & 0x80) == 0) {
+						complete = true;
+						break;
+					}
+				}
+				if (!complete && shift < 35) {
+					break;
+				}
+				if (!complete || length < 0 || length > MAX_FRAME_LENGTH) {
+					Messenger.warn("Malformed or oversized binary frame - closing connection");
+					return false;
+				}
+				if (limit - i < length) {
+					break;
+				}
+				connection.consumeBinary(array, i, length);
+				start = i + length;
+			} else {
+				/* Text: a line. */
+				int end = -1;
+				for (int i = start; i < limit; ++i) {
+					if (array[i] == '\n') {
+						end = i;
+						break;
+					}
+				}
+				if (end < 0) {
+					break;
+				}
+				int stop = end > start && array[end - 1] == '\r' ? end - 1 : end;
+				connection.consumeString(
+					new String(array, start, stop - start, StandardCharsets.UTF_8));
+				start = end + 1;
+			}
+		}
+
+		this.buffer.position(start);
+		this.buffer.compact();
+
+		/* Make room for commands that do not fit yet. */
+		if (!this.buffer.hasRemaining()) {
+			if (this.buffer.capacity() >= MAX_FRAME_LENGTH + 8) {
+				Messenger.warn("Command too long - closing connection");
+				return false;
+			}
+			ByteBuffer larger = ByteBuffer.allocate(
+				Math.min(2 * this.buffer.capacity(), MAX_FRAME_LENGTH + 8));
+			this.buffer.flip();
+			larger.put(this.buffer);
+			this.buffer = larger;
+		}
+
+		return true;
+	}
+}
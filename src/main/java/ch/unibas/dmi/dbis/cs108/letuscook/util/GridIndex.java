@@ -0,0 +1,201 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A uniform grid over a fixed set of rects, e.g. the workbenches or barriers of a kitchen. Each
+ * cell lists the rects that touch it, so that finding the rects near a point or overlapping a rect
+ * only looks at a few cells instead of at every rect. Built once, since the rects don't move.
+ *
+ * <p>Queries answer exactly like a scan over the rects in order would, including ties.</p>
+ */
+public class GridIndex {
+
+	/**
+	 * The rects.
+	 */
+	private final Rect[] rects;
+
+	/**
+	 * The width and height of a cell.
+	 */
+	private final double cellSize;
+
+	/**
+	 * The number of columns.
+	 */
+	private final int columns;
+
+	/**
+	 * The number of rows.
+	 */
+	private final int rows;
+
+	/**
+	 * The indices of the rects touching each cell, in ascending order, row by row.
+	 */
+	private final int[][] cells;
+
+	/**
+	 * Build an index.
+	 *
+	 * @param rects    the rects, which must not move afterwards.
+	 * @param cellSize the width and height of a cell, ideally about the size of a rect.
+	 */
+	public GridIndex(Rect[] rects, double cellSize) {
+		assert rects != null : "rects is null";
+		assert cellSize > 0 : "cellSize must be positive";
+
+		this.rects = rects.clone();
+		this.cellSize = cellSize;
+
+		double right = 0;
+		double bottom = 0;
+		for (var rect : rects) {
+			right = Math.max(right, rect.right());
+			bottom = Math.max(bottom, rect.bottom());
+		}
+		this.columns = (int) (right / cellSize) + 1;
+		this.rows = (int) (bottom / cellSize) + 1;
+
+		/* Count first, so that each cell gets an array of the right length. */
+		int[] counts = new int[this.columns * this.rows];
+		for (var rect : rects) {
+			this.forEachCell(rect, cell -> ++counts[cell]);
+		}
+
+		this.cells = new int[counts.length][];
+		for (int cell = 0; cell < counts.length; ++cell) {
+			this.cells[cell] = new int[counts[cell]];
+		}
+		Arrays.fill(counts, 0);
+		for (int i = 0; i < rects.length; ++i) {
+			int index = i;
+			this.forEachCell(rects[i], cell -> this.cells[cell][counts[cell]++] = index);
+		}
+	}
+
+	/**
+	 * Visit the cells a rect touches.
+	 *
+	 * @param rect    the rect.
+	 * @param visitor called with each cell.
+	 */
+	private void forEachCell(Rect rect, IntConsumer visitor) {
+		int firstColumn = this.column(rect.left());
+		int lastColumn = this.column(rect.right());
+		int firstRow = this.row(rect.top());
+		int lastRow = this.row(rect.bottom());
+
+		for (int row = firstRow; row <= lastRow; ++row) {
+			for (int column = firstColumn; column <= lastColumn; ++column) {
+				visitor.accept(row * this.columns + column);
+			}
+		}
+	}
+
+	/**
+	 * @param x a horizontal coordinate.
+	 * @return the column containing it, clamped to the grid.
+	 */
+	private int column(double x) {
+		return Math.max(0, Math.min(this.columns - 1, (int) Math.floor(x / this.cellSize)));
+	}
+
+	/**
+	 * @param y a vertical coordinate.
+	 * @return the row containing it, clamped to the grid.
+	 */
+	private int row(double y) {
+		return Math.max(0, Math.min(this.rows - 1, (int) Math.floor(y / this.cellSize)));
+	}
+
+	/**
+	 * @return the number of rects.
+	 */
+	public int size() {
+		return this.rects.length;
+	}
+
+	/**
+	 * Find the last rect a rect collides with, see {@link Rect#isWithin(Rect)}.
+	 *
+	 * @param rect the rect.
+	 * @return the highest index of a rect it collides with, or -1 if there is none.
+	 */
+	public int lastCollision(Rect rect) {
+		return this.lastCollision(rect.left(), rect.top(), rect.right(), rect.bottom());
+	}
+
+	/**
+	 * Find the last rect a rect with the given edges collides with, see
+	 * {@link Rect#isHitBy(double, double, double, double)}.
+	 *
+	 * @param left   the left edge, in units.
+	 * @param top    the top edge, in units.
+	 * @param right  the right edge, in units.
+	 * @param bottom the bottom edge, in units.
+	 * @return the highest index of a rect it collides with, or -1 if there is none.
+	 */
+	public int lastCollision(double left, double top, double right, double bottom) {
+		int firstColumn = this.column(left);
+		int lastColumn = this.column(right);
+		int firstRow = this.row(top);
+		int lastRow = this.row(bottom);
+
+		int last = -1;
+		for (int row = firstRow; row <= lastRow; ++row) {
+			for (int column = firstColumn; column <= lastColumn; ++column) {
+				int[] cell = this.cells[row * this.columns + column];
+				/* Indices ascend, so look from the end and stop at the first hit. */
+				for (int i = cell.length - 1; i >= 0 && cell[i] > last; --i) {
+					if (this.rects[cell[i]].isHitBy(left, top, right, bottom)) {
+						last = cell[i];
+						break;
+					}
+				}
+			}
+		}
+		return last;
+	}
+
+	/**
+	 * Find the rect whose center is closest to a point, as told by
+	 * {@link Coords#distance(Coords, Coords)}, provided it is within a radius.
+	 *
+	 * @param point  the point.
+	 * @param radius the radius. Rects further away are never returned.
+	 * @return the index of the closest rect, the lowest among equally close ones, or -1 if the
+	 * closest rect is further away than the radius.
+	 */
+	public int closest(Coords point, double radius) {
+		assert radius >= 0 : "negative radius";
+
+		double x = point.x();
+		double y = point.y();
+		int firstColumn = this.column(x - radius);
+		int lastColumn = this.column(x + radius);
+		int firstRow = this.row(y - radius);
+		int lastRow = this.row(y + radius);
+
+		int closest = -1;
+		double smallestDistance = radius;
+		for (int row = firstRow; row <= lastRow; ++row) {
+			for (int column = firstColumn; column <= lastColumn; ++column) {
+				for (int index : this.cells[row * this.columns + column]) {
+					Rect rect = this.rects[index];
+					/* Same formula as Vector#magnitude(), so that ties break the same way. */
+					double distance = Math.sqrt(Math.pow(x - rect.x(), 2)
+						+ Math.pow(y - rect.y(), 2));
+					if (distance < smallestDistance
+						|| (distance == smallestDistance && (closest == -1 || index < closest))) {
+						closest = index;
+						smallestDistance = distance;
+					}
+				}
+			}
+		}
+		return closest;
+	}
+}
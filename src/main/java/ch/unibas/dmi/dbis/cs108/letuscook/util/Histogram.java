@@ -0,0 +1,116 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts non-negative values, e.g. latencies, in buckets whose bounds are powers of two. Recording
+ * takes no lock, so many threads can record into the same histogram at once. Percentiles are
+ * accurate to a factor of two, which is enough to tell whether a latency stays bounded.
+ */
+public class Histogram {
+
+	/**
+	 * The number of buckets. Bucket <code>i</code> counts values below <code>2^i</code> that are
+	 * not counted by a lower bucket, so bucket 0 counts only zeros.
+	 */
+	private static final int BUCKETS = 64;
+
+	/**
+	 * The number of values per bucket.
+	 */
+	private final AtomicLongArray counts = new AtomicLongArray(Histogram.BUCKETS);
+
+	/**
+	 * The number of values.
+	 */
+	private final AtomicLong count = new AtomicLong();
+
+	/**
+	 * The sum of all values.
+	 */
+	private final AtomicLong sum = new AtomicLong();
+
+	/**
+	 * The largest value.
+	 */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Count a value.
+	 *
+	 * @param value the value, must not be negative.
+	 */
+	public void record(long value) {
+		assert value >= 0 : "value is negative";
+
+		this.counts.incrementAndGet(Histogram.bucketOf(value));
+		this.count.incrementAndGet();
+		this.sum.addAndGet(value);
+		this.max.accumulateAndGet(value, Math::max);
+	}
+
+	/**
+	 * @param value a value.
+	 * @return the bucket that counts the value.
+	 */
+	private static int bucketOf(long value) {
+		return Long.SIZE - Long.numberOfLeadingZeros(value);
+	}
+
+	/**
+	 * @return the number of values.
+	 */
+	public long getCount() {
+		return this.count.get();
+	}
+
+	/**
+	 * @return the average of all values, or 0 if there are none.
+	 */
+	public long getMean() {
+		long count = this.getCount();
+		return count == 0 ? 0 : this.sum.get() / count;
+	}
+
+	/**
+	 * @return the largest value, or 0 if there are none.
+	 */
+	public long getMax() {
+		return this.max.get();
+	}
+
+	/**
+	 * Estimate a percentile. Values recorded meanwhile may or may not be taken into account.
+	 *
+	 * @param percentile the percentile, between 0 and 100.
+	 * @return a bound that at least the given share of values don't exceed, at most twice the
+	 * exact percentile, or 0 if there are no values.
+	 */
+	public long getPercentile(double percentile) {
+		assert percentile >= 0 && percentile <= 100 : "percentile out of range";
+
+		long total = 0;
+		for (int i = 0; i < Histogram.BUCKETS; ++i) {
+			total += this.counts.get(i);
+		}
+
+		long rank = (long) Math.ceil(total * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < Histogram.BUCKETS; ++i) {
+			seen += this.counts.get(i);
+			if (seen >= rank && seen > 0) {
+				return Math.min(this.getMax(), i == 0 ? 0 : (1L << i) - 1);
+			}
+		}
+
+		return 0;
+	}
+
+	@Override
+	public String toString() {
+		return this.getCount() + " values, mean " + this.getMean() + ", p50 "
+			+ this.getPercentile(50) + ", p99 " + this.getPercentile(99) + ", max "
+			+ this.getMax();
+	}
+}
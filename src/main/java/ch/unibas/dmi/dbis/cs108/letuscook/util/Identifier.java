@@ -36,19 +36,45 @@ public class Identifier {
 	 * @throws MalformedException if the string contains a malformed identifier.
 	 */
 	public static Identifier fromString(String string) throws MalformedException {
-		int identifier;
-
-		try {
-			identifier = Integer.parseInt(string);
-		} catch (NumberFormatException e) {
-			identifier = -1;
+		if (string == null) {
+			throw new MalformedException("malformed identifier");
 		}
 
-		if (identifier < 0) {
+		return Identifier.fromString(string, 0, string.length());
+	}
+
+	/**
+	 * Parse an identifier from a region of a string, without copying the region.
+	 *
+	 * @param string the string containing the identifier.
+	 * @param start  the index of the first character of the identifier.
+	 * @param end    the index after the last character of the identifier.
+	 * @return the identifier.
+	 * @throws MalformedException if the region contains a malformed identifier.
+	 */
+	public static Identifier fromString(CharSequence string, int start, int end)
+		throws MalformedException {
+		int i = start;
+		if (i < end && string.charAt(i) == '+') {
+			++i;
+		}
+		if (i == end) {
 			throw new MalformedException("malformed identifier");
 		}
 
-		return new Identifier(identifier);
+		long identifier = 0;
+		for (; i < end; ++i) {
+			char c = string.charAt(i);
+			if (c < '0' || c > '9') {
+				throw new MalformedException("malformed identifier");
+			}
+			identifier = 10 * identifier + (c - '0');
+			if (identifier > Integer.MAX_VALUE) {
+				throw new MalformedException("malformed identifier");
+			}
+		}
+
+		return identifier == 0 ? Identifier.NONE : new Identifier((int) identifier);
 	}
 
 	/**
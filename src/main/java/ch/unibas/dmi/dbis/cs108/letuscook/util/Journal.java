@@ -0,0 +1,100 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.Command;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.PlayerPositionCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.ResumeCommand;
+import java.util.Optional;
+
+/**
+ * Remembers the latest frames sent to a peer, so that a peer that lost its connection can be sent
+ * just what it missed instead of everything. Both sides count the journaled commands: the peer
+ * tells how many it received, and gets the rest resent, see {@link ResumeCommand}.
+ *
+ * <p>Not every command is journaled, see {@link #covers(Command)}. Not thread-safe.</p>
+ */
+public class Journal {
+
+	/**
+	 * The default number of frames remembered.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * The latest frames, in a ring. Frame number <code>n</code> is at index
+	 * <code>n % frames.length</code>.
+	 */
+	private final Frame[] frames;
+
+	/**
+	 * The number of frames ever journaled.
+	 */
+	private long count = 0;
+
+	/**
+	 * Create a journal with the default capacity.
+	 */
+	public Journal() {
+		this(Journal.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a journal.
+	 *
+	 * @param capacity the number of frames remembered.
+	 */
+	public Journal(int capacity) {
+		assert capacity > 0 : "capacity must be positive";
+
+		this.frames = new Frame[capacity];
+	}
+
+	/**
+	 * Check whether a command is journaled. Positions are not: they are coalesced on the way, so
+	 * the peer can't count them, and only the latest one matters anyway. Neither is
+	 * {@link ResumeCommand}, which concerns the connection rather than what was sent over it.
+	 *
+	 * @param command the command.
+	 * @return whether the command is journaled.
+	 */
+	public static boolean covers(Command command) {
+		return !(command instanceof PlayerPositionCommand) && !(command instanceof ResumeCommand);
+	}
+
+	/**
+	 * Remember a frame, forgetting the oldest one if full.
+	 *
+	 * @param frame the frame. Must be covered, see {@link #covers(Command)}.
+	 */
+	public void append(Frame frame) {
+		assert Journal.covers(frame.getCommand()) : "command is not journaled";
+
+		this.frames[(int) (this.count++ % this.frames.length)] = frame;
+	}
+
+	/**
+	 * @return the number of frames ever journaled.
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Get the frames a peer missed.
+	 *
+	 * @param received the number of journaled frames the peer received.
+	 * @return the frames journaled after those, oldest first, or empty if some of them were
+	 * forgotten already or the peer claims more than were ever journaled.
+	 */
+	public Optional<Frame[]> since(long received) {
+		if (received < 0 || received > this.count
+			|| this.count - received > this.frames.length) {
+			return Optional.empty();
+		}
+
+		Frame[] missed = new Frame[(int) (this.count - received)];
+		for (int i = 0; i < missed.length; ++i) {
+			missed[i] = this.frames[(int) ((received + i) % this.frames.length)];
+		}
+		return Optional.of(missed);
+	}
+}
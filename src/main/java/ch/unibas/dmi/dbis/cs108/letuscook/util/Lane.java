@@ -0,0 +1,330 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs tasks one at a time and in the order they were submitted, on threads borrowed from a shared
+ * executor. Many lanes can share a small pool: tasks of different lanes run in parallel, while
+ * tasks of the same lane never do. An idle lane occupies no thread.
+ *
+ * <p>Once it has a thread, a lane drains the tasks waiting in it in one batch, up to
+ * {@link #BATCH_LIMIT}, and then calls its batch hook, e.g. to flush what the tasks produced.</p>
+ *
+ * <p>A lane may have several priority levels, each with a weight. Tasks of the same level run in
+ * submission order. Levels take turns, each running up to its weight in tasks per turn, so that a
+ * flood of tasks at one level only delays the others by a bounded amount.</p>
+ */
+public class Lane {
+
+	/**
+	 * The largest number of tasks run in one batch, so that busy lanes take turns with the others.
+	 */
+	public static final int BATCH_LIMIT = 64;
+
+	/**
+	 * The lane whose task the current thread is running, if any.
+	 */
+	private static final ThreadLocal<Lane> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * The name of this lane.
+	 */
+	private final String name;
+
+	/**
+	 * The executor that runs the tasks.
+	 */
+	private final Executor executor;
+
+	/**
+	 * Called after each batch, on the thread that ran it.
+	 */
+	private final Runnable afterBatch;
+
+	/**
+	 * The number of tasks each level runs per turn.
+	 */
+	private final int[] weights;
+
+	/**
+	 * The time tasks of each level waited before they were run, in microseconds. May be shared
+	 * with other lanes.
+	 */
+	private final Histogram[] waits;
+
+	/**
+	 * The tasks that are waiting to be run, per level. Guarded by <code>this</code>.
+	 */
+	private final ArrayDeque<Queued>[] tasks;
+
+	/**
+	 * Whether a task of this lane is handed to the executor. Guarded by <code>this</code>.
+	 */
+	private boolean scheduled = false;
+
+	/**
+	 * The number of tasks run.
+	 */
+	private final AtomicLong tasksRun = new AtomicLong();
+
+	/**
+	 * The number of batches run.
+	 */
+	private final AtomicLong batchesRun = new AtomicLong();
+
+	/**
+	 * Create a lane with a single level and without a batch hook.
+	 *
+	 * @param name     the name of the lane.
+	 * @param executor the executor that runs the tasks.
+	 */
+	public Lane(String name, Executor executor) {
+		this(name, executor, () -> {
+		});
+	}
+
+	/**
+	 * Create a lane with a single level.
+	 *
+	 * @param name       the name of the lane.
+	 * @param executor   the executor that runs the tasks.
+	 * @param afterBatch called after each batch, as part of this lane.
+	 */
+	public Lane(String name, Executor executor, Runnable afterBatch) {
+		this(name, executor, afterBatch, new int[]{1}, new Histogram[]{new Histogram()});
+	}
+
+	/**
+	 * Create a lane.
+	 *
+	 * @param name       the name of the lane.
+	 * @param executor   the executor that runs the tasks.
+	 * @param afterBatch called after each batch, as part of this lane.
+	 * @param weights    the number of tasks each level runs per turn. Level 0 takes the first
+	 *                   turn.
+	 * @param waits      one histogram per level, to record the time tasks waited, in
+	 *                   microseconds.
+	 */
+	@SuppressWarnings("unchecked")
+	public Lane(String name, Executor executor, Runnable afterBatch, int[] weights,
+		Histogram[] waits) {
+		assert name != null : "name is null";
+		assert executor != null : "executor is null";
+		assert afterBatch != null : "afterBatch is null";
+		assert weights.length > 0 : "no levels";
+		assert waits.length == weights.length : "need one histogram per level";
+
+		this.name = name;
+		this.executor = executor;
+		this.afterBatch = afterBatch;
+		this.weights = weights.clone();
+		this.waits = waits.clone();
+		this.tasks = (ArrayDeque<Queued>[]) new ArrayDeque<?>[weights.length];
+		for (int level = 0; level < weights.length; ++level) {
+			assert weights[level] > 0 : "weight must be positive";
+
+			this.tasks[level] = new ArrayDeque<>();
+		}
+	}
+
+	/**
+	 * @return the lane whose task the current thread is running, if any.
+	 */
+	public static Optional<Lane> current() {
+		return Optional.ofNullable(Lane.CURRENT.get());
+	}
+
+	/**
+	 * Call the batch hook of the lane whose task the current thread is running, ahead of the end
+	 * of the batch, so that whatever the hook sends is not overtaken by what is sent next. Does
+	 * nothing outside of a lane.
+	 */
+	public static void flushCurrentBatch() {
+		Lane lane = Lane.CURRENT.get();
+		if (lane != null) {
+			lane.afterBatch.run();
+		}
+	}
+
+	/**
+	 * @return the name of this lane.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Queue a task at level 0. See {@link #submit(Runnable, int)}.
+	 *
+	 * @param task the task.
+	 * @return whether the task was queued.
+	 */
+	public boolean submit(Runnable task) {
+		return this.submit(task, 0);
+	}
+
+	/**
+	 * Queue a task. It runs once all tasks submitted before it at the same level have run.
+	 *
+	 * @param task  the task.
+	 * @param level the level.
+	 * @return whether the task was queued, i.e. the executor still accepts tasks. If not, all
+	 * waiting tasks are dropped.
+	 */
+	public boolean submit(Runnable task, int level) {
+		assert task != null : "task is null";
+		assert level >= 0 && level < this.tasks.length : "no such level";
+
+		synchronized (this) {
+			this.tasks[level].add(new Queued(task, System.nanoTime()));
+			if (this.scheduled) {
+				return true;
+			}
+			this.scheduled = true;
+		}
+
+		return this.schedule();
+	}
+
+	/**
+	 * Hand the next batch to the executor.
+	 *
+	 * @return whether the executor accepted it.
+	 */
+	private boolean schedule() {
+		try {
+			this.executor.execute(this::runBatch);
+			return true;
+		} catch (RejectedExecutionException e) {
+			synchronized (this) {
+				for (var tasks : this.tasks) {
+					tasks.clear();
+				}
+				this.scheduled = false;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Run the waiting tasks, including those submitted meanwhile, up to {@link #BATCH_LIMIT}, with
+	 * the levels taking turns. Then call the batch hook and hand the next batch to the executor, if
+	 * any.
+	 */
+	private void runBatch() {
+		Lane.CURRENT.set(this);
+		try {
+			int count = 0;
+			boolean ranAny = true;
+			while (count < Lane.BATCH_LIMIT && ranAny) {
+				ranAny = false;
+				for (int level = 0; level < this.tasks.length; ++level) {
+					for (int turn = 0; turn < this.weights[level] && count < Lane.BATCH_LIMIT;
+						++turn) {
+						Queued queued = this.poll(level);
+						if (queued == null) {
+							break;
+						}
+						++count;
+						ranAny = true;
+
+						long waited = Math.max(0, System.nanoTime() - queued.queuedAt());
+						this.waits[level].record(TimeUnit.NANOSECONDS.toMicros(waited));
+						Lane.run(queued.task());
+					}
+				}
+			}
+			this.tasksRun.addAndGet(count);
+			this.batchesRun.incrementAndGet();
+
+			Lane.run(this.afterBatch);
+		} finally {
+			Lane.CURRENT.remove();
+
+			boolean more;
+			synchronized (this) {
+				more = this.countWaiting() > 0;
+				this.scheduled = more;
+			}
+			if (more) {
+				this.schedule();
+			}
+		}
+	}
+
+	/**
+	 * @param level the level.
+	 * @return the next waiting task of the level, or <code>null</code> if there is none.
+	 */
+	private synchronized Queued poll(int level) {
+		return this.tasks[level].poll();
+	}
+
+	/**
+	 * Run a task, handing whatever it throws to the default uncaught exception handler.
+	 *
+	 * @param task the task.
+	 */
+	private static void run(Runnable task) {
+		try {
+			task.run();
+		} catch (Throwable t) {
+			Thread.getDefaultUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), t);
+		}
+	}
+
+	/**
+	 * @return the number of tasks waiting at all levels. Guarded by <code>this</code>.
+	 */
+	private int countWaiting() {
+		int count = 0;
+		for (var tasks : this.tasks) {
+			count += tasks.size();
+		}
+		return count;
+	}
+
+	/**
+	 * @return the number of tasks waiting to be run.
+	 */
+	public synchronized int getDepth() {
+		return this.countWaiting();
+	}
+
+	/**
+	 * @param level the level.
+	 * @return the number of tasks waiting to be run at the level.
+	 */
+	public synchronized int getDepth(int level) {
+		return this.tasks[level].size();
+	}
+
+	/**
+	 * @return the average number of tasks run per batch.
+	 */
+	public double getMeanBatchSize() {
+		long batches = this.batchesRun.get();
+		return batches == 0 ? 0 : (double) this.tasksRun.get() / batches;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s (%d queued, %.1f per batch)", this.name, this.getDepth(),
+			this.getMeanBatchSize());
+	}
+
+	/**
+	 * A task waiting to be run.
+	 *
+	 * @param task     the task.
+	 * @param queuedAt when the task was submitted, see {@link System#nanoTime()}.
+	 */
+	private record Queued(Runnable task, long queuedAt) {
+
+	}
+}
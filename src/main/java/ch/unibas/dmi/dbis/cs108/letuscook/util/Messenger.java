@@ -2,11 +2,18 @@ package ch.unibas.dmi.dbis.cs108.letuscook.util;
 
 import ch.unibas.dmi.dbis.cs108.letuscook.cli.Console;
 import ch.unibas.dmi.dbis.cs108.letuscook.gui.ClientGUI;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
 
 /**
  * The Messenger class provides methods for outputting messages with various styles and formats.
+ *
+ * <p>Messages below the logger's level are dropped before anything is formatted or printed. On
+ * hot paths, pass the arguments separately, as in <code>debug("Sending: {}", frame)</code>, or a
+ * supplier, so that they are only turned into strings if the message is actually logged.</p>
  */
 public class Messenger {
 
@@ -68,6 +75,16 @@ public class Messenger {
 		}
 	}
 
+	/**
+	 * Check whether messages of a level are logged, e.g. before assembling an expensive message.
+	 *
+	 * @param level the level.
+	 * @return whether messages of the level are logged.
+	 */
+	public static boolean isEnabled(Level level) {
+		return Messenger.getLogger().isEnabled(level);
+	}
+
 	/**
 	 * Outputs a debug message.
 	 *
@@ -77,14 +94,61 @@ public class Messenger {
 		Messenger.getLogger().debug(message);
 	}
 
+	/**
+	 * Outputs a debug message, formatting it only if debug messages are logged.
+	 *
+	 * @param format   the message, with <code>{}</code> in place of the argument.
+	 * @param argument the argument.
+	 */
+	public static void debug(String format, Object argument) {
+		Messenger.getLogger().debug(format, argument);
+	}
+
+	/**
+	 * Outputs a debug message, formatting it only if debug messages are logged.
+	 *
+	 * @param format the message, with <code>{}</code> in place of each argument.
+	 * @param first  the first argument.
+	 * @param second the second argument.
+	 */
+	public static void debug(String format, Object first, Object second) {
+		Messenger.getLogger().debug(format, first, second);
+	}
+
+	/**
+	 * Outputs a debug message, assembling it only if debug messages are logged.
+	 *
+	 * @param message supplies the debug message.
+	 */
+	public static void debug(Supplier<String> message) {
+		Logger logger = Messenger.getLogger();
+		if (logger.isDebugEnabled()) {
+			logger.debug(message.get());
+		}
+	}
+
 	/**
 	 * Outputs an information message.
 	 *
 	 * @param message The information message.
 	 */
 	public static void info(String message) {
-		Console.println("\033[94m[info] " + message + "\033[0m");
-		Messenger.getLogger().info(message);
+		if (Messenger.getLogger().isInfoEnabled()) {
+			Console.println("\033[94m[info] " + message + "\033[0m");
+			Messenger.getLogger().info(message);
+		}
+	}
+
+	/**
+	 * Outputs an information message, formatting it only if information messages are logged.
+	 *
+	 * @param format   the message, with <code>{}</code> in place of the argument.
+	 * @param argument the argument.
+	 */
+	public static void info(String format, Object argument) {
+		if (Messenger.getLogger().isInfoEnabled()) {
+			Messenger.info(ParameterizedMessage.format(format, new Object[]{argument}));
+		}
 	}
 
 	/**
@@ -103,8 +167,22 @@ public class Messenger {
 	 * @param message The warning message.
 	 */
 	public static void warn(String message) {
-		Console.println("\033[93m[warn] " + message + "\033[0m");
-		Messenger.getLogger().warn(message);
+		if (Messenger.getLogger().isWarnEnabled()) {
+			Console.println("\033[93m[warn] " + message + "\033[0m");
+			Messenger.getLogger().warn(message);
+		}
+	}
+
+	/**
+	 * Outputs a warning, formatting it only if warnings are logged.
+	 *
+	 * @param format   the message, with <code>{}</code> in place of the argument.
+	 * @param argument the argument.
+	 */
+	public static void warn(String format, Object argument) {
+		if (Messenger.getLogger().isWarnEnabled()) {
+			Messenger.warn(ParameterizedMessage.format(format, new Object[]{argument}));
+		}
 	}
 
 	/**
@@ -123,8 +201,10 @@ public class Messenger {
 	 * @param message The error message.
 	 */
 	public static void error(String message) {
-		Console.println("\033[91m[error] " + message + "\033[0m");
-		Messenger.getLogger().error(message);
+		if (Messenger.getLogger().isErrorEnabled()) {
+			Console.println("\033[91m[error] " + message + "\033[0m");
+			Messenger.getLogger().error(message);
+		}
 	}
 
 	/**
@@ -0,0 +1,270 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded queue of encoded commands waiting to be written to a {@link Connection}. Senders never
+ * block: a writer drains everything that is pending into a single buffer and writes it with one
+ * flush. Commands that merely carry the latest value of something can be queued with a key, in
+ * which case a newer command drops a pending one with the same key. The newer command still goes
+ * to the tail, so it never overtakes commands queued after the one it replaces.
+ */
+public class Outbox {
+
+	/**
+	 * The default number of pending bytes before the peer is considered too slow.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024 * 1024;
+
+	/**
+	 * The maximum number of pending bytes.
+	 */
+	private final int capacity;
+
+	/**
+	 * The pending commands, including dropped ones, see {@link Entry#bytes}. Guarded by
+	 * <code>this</code>.
+	 */
+	private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+
+	/**
+	 * The number of commands in {@link #pending} that were not dropped. Guarded by
+	 * <code>this</code>.
+	 */
+	private int depth = 0;
+
+	/**
+	 * The pending commands that were queued with a key, by key. Guarded by <code>this</code>.
+	 */
+	private final HashMap<Object, Entry> pendingByKey = new HashMap<>();
+
+	/**
+	 * The number of bytes in {@link #pending}. Guarded by <code>this</code>.
+	 */
+	private int pendingBytes = 0;
+
+	/**
+	 * Whether this outbox was closed. Guarded by <code>this</code>.
+	 */
+	private boolean closed = false;
+
+	/**
+	 * The number of commands ever queued.
+	 */
+	private final AtomicLong queued = new AtomicLong();
+
+	/**
+	 * The number of commands that replaced a pending one instead of being queued.
+	 */
+	private final AtomicLong coalesced = new AtomicLong();
+
+	/**
+	 * The number of flushes.
+	 */
+	private final AtomicLong flushes = new AtomicLong();
+
+	/**
+	 * The number of bytes flushed.
+	 */
+	private final AtomicLong bytesFlushed = new AtomicLong();
+
+	/**
+	 * Create an outbox with the default capacity.
+	 */
+	public Outbox() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create an outbox.
+	 *
+	 * @param capacity the maximum number of pending bytes.
+	 */
+	public Outbox(int capacity) {
+		assert capacity > 0 : "capacity must be positive";
+
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Queue an encoded command.
+	 *
+	 * @param bytes the encoded command.
+	 * @return whether the command was queued, i.e. this outbox is open and not full.
+	 */
+	public boolean offer(byte[] bytes) {
+		return this.offer(bytes, null);
+	}
+
+	/**
+	 * Queue an encoded command. If a command with the same key is still pending, drop it: the
+	 * stale command is never written, and the new one is queued at the tail like any other.
+	 *
+	 * @param bytes the encoded command.
+	 * @param key   the key, or <code>null</code> if the command must not be replaced.
+	 * @return whether the command was queued, i.e. this outbox is open and not full.
+	 */
+	public synchronized boolean offer(byte[] bytes, Object key) {
+		assert bytes != null : "bytes is null";
+
+		if (this.closed) {
+			return false;
+		}
+
+		Entry stale = key == null ? null : this.pendingByKey.get(key);
+		int growth = bytes.length - (stale == null ? 0 : stale.bytes.length);
+		if (this.pendingBytes + growth > this.capacity) {
+			return false;
+		}
+
+		if (stale != null) {
+			stale.bytes = null;
+			this.coalesced.incrementAndGet();
+		} else {
+			++this.depth;
+		}
+
+		Entry entry = new Entry(bytes);
+		this.pending.add(entry);
+		if (key != null) {
+			this.pendingByKey.put(key, entry);
+		}
+		this.notifyAll();
+		this.pendingBytes += growth;
+		this.queued.incrementAndGet();
+
+		return true;
+	}
+
+	/**
+	 * Take everything that is pending without waiting.
+	 *
+	 * @return all pending bytes in one array, or <code>null</code> if nothing is pending.
+	 */
+	public synchronized byte[] poll() {
+		if (this.pending.isEmpty()) {
+			return null;
+		}
+
+		byte[] batch = new byte[this.pendingBytes];
+		int offset = 0;
+		for (var entry : this.pending) {
+			if (entry.bytes == null) {
+				continue;
+			}
+			System.arraycopy(entry.bytes, 0, batch, offset, entry.bytes.length);
+			offset += entry.bytes.length;
+		}
+
+		this.pending.clear();
+		this.pendingByKey.clear();
+		this.pendingBytes = 0;
+		this.depth = 0;
+
+		return batch;
+	}
+
+	/**
+	 * Wait until something is pending, then take all of it.
+	 *
+	 * @return all pending bytes in one array, or <code>null</code> once this outbox is closed.
+	 * @throws InterruptedException if interrupted while waiting.
+	 */
+	public synchronized byte[] take() throws InterruptedException {
+		while (this.pending.isEmpty() && !this.closed) {
+			this.wait();
+		}
+
+		return this.closed ? null : this.poll();
+	}
+
+	/**
+	 * Drop everything that is pending, refuse further commands, and wake up any waiting writer.
+	 */
+	public synchronized void close() {
+		this.closed = true;
+		this.pending.clear();
+		this.pendingByKey.clear();
+		this.pendingBytes = 0;
+		this.depth = 0;
+		this.notifyAll();
+	}
+
+	/**
+	 * Count a flush. Called by the writer once a batch is written.
+	 *
+	 * @param bytes the number of bytes written.
+	 */
+	public void recordFlush(int bytes) {
+		this.flushes.incrementAndGet();
+		this.bytesFlushed.addAndGet(bytes);
+	}
+
+	/**
+	 * @return the number of pending commands.
+	 */
+	public synchronized int getDepth() {
+		return this.depth;
+	}
+
+	/**
+	 * @return the number of pending bytes.
+	 */
+	public synchronized int getPendingBytes() {
+		return this.pendingBytes;
+	}
+
+	/**
+	 * @return the number of commands ever queued.
+	 */
+	public long getQueued() {
+		return this.queued.get();
+	}
+
+	/**
+	 * @return the number of commands that replaced a pending one.
+	 */
+	public long getCoalesced() {
+		return this.coalesced.get();
+	}
+
+	/**
+	 * @return the number of flushes.
+	 */
+	public long getFlushes() {
+		return this.flushes.get();
+	}
+
+	/**
+	 * @return the number of bytes flushed.
+	 */
+	public long getBytesFlushed() {
+		return this.bytesFlushed.get();
+	}
+
+	@Override
+	public String toString() {
+		long flushes = this.getFlushes();
+		return "depth " + this.getDepth() + " (" + this.getPendingBytes() + " B), queued "
+			+ this.getQueued() + ", coalesced " + this.getCoalesced() + ", flushes " + flushes
+			+ ", bytes/flush " + (flushes == 0 ? 0 : this.getBytesFlushed() / flushes);
+	}
+
+	/**
+	 * A pending command.
+	 */
+	private static final class Entry {
+
+		/**
+		 * The encoded command, or <code>null</code> once a newer command with the same key has
+		 * been queued.
+		 */
+		private byte[] bytes;
+
+		private Entry(byte[] bytes) {
+			this.bytes = bytes;
+		}
+	}
+}
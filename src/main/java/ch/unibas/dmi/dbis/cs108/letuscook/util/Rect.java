@@ -46,11 +46,62 @@ public class Rect extends Coords {
 		return new Coords(this.getX(), this.getY());
 	}
 
+	/**
+	 * Find the low edge of a rect along one axis, i.e. its left or top edge.
+	 *
+	 * @param center the center along the axis, in units.
+	 * @param size   the size along the axis, in units.
+	 * @return the low edge, in units.
+	 */
+	public static double lowEdge(double center, double size) {
+		return Units.round(center - size / 2);
+	}
+
+	/**
+	 * Find the high edge of a rect along one axis, i.e. its right or bottom edge.
+	 *
+	 * @param center the center along the axis, in units.
+	 * @param size   the size along the axis, in units.
+	 * @return the high edge, in units.
+	 */
+	public static double highEdge(double center, double size) {
+		return Units.round(Rect.lowEdge(center, size) + size);
+	}
+
+	/**
+	 * Find the center of a rect along one axis, given its low edge.
+	 *
+	 * @param edge the low edge, in units.
+	 * @param size the size along the axis, in units.
+	 * @return the center, in units.
+	 */
+	public static double centerAtLowEdge(double edge, double size) {
+		return Units.round(Units.round(edge) + size / 2);
+	}
+
+	/**
+	 * Find the center of a rect along one axis, given its high edge.
+	 *
+	 * @param edge the high edge, in units.
+	 * @param size the size along the axis, in units.
+	 * @return the center, in units.
+	 */
+	public static double centerAtHighEdge(double edge, double size) {
+		return Units.round(Units.round(edge) - size / 2);
+	}
+
 	/**
 	 * @return the horizontal component in the top left corner.
 	 */
 	public Units getLeft() {
-		return new Units(this.getX().u() - this.width.u() / 2);
+		return new Units(this.left());
+	}
+
+	/**
+	 * @return the horizontal component in the top left corner, in units.
+	 */
+	public double left() {
+		return Rect.lowEdge(this.x(), this.width.u());
 	}
 
 	/**
@@ -59,14 +110,30 @@ public class Rect extends Coords {
 	 * @param x the horizontal component relative to the left border.
 	 */
 	public void setLeft(final Units x) {
-		this.setX(new Units(x.u() + this.width.u() / 2));
+		this.setLeft(x.u());
+	}
+
+	/**
+	 * Set the horizontal coordinates relative to the left border.
+	 *
+	 * @param x the horizontal component relative to the left border, in units.
+	 */
+	public void setLeft(final double x) {
+		this.setX(Rect.centerAtLowEdge(x, this.width.u()));
 	}
 
 	/**
 	 * @return the vertical component in the top left corner.
 	 */
 	public Units getTop() {
-		return new Units(this.getY().u() - this.height.u() / 2);
+		return new Units(this.top());
+	}
+
+	/**
+	 * @return the vertical component in the top left corner, in units.
+	 */
+	public double top() {
+		return Rect.lowEdge(this.y(), this.height.u());
 	}
 
 	/**
@@ -75,14 +142,30 @@ public class Rect extends Coords {
 	 * @param y the vertical component relative to the top border.
 	 */
 	public void setTop(final Units y) {
-		this.setY(new Units(y.u() + this.height.u() / 2));
+		this.setTop(y.u());
+	}
+
+	/**
+	 * Set the vertical coordinates relative to the top border.
+	 *
+	 * @param y the vertical component relative to the top border, in units.
+	 */
+	public void setTop(final double y) {
+		this.setY(Rect.centerAtLowEdge(y, this.height.u()));
 	}
 
 	/**
 	 * @return the horizontal component in the bottom right corner.
 	 */
 	public Units getRight() {
-		return new Units(this.getLeft().u() + this.width.u());
+		return new Units(this.right());
+	}
+
+	/**
+	 * @return the horizontal component in the bottom right corner, in units.
+	 */
+	public double right() {
+		return Rect.highEdge(this.x(), this.width.u());
 	}
 
 	/**
@@ -91,14 +174,30 @@ public class Rect extends Coords {
 	 * @param x the horizontal component relative to the right border.
 	 */
 	public void setRight(final Units x) {
-		this.setX(new Units(x.u() - this.width.u() / 2));
+		this.setRight(x.u());
+	}
+
+	/**
+	 * Set the horizontal coordinates relative to the right border.
+	 *
+	 * @param x the horizontal component relative to the right border, in units.
+	 */
+	public void setRight(final double x) {
+		this.setX(Rect.centerAtHighEdge(x, this.width.u()));
 	}
 
 	/**
 	 * @return the vertical component in the bottom right corner.
 	 */
 	public Units getBottom() {
-		return new Units(this.getTop().u() + this.height.u());
+		return new Units(this.bottom());
+	}
+
+	/**
+	 * @return the vertical component in the bottom right corner, in units.
+	 */
+	public double bottom() {
+		return Rect.highEdge(this.y(), this.height.u());
 	}
 
 	/**
@@ -107,7 +206,16 @@ public class Rect extends Coords {
 	 * @param y the vertical component relative to the bottom border.
 	 */
 	public void setBottom(final Units y) {
-		this.setY(new Units(y.u() - this.height.u() / 2));
+		this.setBottom(y.u());
+	}
+
+	/**
+	 * Set the vertical coordinates relative to the bottom border.
+	 *
+	 * @param y the vertical component relative to the bottom border, in units.
+	 */
+	public void setBottom(final double y) {
+		this.setY(Rect.centerAtHighEdge(y, this.height.u()));
 	}
 
 	/**
@@ -139,8 +247,8 @@ public class Rect extends Coords {
 	 * @return whether the subject is within these coordinates' interaction radius.
 	 */
 	public boolean isInInteractionRadius(Rect subject) {
-		double xDistance = Math.abs(this.getX().u() - subject.getX().u());
-		double yDistance = Math.abs(this.getY().u() - subject.getY().u());
+		double xDistance = Math.abs(this.x() - subject.x());
+		double yDistance = Math.abs(this.y() - subject.y());
 
 		if ((xDistance > subject.getWidth().u() / 2 + this.getInteractionRadius().u()) || (yDistance
 			> subject.getHeight().u() / 2 + this.getInteractionRadius().u())) {
@@ -166,10 +274,22 @@ public class Rect extends Coords {
 	 * @return whether these coordinates collide with the given object.
 	 */
 	public boolean isWithin(Rect object) {
-		return this.getRight().u() > object.getLeft().u()
-			&& this.getBottom().u() > object.getTop().u()
-			&& this.getLeft().u() < object.getRight().u()
-			&& this.getTop().u() < object.getBottom().u();
+		return object.isHitBy(this.left(), this.top(), this.right(), this.bottom());
+	}
+
+	/**
+	 * Check whether a rect with the given edges collides with this one, see
+	 * {@link #isWithin(Rect)}.
+	 *
+	 * @param left   the left edge, in units.
+	 * @param top    the top edge, in units.
+	 * @param right  the right edge, in units.
+	 * @param bottom the bottom edge, in units.
+	 * @return whether such a rect collides with this one.
+	 */
+	public boolean isHitBy(double left, double top, double right, double bottom) {
+		return right > this.left() && bottom > this.top() && left < this.right()
+			&& top < this.bottom();
 	}
 
 	/**
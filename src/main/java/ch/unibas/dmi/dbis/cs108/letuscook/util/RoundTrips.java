@@ -0,0 +1,73 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the round trip times of a connection, i.e. how long pings take to be answered,
+ * and how much they vary. Recording takes no lock.
+ */
+public class RoundTrips {
+
+	/**
+	 * The round trip times, in microseconds.
+	 */
+	private final Histogram times = new Histogram();
+
+	/**
+	 * The latest round trip time, in microseconds, or -1 if there is none yet.
+	 */
+	private final AtomicLong latest = new AtomicLong(-1);
+
+	/**
+	 * The jitter, in sixteenths of a microsecond. The jitter is the mean difference between
+	 * consecutive round trip times, smoothed as in RFC 3550: each difference moves it by a
+	 * sixteenth of the way.
+	 */
+	private final AtomicLong scaledJitter = new AtomicLong();
+
+	/**
+	 * Record a round trip.
+	 *
+	 * @param micros the round trip time, in microseconds.
+	 */
+	public void record(long micros) {
+		assert micros >= 0 : "round trip time is negative";
+
+		this.times.record(micros);
+
+		long previous = this.latest.getAndSet(micros);
+		if (previous >= 0) {
+			long difference = Math.abs(micros - previous);
+			this.scaledJitter.accumulateAndGet(difference,
+				(scaled, d) -> scaled + d - ((scaled + 8) >> 4));
+		}
+	}
+
+	/**
+	 * @return the round trip times, in microseconds.
+	 */
+	public Histogram getTimes() {
+		return this.times;
+	}
+
+	/**
+	 * @return the latest round trip time, in microseconds, or -1 if there is none yet.
+	 */
+	public long getLatest() {
+		return this.latest.get();
+	}
+
+	/**
+	 * @return the jitter, in microseconds.
+	 */
+	public long getJitter() {
+		return (this.scaledJitter.get() + 8) >> 4;
+	}
+
+	@Override
+	public String toString() {
+		return this.times.getCount() + " round trips, p50 " + this.times.getPercentile(50)
+			+ " us, p99 " + this.times.getPercentile(99) + " us, max " + this.times.getMax()
+			+ " us, jitter " + this.getJitter() + " us";
+	}
+}
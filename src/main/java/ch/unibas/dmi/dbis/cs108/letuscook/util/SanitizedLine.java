@@ -60,13 +60,22 @@ public class SanitizedLine {
 	 * @return whether the string is allowed.
 	 */
 	public static boolean qualifies(String string) {
-		try {
-			SanitizedLine.createOrThrow(string);
-		} catch (MalformedException e) {
+		if (string == null) {
 			return false;
 		}
 
-		return true;
+		boolean blank = true;
+		for (int i = 0; i < string.length(); ++i) {
+			char c = string.charAt(i);
+			if (!SanitizedLine.canContain(c)) {
+				return false;
+			}
+			if (blank && !Character.isWhitespace(c)) {
+				blank = false;
+			}
+		}
+
+		return !blank;
 	}
 
 	/**
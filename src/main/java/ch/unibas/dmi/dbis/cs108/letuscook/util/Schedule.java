@@ -5,7 +5,6 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.function.BooleanSupplier;
 
 /**
  * Schedule provides utility methods for scheduling tasks with fixed rates or delays. It uses a
@@ -26,18 +25,14 @@ public class Schedule {
 	}
 
 	/**
-	 * Creates and returns a new ScheduledExecutorService with a single thread and a custom thread
-	 * factory that creates daemon threads with the specified name.
+	 * Creates and returns a new ScheduledExecutorService with a single thread, created by
+	 * {@link Threads#factory(String)} with the specified name.
 	 *
 	 * @param name The name of the thread to be created.
-	 * @return A ScheduledExecutorService with a single daemon thread.
+	 * @return A ScheduledExecutorService with a single daemon (or virtual) thread.
 	 */
 	private static ScheduledExecutorService newScheduledExecutorService(String name) {
-		return Executors.newScheduledThreadPool(1, runnable -> {
-			Thread thread = new Thread(runnable, name);
-			thread.setDaemon(true);
-			return thread;
-		});
+		return Executors.newScheduledThreadPool(1, Threads.factory(name));
 	}
 
 	/**
@@ -72,38 +67,13 @@ public class Schedule {
 				TimeUnit.MILLISECONDS));
 	}
 
-	/**
-	 * Creates a schedule that checks <code>predicate</code> every <code>period</code> milliseconds,
-	 * calling <code>consequence</code> and stopping once the predicate is no longer true.
-	 *
-	 * @param predicate   the condition that must be met for the schedule to remain alive.
-	 * @param consequence the consequence once the predicate is no longer true.
-	 * @param period      the period in milliseconds in which the predicate is checked.
-	 * @return the schedule.
-	 */
-	public static void waitWhile(BooleanSupplier predicate,
-		Callable<Object> consequence, long period, String name) {
-		var thread = new Thread(() -> {
-			try {
-				while (predicate.getAsBoolean()) {
-					Thread.sleep(period);
-				}
-			} catch (InterruptedException e) {
-				throw new RuntimeException(e);
-			}
-			callAndHandleExceptions(consequence);
-		}, name);
-		thread.setDaemon(true);
-		thread.start();
-	}
-
 	/**
 	 * Calls the provided Callable and handles any exceptions thrown during execution. If an
 	 * exception occurs, it is forwarded to the default uncaught exception handler.
 	 *
 	 * @param callable The Callable task to be executed.
 	 */
-	private static void callAndHandleExceptions(Callable<?> callable) {
+	static void callAndHandleExceptions(Callable<?> callable) {
 		try {
 			callable.call();
 		} catch (Throwable t) {
@@ -0,0 +1,138 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A small, fixed number of selector threads that drive any number of {@link ChannelConnection}s.
+ */
+public class SelectorPool {
+
+	/**
+	 * The selectors, each driven by its own thread.
+	 */
+	private final Selector[] selectors;
+
+	/**
+	 * Connections waiting to be registered, per selector.
+	 */
+	private final ConcurrentLinkedQueue<ChannelConnection>[] registrations;
+
+	/**
+	 * The selector threads.
+	 */
+	private final Thread[] threads;
+
+	/**
+	 * Used to distribute connections among the selectors.
+	 */
+	private final AtomicInteger next = new AtomicInteger();
+
+	/**
+	 * Create a selector pool and start its threads.
+	 *
+	 * @param name the prefix of the thread names.
+	 * @param size the number of selector threads.
+	 * @throws IOException if a selector cannot be opened.
+	 */
+	@SuppressWarnings("unchecked")
+	public SelectorPool(String name, int size) throws IOException {
+		assert size > 0 : "size must be positive";
+
+		this.selectors = new Selector[size];
+		this.registrations =
+			(ConcurrentLinkedQueue<ChannelConnection>[]) new ConcurrentLinkedQueue<?>[size];
+		this.threads = new Thread[size];
+
+		for (int i = 0; i < size; ++i) {
+			this.selectors[i] = Selector.open();
+			this.registrations[i] = new ConcurrentLinkedQueue<>();
+
+			final int index = i;
+			this.threads[i] = new Thread(() -> this.select(index), name + "-" + i);
+			this.threads[i].setDaemon(true);
+			this.threads[i].start();
+		}
+	}
+
+	/**
+	 * Hand a connection to one of the selectors.
+	 *
+	 * @param connection the connection.
+	 */
+	void register(ChannelConnection connection) {
+		int index = Math.floorMod(this.next.getAndIncrement(), this.selectors.length);
+
+		this.registrations[index].add(connection);
+		this.selectors[index].wakeup();
+	}
+
+	/**
+	 * Enter the selection loop of a single selector.
+	 *
+	 * @param index the index of the selector.
+	 */
+	private void select(int index) {
+		Selector selector = this.selectors[index];
+
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				selector.select();
+			} catch (IOException e) {
+				Messenger.error(e, "An IO error occurred while selecting - stopping selector");
+				break;
+			} catch (ClosedSelectorException e) {
+				Messenger.debug("Selector was closed - stopping selector");
+				break;
+			}
+
+			/* Register new connections. */
+			ChannelConnection connection;
+			while ((connection = this.registrations[index].poll()) != null) {
+				try {
+					connection.setKey(
+						connection.getChannel().register(selector, SelectionKey.OP_READ, connection));
+				} catch (ClosedChannelException e) {
+					connection.die();
+				}
+			}
+
+			/* Serve ready connections. */
+			Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+			while (keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+
+				ChannelConnection ready = (ChannelConnection) key.attachment();
+				if (key.isValid() && key.isReadable()) {
+					ready.onReadable();
+				}
+				if (key.isValid() && key.isWritable()) {
+					ready.onWritable();
+				}
+			}
+		}
+
+		Messenger.debug("Selector stopped");
+	}
+
+	/**
+	 * Stop all selector threads. Connections are not closed.
+	 */
+	public void close() {
+		for (int i = 0; i < this.selectors.length; ++i) {
+			this.threads[i].interrupt();
+			try {
+				this.selectors[i].close();
+			} catch (IOException e) {
+				Messenger.warn(e, "An IO error occurred while closing a selector - ignoring");
+			}
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.Command;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * A connection over a blocking {@link Socket}, read by a dedicated listener thread and written by a
+ * dedicated writer thread.
+ */
+public class SocketConnection extends Connection {
+
+	/**
+	 * The client socket, received or created in the constructor.
+	 */
+	private final Socket socket;
+
+	/**
+	 * The input stream read by {@link #listener}.
+	 */
+	private final InputStream in;
+
+	/**
+	 * Splits bytes read from {@link #in} into commands. Only touched by {@link #listener}.
+	 */
+	private final FrameDecoder decoder = new FrameDecoder();
+
+	/**
+	 * The output stream written to by {@link #writer}.
+	 */
+	private final OutputStream out;
+
+	/**
+	 * Awaits, parses, and dispatches incoming commands, as well as responding to pings and pongs.
+	 */
+	private final Thread listener;
+
+	/**
+	 * Drains the outbox, writing all pending commands with a single flush.
+	 */
+	private final Thread writer;
+
+	/**
+	 * Whether the listener is alive.
+	 */
+	private final AtomicBoolean listenerAlive = new AtomicBoolean(true);
+
+	/**
+	 * Create a connection from an {@link InetAddress} and a port.
+	 *
+	 * @param address the address to connect to.
+	 * @param port    the port to connect to.
+	 * @throws IOException              see
+	 *                                  {@link SocketConnection#SocketConnection(String, Socket,
+	 *                                  Consumer)}.
+	 * @throws SecurityException        see {@link Socket#Socket(InetAddress, int)}.
+	 * @throws IllegalArgumentException see {@link Socket#Socket(InetAddress, int)}.
+	 * @throws NullPointerException     see {@link Socket#Socket(InetAddress, int)}.
+	 */
+	public SocketConnection(String name, InetAddress address, int port,
+		Consumer<Command> commandConsumer)
+		throws IOException, SecurityException, IllegalArgumentException, NullPointerException {
+		this(name, new Socket(address, port), commandConsumer);
+	}
+
+	/**
+	 * Create a connection from a {@link Socket}.
+	 *
+	 * @param socket the socket representing the connection.
+	 * @throws IOException if we fail to create the {@link #in} or {@link #out} streams.
+	 */
+	public SocketConnection(String name, Socket socket, Consumer<Command> commandConsumer)
+		throws IOException {
+		super(commandConsumer);
+
+		assert name != null : "name cannot be null";
+		assert socket != null : "socket cannot be null";
+
+		this.socket = socket;
+
+		this.in = this.socket.getInputStream();
+
+		this.out = this.socket.getOutputStream();
+
+		this.listener = Threads.start(name + "-listen", this::listen);
+		this.writer = Threads.start(name + "-write", this::write);
+	}
+
+	/**
+	 * Enter the command listener. It reads incoming bytes, parses them to {@link Command} objects,
+	 * responds to pings and pongs, and dispatches remaining commands to the command consumer.
+	 */
+	private void listen() {
+		while (!Thread.currentThread().isInterrupted()) {
+			ByteBuffer buffer = this.decoder.buffer();
+			int read;
+			try {
+				read = this.in.read(buffer.array(), buffer.arrayOffset() + buffer.position(),
+					buffer.remaining());
+			} catch (SocketException e) {
+				if (Thread.currentThread().isInterrupted()) {
+					Messenger.debug(
+						"Socket was closed, listener is interrupted - stopping listener");
+				} else {
+					Messenger.error(e, "Cannot access socket - stopping listener");
+				}
+				break;
+			} catch (IOException e) {
+				Messenger.error(e, "An IO error occurred while listening - stopping listener");
+				break;
+			}
+			if (read < 0) {
+				Messenger.warn("Cannot read from in stream - stopping listener");
+				break;
+			}
+			buffer.position(buffer.position() + read);
+
+			if (!this.decoder.decode(this)) {
+				break;
+			}
+		}
+
+		this.listenerAlive.set(false);
+
+		Messenger.info("Listener died");
+	}
+
+	/**
+	 * Enter the writer. It waits for pending commands and writes each batch at once.
+	 */
+	private void write() {
+		while (!Thread.currentThread().isInterrupted()) {
+			byte[] batch;
+			try {
+				batch = this.getOutbox().take();
+			} catch (InterruptedException e) {
+				break;
+			}
+			if (batch == null) {
+				break;
+			}
+
+			try {
+				this.out.write(batch);
+				this.out.flush();
+			} catch (IOException e) {
+				if (!this.socket.isClosed()) {
+					Messenger.error(e, "An IO error occurred while writing - stopping writer");
+				}
+				break;
+			}
+			this.getOutbox().recordFlush(batch.length);
+		}
+
+		Messenger.debug("Writer died");
+	}
+
+	@Override
+	public boolean isDead() {
+		return !this.listenerAlive.get();
+	}
+
+	@Override
+	protected void onQueued() {
+		/* The writer is woken up by the outbox. */
+	}
+
+	@Override
+	public String getAddress() {
+		return Connection.addressForSocket(this.socket);
+	}
+
+	@Override
+	public void destroy() {
+		assert this.socket != null : "socket is null";
+		assert this.in != null : "in is null";
+		assert this.out != null : "out is null";
+
+		/*
+		 * If the listener is alive, it is blocked reading 'this.in'.
+		 * Therefore, we must first kill the listener before we can close 'this.in'.
+		 */
+		if (!this.isDead()) {
+			this.listener.interrupt();
+		}
+		this.getOutbox().close();
+		this.writer.interrupt();
+		/*
+		 * As long as the socket is open, the listener blocks on 'this.in.read()'.
+		 * We close the socket to end this block, allowing the listener to stop.
+		 */
+		try {
+			this.socket.close();
+		} catch (IOException e) {
+			Messenger.warn(e,
+				"An IO error occurred while closing a connection's socket - ignoring");
+		}
+
+		/*
+		 * Now that the listener is stopped we can close the streams.
+		 */
+
+		try {
+			this.in.close();
+		} catch (IOException e) {
+			Messenger.warn(e,
+				"An IO error occurred while closing a connection's 'in' - ignoring");
+		}
+
+		try {
+			this.out.close();
+		} catch (IOException e) {
+			Messenger.warn(e,
+				"An IO error occurred while closing a connection's 'out' - ignoring");
+		}
+
+		Messenger.debug("Connection destroyed");
+	}
+}
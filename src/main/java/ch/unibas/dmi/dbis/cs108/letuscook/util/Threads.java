@@ -0,0 +1,121 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the threads of the application, either as daemon platform threads or, on JDK 21 and
+ * later, as virtual threads. The build targets JDK 17, so virtual threads are reached via
+ * reflection.
+ */
+public class Threads {
+
+	/**
+	 * <code>Thread.ofVirtual()</code>, or <code>null</code> if the runtime lacks virtual threads.
+	 */
+	private static final Method OF_VIRTUAL;
+
+	/**
+	 * <code>Thread.Builder.name(String)</code>.
+	 */
+	private static final Method BUILDER_NAME;
+
+	/**
+	 * <code>Thread.Builder.unstarted(Runnable)</code>.
+	 */
+	private static final Method BUILDER_UNSTARTED;
+
+	/**
+	 * Whether new threads are virtual.
+	 */
+	private static volatile boolean virtual = false;
+
+	/*
+	 * Look up the virtual thread API.
+	 */
+	static {
+		Method ofVirtual = null;
+		Method name = null;
+		Method unstarted = null;
+		try {
+			Class<?> builder = Class.forName("java.lang.Thread$Builder");
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			name = builder.getMethod("name", String.class);
+			unstarted = builder.getMethod("unstarted", Runnable.class);
+		} catch (ClassNotFoundException | NoSuchMethodException ignored) {
+		}
+		OF_VIRTUAL = ofVirtual;
+		BUILDER_NAME = name;
+		BUILDER_UNSTARTED = unstarted;
+	}
+
+	/**
+	 * @return whether the runtime supports virtual threads.
+	 */
+	public static boolean supportsVirtual() {
+		return Threads.OF_VIRTUAL != null;
+	}
+
+	/**
+	 * @return whether new threads are virtual.
+	 */
+	public static boolean isVirtual() {
+		return Threads.virtual;
+	}
+
+	/**
+	 * Make all threads created from now on virtual. Does nothing but warn if the runtime does not
+	 * support virtual threads.
+	 */
+	public static void useVirtual() {
+		if (!Threads.supportsVirtual()) {
+			Messenger.warn("Virtual threads require JDK 21 or later - using platform threads");
+			return;
+		}
+
+		Threads.virtual = true;
+	}
+
+	/**
+	 * Create a daemon thread without starting it.
+	 *
+	 * @param name     the name of the thread.
+	 * @param runnable what the thread runs.
+	 * @return the thread.
+	 */
+	public static Thread create(String name, Runnable runnable) {
+		if (Threads.virtual) {
+			try {
+				Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name);
+				return (Thread) BUILDER_UNSTARTED.invoke(builder, runnable);
+			} catch (ReflectiveOperationException e) {
+				Messenger.error(e, "Cannot create virtual thread - using platform thread");
+			}
+		}
+
+		Thread thread = new Thread(runnable, name);
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	/**
+	 * Create and start a daemon thread.
+	 *
+	 * @param name     the name of the thread.
+	 * @param runnable what the thread runs.
+	 * @return the thread.
+	 */
+	public static Thread start(String name, Runnable runnable) {
+		Thread thread = Threads.create(name, runnable);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * @param name the name of the threads.
+	 * @return a thread factory that uses {@link #create(String, Runnable)}.
+	 */
+	public static ThreadFactory factory(String name) {
+		return runnable -> Threads.create(name, runnable);
+	}
+}
@@ -0,0 +1,211 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the ticks of all games on a fixed number of worker threads, instead of one thread per
+ * game. Each tick task measures its lag, i.e. how late each tick starts compared to its fixed-rate
+ * schedule. Lag that keeps growing means the workers can't keep up.
+ */
+public class TickScheduler {
+
+	/**
+	 * The name of the worker threads.
+	 */
+	private static final String THREAD_NAME = "tick";
+
+	/**
+	 * The number of workers the shared scheduler is created with.
+	 */
+	private static volatile int sharedWorkers = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The shared scheduler, or <code>null</code> until first needed.
+	 */
+	private static TickScheduler the;
+
+	/**
+	 * The executor that runs the ticks.
+	 */
+	private final ScheduledThreadPoolExecutor executor;
+
+	/**
+	 * Create a scheduler.
+	 *
+	 * @param workers the number of worker threads.
+	 */
+	public TickScheduler(int workers) {
+		assert workers > 0 : "workers must be positive";
+
+		this.executor = new ScheduledThreadPoolExecutor(workers,
+			Threads.factory(TickScheduler.THREAD_NAME));
+		this.executor.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Set the number of workers of the shared scheduler. <b>Must be called before the shared
+	 * scheduler is first used.</b>
+	 *
+	 * @param workers the number of worker threads.
+	 */
+	public static synchronized void configure(int workers) {
+		assert TickScheduler.the == null : "shared scheduler already created";
+		assert workers > 0 : "workers must be positive";
+
+		TickScheduler.sharedWorkers = workers;
+	}
+
+	/**
+	 * @return the shared scheduler.
+	 */
+	public static synchronized TickScheduler the() {
+		if (TickScheduler.the == null) {
+			TickScheduler.the = new TickScheduler(TickScheduler.sharedWorkers);
+		}
+
+		return TickScheduler.the;
+	}
+
+	/**
+	 * @return the number of worker threads.
+	 */
+	public int getWorkers() {
+		return this.executor.getCorePoolSize();
+	}
+
+	/**
+	 * Call a tick at a fixed rate, starting immediately. Exceptions are handled like in
+	 * {@link Schedule}.
+	 *
+	 * @param callable the tick.
+	 * @param period   the time between the start of two ticks, in milliseconds.
+	 * @return the task, to stop it and read its lag.
+	 */
+	public Task atFixedRate(Callable<?> callable, long period) {
+		assert callable != null : "callable is null";
+		assert period > 0 : "period must be positive";
+
+		Task task = new Task(callable, TimeUnit.MILLISECONDS.toNanos(period));
+		task.future = this.executor.scheduleAtFixedRate(task::run, 0, period,
+			TimeUnit.MILLISECONDS);
+		return task;
+	}
+
+	/**
+	 * A tick called at a fixed rate.
+	 */
+	public static class Task {
+
+		/**
+		 * The tick.
+		 */
+		private final Callable<?> callable;
+
+		/**
+		 * The time between the start of two ticks, in nanoseconds.
+		 */
+		private final long period;
+
+		/**
+		 * The time at which the first tick was due, in nanoseconds, or -1 before the first tick.
+		 */
+		private long origin = -1;
+
+		/**
+		 * The number of ticks run.
+		 */
+		private final AtomicLong ticks = new AtomicLong();
+
+		/**
+		 * The lag of the latest tick, in nanoseconds.
+		 */
+		private volatile long lastLag = 0;
+
+		/**
+		 * The largest lag of any tick, in nanoseconds.
+		 */
+		private volatile long maxLag = 0;
+
+		/**
+		 * The sum of the lags of all ticks, in nanoseconds.
+		 */
+		private final AtomicLong totalLag = new AtomicLong();
+
+		/**
+		 * The scheduled tick.
+		 */
+		private volatile ScheduledFuture<?> future;
+
+		private Task(Callable<?> callable, long period) {
+			this.callable = callable;
+			this.period = period;
+		}
+
+		/**
+		 * Run a tick and measure its lag. The executor never runs two ticks of the same task at
+		 * once, so the bookkeeping needs no lock.
+		 */
+		private void run() {
+			long now = System.nanoTime();
+			if (this.origin < 0) {
+				this.origin = now;
+			}
+
+			long lag = Math.max(0, now - (this.origin + this.ticks.get() * this.period));
+			this.lastLag = lag;
+			this.maxLag = Math.max(this.maxLag, lag);
+			this.totalLag.addAndGet(lag);
+			this.ticks.incrementAndGet();
+
+			Schedule.callAndHandleExceptions(this.callable);
+		}
+
+		/**
+		 * Stop calling the tick. Also fine if the tick already gave up by itself, by throwing.
+		 */
+		public void stop() {
+			assert !this.future.isCancelled() : "future already cancelled";
+
+			this.future.cancel(false);
+		}
+
+		/**
+		 * @return the number of ticks run.
+		 */
+		public long getTicks() {
+			return this.ticks.get();
+		}
+
+		/**
+		 * @return the lag of the latest tick, in microseconds.
+		 */
+		public long getLastLagMicros() {
+			return TimeUnit.NANOSECONDS.toMicros(this.lastLag);
+		}
+
+		/**
+		 * @return the largest lag of any tick, in microseconds.
+		 */
+		public long getMaxLagMicros() {
+			return TimeUnit.NANOSECONDS.toMicros(this.maxLag);
+		}
+
+		/**
+		 * @return the average lag of all ticks, in microseconds.
+		 */
+		public long getMeanLagMicros() {
+			long ticks = this.getTicks();
+			return ticks == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(this.totalLag.get() / ticks);
+		}
+
+		@Override
+		public String toString() {
+			return this.getTicks() + " ticks, lag " + this.getLastLagMicros() + " us (mean "
+				+ this.getMeanLagMicros() + " us, max " + this.getMaxLagMicros() + " us)";
+		}
+	}
+}
@@ -0,0 +1,329 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import java.util.ArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs tasks at deadlines, for many deadlines that are mostly cancelled or pushed back before
+ * they are due, like connection timeouts. Scheduling and cancelling take constant time, and
+ * advancing the clock only touches the deadlines that are due, instead of scanning all of them.
+ *
+ * <p>Time is divided into ticks. Deadlines within the next {@link #SLOTS} ticks sit in the slot
+ * of their tick on the lowest level. Each higher level has slots that are {@link #SLOTS} times as
+ * long, and its deadlines cascade down a level whenever the lower level wraps around. A deadline
+ * never fires early, and at most one tick late.</p>
+ */
+public class TimingWheel {
+
+	/**
+	 * The number of slots per level, a power of two.
+	 */
+	private static final int SLOTS = 64;
+
+	/**
+	 * log2 of {@link #SLOTS}.
+	 */
+	private static final int SLOT_BITS = Integer.numberOfTrailingZeros(TimingWheel.SLOTS);
+
+	/**
+	 * The number of levels. Deadlines further ahead than the highest level reaches are parked in
+	 * its furthest slot until they come into reach.
+	 */
+	private static final int LEVELS = 4;
+
+	/**
+	 * The length of a tick, in milliseconds.
+	 */
+	private final long tick;
+
+	/**
+	 * Tells the time, in milliseconds.
+	 */
+	private final LongSupplier clock;
+
+	/**
+	 * The time of tick 0.
+	 */
+	private final long origin;
+
+	/**
+	 * The first timeout in each slot of each level, or <code>null</code>. Guarded by
+	 * <code>this</code>.
+	 */
+	private final Timeout[][] slots = new Timeout[TimingWheel.LEVELS][TimingWheel.SLOTS];
+
+	/**
+	 * The latest tick whose timeouts were run. Guarded by <code>this</code>.
+	 */
+	private long currentTick = 0;
+
+	/**
+	 * The number of scheduled timeouts. Guarded by <code>this</code>.
+	 */
+	private int size = 0;
+
+	/**
+	 * Advances this wheel, once started.
+	 */
+	private Schedule schedule;
+
+	/**
+	 * Create a wheel that tells the time with {@link System#nanoTime()}.
+	 *
+	 * @param tick the length of a tick, in milliseconds.
+	 */
+	public TimingWheel(long tick) {
+		this(tick, () -> System.nanoTime() / 1_000_000);
+	}
+
+	/**
+	 * Create a wheel.
+	 *
+	 * @param tick  the length of a tick, in milliseconds.
+	 * @param clock tells the time, in milliseconds.
+	 */
+	public TimingWheel(long tick, LongSupplier clock) {
+		assert tick > 0 : "tick must be positive";
+		assert clock != null : "clock is null";
+
+		this.tick = tick;
+		this.clock = clock;
+		this.origin = clock.getAsLong();
+	}
+
+	/**
+	 * Advance this wheel every tick, on a thread of its own.
+	 *
+	 * @param name the name of the thread.
+	 */
+	public void start(String name) {
+		assert this.schedule == null : "already started";
+
+		this.schedule = Schedule.atFixedRate(() -> {
+			this.advance();
+			return null;
+		}, this.tick, name);
+	}
+
+	/**
+	 * Stop advancing this wheel. Scheduled tasks no longer run.
+	 */
+	public void stop() {
+		assert this.schedule != null : "not started";
+
+		this.schedule.stop();
+		this.schedule = null;
+	}
+
+	/**
+	 * @return the current time, in milliseconds, as told by this wheel's clock.
+	 */
+	public long now() {
+		return this.clock.getAsLong();
+	}
+
+	/**
+	 * Run a task after a delay.
+	 *
+	 * @param delay the delay, in milliseconds.
+	 * @param task  the task. Runs on the thread that advances this wheel, so it must be short.
+	 * @return the timeout, to cancel it.
+	 */
+	public Timeout schedule(long delay, Runnable task) {
+		assert delay >= 0 : "delay is negative";
+		assert task != null : "task is null";
+
+		/* Round up, so that the task never runs early. */
+		long deadline = this.now() + delay - this.origin;
+		Timeout timeout = new Timeout(Math.floorDiv(deadline + this.tick - 1, this.tick), task);
+
+		synchronized (this) {
+			timeout.deadlineTick = Math.max(timeout.deadlineTick, this.currentTick + 1);
+			this.insert(timeout);
+			++this.size;
+		}
+
+		return timeout;
+	}
+
+	/**
+	 * Put a timeout into the slot it belongs to, given the current tick. Guarded by
+	 * <code>this</code>.
+	 *
+	 * @param timeout the timeout.
+	 */
+	private void insert(Timeout timeout) {
+		long ticksAhead = timeout.deadlineTick - this.currentTick;
+		assert ticksAhead >= 0 : "deadline passed";
+
+		int level = 0;
+		while (level < TimingWheel.LEVELS - 1
+			&& ticksAhead >= 1L << (TimingWheel.SLOT_BITS * (level + 1))) {
+			++level;
+		}
+
+		/* Park deadlines beyond the highest level in its furthest slot. */
+		long tick = Math.min(timeout.deadlineTick,
+			this.currentTick + (1L << (TimingWheel.SLOT_BITS * TimingWheel.LEVELS)) - 1);
+		int slot = (int) (tick >>> (TimingWheel.SLOT_BITS * level)) & (TimingWheel.SLOTS - 1);
+
+		timeout.level = level;
+		timeout.slot = slot;
+		timeout.previous = null;
+		timeout.next = this.slots[level][slot];
+		if (timeout.next != null) {
+			timeout.next.previous = timeout;
+		}
+		this.slots[level][slot] = timeout;
+	}
+
+	/**
+	 * Take a timeout out of its slot. Guarded by <code>this</code>.
+	 *
+	 * @param timeout the timeout.
+	 */
+	private void unlink(Timeout timeout) {
+		if (timeout.previous != null) {
+			timeout.previous.next = timeout.next;
+		} else {
+			this.slots[timeout.level][timeout.slot] = timeout.next;
+		}
+		if (timeout.next != null) {
+			timeout.next.previous = timeout.previous;
+		}
+
+		timeout.previous = null;
+		timeout.next = null;
+		timeout.level = -1;
+	}
+
+	/**
+	 * Run the tasks that are due according to this wheel's clock.
+	 */
+	public void advance() {
+		this.advanceTo(this.now());
+	}
+
+	/**
+	 * Run the tasks that are due at a given time. Tasks run on the calling thread, after this
+	 * wheel is unlocked, so they may schedule and cancel timeouts.
+	 *
+	 * @param now the time, in milliseconds.
+	 */
+	public void advanceTo(long now) {
+		long targetTick = Math.floorDiv(now - this.origin, this.tick);
+		var due = new ArrayList<Runnable>();
+
+		synchronized (this) {
+			while (this.currentTick < targetTick) {
+				++this.currentTick;
+
+				/* Cascade higher levels whose slot starts at this tick, from the top down. */
+				for (int level = TimingWheel.LEVELS - 1; level > 0; --level) {
+					long mask = (1L << (TimingWheel.SLOT_BITS * level)) - 1;
+					if ((this.currentTick & mask) == 0) {
+						this.cascade(level, (int) (this.currentTick >>> (TimingWheel.SLOT_BITS
+							* level)) & (TimingWheel.SLOTS - 1));
+					}
+				}
+
+				int slot = (int) this.currentTick & (TimingWheel.SLOTS - 1);
+				Timeout timeout = this.slots[0][slot];
+				while (timeout != null) {
+					Timeout next = timeout.next;
+					assert timeout.deadlineTick <= this.currentTick : "timeout not due";
+
+					this.unlink(timeout);
+					--this.size;
+					due.add(timeout.task);
+					timeout = next;
+				}
+			}
+		}
+
+		for (var task : due) {
+			try {
+				task.run();
+			} catch (Throwable t) {
+				Thread.getDefaultUncaughtExceptionHandler()
+					.uncaughtException(Thread.currentThread(), t);
+			}
+		}
+	}
+
+	/**
+	 * Move the timeouts of a slot down to where they belong now. Guarded by <code>this</code>.
+	 *
+	 * @param level the level.
+	 * @param slot  the slot.
+	 */
+	private void cascade(int level, int slot) {
+		Timeout timeout = this.slots[level][slot];
+		this.slots[level][slot] = null;
+		while (timeout != null) {
+			Timeout next = timeout.next;
+			this.insert(timeout);
+			timeout = next;
+		}
+	}
+
+	/**
+	 * @return the number of scheduled timeouts.
+	 */
+	public synchronized int size() {
+		return this.size;
+	}
+
+	/**
+	 * A task scheduled to run at a deadline.
+	 */
+	public class Timeout {
+
+		/**
+		 * The task.
+		 */
+		private final Runnable task;
+
+		/**
+		 * The tick at which the task runs. Guarded by the wheel.
+		 */
+		private long deadlineTick;
+
+		/**
+		 * The level and slot this timeout sits in, or -1 once run or cancelled. Guarded by the
+		 * wheel.
+		 */
+		private int level = -1;
+
+		private int slot;
+
+		/**
+		 * The neighbours within the slot. Guarded by the wheel.
+		 */
+		private Timeout previous;
+
+		private Timeout next;
+
+		private Timeout(long deadlineTick, Runnable task) {
+			this.deadlineTick = deadlineTick;
+			this.task = task;
+		}
+
+		/**
+		 * Cancel this timeout, unless it has already run.
+		 *
+		 * @return whether the timeout was cancelled.
+		 */
+		public boolean cancel() {
+			synchronized (TimingWheel.this) {
+				if (this.level < 0) {
+					return false;
+				}
+
+				TimingWheel.this.unlink(this);
+				--TimingWheel.this.size;
+				return true;
+			}
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the rate of events. The bucket holds up to a burst of tokens and refills at a constant
+ * rate; each event takes one token, and events that find the bucket empty are refused. Starts
+ * full.
+ *
+ * <p>Tokens are counted in nanoseconds of refilling, so that the arithmetic is exact.</p>
+ */
+public class TokenBucket {
+
+	/**
+	 * The time it takes to add one token, in nanoseconds.
+	 */
+	private final long nanosPerToken;
+
+	/**
+	 * The largest number of tokens the bucket holds.
+	 */
+	private final int burst;
+
+	/**
+	 * Tells the time, in nanoseconds, like {@link System#nanoTime()}.
+	 */
+	private final LongSupplier clock;
+
+	/**
+	 * The tokens at {@link #updatedAt}, in nanoseconds of refilling. Guarded by
+	 * <code>this</code>.
+	 */
+	private long credit;
+
+	/**
+	 * When {@link #credit} was last brought up to date. Guarded by <code>this</code>.
+	 */
+	private long updatedAt;
+
+	/**
+	 * Create a bucket that tells the time with {@link System#nanoTime()}.
+	 *
+	 * @param perSecond the number of tokens added per second.
+	 * @param burst     the largest number of tokens the bucket holds.
+	 */
+	public TokenBucket(double perSecond, int burst) {
+		this(perSecond, burst, System::nanoTime);
+	}
+
+	/**
+	 * Create a bucket.
+	 *
+	 * @param perSecond the number of tokens added per second.
+	 * @param burst     the largest number of tokens the bucket holds.
+	 * @param clock     tells the time, in nanoseconds.
+	 */
+	public TokenBucket(double perSecond, int burst, LongSupplier clock) {
+		assert perSecond > 0 : "rate must be positive";
+		assert burst > 0 : "burst must be positive";
+		assert clock != null : "clock is null";
+
+		this.nanosPerToken = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / perSecond));
+		this.burst = burst;
+		this.clock = clock;
+		this.credit = this.nanosPerToken * burst;
+		this.updatedAt = clock.getAsLong();
+	}
+
+	/**
+	 * Take a token, if there is one.
+	 *
+	 * @return whether a token was taken, i.e. the event is within the rate.
+	 */
+	public synchronized boolean tryTake() {
+		long now = this.clock.getAsLong();
+		this.credit = Math.min(this.nanosPerToken * this.burst,
+			this.credit + Math.max(0, now - this.updatedAt));
+		this.updatedAt = now;
+
+		if (this.credit < this.nanosPerToken) {
+			return false;
+		}
+
+		this.credit -= this.nanosPerToken;
+		return true;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%.1f of %d tokens", (double) this.credit / this.nanosPerToken,
+			this.burst);
+	}
+}
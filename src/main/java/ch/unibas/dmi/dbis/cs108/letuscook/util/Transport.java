@@ -0,0 +1,44 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+/**
+ * How the server reads from and writes to its connections.
+ */
+public enum Transport {
+
+	/**
+	 * One listener thread per connection, blocking on a {@link java.net.Socket}. See
+	 * {@link SocketConnection}.
+	 */
+	BLOCKING,
+
+	/**
+	 * A few selector threads for all connections, using non-blocking
+	 * {@link java.nio.channels.SocketChannel}s. See {@link ChannelConnection}.
+	 */
+	SELECTOR;
+
+	/**
+	 * Parses a string representation of a Transport.
+	 *
+	 * @param string The string representation of the transport.
+	 * @return The Transport corresponding to the string.
+	 * @throws MalformedException if the string does not represent a valid transport.
+	 */
+	public static Transport fromString(String string) throws MalformedException {
+		try {
+			return Transport.valueOf(string.toUpperCase());
+		} catch (IllegalArgumentException | NullPointerException e) {
+			throw new MalformedException("bad transport");
+		}
+	}
+
+	/**
+	 * Returns the string representation of the Transport.
+	 *
+	 * @return The name of the Transport, in lower case.
+	 */
+	@Override
+	public final String toString() {
+		return this.name().toLowerCase();
+	}
+}
@@ -4,18 +4,22 @@ import ch.unibas.dmi.dbis.cs108.letuscook.gui.Units;
 
 /**
  * A vector.
+ *
+ * <p>The components are kept as bare doubles, rounded like {@link Units}, so that the simulation
+ * can work on them without allocating. The methods taking and returning {@link Units} are views
+ * for everything else.</p>
  */
 public class Vector {
 
 	/**
-	 * The horizontal component.
+	 * The horizontal component, in units.
 	 */
-	private Units x;
+	private double x;
 
 	/**
-	 * The vertical component.
+	 * The vertical component, in units.
 	 */
-	private Units y;
+	private double y;
 
 	/**
 	 * Create a vector with the given initial components.
@@ -26,8 +30,8 @@ public class Vector {
 	public Vector(final Units x, final Units y) {
 		assert x != null && y != null;
 
-		this.x = x;
-		this.y = y;
+		this.x = x.u();
+		this.y = y.u();
 	}
 
 	/**
@@ -37,12 +41,15 @@ public class Vector {
 	 * @throws MalformedException if the coordinates are malformed.
 	 */
 	public Vector(final String string) throws MalformedException {
-		try {
-			String[] xy = string.split(",", 2);
+		int comma = string == null ? -1 : string.indexOf(',');
+		if (comma < 0) {
+			throw new MalformedException("malformed component(s)");
+		}
 
-			this.x = new Units(Double.parseDouble(xy[0]));
-			this.y = new Units(Double.parseDouble(xy[1]));
-		} catch (NullPointerException | IndexOutOfBoundsException | NumberFormatException e) {
+		try {
+			this.x = Units.round(Double.parseDouble(string.substring(0, comma)));
+			this.y = Units.round(Double.parseDouble(string.substring(comma + 1)));
+		} catch (NumberFormatException e) {
 			throw new MalformedException("malformed component(s)");
 		}
 	}
@@ -55,14 +62,20 @@ public class Vector {
 	 * @return the displacement vector.
 	 */
 	public static Vector between(final Coords a, final Coords b) {
-		return new Vector(new Units(b.getX().u() - a.getX().u()),
-			new Units(b.getY().u() - a.getY().u()));
+		return new Vector(new Units(b.x() - a.x()), new Units(b.y() - a.y()));
 	}
 
 	/**
 	 * @return the horizontal component.
 	 */
 	public final Units getX() {
+		return new Units(this.x);
+	}
+
+	/**
+	 * @return the horizontal component, in units.
+	 */
+	public final double x() {
 		return this.x;
 	}
 
@@ -71,14 +84,30 @@ public class Vector {
 	 *
 	 * @param x the horizontal component.
 	 */
-	public void setX(final Units x) {
-		this.x = x;
+	public final void setX(final Units x) {
+		this.setX(x.u());
+	}
+
+	/**
+	 * Set the horizontal component.
+	 *
+	 * @param x the horizontal component, in units.
+	 */
+	public void setX(final double x) {
+		this.x = Units.round(x);
 	}
 
 	/**
 	 * @return the vertical component.
 	 */
 	public final Units getY() {
+		return new Units(this.y);
+	}
+
+	/**
+	 * @return the vertical component, in units.
+	 */
+	public final double y() {
 		return this.y;
 	}
 
@@ -87,15 +116,24 @@ public class Vector {
 	 *
 	 * @param y the vertical component.
 	 */
-	public void setY(final Units y) {
-		this.y = y;
+	public final void setY(final Units y) {
+		this.setY(y.u());
+	}
+
+	/**
+	 * Set the vertical component.
+	 *
+	 * @param y the vertical component, in units.
+	 */
+	public void setY(final double y) {
+		this.y = Units.round(y);
 	}
 
 	/**
 	 * @return the magnitude of this vector.
 	 */
 	public final Units magnitude() {
-		return new Units(Math.sqrt(Math.pow(this.getX().u(), 2) + Math.pow(this.getY().u(), 2)));
+		return new Units(Math.sqrt(Math.pow(this.x, 2) + Math.pow(this.y, 2)));
 	}
 
 	/**
@@ -111,7 +149,7 @@ public class Vector {
 
 		double factor = magnitude.u() / this.magnitude().u();
 
-		return new Vector(new Units(this.getX().u() * factor), new Units(this.getY().u() * factor));
+		return new Vector(new Units(this.x * factor), new Units(this.y * factor));
 	}
 
 	/**
@@ -134,6 +172,6 @@ public class Vector {
 			return false;
 		}
 
-		return this.getX().u() == that.getX().u() && this.getY().u() == that.getY().u();
+		return this.x == that.x && this.y == that.y;
 	}
 }
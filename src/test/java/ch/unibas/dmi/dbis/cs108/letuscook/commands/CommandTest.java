@@ -0,0 +1,141 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.commands;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.gui.Units;
+import ch.unibas.dmi.dbis.cs108.letuscook.orders.Item;
+import ch.unibas.dmi.dbis.cs108.letuscook.orders.Order;
+import ch.unibas.dmi.dbis.cs108.letuscook.orders.Stack;
+import ch.unibas.dmi.dbis.cs108.letuscook.orders.State;
+import ch.unibas.dmi.dbis.cs108.letuscook.server.Highscore;
+import ch.unibas.dmi.dbis.cs108.letuscook.server.Highscores;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Coords;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Identifier;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CommandTest {
+
+	/**
+	 * One command of every kind, each with a subject.
+	 */
+	static Command[] samples() throws MalformedException {
+		Command[] commands = {
+			new PingCommand(),
+			new PongCommand(),
+			new PingCommand(300),
+			new PongCommand(300),
+			new DisappearCommand(),
+			new RefreshCommand(),
+			new RefreshCommand(1234),
+			new IntroduceCommand("bob", true),
+			new LobbyOpenCommand("kitchen"),
+			new LobbyCloseCommand("kitchen"),
+			new LobbyJoinCommand("kitchen"),
+			new LobbyLeaveCommand(),
+			new LobbyReadyCommand(true),
+			new GameRequestStartCommand(),
+			new GameForceStopCommand(),
+			new GameTimeCommand("kitchen", 1234),
+			new PlayerPositionCommand(new Coords(new Units(3.14159), new Units(12.5))),
+			new ChatCommand(Identifier.fromString("7"), "psst, héllo"),
+			new ChatCommand("hello everyone"),
+			new YellCommand("HELLO"),
+			new GameUpdateWorkbenchCommand(Identifier.fromString("300"), State.ACTIVE,
+				Stack.of(Item.BREAD, Item.GRILLED_PATTY, Item.CHEESE), 42),
+			new GameUpdateWorkbenchCommand(Identifier.fromString("4"), State.IDLE, new Stack(), -1),
+			new GameOrderCommand(Identifier.fromString("5"), Order.CHEESEBURGER),
+			new PlayerInteractCommand(),
+			new PlayerHoldingCommand(Stack.of(Item.DRINK)),
+			new GameScoreCommand(-20),
+			new HighscoresCommand(new Highscores(
+				List.of(new Highscore(new String[]{"bob", "alice"}, 120)))),
+			new GameParticipateCommand(),
+			new DatagramCommand(),
+			new DatagramCommand(2402, 0x8badf00dcafebabeL),
+			new ResumeCommand(),
+			new ResumeCommand(0xfeedfacedeadbeefL),
+			new ResumeCommand(0xfeedfacedeadbeefL, 1234),
+			new SyncCommand(0),
+			new SyncCommand(9876543210L),
+			new SyncCommand(Long.MAX_VALUE),
+		};
+		for (int i = 0; i < commands.length; ++i) {
+			commands[i].setSubject(Identifier.fromString(String.valueOf(i + 1)));
+		}
+		return commands;
+	}
+
+	/**
+	 * Decode a binary frame produced by {@link Command#toBinary()}.
+	 */
+	static Command fromFrame(byte[] frame) throws MalformedException {
+		assertEquals(0, frame[0]);
+		int length = 0;
+		int i = 1;
+		for (int shift = 0; ; shift += 7) {
+			int b = frame[i++] & 0xFF;
+			length |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				break;
+			}
+		}
+		assertEquals(frame.length - i, length);
+		return Command.fromBinary(frame, i, length);
+	}
+
+	@Test
+	void testBinaryRoundTrip() throws MalformedException {
+		for (var command : CommandTest.samples()) {
+			assertEquals(command.toString(), fromFrame(command.toBinary()).toString());
+		}
+	}
+
+	@Test
+	void testTextRoundTrip() throws MalformedException {
+		for (var command : CommandTest.samples()) {
+			assertEquals(command.toString(), Command.fromString(command.toString()).toString());
+		}
+	}
+
+	@Test
+	void testBinaryIsSmaller() throws MalformedException {
+		for (var command : CommandTest.samples()) {
+			int text = (command + "\n").getBytes(StandardCharsets.UTF_8).length;
+			assertTrue(command.toBinary().length <= text, command.toString());
+		}
+	}
+
+	@Test
+	void testIntroduceFlag() throws MalformedException {
+		assertTrue(((IntroduceCommand) Command.fromString("0 INTRO bob binary")).requestsBinary());
+		assertEquals("bob", ((IntroduceCommand) Command.fromString("0 INTRO bob")).getNickname());
+	}
+
+	@Test
+	void testPingSequence() throws MalformedException {
+		assertEquals(17, ((PingCommand) Command.fromString("0 PING 17")).getSequence());
+		assertEquals(0, ((PongCommand) Command.fromString("0 PONG")).getSequence());
+		assertThrows(MalformedException.class, () -> Command.fromString("0 PING 0"));
+		assertThrows(MalformedException.class, () -> Command.fromString("0 PONG x"));
+	}
+
+	@Test
+	void testMalformedBinary() {
+		byte[] truncated = {(byte) GameOrderCommand.OPCODE, 1, 5};
+		assertThrows(MalformedException.class, () -> Command.fromBinary(truncated, 0, 3));
+
+		byte[] trailing = {(byte) PingCommand.OPCODE, 1, 0};
+		assertThrows(MalformedException.class, () -> Command.fromBinary(trailing, 0, 3));
+
+		byte[] unknown = {(byte) 0x7F, 1};
+		assertThrows(MalformedException.class, () -> Command.fromBinary(unknown, 0, 2));
+
+		byte[] badOrdinal = {(byte) GameOrderCommand.OPCODE, 1, 5, (byte) 0xFF};
+		assertThrows(MalformedException.class, () -> Command.fromBinary(badOrdinal, 0, 4));
+	}
+}
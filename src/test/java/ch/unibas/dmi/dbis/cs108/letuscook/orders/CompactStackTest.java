@@ -0,0 +1,60 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.orders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class CompactStackTest {
+
+	/**
+	 * This test checks that a CompactStack counts every item, including those whose counts are
+	 * packed into the last word.
+	 */
+	@Test
+	public void testCount() {
+		CompactStack stack = CompactStack.of(Item.BREAD, Item.CHEESE, Item.BREAD,
+			Item.BURNT_PIZZA_MARGHERITA);
+
+		assertEquals(2, stack.count(Item.BREAD));
+		assertEquals(1, stack.count(Item.CHEESE));
+		assertEquals(1, stack.count(Item.BURNT_PIZZA_MARGHERITA));
+		assertEquals(0, stack.count(Item.TOMATO));
+		assertFalse(stack.isEmpty());
+		assertTrue(CompactStack.of().isEmpty());
+	}
+
+	/**
+	 * This test checks that CompactStacks holding the same items are equal and hash alike,
+	 * regardless of order, and that those holding other items are not equal.
+	 */
+	@Test
+	public void testEquals() {
+		CompactStack stack1 = CompactStack.of(Item.BREAD, Item.GRILLED_PATTY, Item.CHEESE);
+		CompactStack stack2 = CompactStack.of(Item.CHEESE, Item.BREAD, Item.GRILLED_PATTY);
+
+		assertEquals(stack1, stack2);
+		assertEquals(stack1.hashCode(), stack2.hashCode());
+		assertNotEquals(stack1, CompactStack.of(Item.BREAD, Item.GRILLED_PATTY));
+		assertNotEquals(stack1, CompactStack.of(Item.BREAD, Item.GRILLED_PATTY, Item.CHEESE,
+			Item.CHEESE));
+	}
+
+	/**
+	 * This test checks that one item held many times does not spill over into the count of the
+	 * next one.
+	 */
+	@Test
+	public void testCountsStayApart() {
+		Item[] items = new Item[CompactStack.MAX_COUNT];
+		Arrays.fill(items, Item.BREAD);
+		CompactStack stack = CompactStack.of(items);
+
+		assertEquals(CompactStack.MAX_COUNT, stack.count(Item.BREAD));
+		assertEquals(0, stack.count(Item.CHEESE));
+		assertEquals("CHEESE", CompactStack.of(Item.CHEESE).toString());
+	}
+}
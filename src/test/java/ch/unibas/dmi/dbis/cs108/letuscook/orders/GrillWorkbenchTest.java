@@ -5,8 +5,10 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import ch.unibas.dmi.dbis.cs108.letuscook.gui.Units;
+import ch.unibas.dmi.dbis.cs108.letuscook.server.Game;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.Coords;
 import ch.unibas.dmi.dbis.cs108.letuscook.util.IdentifierFactory;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -75,4 +77,26 @@ public class GrillWorkbenchTest {
 		assertEquals(Stack.of(Item.GRILLED_PATTY), grill.peekContents());
 	}
 
+	/**
+	 * This test checks that the grill counts down on the clock it is given. It puts a RAW_PATTY on
+	 * the grill, advances the clock, and asserts that the ticks until state change go down with
+	 * it, and that they read 0 once the patty is taken off again.
+	 */
+	@Test
+	public void testCountsDownOnClock() {
+		AtomicLong clock = new AtomicLong(100);
+		grill.useClock(clock::get);
+
+		grill.trade(Stack.of(Item.RAW_PATTY));
+		assertTrue(grill.isCountingDown());
+		assertEquals(3 * Game.TPS, grill.getTicksUntilStateChange());
+
+		clock.addAndGet(Game.TPS);
+		assertEquals(2 * Game.TPS, grill.getTicksUntilStateChange());
+		assertEquals(100 + 3 * Game.TPS, grill.getDeadline());
+
+		grill.trade(new Stack());
+		assertFalse(grill.isCountingDown());
+		assertEquals(0, grill.getTicksUntilStateChange());
+	}
 }
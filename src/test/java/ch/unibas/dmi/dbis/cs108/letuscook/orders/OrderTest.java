@@ -3,6 +3,7 @@ package ch.unibas.dmi.dbis.cs108.letuscook.orders;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
@@ -54,4 +55,20 @@ public class OrderTest {
 	public void testFromStringInvalid() {
 		assertThrows(MalformedException.class, () -> Order.fromString("INVALID_ORDER"));
 	}
+
+	/**
+	 * This test checks the findByStack method of the Order class. It verifies that every Order is
+	 * found by its own stack, in any order, and that other stacks find no Order.
+	 */
+	@Test
+	public void testFindByStack() {
+		for (var order : Order.values()) {
+			assertEquals(order, Order.findByStack(order.stack()).orElseThrow());
+		}
+
+		assertEquals(Order.SALAD,
+			Order.findByStack(Stack.of(Item.TOMATO, Item.CHOPPED_SALAD)).orElseThrow());
+		assertTrue(Order.findByStack(Stack.of(Item.BREAD)).isEmpty());
+		assertTrue(Order.findByStack(new Stack()).isEmpty());
+	}
 }
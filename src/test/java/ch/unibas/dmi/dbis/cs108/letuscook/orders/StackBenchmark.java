@@ -0,0 +1,126 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.orders;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Benchmark;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Times comparing, hashing, and looking up stacks through their {@link CompactStack}, and with
+ * the sorted item lists used before.
+ */
+@Benchmark
+class StackBenchmark {
+
+	private static final int CALLS = 2_000_000;
+
+	private static final Stack[] STACKS = {
+		Stack.of(Item.BREAD, Item.GRILLED_PATTY, Item.CHEESE),
+		Stack.of(Item.CHEESE, Item.BREAD, Item.GRILLED_PATTY),
+		Stack.of(Item.FRIES),
+		Stack.of(Item.BREAD, Item.GRILLED_PATTY, Item.CHEESE, Item.GRILLED_PATTY, Item.CHEESE),
+		Stack.of(Item.TOMATO, Item.BREAD)};
+
+	/**
+	 * Keeps the results of the calls alive, so they are not optimized away.
+	 */
+	private static volatile long sink;
+
+	/**
+	 * The stack comparisons before {@link CompactStack}: both stacks' items are sorted by ordinal
+	 * on every call.
+	 */
+	private static class Sorted {
+
+		static List<Item> sorted(Stack stack) {
+			var sorted = new ArrayList<>(List.of(stack.toArray()));
+			sorted.sort(Comparator.comparingInt(Enum::ordinal));
+			return sorted;
+		}
+
+		static boolean equals(Stack a, Stack b) {
+			if (a.toArray().length != b.toArray().length) {
+				return false;
+			}
+
+			var aSorted = Sorted.sorted(a);
+			var bSorted = Sorted.sorted(b);
+			for (int i = 0; i < aSorted.size(); ++i) {
+				if (!aSorted.get(i).equals(bSorted.get(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		static int hashCode(Stack stack) {
+			return Objects.hash(Sorted.sorted(stack).stream()
+				.map(Enum::ordinal)
+				.collect(Collectors.toList()));
+		}
+
+		static Optional<Order> findByStack(Stack stack) {
+			for (var order : Order.values()) {
+				if (Sorted.equals(stack, order.stack())) {
+					return Optional.of(order);
+				}
+			}
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Call something on the stacks in turn.
+	 *
+	 * @return the time per call, in nanoseconds.
+	 */
+	private static double time(int calls, IntUnaryOperator call) {
+		long sink = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < calls; ++i) {
+			sink += call.applyAsInt(i % StackBenchmark.STACKS.length);
+		}
+		double nanos = (System.nanoTime() - start) / (double) calls;
+		StackBenchmark.sink = sink;
+		return nanos;
+	}
+
+	@Test
+	void benchmarkStacks() {
+		Stack[] stacks = StackBenchmark.STACKS;
+		int calls = StackBenchmark.CALLS;
+
+		/* The last round is reported, the others warm up. */
+		for (int warmup = 2; warmup >= 0; --warmup) {
+			double sortedEquals = StackBenchmark.time(calls,
+				i -> Sorted.equals(stacks[i], stacks[(i + 1) % stacks.length]) ? 1 : 0);
+			double compactEquals = StackBenchmark.time(calls,
+				i -> stacks[i].equals(stacks[(i + 1) % stacks.length]) ? 1 : 0);
+			double sortedHash = StackBenchmark.time(calls, i -> Sorted.hashCode(stacks[i]));
+			double compactHash = StackBenchmark.time(calls, i -> stacks[i].hashCode());
+			double sortedFind = StackBenchmark.time(calls / 10,
+				i -> Sorted.findByStack(stacks[i]).isPresent() ? 1 : 0);
+			double compactFind = StackBenchmark.time(calls / 10,
+				i -> Order.findByStack(stacks[i]).isPresent() ? 1 : 0);
+
+			/* A fresh stack has no compact form yet, so it is built once for the lookup. */
+			double sortedFindFresh = StackBenchmark.time(calls / 10,
+				i -> Sorted.findByStack(stacks[i].copy()).isPresent() ? 1 : 0);
+			double compactFindFresh = StackBenchmark.time(calls / 10,
+				i -> Order.findByStack(stacks[i].copy()).isPresent() ? 1 : 0);
+
+			if (warmup == 0) {
+				System.out.printf("sorted vs compact, per call: equals %.1f / %.1f ns,"
+						+ " hashCode %.1f / %.1f ns, findByStack %.1f / %.1f ns,"
+						+ " findByStack of a fresh copy %.1f / %.1f ns%n", sortedEquals,
+					compactEquals, sortedHash, compactHash, sortedFind, compactFind,
+					sortedFindFresh, compactFindFresh);
+			}
+		}
+	}
+}
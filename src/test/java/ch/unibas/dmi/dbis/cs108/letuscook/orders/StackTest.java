@@ -2,6 +2,7 @@ package ch.unibas.dmi.dbis.cs108.letuscook.orders;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
@@ -70,4 +71,20 @@ public class StackTest {
 		assertEquals(stack1, stack2);
 	}
 
+	/**
+	 * This test checks that Stacks are compared regardless of the order of their items, and that
+	 * pushing onto a Stack is reflected in comparisons made before.
+	 */
+	@Test
+	public void testEqualsRegardlessOfOrder() {
+		Stack stack1 = Stack.of(Item.BREAD, Item.GRILLED_PATTY, Item.CHEESE);
+		Stack stack2 = Stack.of(Item.CHEESE, Item.BREAD);
+		assertNotEquals(stack1, stack2);
+
+		stack2.push(Stack.of(Item.GRILLED_PATTY));
+		assertEquals(stack1, stack2);
+		assertEquals(stack1.hashCode(), stack2.hashCode());
+		assertTrue(stack2.satisfies(Order.CHEESEBURGER));
+	}
+
 }
@@ -0,0 +1,77 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.YellCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Histogram;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Identifier;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Lane;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ActorTest {
+
+	/**
+	 * Queue a request like {@link Server#queueCommand(Request)}, but only record that it ran.
+	 */
+	private static void queue(Lane preferred, Actor actor, Request request, Priority priority,
+		List<Request> consumed) {
+		request.setPriority(priority);
+		Lane lane = actor.enterLane(preferred, request);
+		assertTrue(lane.submit(() -> {
+			consumed.add(request);
+			actor.leaveLane(request);
+		}, request.getPriority().ordinal()));
+	}
+
+	@Test
+	void testRequestsStayInOrderAcrossPriorities() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Histogram[] waits = new Histogram[Priority.values().length];
+		for (int i = 0; i < waits.length; ++i) {
+			waits[i] = new Histogram();
+		}
+		Lane lane = new Lane("test", executor, () -> {
+		}, Priority.weights(), waits);
+		List<Request> consumed = Collections.synchronizedList(new ArrayList<>());
+
+		/* Hold the lane until everything is queued. */
+		CountDownLatch queued = new CountDownLatch(1);
+		lane.submit(() -> {
+			try {
+				queued.await();
+			} catch (InterruptedException ignored) {
+			}
+		}, Priority.REALTIME.ordinal());
+
+		/* More gameplay by others than the realtime level consumes in one turn. */
+		for (int i = 0; i < 9; ++i) {
+			Actor other = new Actor(Identifier.fromString(String.valueOf(10 + i)));
+			ActorTest.queue(lane, other, new Request(other, new YellCommand("busy")),
+				Priority.REALTIME, consumed);
+		}
+
+		/* Gameplay, then chat: the chat must not overtake while the gameplay waits its turn. */
+		Actor actor = new Actor(Identifier.fromString("1"));
+		Request first = new Request(actor, new YellCommand("first"));
+		Request second = new Request(actor, new YellCommand("second"));
+		ActorTest.queue(lane, actor, first, Priority.REALTIME, consumed);
+		ActorTest.queue(lane, actor, second, Priority.BULK, consumed);
+
+		queued.countDown();
+		CountDownLatch drained = new CountDownLatch(1);
+		lane.submit(drained::countDown, Priority.BULK.ordinal());
+		assertTrue(drained.await(5, TimeUnit.SECONDS));
+		executor.shutdown();
+
+		assertEquals(11, consumed.size());
+		assertTrue(consumed.indexOf(first) < consumed.indexOf(second));
+	}
+}
@@ -0,0 +1,65 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.util.TestLogger;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TestLogger.class)
+class GameTest {
+
+	Game game;
+
+	@BeforeEach
+	void setUp() {
+		/* Without a client, the tick of a client-side game gives up on its first run. */
+		this.game = new Game(new Lobby(false, "kitchen"), Integer.MAX_VALUE, null);
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.game.stop();
+	}
+
+	@Test
+	void testStopsAtBarrier() {
+		Player player = new Player();
+		double x = player.getRect().x();
+
+		/* Walk up into the top barrier. */
+		this.game.movePlayerBy(player, 0, -1);
+
+		assertEquals(this.game.barriers[0].bottom(), player.getRect().top());
+		assertEquals(x, player.getRect().x());
+	}
+
+	@Test
+	void testMovingAllocatesNothing() {
+		var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assertTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		Player player = new Player();
+		Random random = new Random(1);
+		double[] steps = new double[1024];
+		for (int i = 0; i < steps.length; ++i) {
+			steps[i] = (random.nextDouble() - 0.5) * Game.UNITS_PER_TICK.u() * 2;
+		}
+
+		int moves = 100_000;
+		long before = threads.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < moves; ++i) {
+			this.game.movePlayerBy(player, steps[i & 1023], steps[(i + 512) & 1023]);
+		}
+		long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+		/* Even the smallest object takes more than a byte, so this means none per move. */
+		assertTrue(allocated < moves, allocated + " bytes allocated");
+	}
+}
@@ -0,0 +1,140 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.Command;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.GameScoreCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.GameTimeCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.YellCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Connection;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Frame;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Identifier;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Lane;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.MalformedException;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.TestLogger;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TestLogger.class)
+class LobbyTest {
+
+	static Actor actorWith(int identifier, Connection.Factory factory)
+		throws MalformedException, IOException {
+		Actor actor = new Actor(Identifier.fromString(String.valueOf(identifier)));
+		actor.createConnection(factory);
+		return actor;
+	}
+
+	@Test
+	void testStalledMemberBlocksNobodyElse() throws Exception {
+		Lobby lobby = new Lobby(false, "kitchen");
+		StalledConnection stalled = new StalledConnection();
+		Actor slow = LobbyTest.actorWith(1, (name, consumer) -> stalled);
+		Actor fast = LobbyTest.actorWith(2, StalledConnection::new);
+		lobby.addMember(slow);
+		lobby.addMember(fast);
+
+		/* This broadcast hangs while handing the command to the stalled connection. */
+		Command yell = new YellCommand("hello");
+		Thread stuck = new Thread(() -> lobby.broadcast(yell));
+		stuck.start();
+		assertTrue(stalled.entered.await(5, TimeUnit.SECONDS));
+
+		try {
+			assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+				Actor late = LobbyTest.actorWith(3, StalledConnection::new);
+				lobby.addMember(late);
+				lobby.broadcastToOthers(new YellCommand("hi"), slow);
+				lobby.removeMember(fast);
+				assertFalse(lobby.contains(fast));
+				assertEquals(2, lobby.getActors().length);
+			});
+		} finally {
+			stalled.release.countDown();
+			stuck.join();
+		}
+	}
+
+	@Test
+	void testDeferredBroadcastsAreNotOvertaken() throws Exception {
+		/* The lane runs each batch right away, on the submitting thread. */
+		Lobby lobby = new Lobby(true, "kitchen",
+			afterBatch -> new Lane("lobby kitchen", Runnable::run, afterBatch));
+		StalledConnection connection = new StalledConnection("member", command -> {
+		});
+		Actor member = LobbyTest.actorWith(1, (name, consumer) -> connection);
+		lobby.addMember(member);
+
+		/* Like a late interaction followed by the end of the game, in the same batch. */
+		Frame time = new Frame(new GameTimeCommand("kitchen", 0));
+		Command yell = new YellCommand("bye");
+		assertTrue(lobby.getLane().submit(() -> {
+			lobby.broadcast(new GameScoreCommand(40));
+			member.sendFrames(time);
+			member.sendCommands(yell);
+			lobby.broadcast(new GameScoreCommand(50));
+		}));
+
+		String sent = new String(connection.getOutbox().poll(), StandardCharsets.UTF_8);
+		int score = sent.indexOf("SCORE 40");
+		int timeUp = sent.indexOf("TIME kitchen 0");
+		int bye = sent.indexOf("YELL bye");
+		int lateScore = sent.indexOf("SCORE 50");
+		assertTrue(score >= 0 && score < timeUp && timeUp < bye && bye < lateScore, sent);
+	}
+
+	/**
+	 * A connection whose transport blocks the sender until released, like a synchronous write to
+	 * a peer that stopped reading.
+	 */
+	static class StalledConnection extends Connection {
+
+		final CountDownLatch entered = new CountDownLatch(1);
+
+		final CountDownLatch release;
+
+		StalledConnection() {
+			super(command -> {
+			});
+			this.release = new CountDownLatch(1);
+		}
+
+		StalledConnection(String name, Consumer<Command> commandConsumer) {
+			super(commandConsumer);
+			this.release = new CountDownLatch(0);
+		}
+
+		@Override
+		protected void onQueued() {
+			this.entered.countDown();
+			try {
+				this.release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		@Override
+		public boolean isDead() {
+			return false;
+		}
+
+		@Override
+		public String getAddress() {
+			return "127.0.0.1";
+		}
+
+		@Override
+		public void destroy() {
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.server;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.util.Benchmark;
+import ch.unibas.dmi.dbis.cs108.letuscook.util.TestLogger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Times creating records that all suggest the same nickname, and looking up nicknames, with the
+ * server's indexes and with the linear scans they replaced. Creates a {@link Server}, so it needs
+ * a JVM of its own.
+ */
+@Benchmark
+@ExtendWith(TestLogger.class)
+class ServerRegistryBenchmark {
+
+	private static final int RECORDS = 10_000;
+
+	/**
+	 * The records and nickname generation before they were indexed: every probe scans all
+	 * records, and every suffix is probed from 1.
+	 */
+	private static class ScannedRecords {
+
+		private final List<Record> records = Collections.synchronizedList(new ArrayList<>());
+
+		boolean nicknameOccupied(String nickname) {
+			synchronized (this.records) {
+				for (var record : this.records) {
+					if (record.getNickname().equals(nickname)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		void createRecord(String nicknameSuggestion) {
+			synchronized (this.records) {
+				String nickname = nicknameSuggestion;
+				if (this.nicknameOccupied(nickname)) {
+					int suffix = 1;
+					do {
+						nickname = nicknameSuggestion + "_" + suffix++;
+					} while (this.nicknameOccupied(nickname));
+				}
+				this.records.add(new Record(nickname));
+			}
+		}
+	}
+
+	@Test
+	void benchmarkRecords() {
+		Server server = new Server(0, new ServerOptions());
+
+		long start = System.nanoTime();
+		for (int i = 0; i < ServerRegistryBenchmark.RECORDS; ++i) {
+			server.createRecord("Player");
+		}
+		ServerRegistryBenchmark.report("createRecord, indexed", ServerRegistryBenchmark.RECORDS,
+			start);
+
+		/* Filling the scanned records is cubic, so they only get a tenth as many. */
+		ScannedRecords scanned = new ScannedRecords();
+		start = System.nanoTime();
+		for (int i = 0; i < ServerRegistryBenchmark.RECORDS / 10; ++i) {
+			scanned.createRecord("Player");
+		}
+		ServerRegistryBenchmark.report("createRecord, scanned", ServerRegistryBenchmark.RECORDS / 10,
+			start);
+		for (int i = ServerRegistryBenchmark.RECORDS / 10; i < ServerRegistryBenchmark.RECORDS;
+			++i) {
+			scanned.records.add(new Record("Player_" + i));
+		}
+
+		int hits = 0;
+		start = System.nanoTime();
+		for (int i = 0; i < ServerRegistryBenchmark.RECORDS; ++i) {
+			hits += server.nicknameOccupied("Player_" + i) ? 1 : 0;
+		}
+		ServerRegistryBenchmark.report("nicknameOccupied, indexed", ServerRegistryBenchmark.RECORDS,
+			start);
+
+		start = System.nanoTime();
+		for (int i = 0; i < ServerRegistryBenchmark.RECORDS; ++i) {
+			hits += scanned.nicknameOccupied("Player_" + i) ? 1 : 0;
+		}
+		ServerRegistryBenchmark.report("nicknameOccupied, scanned", ServerRegistryBenchmark.RECORDS,
+			start);
+
+		System.out.println(hits + " hits");
+	}
+
+	private static void report(String what, int count, long start) {
+		long nanos = System.nanoTime() - start;
+		System.out.printf("%s, %d times: %.1f ms total, %.2f us each%n", what, count,
+			nanos / 1e6, nanos / 1e3 / count);
+	}
+}
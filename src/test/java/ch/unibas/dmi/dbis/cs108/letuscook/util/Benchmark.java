@@ -0,0 +1,21 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+/**
+ * Marks a class of benchmarks. They take a while and only print their timings, so they are
+ * skipped unless <code>LETUSCOOK_BENCHMARK=true</code> is set. Run them one class at a time, as
+ * in <code>LETUSCOOK_BENCHMARK=true ./gradlew test --tests '*GridIndexBenchmark'</code>.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Tag("benchmark")
+@EnabledIfEnvironmentVariable(named = "LETUSCOOK_BENCHMARK", matches = "true")
+public @interface Benchmark {
+
+}
@@ -0,0 +1,142 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.Command;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.PlayerPositionCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.gui.Units;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TestLogger.class)
+class DatagramEndpointTest {
+
+	private DatagramEndpoint server;
+
+	private DatagramEndpoint client;
+
+	private final BlockingQueue<Command> serverReceived = new LinkedBlockingQueue<>();
+
+	private final BlockingQueue<Command> clientReceived = new LinkedBlockingQueue<>();
+
+	@BeforeEach
+	void setUp() throws IOException {
+		this.server = new DatagramEndpoint("test-server", 0);
+		this.client = new DatagramEndpoint("test-client", 0);
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.server.close();
+		this.client.close();
+	}
+
+	private InetSocketAddress serverAddress() {
+		return new InetSocketAddress(InetAddress.getLoopbackAddress(), this.server.getPort());
+	}
+
+	private static Frame position(int subject, double x) {
+		var command = new PlayerPositionCommand(new Coords(new Units(x), new Units(1)));
+		command.setSubject(new Identifier(subject));
+		return new Frame(command);
+	}
+
+	private Command poll(BlockingQueue<Command> queue) throws InterruptedException {
+		return queue.poll(2, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void testCarriesCommandsBothWays() throws InterruptedException {
+		var serverSession = this.server.open(this.serverReceived::add);
+		var clientSession = this.client.open(serverSession.getToken(), this.serverAddress(),
+			this.clientReceived::add);
+
+		/* The server doesn't know the client until it hears from it. */
+		assertFalse(serverSession.isAlive());
+		serverSession.send(position(1, 9));
+		assertNull(this.clientReceived.poll(100, TimeUnit.MILLISECONDS));
+
+		clientSession.send(position(2, 3));
+		var received = this.poll(this.serverReceived);
+		assertNotNull(received);
+		assertEquals(position(2, 3).toString(), received.toString());
+		assertTrue(serverSession.isAlive());
+
+		serverSession.send(position(1, 4));
+		received = this.poll(this.clientReceived);
+		assertNotNull(received);
+		assertEquals(position(1, 4).toString(), received.toString());
+		assertTrue(clientSession.isAlive());
+	}
+
+	@Test
+	void testPingKeepsBothSidesAlive() throws InterruptedException {
+		var serverSession = this.server.open(this.serverReceived::add);
+		var clientSession = this.client.open(serverSession.getToken(), this.serverAddress(),
+			this.clientReceived::add);
+
+		clientSession.ping();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+		while (!clientSession.isAlive() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+
+		assertTrue(serverSession.isAlive());
+		assertTrue(clientSession.isAlive());
+		assertTrue(this.serverReceived.isEmpty());
+		assertTrue(this.clientReceived.isEmpty());
+	}
+
+	@Test
+	void testDropsStaleAndUnknownDatagrams() throws IOException, InterruptedException {
+		var session = this.server.open(this.serverReceived::add);
+
+		try (var raw = DatagramChannel.open()) {
+			ByteBuffer buffer = ByteBuffer.allocate(DatagramEndpoint.MAX_DATAGRAM_LENGTH);
+			int[][] datagrams = {
+				/* subject, sequence */
+				{1, 5}, {1, 3}, {2, 4}, {1, 5}, {1, 6},
+			};
+			for (var datagram : datagrams) {
+				DatagramEndpoint.encode(buffer, session.getToken(), datagram[1],
+					position(datagram[0], datagram[1]));
+				raw.send(buffer, this.serverAddress());
+			}
+			DatagramEndpoint.encode(buffer, session.getToken() + 1, 7, position(1, 7));
+			raw.send(buffer, this.serverAddress());
+		}
+
+		/* Older or repeated sequences about the same subject are dropped; other subjects pass. */
+		assertEquals(position(1, 5).toString(), this.poll(this.serverReceived).toString());
+		assertEquals(position(2, 4).toString(), this.poll(this.serverReceived).toString());
+		assertEquals(position(1, 6).toString(), this.poll(this.serverReceived).toString());
+		assertNull(this.serverReceived.poll(100, TimeUnit.MILLISECONDS));
+		assertEquals(2, session.getStale());
+	}
+
+	@Test
+	void testClosedSessionIsDeaf() throws InterruptedException {
+		var serverSession = this.server.open(this.serverReceived::add);
+		var clientSession = this.client.open(serverSession.getToken(), this.serverAddress(),
+			this.clientReceived::add);
+
+		serverSession.close();
+		clientSession.send(position(1, 1));
+		assertNull(this.serverReceived.poll(200, TimeUnit.MILLISECONDS));
+		assertEquals(0, this.server.getSessions());
+	}
+}
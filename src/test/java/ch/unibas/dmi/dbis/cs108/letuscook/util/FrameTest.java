@@ -0,0 +1,29 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.Command;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.YellCommand;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class FrameTest {
+
+	@Test
+	void testEncodesOnce() throws MalformedException {
+		Frame frame = new Frame(
+			Command.withSubject(Identifier.fromString("3"), new YellCommand("hello")));
+
+		assertEquals("3 YELL hello\n", new String(frame.getBytes(false), StandardCharsets.UTF_8));
+		assertSame(frame.getBytes(false), frame.getBytes(false));
+	}
+
+	@Test
+	void testOf() throws MalformedException {
+		Frame[] frames = Frame.of(new YellCommand("a"), new YellCommand("b"));
+
+		assertEquals(2, frames.length);
+		assertEquals("0 YELL b", frames[1].toString());
+	}
+}
@@ -0,0 +1,95 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Times finding the closest workbench and the last collision with a {@link GridIndex} and with the
+ * linear scans it replaced, for kitchens of increasing size.
+ */
+@Benchmark
+class GridIndexBenchmark {
+
+	private static final int PROBES = 4096;
+
+	/**
+	 * The number of rects times the number of rounds, so the scans take about as long for every
+	 * kitchen size.
+	 */
+	private static final int WORK = 2500;
+
+	private static final double RADIUS = 1;
+
+	/**
+	 * Workbench-sized rects on a grid, one cell apart.
+	 */
+	private static Rect[] grid(int count) {
+		int columns = (int) Math.ceil(Math.sqrt(count));
+		Rect[] rects = new Rect[count];
+		for (int i = 0; i < count; ++i) {
+			rects[i] = GridIndexTest.rect(i % columns * 2 + 0.5, i / columns * 2 + 0.5, 1, 1);
+		}
+		return rects;
+	}
+
+	@Test
+	void benchmarkQueries() {
+		for (int count : new int[]{25, 250, 2500}) {
+			Rect[] rects = GridIndexBenchmark.grid(count);
+			GridIndex index = new GridIndex(rects, 1);
+			int rounds = GridIndexBenchmark.WORK / count;
+
+			double side = Math.ceil(Math.sqrt(count)) * 2;
+			Random random = new Random(1);
+			Rect[] probes = new Rect[GridIndexBenchmark.PROBES];
+			for (int i = 0; i < probes.length; ++i) {
+				probes[i] = GridIndexTest.rect(0.4 + random.nextDouble() * (side - 1),
+					0.4 + random.nextDouble() * (side - 1), 0.8, 0.8);
+			}
+
+			/* The last round is reported, the others warm up. */
+			for (int warmup = 4; warmup >= 0; --warmup) {
+				long sink = 0;
+				long start = System.nanoTime();
+				for (int round = 0; round < rounds; ++round) {
+					for (var probe : probes) {
+						sink += GridIndexTest.closestByScan(rects, probe, GridIndexBenchmark.RADIUS);
+					}
+				}
+				long closestScanned = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int round = 0; round < rounds; ++round) {
+					for (var probe : probes) {
+						sink += index.closest(probe, GridIndexBenchmark.RADIUS);
+					}
+				}
+				long closestIndexed = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int round = 0; round < rounds; ++round) {
+					for (var probe : probes) {
+						sink += GridIndexTest.lastCollisionByScan(rects, probe);
+					}
+				}
+				long collisionScanned = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int round = 0; round < rounds; ++round) {
+					for (var probe : probes) {
+						sink += index.lastCollision(probe);
+					}
+				}
+				long collisionIndexed = System.nanoTime() - start;
+
+				if (warmup == 0) {
+					double queries = rounds * GridIndexBenchmark.PROBES;
+					System.out.printf("%d workbenches: closest %.3f us scanned, %.3f us indexed;"
+							+ " lastCollision %.3f us scanned, %.3f us indexed (%d)%n", count,
+						closestScanned / 1e3 / queries, closestIndexed / 1e3 / queries,
+						collisionScanned / 1e3 / queries, collisionIndexed / 1e3 / queries, sink);
+				}
+			}
+		}
+	}
+}
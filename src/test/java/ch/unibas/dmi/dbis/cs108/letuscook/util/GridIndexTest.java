@@ -0,0 +1,96 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.gui.Units;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class GridIndexTest {
+
+	static Rect rect(double x, double y, double width, double height) {
+		return new Rect(new Units(x), new Units(y), new Units(width), new Units(height));
+	}
+
+	/**
+	 * Rects of random sizes scattered over a square, some of them on the same spot.
+	 */
+	private static Rect[] scatter(Random random, int count, double side) {
+		Rect[] rects = new Rect[count];
+		for (int i = 0; i < count; ++i) {
+			if (i > 0 && random.nextInt(10) == 0) {
+				rects[i] = rects[random.nextInt(i)].copy();
+				continue;
+			}
+			double width = 0.25 + random.nextDouble() * (random.nextInt(5) == 0 ? 6 : 1);
+			double height = 0.25 + random.nextDouble() * (random.nextInt(5) == 0 ? 6 : 1);
+			rects[i] = GridIndexTest.rect(width / 2 + random.nextDouble() * side,
+				height / 2 + random.nextDouble() * side, width, height);
+		}
+		return rects;
+	}
+
+	static int lastCollisionByScan(Rect[] rects, Rect rect) {
+		int last = -1;
+		for (int i = 0; i < rects.length; ++i) {
+			if (rect.isWithin(rects[i])) {
+				last = i;
+			}
+		}
+		return last;
+	}
+
+	static int closestByScan(Rect[] rects, Coords point, double radius) {
+		int closest = -1;
+		Units smallestDistance = new Units(0);
+		for (int i = 0; i < rects.length; ++i) {
+			Units distance = Coords.distance(rects[i], point);
+			if (distance.u() < smallestDistance.u() || closest == -1) {
+				closest = i;
+				smallestDistance = distance;
+			}
+		}
+		return smallestDistance.u() <= radius ? closest : -1;
+	}
+
+	@Test
+	void testAgreesWithScan() {
+		Random random = new Random(2402);
+		for (int round = 0; round < 20; ++round) {
+			Rect[] rects = GridIndexTest.scatter(random, 1 + random.nextInt(300), 40);
+			GridIndex index = new GridIndex(rects, 1);
+
+			for (int query = 0; query < 200; ++query) {
+				/* Some queries fall outside the rects altogether. */
+				double size = 0.1 + random.nextDouble();
+				Rect probe = GridIndexTest.rect(size / 2 + random.nextDouble() * 50,
+					size / 2 + random.nextDouble() * 50, size, size);
+				double radius = random.nextDouble() * 4;
+
+				assertEquals(GridIndexTest.lastCollisionByScan(rects, probe),
+					index.lastCollision(probe), "collision with " + probe);
+				assertEquals(GridIndexTest.closestByScan(rects, probe, radius),
+					index.closest(probe, radius), "closest to " + probe);
+			}
+		}
+	}
+
+	@Test
+	void testTiesGoToLowestIndex() {
+		Rect[] rects = {rect(3, 2, 1, 1), rect(1, 2, 1, 1), rect(3, 2, 1, 1), rect(1, 2, 1, 1)};
+		GridIndex index = new GridIndex(rects, 1);
+
+		assertEquals(1, index.closest(rect(1.4, 2, 0.5, 0.5), 5));
+		assertEquals(0, index.closest(rect(2, 2, 0.5, 0.5), 5));
+		assertEquals(3, index.lastCollision(rect(1, 2, 0.5, 0.5)));
+	}
+
+	@Test
+	void testNothingWithinRadius() {
+		GridIndex index = new GridIndex(new Rect[]{rect(10, 10, 1, 1)}, 1);
+
+		assertEquals(-1, index.closest(rect(1, 1, 1, 1), 5));
+		assertEquals(-1, index.lastCollision(rect(1, 1, 1, 1)));
+		assertEquals(0, index.closest(rect(8, 8, 1, 1), 5));
+	}
+}
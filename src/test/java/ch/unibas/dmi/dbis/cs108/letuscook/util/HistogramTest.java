@@ -0,0 +1,68 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class HistogramTest {
+
+	@Test
+	void testEmpty() {
+		Histogram histogram = new Histogram();
+
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMean());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getPercentile(99));
+	}
+
+	@Test
+	void testPercentilesWithinFactorOfTwo() {
+		Histogram histogram = new Histogram();
+		for (int i = 1; i <= 1000; ++i) {
+			histogram.record(i);
+		}
+
+		assertEquals(1000, histogram.getCount());
+		assertEquals(500, histogram.getMean());
+		assertEquals(1000, histogram.getMax());
+
+		long p50 = histogram.getPercentile(50);
+		assertTrue(p50 >= 500 && p50 < 1000, "p50 is " + p50);
+		long p99 = histogram.getPercentile(99);
+		assertTrue(p99 >= 990 && p99 <= 1000, "p99 is " + p99);
+		assertEquals(1, histogram.getPercentile(0.1));
+	}
+
+	@Test
+	void testZeros() {
+		Histogram histogram = new Histogram();
+		histogram.record(0);
+		histogram.record(0);
+
+		assertEquals(0, histogram.getPercentile(100));
+		assertEquals(2, histogram.getCount());
+	}
+
+	@Test
+	void testConcurrentRecording() throws InterruptedException {
+		Histogram histogram = new Histogram();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; ++t) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 10000; ++i) {
+					histogram.record(i % 100);
+				}
+			});
+			threads[t].start();
+		}
+		for (var thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(40000, histogram.getCount());
+		assertEquals(99, histogram.getMax());
+		assertEquals(49, histogram.getMean());
+	}
+}
@@ -35,6 +35,17 @@ class IdentifierTest {
 		assertThrows(MalformedException.class, () -> Identifier.fromString("-1"));
 	}
 
+	@Test
+	void testFromRegion() throws MalformedException {
+		assertEquals("42", Identifier.fromString("0 SAY 42 hi", 6, 8).toString());
+		assertThrows(MalformedException.class, () -> Identifier.fromString("0 SAY 42", 2, 5));
+	}
+
+	@Test
+	void testOverflowIsMalformed() {
+		assertThrows(MalformedException.class, () -> Identifier.fromString("2147483648"));
+	}
+
 	@Test
 	void testIdentifierIsIncremented() {
 		IdentifierFactory if_ = new IdentifierFactory();
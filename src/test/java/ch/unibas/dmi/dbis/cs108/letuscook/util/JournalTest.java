@@ -0,0 +1,54 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.GameScoreCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.PlayerPositionCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.commands.ResumeCommand;
+import ch.unibas.dmi.dbis.cs108.letuscook.gui.Units;
+import org.junit.jupiter.api.Test;
+
+class JournalTest {
+
+	private static Frame[] scores(Journal journal, int from, int to) {
+		Frame[] frames = new Frame[to - from];
+		for (int i = from; i < to; ++i) {
+			frames[i - from] = new Frame(new GameScoreCommand(i));
+			journal.append(frames[i - from]);
+		}
+		return frames;
+	}
+
+	@Test
+	void testSinceReturnsWhatWasMissed() {
+		Journal journal = new Journal(8);
+		Frame[] frames = JournalTest.scores(journal, 0, 5);
+
+		assertEquals(5, journal.getCount());
+		assertArrayEquals(new Frame[]{frames[3], frames[4]}, journal.since(3).orElseThrow());
+		assertArrayEquals(frames, journal.since(0).orElseThrow());
+		assertEquals(0, journal.since(5).orElseThrow().length);
+	}
+
+	@Test
+	void testSinceFailsOnceFramesAreForgotten() {
+		Journal journal = new Journal(4);
+		Frame[] frames = JournalTest.scores(journal, 0, 10);
+
+		assertArrayEquals(new Frame[]{frames[6], frames[7], frames[8], frames[9]},
+			journal.since(6).orElseThrow());
+		assertTrue(journal.since(5).isEmpty());
+		assertTrue(journal.since(11).isEmpty());
+	}
+
+	@Test
+	void testCovers() throws MalformedException {
+		assertTrue(Journal.covers(new GameScoreCommand(3)));
+		assertFalse(Journal.covers(
+			new PlayerPositionCommand(new Coords(new Units(1), new Units(2)))));
+		assertFalse(Journal.covers(new ResumeCommand(42)));
+	}
+}
@@ -0,0 +1,165 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class LaneTest {
+
+	@Test
+	void testRunsInOrderOneAtATime() throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		Lane lane = new Lane("test", executor);
+		List<Integer> order = new ArrayList<>();
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger overlaps = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(1000);
+
+		for (int i = 0; i < 1000; ++i) {
+			int n = i;
+			assertTrue(lane.submit(() -> {
+				if (running.incrementAndGet() > 1) {
+					overlaps.incrementAndGet();
+				}
+				order.add(n);
+				running.decrementAndGet();
+				done.countDown();
+			}));
+		}
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(0, overlaps.get());
+		for (int i = 0; i < 1000; ++i) {
+			assertEquals(i, order.get(i));
+		}
+		executor.shutdown();
+	}
+
+	@Test
+	void testLanesRunInParallel() throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		CountDownLatch both = new CountDownLatch(2);
+
+		/* Each task waits for the other, which only works if they run at the same time. */
+		for (var lane : new Lane[]{new Lane("a", executor), new Lane("b", executor)}) {
+			lane.submit(() -> {
+				both.countDown();
+				try {
+					both.await();
+				} catch (InterruptedException ignored) {
+				}
+			});
+		}
+
+		assertTrue(both.await(5, TimeUnit.SECONDS));
+		executor.shutdown();
+	}
+
+	@Test
+	void testKnowsCurrentLane() throws InterruptedException {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Lane lane = new Lane("test", executor);
+		CountDownLatch done = new CountDownLatch(1);
+		List<Lane> seen = new ArrayList<>();
+
+		lane.submit(() -> {
+			seen.add(Lane.current().orElse(null));
+			done.countDown();
+		});
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(lane, seen.get(0));
+		assertTrue(Lane.current().isEmpty());
+		executor.shutdown();
+	}
+
+	@Test
+	void testDrainsWaitingTasksInOneBatch() throws InterruptedException {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		List<String> events = new ArrayList<>();
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch flushed = new CountDownLatch(1);
+		Lane lane = new Lane("test", executor, () -> {
+			events.add("flush");
+			flushed.countDown();
+		});
+
+		/* The first task holds the lane until the others are waiting. */
+		lane.submit(() -> {
+			try {
+				release.await();
+			} catch (InterruptedException ignored) {
+			}
+			events.add("task");
+		});
+		for (int i = 0; i < 9; ++i) {
+			lane.submit(() -> events.add("task"));
+		}
+		release.countDown();
+
+		assertTrue(flushed.await(5, TimeUnit.SECONDS));
+		assertEquals(11, events.size());
+		assertEquals("flush", events.get(10));
+		assertEquals(10, lane.getMeanBatchSize());
+		executor.shutdown();
+	}
+
+	@Test
+	void testLevelsTakeTurnsByWeight() throws InterruptedException {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Histogram[] waits = {new Histogram(), new Histogram()};
+		Lane lane = new Lane("test", executor, () -> {
+		}, new int[]{3, 1}, waits);
+		StringBuilder order = new StringBuilder();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(1);
+
+		/* The first task holds the lane until the others are waiting. */
+		lane.submit(() -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException ignored) {
+			}
+		}, 1);
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < 4; ++i) {
+			lane.submit(() -> order.append('b'), 1);
+		}
+		for (int i = 0; i < 6; ++i) {
+			lane.submit(() -> order.append('r'), 0);
+		}
+		lane.submit(done::countDown, 1);
+		assertEquals(6, lane.getDepth(0));
+		release.countDown();
+
+		/* The flood at level 1 only gets one turn per three tasks at level 0. */
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals("rrrbrrrbbb", order.toString());
+		assertEquals(6, waits[0].getCount());
+		assertEquals(6, waits[1].getCount());
+		assertTrue(waits[0].getMax() > 0);
+		executor.shutdown();
+	}
+
+	@Test
+	void testRefusesOnceShutDown() {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		executor.shutdown();
+
+		Lane lane = new Lane("test", executor);
+		assertFalse(lane.submit(() -> {
+		}));
+		assertEquals(0, lane.getDepth());
+	}
+}
@@ -0,0 +1,82 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class OutboxTest {
+
+	@Test
+	void testDrainsEverythingAtOnce() throws InterruptedException {
+		Outbox outbox = new Outbox();
+		assertTrue(outbox.offer(new byte[]{1, 2}));
+		assertTrue(outbox.offer(new byte[]{3}));
+		assertEquals(2, outbox.getDepth());
+		assertEquals(3, outbox.getPendingBytes());
+
+		assertArrayEquals(new byte[]{1, 2, 3}, outbox.take());
+		assertEquals(0, outbox.getDepth());
+		assertNull(outbox.poll());
+	}
+
+	@Test
+	void testRefusesWhenFull() {
+		Outbox outbox = new Outbox(4);
+		assertTrue(outbox.offer(new byte[3]));
+		assertFalse(outbox.offer(new byte[2]));
+		assertTrue(outbox.offer(new byte[1]));
+		assertEquals(2, outbox.getQueued());
+	}
+
+	@Test
+	void testCoalescesByKey() {
+		Outbox outbox = new Outbox();
+		assertTrue(outbox.offer(new byte[]{1}, "a"));
+		assertTrue(outbox.offer(new byte[]{2}));
+		assertTrue(outbox.offer(new byte[]{3, 3}, "a"));
+		assertTrue(outbox.offer(new byte[]{4}, "b"));
+
+		assertEquals(3, outbox.getDepth());
+		assertEquals(1, outbox.getCoalesced());
+		assertArrayEquals(new byte[]{2, 3, 3, 4}, outbox.poll());
+
+		/* Once drained, a key starts a new entry. */
+		assertTrue(outbox.offer(new byte[]{5}, "a"));
+		assertArrayEquals(new byte[]{5}, outbox.poll());
+	}
+
+	@Test
+	void testCoalescedCommandDoesNotOvertake() {
+		/* Like POSITION(b), INTERACT, POSITION(c): the interaction happens at b, not at c. */
+		Outbox outbox = new Outbox();
+		assertTrue(outbox.offer(new byte[]{1}, "position"));
+		assertTrue(outbox.offer(new byte[]{2}));
+		assertTrue(outbox.offer(new byte[]{3}, "position"));
+
+		assertEquals(2, outbox.getDepth());
+		assertEquals(2, outbox.getPendingBytes());
+		assertArrayEquals(new byte[]{2, 3}, outbox.poll());
+	}
+
+	@Test
+	void testCloseWakesWriter() throws InterruptedException {
+		Outbox outbox = new Outbox();
+		Thread closer = new Thread(outbox::close);
+		closer.start();
+		assertNull(outbox.take());
+		assertFalse(outbox.offer(new byte[1]));
+	}
+
+	@Test
+	void testFlushCounters() {
+		Outbox outbox = new Outbox();
+		outbox.recordFlush(10);
+		outbox.recordFlush(20);
+		assertEquals(2, outbox.getFlushes());
+		assertEquals(30, outbox.getBytesFlushed());
+	}
+}
@@ -0,0 +1,47 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class RoundTripsTest {
+
+	@Test
+	void testSteadyRoundTripsHaveNoJitter() {
+		RoundTrips roundTrips = new RoundTrips();
+		for (int i = 0; i < 100; ++i) {
+			roundTrips.record(5000);
+		}
+
+		assertEquals(0, roundTrips.getJitter());
+		assertEquals(5000, roundTrips.getLatest());
+		assertEquals(100, roundTrips.getTimes().getCount());
+	}
+
+	@Test
+	void testJitterApproachesMeanDifference() {
+		RoundTrips roundTrips = new RoundTrips();
+
+		/* Alternating round trips differ by 2000 us every time. */
+		for (int i = 0; i < 500; ++i) {
+			roundTrips.record(i % 2 == 0 ? 4000 : 6000);
+		}
+
+		assertTrue(Math.abs(roundTrips.getJitter() - 2000) <= 20, "jitter");
+		assertEquals(6000, roundTrips.getTimes().getMax());
+	}
+
+	@Test
+	void testFirstRoundTripHasNoJitter() {
+		RoundTrips roundTrips = new RoundTrips();
+		assertEquals(-1, roundTrips.getLatest());
+
+		roundTrips.record(80_000);
+		assertEquals(0, roundTrips.getJitter());
+
+		/* A single spike moves the jitter by a sixteenth of the difference. */
+		roundTrips.record(0);
+		assertEquals(5000, roundTrips.getJitter());
+	}
+}
@@ -0,0 +1,16 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Selects the logger for tests that log through {@link Messenger}. The "test" logger is not
+ * configured in log4j2.xml, so it only logs to the console, not into logs/.
+ */
+public class TestLogger implements BeforeAllCallback {
+
+	@Override
+	public void beforeAll(ExtensionContext context) {
+		Messenger.selectLogger("test");
+	}
+}
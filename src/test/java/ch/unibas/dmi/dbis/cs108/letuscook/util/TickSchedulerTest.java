@@ -0,0 +1,51 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TickSchedulerTest {
+
+	@Test
+	void testTicksManyTasksOnFewWorkers() throws InterruptedException {
+		TickScheduler scheduler = new TickScheduler(2);
+		CountDownLatch done = new CountDownLatch(20 * 5);
+
+		TickScheduler.Task[] tasks = new TickScheduler.Task[20];
+		for (int i = 0; i < tasks.length; ++i) {
+			tasks[i] = scheduler.atFixedRate(() -> {
+				done.countDown();
+				return null;
+			}, 10);
+		}
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		for (var task : tasks) {
+			task.stop();
+			assertTrue(task.getTicks() > 0);
+			assertTrue(task.getMaxLagMicros() >= task.getMeanLagMicros());
+		}
+		assertEquals(2, scheduler.getWorkers());
+	}
+
+	@Test
+	void testStopEndsTicks() throws InterruptedException {
+		TickScheduler scheduler = new TickScheduler(1);
+		CountDownLatch first = new CountDownLatch(1);
+
+		TickScheduler.Task task = scheduler.atFixedRate(() -> {
+			first.countDown();
+			return null;
+		}, 5);
+		assertTrue(first.await(5, TimeUnit.SECONDS));
+		task.stop();
+
+		Thread.sleep(20);
+		long ticks = task.getTicks();
+		Thread.sleep(50);
+		assertEquals(ticks, task.getTicks());
+	}
+}
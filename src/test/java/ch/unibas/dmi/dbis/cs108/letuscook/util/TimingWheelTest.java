@@ -0,0 +1,105 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+	@Test
+	void testRunsNeitherEarlyNorMoreThanATickLate() {
+		AtomicLong now = new AtomicLong(1000);
+		TimingWheel wheel = new TimingWheel(10, now::get);
+		Random random = new Random(42);
+
+		/* Spread deadlines over all levels. */
+		int count = 2000;
+		long[] deadlines = new long[count];
+		long[] ranAt = new long[count];
+		for (int i = 0; i < count; ++i) {
+			long delay = (long) Math.pow(10, random.nextDouble() * 7);
+			deadlines[i] = now.get() + delay;
+			int index = i;
+			wheel.schedule(delay, () -> ranAt[index] = now.get());
+		}
+		assertEquals(count, wheel.size());
+
+		/* Advance by uneven steps, as a late thread would. */
+		while (wheel.size() > 0) {
+			now.addAndGet(1 + random.nextInt(30));
+			wheel.advanceTo(now.get());
+		}
+
+		for (int i = 0; i < count; ++i) {
+			assertTrue(ranAt[i] >= deadlines[i], "ran early: " + i);
+			assertTrue(ranAt[i] < deadlines[i] + 10 + 30, "ran late: " + i);
+		}
+	}
+
+	@Test
+	void testCancel() {
+		AtomicLong now = new AtomicLong();
+		TimingWheel wheel = new TimingWheel(10, now::get);
+		List<String> ran = new ArrayList<>();
+
+		TimingWheel.Timeout a = wheel.schedule(100, () -> ran.add("a"));
+		wheel.schedule(100, () -> ran.add("b"));
+		TimingWheel.Timeout c = wheel.schedule(5000, () -> ran.add("c"));
+		assertTrue(a.cancel());
+		assertTrue(c.cancel());
+		assertFalse(a.cancel());
+		assertEquals(1, wheel.size());
+
+		now.set(10000);
+		wheel.advanceTo(now.get());
+		assertEquals(List.of("b"), ran);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void testTasksMayReschedule() {
+		AtomicLong now = new AtomicLong();
+		TimingWheel wheel = new TimingWheel(10, now::get);
+		List<Long> ran = new ArrayList<>();
+
+		Runnable[] task = new Runnable[1];
+		task[0] = () -> {
+			ran.add(now.get());
+			if (ran.size() < 3) {
+				wheel.schedule(50, task[0]);
+			}
+		};
+		wheel.schedule(50, task[0]);
+
+		for (int i = 0; i < 30; ++i) {
+			now.addAndGet(10);
+			wheel.advanceTo(now.get());
+		}
+		assertEquals(List.of(50L, 100L, 150L), ran);
+	}
+
+	@Test
+	void testFarDeadlines() {
+		AtomicLong now = new AtomicLong();
+		TimingWheel wheel = new TimingWheel(1, now::get);
+		AtomicLong ranAt = new AtomicLong(-1);
+
+		/* Further than the highest level reaches. */
+		long delay = 20_000_000;
+		wheel.schedule(delay, () -> ranAt.set(now.get()));
+
+		now.set(delay - 1);
+		wheel.advanceTo(now.get());
+		assertEquals(-1, ranAt.get());
+
+		now.set(delay);
+		wheel.advanceTo(now.get());
+		assertEquals(delay, ranAt.get());
+	}
+}
@@ -0,0 +1,65 @@
+package ch.unibas.dmi.dbis.cs108.letuscook.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+	@Test
+	void testAllowsBurstThenRefuses() {
+		AtomicLong now = new AtomicLong();
+		TokenBucket bucket = new TokenBucket(10, 5, now::get);
+
+		for (int i = 0; i < 5; ++i) {
+			assertTrue(bucket.tryTake());
+		}
+		assertFalse(bucket.tryTake());
+	}
+
+	@Test
+	void testRefillsAtRate() {
+		AtomicLong now = new AtomicLong();
+		TokenBucket bucket = new TokenBucket(10, 5, now::get);
+		for (int i = 0; i < 5; ++i) {
+			bucket.tryTake();
+		}
+
+		/* 10 tokens per second make one token per 100 ms. */
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(99));
+		assertFalse(bucket.tryTake());
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+		assertTrue(bucket.tryTake());
+		assertFalse(bucket.tryTake());
+	}
+
+	@Test
+	void testRefillStopsAtBurst() {
+		AtomicLong now = new AtomicLong();
+		TokenBucket bucket = new TokenBucket(10, 3, now::get);
+		for (int i = 0; i < 3; ++i) {
+			bucket.tryTake();
+		}
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+		for (int i = 0; i < 3; ++i) {
+			assertTrue(bucket.tryTake());
+		}
+		assertFalse(bucket.tryTake());
+	}
+
+	@Test
+	void testToleratesClockGoingBack() {
+		AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+		TokenBucket bucket = new TokenBucket(10, 1, now::get);
+		assertTrue(bucket.tryTake());
+
+		now.set(0);
+		assertFalse(bucket.tryTake());
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+		assertTrue(bucket.tryTake());
+	}
+}